@@ -4,12 +4,14 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.env.Environment;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.support.TaskExecutorAdapter;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.annotation.AsyncConfigurer;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import java.lang.Runtime;
 import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
 
 @Configuration
 @EnableAsync
@@ -19,8 +21,15 @@ public class AsyncConfig implements AsyncConfigurer {
     @Value("${multithread.core_pool_size:#{T(java.lang.Runtime).getRuntime().availableProcessors()}}")
     private int corePoolSize;
 
+    @Value("${multithread.virtual_threads.enabled:false}")
+    private boolean virtualThreadsEnabled;
+
     @Override
     public Executor getAsyncExecutor() {
+        if (virtualThreadsEnabled) {
+            // a virtual thread per task, the concurrency is limited per downstream resource (see VirtualThreadConfig)
+            return new TaskExecutorAdapter(Executors.newVirtualThreadPerTaskExecutor());
+        }
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
         executor.setCorePoolSize(corePoolSize);
         executor.setThreadNamePrefix("ThreadPoolTaskExecutor-");
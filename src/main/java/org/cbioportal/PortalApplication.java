@@ -20,6 +20,8 @@ import org.springframework.context.annotation.PropertySources;
 })
 public class PortalApplication {
     public static void main(String[] args) {
-        SpringApplication.run(PortalApplication.class, args);
+        SpringApplication application = new SpringApplication(PortalApplication.class);
+        application.addListeners(new VirtualThreadSchedulerConfigurer());
+        application.run(args);
     }
 }
@@ -0,0 +1,50 @@
+package org.cbioportal;
+
+import org.cbioportal.persistence.util.ConcurrencyLimitedDataSource;
+import org.cbioportal.utils.concurrency.ConcurrencyLimit;
+import org.cbioportal.utils.concurrency.ConcurrencyLimits;
+import org.cbioportal.utils.config.annotation.ConditionalOnProperty;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.util.concurrent.Executors;
+
+/**
+ * Runs request handling on virtual threads (multithread.virtual_threads.enabled), so that requests that wait on the
+ * database, Redis or the session service do not hold a thread of the fixed Tomcat pool. The number of concurrent
+ * requests to each of these resources is limited by {@link ConcurrencyLimits} instead. @Async tasks run on virtual
+ * threads as well, see {@link AsyncConfig}.
+ *
+ * Only applies to the embedded Tomcat; when the portal is deployed in a Tomcat installation, configure its connector
+ * executor instead.
+ */
+@Configuration
+@ConditionalOnProperty(name = "multithread.virtual_threads.enabled", havingValue = "true")
+public class VirtualThreadConfig {
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+        return protocolHandler -> protocolHandler.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    // static, as post processors are created before the other beans of the configuration
+    @Bean
+    public static BeanPostProcessor concurrencyLimitedDataSourcePostProcessor(
+        ObjectProvider<ConcurrencyLimits> concurrencyLimits) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource) || bean instanceof ConcurrencyLimitedDataSource) {
+                    return bean;
+                }
+                ConcurrencyLimit databaseLimit = concurrencyLimits.getObject().getDatabase();
+                return databaseLimit.isLimited() ? new ConcurrencyLimitedDataSource((DataSource) bean, databaseLimit)
+                    : bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,62 @@
+package org.cbioportal;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationEnvironmentPreparedEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.core.env.Environment;
+
+/**
+ * Sizes the carrier threads of the virtual threads (multithread.virtual_threads.enabled, see
+ * {@link VirtualThreadConfig}). MySQL Connector/J 8.0 waits on the network inside synchronized blocks, which pins a
+ * virtual thread to its carrier thread for the duration of a query. Up to multithread.limit.database queries run at
+ * the same time, so the scheduler gets that many carrier threads on top of one per processor, and the other requests
+ * keep running while all connections are busy.
+ *
+ * The JDK reads jdk.virtualThreadScheduler.parallelism when the first virtual thread is created, so the property is set
+ * as soon as the environment is prepared, before any bean exists. A value set on the command line is kept, as long as
+ * it leaves carrier threads for requests that do not wait on the database.
+ */
+public class VirtualThreadSchedulerConfigurer implements ApplicationListener<ApplicationEnvironmentPreparedEvent> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(VirtualThreadSchedulerConfigurer.class);
+
+    static final String PARALLELISM_PROPERTY = "jdk.virtualThreadScheduler.parallelism";
+
+    @Override
+    public void onApplicationEvent(ApplicationEnvironmentPreparedEvent event) {
+        Environment environment = event.getEnvironment();
+        if (!environment.getProperty("multithread.virtual_threads.enabled", Boolean.class, false)) {
+            return;
+        }
+        // the same default as in ConcurrencyLimits
+        int databaseLimit = environment.getProperty("multithread.limit.database", Integer.class,
+            environment.getProperty("spring.datasource.hikari.maximum-pool-size", Integer.class, 10));
+        configureParallelism(databaseLimit);
+    }
+
+    /**
+     * @param databaseLimit the maximum number of concurrent queries
+     * @throws IllegalStateException if the number of concurrent queries is not limited, or if the parallelism set on
+     * the command line would let queries occupy all carrier threads
+     */
+    public static void configureParallelism(int databaseLimit) {
+        if (databaseLimit <= 0) {
+            throw new IllegalStateException("multithread.limit.database must be set when virtual threads are " +
+                "enabled, as every running query occupies a carrier thread");
+        }
+        String parallelism = System.getProperty(PARALLELISM_PROPERTY);
+        if (parallelism == null) {
+            int requiredParallelism = getRequiredParallelism(databaseLimit, Runtime.getRuntime().availableProcessors());
+            LOG.info("Running virtual threads on " + requiredParallelism + " carrier threads");
+            System.setProperty(PARALLELISM_PROPERTY, String.valueOf(requiredParallelism));
+        } else if (Integer.parseInt(parallelism) <= databaseLimit) {
+            throw new IllegalStateException(PARALLELISM_PROPERTY + " (" + parallelism + ") must be larger than " +
+                "multithread.limit.database (" + databaseLimit + "), as every running query occupies a carrier thread");
+        }
+    }
+
+    static int getRequiredParallelism(int databaseLimit, int availableProcessors) {
+        return databaseLimit + availableProcessors;
+    }
+}
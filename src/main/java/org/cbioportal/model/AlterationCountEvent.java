@@ -0,0 +1,104 @@
+package org.cbioportal.model;
+
+import java.io.Serializable;
+
+/**
+ * One mutation, discrete copy number or structural variant event of a sample in a gene, with the attributes the
+ * alteration counts can be filtered on. Used to build the in-memory alteration count index of a molecular profile.
+ */
+public class AlterationCountEvent implements Serializable {
+
+    private Integer sampleId;
+    private Integer entrezGeneId;
+    private String hugoGeneSymbol;
+    private String mutationType;
+    // discrete copy number alteration code
+    private Integer alteration;
+    // mutation status or structural variant status
+    private String status;
+    private String driverFilter;
+    private String driverTiersFilter;
+    private String cytoband;
+    // null when the gene is not part of the reference genome of the study
+    private Integer referenceGenomeEntrezGeneId;
+
+    public Integer getSampleId() {
+        return sampleId;
+    }
+
+    public void setSampleId(Integer sampleId) {
+        this.sampleId = sampleId;
+    }
+
+    public Integer getEntrezGeneId() {
+        return entrezGeneId;
+    }
+
+    public void setEntrezGeneId(Integer entrezGeneId) {
+        this.entrezGeneId = entrezGeneId;
+    }
+
+    public String getHugoGeneSymbol() {
+        return hugoGeneSymbol;
+    }
+
+    public void setHugoGeneSymbol(String hugoGeneSymbol) {
+        this.hugoGeneSymbol = hugoGeneSymbol;
+    }
+
+    public String getMutationType() {
+        return mutationType;
+    }
+
+    public void setMutationType(String mutationType) {
+        this.mutationType = mutationType;
+    }
+
+    public Integer getAlteration() {
+        return alteration;
+    }
+
+    public void setAlteration(Integer alteration) {
+        this.alteration = alteration;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getDriverFilter() {
+        return driverFilter;
+    }
+
+    public void setDriverFilter(String driverFilter) {
+        this.driverFilter = driverFilter;
+    }
+
+    public String getDriverTiersFilter() {
+        return driverTiersFilter;
+    }
+
+    public void setDriverTiersFilter(String driverTiersFilter) {
+        this.driverTiersFilter = driverTiersFilter;
+    }
+
+    public String getCytoband() {
+        return cytoband;
+    }
+
+    public void setCytoband(String cytoband) {
+        this.cytoband = cytoband;
+    }
+
+    public Integer getReferenceGenomeEntrezGeneId() {
+        return referenceGenomeEntrezGeneId;
+    }
+
+    public void setReferenceGenomeEntrezGeneId(Integer referenceGenomeEntrezGeneId) {
+        this.referenceGenomeEntrezGeneId = referenceGenomeEntrezGeneId;
+    }
+}
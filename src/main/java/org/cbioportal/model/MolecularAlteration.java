@@ -16,6 +16,13 @@ public abstract class MolecularAlteration implements Serializable {
         this.values = values;
     }
 
+    /**
+     * @return the unsplit values for all samples, comma (,) separated
+     */
+    public String getValues() {
+        return values;
+    }
+
     /**
      * Returns the values attribute split on (,).
      * 
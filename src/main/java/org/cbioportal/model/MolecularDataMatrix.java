@@ -0,0 +1,186 @@
+package org.cbioportal.model;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Parsed, read-only copy of the genetic_alteration.VALUES column of all genetic entities in one molecular profile.
+ *
+ * Every row holds the values of one genetic entity (gene, gene set or generic assay entity). Every column is the
+ * position of a sample in the genetic_profile_samples.ORDERED_SAMPLE_LIST column, so a value is addressed by
+ * (row index, sample index) without creating any intermediate strings. Values that are not numbers (e.g. NA or
+ * empty) are returned as {@link Double#NaN}.
+ *
+ * Rows are stored in blocks, each with the narrowest primitive width that holds every value of its rows without loss:
+ * one byte (e.g. discrete copy number), four bytes (float) or eight bytes (double). The blocks are either on the heap
+ * or memory-mapped from a spill file.
+ */
+public class MolecularDataMatrix implements MolecularDataRows {
+
+    public static final int BYTE_WIDTH = Byte.BYTES;
+    public static final int FLOAT_WIDTH = Float.BYTES;
+    public static final int DOUBLE_WIDTH = Double.BYTES;
+    public static final byte BYTE_NA = Byte.MIN_VALUE;
+
+    private final String molecularProfileId;
+    private final String cancerStudyIdentifier;
+    private final int[] internalSampleIds;
+    private final int[] sortedInternalSampleIds;
+    private final int[] sortedSampleIndexes;
+    private final String[] stableIds;
+    private final Map<String, Integer> rowIndexByStableId;
+    private final int rowsPerBlock;
+    private final ByteBuffer[] blocks;
+    private final int[] valueWidths;
+
+    /**
+     * @param internalSampleIds internal sample ids in ORDERED_SAMPLE_LIST order
+     * @param stableIds stable ids of the genetic entities, one per row
+     * @param rowsPerBlock number of consecutive rows stored in each block
+     * @param blocks row-major value storage, each block holding rowsPerBlock rows (the last block may hold fewer)
+     * @param valueWidths number of bytes per value of every block: {@link #BYTE_WIDTH}, {@link #FLOAT_WIDTH} or
+     *                    {@link #DOUBLE_WIDTH}
+     */
+    public MolecularDataMatrix(String molecularProfileId, String cancerStudyIdentifier, int[] internalSampleIds,
+                               String[] stableIds, int rowsPerBlock, ByteBuffer[] blocks, int[] valueWidths) {
+
+        for (int valueWidth : valueWidths) {
+            if (valueWidth != BYTE_WIDTH && valueWidth != FLOAT_WIDTH && valueWidth != DOUBLE_WIDTH) {
+                throw new IllegalArgumentException("Unsupported value width: " + valueWidth);
+            }
+        }
+        this.molecularProfileId = molecularProfileId;
+        this.cancerStudyIdentifier = cancerStudyIdentifier;
+        this.internalSampleIds = internalSampleIds;
+        this.stableIds = stableIds;
+        this.rowsPerBlock = rowsPerBlock;
+        this.blocks = blocks;
+        this.valueWidths = valueWidths;
+
+        // sorted copy of the internal sample ids so sample lookups are a binary search on primitives
+        Integer[] order = new Integer[internalSampleIds.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Integer.compare(internalSampleIds[a], internalSampleIds[b]));
+        sortedInternalSampleIds = new int[order.length];
+        sortedSampleIndexes = new int[order.length];
+        for (int i = 0; i < order.length; i++) {
+            sortedInternalSampleIds[i] = internalSampleIds[order[i]];
+            sortedSampleIndexes[i] = order[i];
+        }
+
+        rowIndexByStableId = new HashMap<>(stableIds.length * 2);
+        for (int row = 0; row < stableIds.length; row++) {
+            rowIndexByStableId.putIfAbsent(stableIds[row], row);
+        }
+    }
+
+    public String getMolecularProfileId() {
+        return molecularProfileId;
+    }
+
+    public String getCancerStudyIdentifier() {
+        return cancerStudyIdentifier;
+    }
+
+    @Override
+    public int getNumberOfSamples() {
+        return internalSampleIds.length;
+    }
+
+    public int getNumberOfRows() {
+        return stableIds.length;
+    }
+
+    public int getInternalSampleId(int sampleIndex) {
+        return internalSampleIds[sampleIndex];
+    }
+
+    @Override
+    public int getSampleIndex(int internalSampleId) {
+        int position = Arrays.binarySearch(sortedInternalSampleIds, internalSampleId);
+        return position < 0 ? -1 : sortedSampleIndexes[position];
+    }
+
+    public String getStableId(int rowIndex) {
+        return stableIds[rowIndex];
+    }
+
+    /**
+     * @return row of the genetic entity, or -1 when the entity has no data in the profile
+     */
+    public int getRowIndex(String stableId) {
+        Integer rowIndex = rowIndexByStableId.get(stableId);
+        return rowIndex == null ? -1 : rowIndex;
+    }
+
+    /**
+     * @return the widest number of bytes per value of all blocks
+     */
+    public int getValueWidth() {
+        int valueWidth = BYTE_WIDTH;
+        for (int blockValueWidth : valueWidths) {
+            valueWidth = Math.max(valueWidth, blockValueWidth);
+        }
+        return valueWidth;
+    }
+
+    public double getValue(int rowIndex, int sampleIndex) {
+        int blockIndex = rowIndex / rowsPerBlock;
+        ByteBuffer block = blocks[blockIndex];
+        int valueWidth = valueWidths[blockIndex];
+        int offset = ((rowIndex % rowsPerBlock) * internalSampleIds.length + sampleIndex) * valueWidth;
+        switch (valueWidth) {
+            case BYTE_WIDTH:
+                byte value = block.get(offset);
+                return value == BYTE_NA ? Double.NaN : value;
+            case FLOAT_WIDTH:
+                return block.getFloat(offset);
+            default:
+                return block.getDouble(offset);
+        }
+    }
+
+    /**
+     * Copies the values of the given samples into target, in the order of sampleIndexes.
+     */
+    public void getValues(int rowIndex, int[] sampleIndexes, double[] target) {
+        for (int i = 0; i < sampleIndexes.length; i++) {
+            target[i] = getValue(rowIndex, sampleIndexes[i]);
+        }
+    }
+
+    @Override
+    public boolean readRow(String stableId, double[] target) {
+        int rowIndex = getRowIndex(stableId);
+        if (rowIndex < 0) {
+            return false;
+        }
+        for (int sampleIndex = 0; sampleIndex < internalSampleIds.length; sampleIndex++) {
+            target[sampleIndex] = getValue(rowIndex, sampleIndex);
+        }
+        return true;
+    }
+
+    @Override
+    public void forEachRow(RowVisitor visitor) {
+        double[] values = new double[internalSampleIds.length];
+        for (int rowIndex = 0; rowIndex < stableIds.length; rowIndex++) {
+            for (int sampleIndex = 0; sampleIndex < values.length; sampleIndex++) {
+                values[sampleIndex] = getValue(rowIndex, sampleIndex);
+            }
+            visitor.visitRow(stableIds[rowIndex], values);
+        }
+    }
+
+    public long getSizeInBytes() {
+        long size = 0;
+        for (ByteBuffer block : blocks) {
+            size += block.capacity();
+        }
+        return size + (long) internalSampleIds.length * Integer.BYTES * 3;
+    }
+}
@@ -0,0 +1,39 @@
+package org.cbioportal.model;
+
+/**
+ * Parsed values of the genetic_alteration.VALUES column of all genetic entities in one molecular profile, read row by
+ * row. Columns are the positions of the samples in the genetic_profile_samples.ORDERED_SAMPLE_LIST column, values
+ * that are not numbers are {@link Double#NaN}.
+ *
+ * A {@link MolecularDataMatrix} holds all rows; other implementations parse each row while it is read from the
+ * database, for profiles that are not kept in memory.
+ */
+public interface MolecularDataRows {
+
+    @FunctionalInterface
+    interface RowVisitor {
+        /**
+         * @param values value of every sample of the profile, only valid during the call
+         */
+        void visitRow(String stableId, double[] values);
+    }
+
+    int getNumberOfSamples();
+
+    /**
+     * @return position of the sample in ORDERED_SAMPLE_LIST, or -1 when the sample is not part of the profile
+     */
+    int getSampleIndex(int internalSampleId);
+
+    /**
+     * Copies the value of every sample of the genetic entity into target.
+     *
+     * @return false when the entity has no data in the profile
+     */
+    boolean readRow(String stableId, double[] target);
+
+    /**
+     * Calls the visitor with every row, in order.
+     */
+    void forEachRow(RowVisitor visitor);
+}
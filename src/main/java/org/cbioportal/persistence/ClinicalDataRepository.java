@@ -39,6 +39,11 @@ public interface ClinicalDataRepository {
     List<ClinicalData> fetchAllClinicalDataInStudy(String studyId, List<String> ids, List<String> attributeIds, 
                                                    String clinicalDataType, String projection);
 
+    // Same as fetchClinicalData above, except that the clinical data is read from the database while iterating,
+    // which needs a transaction set up by the caller. Not cached.
+    Iterable<ClinicalData> fetchClinicalDataIterable(List<String> studyIds, List<String> ids, List<String> attributeIds,
+                                                     String clinicalDataType, String projection);
+
     @Cacheable(cacheResolver = "generalRepositoryCacheResolver", condition = "@cacheEnabledConfig.getEnabled()")
     BaseMeta fetchMetaClinicalDataInStudy(String studyId, List<String> ids, List<String> attributeIds, 
                                           String clinicalDataType);
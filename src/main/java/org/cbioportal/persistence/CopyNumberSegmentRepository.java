@@ -23,6 +23,11 @@ public interface CopyNumberSegmentRepository {
     @Cacheable(cacheResolver = "generalRepositoryCacheResolver", condition = "@cacheEnabledConfig.getEnabled()")
     List<CopyNumberSeg> fetchCopyNumberSegments(List<String> studyIds, List<String> sampleIds, String chromosome, String projection);
 
+    // Same as fetchCopyNumberSegments above, except that the segments are read from the database while iterating,
+    // which needs a transaction set up by the caller. Not cached.
+    Iterable<CopyNumberSeg> fetchCopyNumberSegmentsIterable(List<String> studyIds, List<String> sampleIds,
+                                                            String chromosome, String projection);
+
     @Cacheable(cacheResolver = "generalRepositoryCacheResolver", condition = "@cacheEnabledConfig.getEnabled()")
     BaseMeta fetchMetaCopyNumberSegments(List<String> studyIds, List<String> sampleIds, String chromosome);
 
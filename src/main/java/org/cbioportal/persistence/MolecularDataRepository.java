@@ -7,6 +7,7 @@ import java.util.Set;
 import org.cbioportal.model.GeneMolecularAlteration;
 import org.cbioportal.model.GenericAssayMolecularAlteration;
 import org.cbioportal.model.GenesetMolecularAlteration;
+import org.cbioportal.model.MolecularDataRows;
 import org.springframework.cache.annotation.Cacheable;
 import org.cbioportal.model.MolecularProfileSamples;
 
@@ -47,4 +48,9 @@ public interface MolecularDataRepository {
 	Iterable<GenericAssayMolecularAlteration> getGenericAssayMolecularAlterationsIterable(String molecularProfileId,
 			List<String> stableIds, String projection);
 
+    // Not cached by the general repository cache: the parsed matrix of a whole profile is held by
+    // MolecularDataMatrixCache instead, which keeps it as primitive arrays rather than serializing it. Profiles that
+    // are not retained are parsed row by row while they are read.
+    MolecularDataRows getMolecularDataRows(String molecularProfileId);
+
 }
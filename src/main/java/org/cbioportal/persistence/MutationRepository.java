@@ -28,6 +28,14 @@ public interface MutationRepository {
                                                            Integer pageSize, Integer pageNumber,
                                                            String sortBy, String direction);
 
+    // Same as getMutationsInMultipleMolecularProfiles above, except that the mutations are read from the database
+    // while iterating, which needs a transaction set up by the caller. Not cached.
+    Iterable<Mutation> getMutationsInMultipleMolecularProfilesIterable(List<String> molecularProfileIds,
+                                                                       List<String> sampleIds,
+                                                                       List<Integer> entrezGeneIds, String projection,
+                                                                       Integer pageSize, Integer pageNumber,
+                                                                       String sortBy, String direction);
+
     @Cacheable(cacheResolver = "generalRepositoryCacheResolver", condition = "@cacheEnabledConfig.getEnabled()")
     List<Mutation> getMutationsInMultipleMolecularProfilesByGeneQueries(List<String> molecularProfileIds,
                                                                       List<String> sampleIds,
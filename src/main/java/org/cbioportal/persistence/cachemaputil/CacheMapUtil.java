@@ -15,4 +15,12 @@ public interface CacheMapUtil {
     
     boolean hasCacheEnabled();
 
+    /**
+     * @return a number that changes whenever the maps are rebuilt, so that data derived from them can be kept until
+     * then, or -1 if the maps are not held by this instance and derived data must not be kept
+     */
+    default long getGeneration() {
+        return -1;
+    }
+
 }
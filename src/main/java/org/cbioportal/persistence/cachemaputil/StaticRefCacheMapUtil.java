@@ -44,6 +44,7 @@ import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Component
 // Instantiate when user authorization is active and spring-managed implementation is not needed
@@ -66,6 +67,8 @@ public class StaticRefCacheMapUtil implements CacheMapUtil {
     static Map<String, MolecularProfile> molecularProfileCache;
     static Map<String, SampleList> sampleListCache;
     static Map<String, CancerStudy> cancerStudyCache;
+    // incremented after the maps are replaced, see getGeneration()
+    static final AtomicLong generation = new AtomicLong();
 
     @PostConstruct
     private void init() {
@@ -77,6 +80,7 @@ public class StaticRefCacheMapUtil implements CacheMapUtil {
         molecularProfileCache = cacheMapBuilder.buildMolecularProfileMap();
         sampleListCache = cacheMapBuilder.buildSampleListMap();
         cancerStudyCache = cacheMapBuilder.buildCancerStudyMap();
+        generation.incrementAndGet();
     }
 
     @Override
@@ -99,4 +103,9 @@ public class StaticRefCacheMapUtil implements CacheMapUtil {
         return true;
     }
 
+    @Override
+    public long getGeneration() {
+        return generation.get();
+    }
+
 }
@@ -2,13 +2,13 @@ package org.cbioportal.persistence.config;
 
 import org.cbioportal.persistence.util.CustomEhcachingProvider;
 import org.cbioportal.persistence.util.CustomKeyGenerator;
+import org.cbioportal.persistence.util.StudyIndexedJCacheCacheManager;
 import org.cbioportal.utils.config.annotation.ConditionalOnProperty;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CachingConfigurerSupport;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.cache.interceptor.KeyGenerator;
 import org.springframework.cache.interceptor.NamedCacheResolver;
-import org.springframework.cache.jcache.JCacheCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -20,7 +20,7 @@ public class EhCacheConfig extends CachingConfigurerSupport {
     @Bean
     @Override
     public CacheManager cacheManager() {
-        return new JCacheCacheManager(
+        return new StudyIndexedJCacheCacheManager(
             customEhcachingProvider().getCacheManager()
         );
     }
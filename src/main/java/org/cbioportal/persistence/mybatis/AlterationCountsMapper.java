@@ -2,6 +2,7 @@ package org.cbioportal.persistence.mybatis;
 
 import org.cbioportal.model.AlterationCountByGene;
 import org.cbioportal.model.AlterationCountByStructuralVariant;
+import org.cbioportal.model.AlterationCountEvent;
 import org.cbioportal.model.CopyNumberCountByGene;
 import org.cbioportal.model.MolecularProfileCaseIdentifier;
 import org.cbioportal.model.util.Select;
@@ -88,6 +89,33 @@ public interface AlterationCountsMapper {
                                                     Select<String> selectedTiers,
                                                     boolean includeUnknownTier);
 
+    /**
+     * All sample-level mutation events of a molecular profile, with the attributes the alteration counts are filtered on.
+     * Used to build an {@link org.cbioportal.persistence.mybatis.util.AlterationCountIndex}.
+     */
+    List<AlterationCountEvent> getMutationCountEvents(int molecularProfileId);
+
+    /**
+     * All sample-level discrete copy number events of a molecular profile, with the attributes the alteration counts
+     * are filtered on and the cytoband of the gene in the reference genome of the study.
+     */
+    List<AlterationCountEvent> getCnaCountEvents(int molecularProfileId);
+
+    /**
+     * All sample-level structural variant events of a molecular profile, one for each (distinct) gene of the variant.
+     */
+    List<AlterationCountEvent> getStructuralVariantCountEvents(int molecularProfileId);
+
+    /**
+     * The number of rows of {@link #getMutationCountEvents(int)}, {@link #getCnaCountEvents(int)} and (at least)
+     * {@link #getStructuralVariantCountEvents(int)}, to tell whether an index of the profile could be retained.
+     */
+    int getNumberOfMutationCountEvents(int molecularProfileId);
+
+    int getNumberOfCnaCountEvents(int molecularProfileId);
+
+    int getNumberOfStructuralVariantCountEvents(int molecularProfileId);
+
     List<MolecularProfileCaseIdentifier> getMolecularProfileCaseInternalIdentifier(List<MolecularProfileCaseIdentifier> molecularProfileSampleIdentifiers, String caseType);
 
     /**
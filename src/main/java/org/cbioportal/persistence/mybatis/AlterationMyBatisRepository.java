@@ -12,10 +12,19 @@ import org.cbioportal.model.MolecularProfile.MolecularAlterationType;
 import org.cbioportal.model.util.Select;
 import org.cbioportal.persistence.AlterationRepository;
 import org.cbioportal.persistence.MolecularProfileRepository;
+import org.cbioportal.persistence.mybatis.util.AlterationCountIndex;
+import org.cbioportal.persistence.mybatis.util.AlterationCountIndex.EventFilter;
+import org.cbioportal.persistence.mybatis.util.AlterationCountIndex.EventType;
+import org.cbioportal.persistence.mybatis.util.AlterationCountIndex.GeneCount;
+import org.cbioportal.persistence.mybatis.util.AlterationCountIndexCache;
+import org.cbioportal.persistence.mybatis.util.IdListStaging;
+import org.cbioportal.persistence.mybatis.util.StudyCaseDictionaryCache;
+import org.roaringbitmap.RoaringBitmap;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 
 import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Repository
@@ -25,6 +34,12 @@ public class AlterationMyBatisRepository implements AlterationRepository {
     private AlterationCountsMapper alterationCountsMapper;
     @Autowired
     private MolecularProfileRepository molecularProfileRepository;
+    @Autowired
+    private AlterationCountIndexCache alterationCountIndexCache;
+    @Autowired
+    private IdListStaging idListStaging;
+    @Autowired
+    private StudyCaseDictionaryCache studyCaseDictionaryCache;
 
     @Override
     public List<AlterationCountByGene> getSampleAlterationGeneCounts(Set<MolecularProfileCaseIdentifier> molecularProfileCaseIdentifiers,
@@ -45,18 +60,46 @@ public class AlterationMyBatisRepository implements AlterationRepository {
         Set<String> molecularProfileIds = molecularProfileCaseIdentifiers.stream()
                 .map(MolecularProfileCaseIdentifier::getMolecularProfileId)
                 .collect(Collectors.toSet());
-        Map<String, MolecularAlterationType> profileTypeByProfileId = molecularProfileRepository
-            .getMolecularProfiles(molecularProfileIds, "SUMMARY")
+        List<MolecularProfile> molecularProfiles = getMolecularProfiles(molecularProfileIds);
+        Map<String, MolecularAlterationType> profileTypeByProfileId = molecularProfiles
             .stream()
             .collect(Collectors.toMap(datum -> datum.getMolecularProfileId().toString(), MolecularProfile::getMolecularAlterationType));
+        List<MolecularProfileCaseIdentifier> molecularProfileCaseInternalIdentifiers =
+            getMolecularProfileCaseInternalIdentifiers(molecularProfileCaseIdentifiers, "SAMPLE_ID");
+
+        if (useAlterationCountIndexes(molecularProfiles)) {
+            Map<Long, GeneCount> geneCounts = new HashMap<>();
+            EventFilter eventFilter = createEventFilter(alterationFilter);
+            Set<Integer> selectedEntrezGeneIds = getSelectedEntrezGeneIds(entrezGeneIds);
+            Map<String, RoaringBitmap> samplesByProfileId = getCasesByProfileId(molecularProfileCaseInternalIdentifiers);
+            for (MolecularProfile molecularProfile : molecularProfiles) {
+                RoaringBitmap samples = samplesByProfileId.get(molecularProfile.getMolecularProfileId().toString());
+                EventType eventType = getEventType(molecularProfile.getMolecularAlterationType());
+                if (samples != null && eventType != null) {
+                    getAlterationCountIndex(molecularProfile, eventType)
+                        .addGeneCounts(samples, selectedEntrezGeneIds, eventFilter, geneCounts);
+                }
+            }
+            return geneCounts.values().stream()
+                .sorted(Comparator.comparing(GeneCount::getEntrezGeneId))
+                .map(this::createAlterationCountByGene)
+                .collect(Collectors.toList());
+        }
+
         Map<MolecularAlterationType, List<MolecularProfileCaseIdentifier>> groupedIdentifiersByProfileType =
-            alterationCountsMapper.getMolecularProfileCaseInternalIdentifier(new ArrayList<>(molecularProfileCaseIdentifiers), "SAMPLE_ID")
+            molecularProfileCaseInternalIdentifiers
             .stream()
             .collect(Collectors.groupingBy(e -> profileTypeByProfileId.getOrDefault(e.getMolecularProfileId(), null)));
-        return alterationCountsMapper.getSampleAlterationGeneCounts(
-            groupedIdentifiersByProfileType.get(MolecularAlterationType.MUTATION_EXTENDED),
-            groupedIdentifiersByProfileType.get(MolecularAlterationType.COPY_NUMBER_ALTERATION),
-            groupedIdentifiersByProfileType.get(MolecularAlterationType.STRUCTURAL_VARIANT),
+        List<MolecularProfileCaseIdentifier> mutationIdentifiers =
+            groupedIdentifiersByProfileType.get(MolecularAlterationType.MUTATION_EXTENDED);
+        List<MolecularProfileCaseIdentifier> cnaIdentifiers =
+            groupedIdentifiersByProfileType.get(MolecularAlterationType.COPY_NUMBER_ALTERATION);
+        List<MolecularProfileCaseIdentifier> structuralVariantIdentifiers =
+            groupedIdentifiersByProfileType.get(MolecularAlterationType.STRUCTURAL_VARIANT);
+        return idListStaging.query(stager -> alterationCountsMapper.getSampleAlterationGeneCounts(
+            stager.stageInternalCases(mutationIdentifiers),
+            stager.stageInternalCases(cnaIdentifiers),
+            stager.stageInternalCases(structuralVariantIdentifiers),
             entrezGeneIds,
             createMutationTypeList(alterationFilter),
             createCnaTypeList(alterationFilter),
@@ -67,7 +110,8 @@ public class AlterationMyBatisRepository implements AlterationRepository {
             alterationFilter.getIncludeUnknownTier(),
             alterationFilter.getIncludeGermline(),
             alterationFilter.getIncludeSomatic(),
-            alterationFilter.getIncludeUnknownStatus());
+            alterationFilter.getIncludeUnknownStatus()),
+            mutationIdentifiers, cnaIdentifiers, structuralVariantIdentifiers);
     }
 
     @Override
@@ -88,21 +132,26 @@ public class AlterationMyBatisRepository implements AlterationRepository {
                 .map(MolecularProfileCaseIdentifier::getMolecularProfileId)
                 .collect(Collectors.toSet());
 
-        Map<String, MolecularAlterationType> profileTypeByProfileId = molecularProfileRepository
-            .getMolecularProfiles(molecularProfileIds, "SUMMARY")
+        Map<String, MolecularAlterationType> profileTypeByProfileId = getMolecularProfiles(molecularProfileIds)
             .stream()
             .collect(Collectors.toMap(datum -> datum.getMolecularProfileId().toString(), MolecularProfile::getMolecularAlterationType));
 
         Map<MolecularAlterationType, List<MolecularProfileCaseIdentifier>> groupedIdentifiersByProfileType =
-            alterationCountsMapper.getMolecularProfileCaseInternalIdentifier(new ArrayList<>(molecularProfileCaseIdentifiers), "PATIENT_ID")
+            getMolecularProfileCaseInternalIdentifiers(molecularProfileCaseIdentifiers, "PATIENT_ID")
             .stream()
             .collect(Collectors.groupingBy(e -> profileTypeByProfileId.getOrDefault(e.getMolecularProfileId(), null)));
 
 
-        return alterationCountsMapper.getPatientAlterationGeneCounts(
-            groupedIdentifiersByProfileType.get(MolecularAlterationType.MUTATION_EXTENDED),
-            groupedIdentifiersByProfileType.get(MolecularAlterationType.COPY_NUMBER_ALTERATION),
-            groupedIdentifiersByProfileType.get(MolecularAlterationType.STRUCTURAL_VARIANT),
+        List<MolecularProfileCaseIdentifier> mutationIdentifiers =
+            groupedIdentifiersByProfileType.get(MolecularAlterationType.MUTATION_EXTENDED);
+        List<MolecularProfileCaseIdentifier> cnaIdentifiers =
+            groupedIdentifiersByProfileType.get(MolecularAlterationType.COPY_NUMBER_ALTERATION);
+        List<MolecularProfileCaseIdentifier> structuralVariantIdentifiers =
+            groupedIdentifiersByProfileType.get(MolecularAlterationType.STRUCTURAL_VARIANT);
+        return idListStaging.query(stager -> alterationCountsMapper.getPatientAlterationGeneCounts(
+            stager.stageInternalCases(mutationIdentifiers),
+            stager.stageInternalCases(cnaIdentifiers),
+            stager.stageInternalCases(structuralVariantIdentifiers),
             entrezGeneIds,
             createMutationTypeList(alterationFilter),
             createCnaTypeList(alterationFilter),
@@ -113,8 +162,8 @@ public class AlterationMyBatisRepository implements AlterationRepository {
             alterationFilter.getIncludeUnknownTier(),
             alterationFilter.getIncludeGermline(),
             alterationFilter.getIncludeSomatic(),
-            alterationFilter.getIncludeUnknownStatus()
-        );
+            alterationFilter.getIncludeUnknownStatus()),
+            mutationIdentifiers, cnaIdentifiers, structuralVariantIdentifiers);
     }
 
     @Override
@@ -129,17 +178,48 @@ public class AlterationMyBatisRepository implements AlterationRepository {
         }
 
         List<MolecularProfileCaseIdentifier> molecularProfileCaseInternalIdentifiers =
-            alterationCountsMapper.getMolecularProfileCaseInternalIdentifier(new ArrayList<>(molecularProfileCaseIdentifiers), "SAMPLE_ID");
+            getMolecularProfileCaseInternalIdentifiers(molecularProfileCaseIdentifiers, "SAMPLE_ID");
 
-        return alterationCountsMapper.getSampleCnaGeneCounts(
-            molecularProfileCaseInternalIdentifiers,
+        List<MolecularProfile> cnaMolecularProfiles = alterationCountIndexCache.isEnabled() ?
+            getMolecularProfiles(molecularProfileCaseIdentifiers.stream()
+                .map(MolecularProfileCaseIdentifier::getMolecularProfileId)
+                .collect(Collectors.toSet()))
+                .stream()
+                .filter(m -> m.getMolecularAlterationType() == MolecularAlterationType.COPY_NUMBER_ALTERATION)
+                .collect(Collectors.toList()) :
+            Collections.emptyList();
+        if (useAlterationCountIndexes(cnaMolecularProfiles)) {
+            Set<Integer> selectedEntrezGeneIds = getSelectedEntrezGeneIds(entrezGeneIds);
+            if (molecularProfileCaseInternalIdentifiers.isEmpty()
+                || (selectedEntrezGeneIds != null && selectedEntrezGeneIds.isEmpty())) {
+                return new ArrayList<>();
+            }
+            Map<Long, GeneCount> geneCounts = new HashMap<>();
+            EventFilter eventFilter = createEventFilter(alterationFilter);
+            Map<String, RoaringBitmap> samplesByProfileId = getCasesByProfileId(molecularProfileCaseInternalIdentifiers);
+            for (MolecularProfile molecularProfile : cnaMolecularProfiles) {
+                RoaringBitmap samples = samplesByProfileId.get(molecularProfile.getMolecularProfileId().toString());
+                if (samples != null) {
+                    getAlterationCountIndex(molecularProfile, EventType.COPY_NUMBER_ALTERATION)
+                        .addCopyNumberGeneCounts(samples, selectedEntrezGeneIds, eventFilter, geneCounts);
+                }
+            }
+            return geneCounts.values().stream()
+                .sorted(Comparator.comparing(GeneCount::getEntrezGeneId).thenComparing(GeneCount::getAlteration))
+                .map(this::createCopyNumberCountByGene)
+                .collect(Collectors.toList());
+        }
+
+        return idListStaging.query(stager -> alterationCountsMapper.getSampleCnaGeneCounts(
+            stager.stageInternalCases(molecularProfileCaseInternalIdentifiers),
             entrezGeneIds,
             createCnaTypeList(alterationFilter),
             alterationFilter.getIncludeDriver(),
             alterationFilter.getIncludeVUS(),
             alterationFilter.getIncludeUnknownOncogenicity(),
             alterationFilter.getSelectedTiers(),
-            alterationFilter.getIncludeUnknownTier());
+            alterationFilter.getIncludeUnknownTier()),
+            molecularProfileCaseInternalIdentifiers);
     }
 
     @Override
@@ -153,17 +233,18 @@ public class AlterationMyBatisRepository implements AlterationRepository {
             return Collections.emptyList();
         }
         List<MolecularProfileCaseIdentifier> molecularProfileCaseInternalIdentifiers =
-            alterationCountsMapper.getMolecularProfileCaseInternalIdentifier(new ArrayList<>(molecularProfileCaseIdentifiers), "PATIENT_ID");
+            getMolecularProfileCaseInternalIdentifiers(molecularProfileCaseIdentifiers, "PATIENT_ID");
 
-        return alterationCountsMapper.getPatientCnaGeneCounts(
-            molecularProfileCaseInternalIdentifiers,
+        return idListStaging.query(stager -> alterationCountsMapper.getPatientCnaGeneCounts(
+            stager.stageInternalCases(molecularProfileCaseInternalIdentifiers),
             entrezGeneIds,
             createCnaTypeList(alterationFilter),
             alterationFilter.getIncludeDriver(),
             alterationFilter.getIncludeVUS(),
             alterationFilter.getIncludeUnknownOncogenicity(),
             alterationFilter.getSelectedTiers(),
-            alterationFilter.getIncludeUnknownTier());
+            alterationFilter.getIncludeUnknownTier()),
+            molecularProfileCaseInternalIdentifiers);
     }
 
     @Override
@@ -176,8 +257,9 @@ public class AlterationMyBatisRepository implements AlterationRepository {
             return Collections.emptyList();
         }
 
-        return alterationCountsMapper.getSampleStructuralVariantCounts(
-            new ArrayList<>(molecularProfileCaseIdentifiers),
+        List<MolecularProfileCaseIdentifier> identifiers = new ArrayList<>(molecularProfileCaseIdentifiers);
+        return idListStaging.query(stager -> alterationCountsMapper.getSampleStructuralVariantCounts(
+            stager.stageCases(identifiers),
             alterationFilter.getIncludeDriver(),
             alterationFilter.getIncludeVUS(),
             alterationFilter.getIncludeUnknownOncogenicity(),
@@ -185,7 +267,8 @@ public class AlterationMyBatisRepository implements AlterationRepository {
             alterationFilter.getIncludeUnknownTier(),
             alterationFilter.getIncludeGermline(),
             alterationFilter.getIncludeSomatic(),
-            alterationFilter.getIncludeUnknownStatus());
+            alterationFilter.getIncludeUnknownStatus()),
+            identifiers);
     }
 
     @Override
@@ -198,8 +281,9 @@ public class AlterationMyBatisRepository implements AlterationRepository {
             return Collections.emptyList();
         }
 
-        return alterationCountsMapper.getPatientStructuralVariantCounts(
-            new ArrayList<>(molecularProfileCaseIdentifiers),
+        List<MolecularProfileCaseIdentifier> identifiers = new ArrayList<>(molecularProfileCaseIdentifiers);
+        return idListStaging.query(stager -> alterationCountsMapper.getPatientStructuralVariantCounts(
+            stager.stageCases(identifiers),
             alterationFilter.getIncludeDriver(),
             alterationFilter.getIncludeVUS(),
             alterationFilter.getIncludeUnknownOncogenicity(),
@@ -207,9 +291,140 @@ public class AlterationMyBatisRepository implements AlterationRepository {
             alterationFilter.getIncludeUnknownTier(),
             alterationFilter.getIncludeGermline(),
             alterationFilter.getIncludeSomatic(),
-            alterationFilter.getIncludeUnknownStatus());
+            alterationFilter.getIncludeUnknownStatus()),
+            identifiers);
     }
     
+    private List<MolecularProfile> getMolecularProfiles(Set<String> molecularProfileIds) {
+        if (studyCaseDictionaryCache.isEnabled()) {
+            return new ArrayList<>(studyCaseDictionaryCache.getMolecularProfiles(molecularProfileIds).values());
+        }
+        return molecularProfileRepository.getMolecularProfiles(molecularProfileIds, "SUMMARY");
+    }
+
+    private List<MolecularProfileCaseIdentifier> getMolecularProfileCaseInternalIdentifiers(
+        Set<MolecularProfileCaseIdentifier> molecularProfileCaseIdentifiers, String caseType) {
+        if (studyCaseDictionaryCache.isEnabled()) {
+            return studyCaseDictionaryCache.getMolecularProfileCaseInternalIdentifiers(molecularProfileCaseIdentifiers,
+                caseType);
+        }
+        List<MolecularProfileCaseIdentifier> identifiers = new ArrayList<>(molecularProfileCaseIdentifiers);
+        return idListStaging.query(stager -> alterationCountsMapper.getMolecularProfileCaseInternalIdentifier(
+            stager.stageCases(identifiers), caseType), identifiers);
+    }
+
+    /**
+     * Counts are only computed from the indexes when the index of every profile is retained or would be retained once
+     * it is built. A profile whose index is larger than the limit of the cache would be scanned and indexed again on
+     * every request, which is slower than the count queries.
+     */
+    private boolean useAlterationCountIndexes(List<MolecularProfile> molecularProfiles) {
+        if (!alterationCountIndexCache.isEnabled()) {
+            return false;
+        }
+        for (MolecularProfile molecularProfile : molecularProfiles) {
+            EventType eventType = getEventType(molecularProfile.getMolecularAlterationType());
+            if (eventType != null && !alterationCountIndexCache.fits(molecularProfile, getEventCounter(eventType))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Function<Integer, Integer> getEventCounter(EventType eventType) {
+        switch (eventType) {
+            case MUTATION:
+                return alterationCountsMapper::getNumberOfMutationCountEvents;
+            case COPY_NUMBER_ALTERATION:
+                return alterationCountsMapper::getNumberOfCnaCountEvents;
+            default:
+                return alterationCountsMapper::getNumberOfStructuralVariantCountEvents;
+        }
+    }
+
+    private AlterationCountIndex getAlterationCountIndex(MolecularProfile molecularProfile, EventType eventType) {
+        switch (eventType) {
+            case MUTATION:
+                return alterationCountIndexCache.get(molecularProfile, eventType, alterationCountsMapper::getMutationCountEvents);
+            case COPY_NUMBER_ALTERATION:
+                return alterationCountIndexCache.get(molecularProfile, eventType, alterationCountsMapper::getCnaCountEvents);
+            default:
+                return alterationCountIndexCache.get(molecularProfile, eventType, alterationCountsMapper::getStructuralVariantCountEvents);
+        }
+    }
+
+    private EventType getEventType(MolecularAlterationType molecularAlterationType) {
+        if (molecularAlterationType == null) {
+            return null;
+        }
+        switch (molecularAlterationType) {
+            case MUTATION_EXTENDED:
+                return EventType.MUTATION;
+            case COPY_NUMBER_ALTERATION:
+                return EventType.COPY_NUMBER_ALTERATION;
+            case STRUCTURAL_VARIANT:
+                return EventType.STRUCTURAL_VARIANT;
+            default:
+                return null;
+        }
+    }
+
+    private EventFilter createEventFilter(AlterationFilter alterationFilter) {
+        return new EventFilter(
+            createMutationTypeList(alterationFilter),
+            createCnaTypeList(alterationFilter),
+            alterationFilter.getIncludeDriver(),
+            alterationFilter.getIncludeVUS(),
+            alterationFilter.getIncludeUnknownOncogenicity(),
+            alterationFilter.getSelectedTiers(),
+            alterationFilter.getIncludeUnknownTier(),
+            alterationFilter.getIncludeGermline(),
+            alterationFilter.getIncludeSomatic(),
+            alterationFilter.getIncludeUnknownStatus());
+    }
+
+    // null when all genes are selected
+    private Set<Integer> getSelectedEntrezGeneIds(Select<Integer> entrezGeneIds) {
+        if (entrezGeneIds == null || entrezGeneIds.hasNone()) {
+            return Collections.emptySet();
+        }
+        if (!entrezGeneIds.hasValues()) {
+            return null;
+        }
+        Set<Integer> selectedEntrezGeneIds = new HashSet<>();
+        entrezGeneIds.forEach(selectedEntrezGeneIds::add);
+        return selectedEntrezGeneIds;
+    }
+
+    private Map<String, RoaringBitmap> getCasesByProfileId(List<MolecularProfileCaseIdentifier> molecularProfileCaseInternalIdentifiers) {
+        Map<String, RoaringBitmap> casesByProfileId = new HashMap<>();
+        for (MolecularProfileCaseIdentifier identifier : molecularProfileCaseInternalIdentifiers) {
+            casesByProfileId.computeIfAbsent(identifier.getMolecularProfileId(), k -> new RoaringBitmap())
+                .add(Integer.parseInt(identifier.getCaseId()));
+        }
+        return casesByProfileId;
+    }
+
+    private AlterationCountByGene createAlterationCountByGene(GeneCount geneCount) {
+        AlterationCountByGene alterationCountByGene = new AlterationCountByGene();
+        alterationCountByGene.setEntrezGeneId(geneCount.getEntrezGeneId());
+        alterationCountByGene.setHugoGeneSymbol(geneCount.getHugoGeneSymbol());
+        alterationCountByGene.setTotalCount(geneCount.getTotalCount());
+        alterationCountByGene.setNumberOfAlteredCases(geneCount.getNumberOfAlteredSamples());
+        return alterationCountByGene;
+    }
+
+    private CopyNumberCountByGene createCopyNumberCountByGene(GeneCount geneCount) {
+        CopyNumberCountByGene copyNumberCountByGene = new CopyNumberCountByGene();
+        copyNumberCountByGene.setEntrezGeneId(geneCount.getEntrezGeneId());
+        copyNumberCountByGene.setHugoGeneSymbol(geneCount.getHugoGeneSymbol());
+        copyNumberCountByGene.setAlteration(geneCount.getAlteration());
+        copyNumberCountByGene.setCytoband(geneCount.getCytoband());
+        copyNumberCountByGene.setTotalCount(geneCount.getTotalCount());
+        copyNumberCountByGene.setNumberOfAlteredCases(geneCount.getNumberOfAlteredSamples());
+        return copyNumberCountByGene;
+    }
+
     private Select<Short> createCnaTypeList(final AlterationFilter alterationFilter) {
         if (alterationFilter.getCNAEventTypeSelect().hasNone())
             return Select.none();
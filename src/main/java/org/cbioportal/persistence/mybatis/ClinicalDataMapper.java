@@ -1,5 +1,6 @@
 package org.cbioportal.persistence.mybatis;
 
+import org.apache.ibatis.cursor.Cursor;
 import org.cbioportal.model.ClinicalData;
 import org.cbioportal.model.ClinicalDataCount;
 import org.cbioportal.model.meta.BaseMeta;
@@ -18,6 +19,14 @@ public interface ClinicalDataMapper {
                                               String projection, Integer limit, Integer offset, String sortBy,
                                               String direction);
 
+    Cursor<ClinicalData> getSampleClinicalDataIter(List<String> studyIds, List<String> sampleIds,
+                                                   List<String> attributeIds, String projection, Integer limit,
+                                                   Integer offset, String sortBy, String direction);
+
+    Cursor<ClinicalData> getPatientClinicalDataIter(List<String> studyIds, List<String> patientIds,
+                                                    List<String> attributeIds, String projection, Integer limit,
+                                                    Integer offset, String sortBy, String direction);
+
     List<ClinicalData> getSampleClinicalTable(List<String> studyIds, List<String> sampleIds, String projection,
                                               Integer limit, Integer offset, String searchTerm,
                                               String sortByAttrId, Boolean sortAttrIsNumber, Boolean sortIsPatientAttr,
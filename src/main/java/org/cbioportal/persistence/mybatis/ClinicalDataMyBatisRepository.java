@@ -9,12 +9,14 @@ import org.cbioportal.persistence.ClinicalDataRepository;
 import org.cbioportal.persistence.ClinicalAttributeRepository;
 import org.cbioportal.persistence.PatientRepository;
 import org.cbioportal.persistence.PersistenceConstants;
+import org.cbioportal.persistence.mybatis.util.IdListStaging;
 import org.cbioportal.persistence.mybatis.util.PaginationCalculator;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 import org.springframework.util.Assert;
 
 import java.util.*;
+import java.util.function.BiFunction;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -27,6 +29,8 @@ public class ClinicalDataMyBatisRepository implements ClinicalDataRepository {
     private PatientRepository patientRepository;
     @Autowired
     private ClinicalAttributeRepository clinicalAttributeRepository;
+    @Autowired
+    private IdListStaging idListStaging;
 
     @Override
     public List<ClinicalData> getAllClinicalDataOfSampleInStudy(String studyId, String sampleId,
@@ -100,11 +104,13 @@ public class ClinicalDataMyBatisRepository implements ClinicalDataRepository {
                                                           String clinicalDataType, String projection) {
 
         if (clinicalDataType.equals(PersistenceConstants.SAMPLE_CLINICAL_DATA_TYPE)) {
-            return clinicalDataMapper.getSampleClinicalData(Arrays.asList(studyId), ids, attributeIds,
-                projection, 0, 0, null, null);
+            return queryInStudy(studyId, ids, (studyIds, sampleIds) ->
+                clinicalDataMapper.getSampleClinicalData(studyIds, sampleIds, attributeIds, projection, 0, 0, null,
+                    null));
         } else {
-            return clinicalDataMapper.getPatientClinicalData(Arrays.asList(studyId), ids, attributeIds,
-                projection, 0, 0, null, null);
+            return queryInStudy(studyId, ids, (studyIds, patientIds) ->
+                clinicalDataMapper.getPatientClinicalData(studyIds, patientIds, attributeIds, projection, 0, 0, null,
+                    null));
         }
     }
 
@@ -115,11 +121,11 @@ public class ClinicalDataMyBatisRepository implements ClinicalDataRepository {
         BaseMeta baseMeta = new BaseMeta();
 
         if (clinicalDataType.equals(PersistenceConstants.SAMPLE_CLINICAL_DATA_TYPE)) {
-            baseMeta.setTotalCount(clinicalDataMapper.getMetaSampleClinicalData(Arrays.asList(studyId), ids,
-                attributeIds).getTotalCount());
+            baseMeta.setTotalCount(queryInStudy(studyId, ids, (studyIds, sampleIds) ->
+                clinicalDataMapper.getMetaSampleClinicalData(studyIds, sampleIds, attributeIds)).getTotalCount());
         } else {
-            baseMeta.setTotalCount(clinicalDataMapper.getMetaPatientClinicalData(Arrays.asList(studyId), ids,
-                attributeIds).getTotalCount());
+            baseMeta.setTotalCount(queryInStudy(studyId, ids, (studyIds, patientIds) ->
+                clinicalDataMapper.getMetaPatientClinicalData(studyIds, patientIds, attributeIds)).getTotalCount());
         }
 
         return baseMeta;
@@ -133,9 +139,32 @@ public class ClinicalDataMyBatisRepository implements ClinicalDataRepository {
             return new ArrayList<>();
         }
         if (clinicalDataType.equals(PersistenceConstants.SAMPLE_CLINICAL_DATA_TYPE)) {
-            return clinicalDataMapper.getSampleClinicalData(studyIds, ids, attributeIds, projection, 0, 0, null, null);
+            return queryWithStagedIds(studyIds, ids, (stagedStudyIds, sampleIds) ->
+                clinicalDataMapper.getSampleClinicalData(stagedStudyIds, sampleIds, attributeIds, projection, 0, 0,
+                    null, null));
         } else {
-            return clinicalDataMapper.getPatientClinicalData(studyIds, ids, attributeIds, projection, 0, 0, null, null);
+            return queryWithStagedIds(studyIds, ids, (stagedStudyIds, patientIds) ->
+                clinicalDataMapper.getPatientClinicalData(stagedStudyIds, patientIds, attributeIds, projection, 0, 0,
+                    null, null));
+        }
+    }
+
+    @Override
+    public Iterable<ClinicalData> fetchClinicalDataIterable(List<String> studyIds, List<String> ids,
+                                                            List<String> attributeIds, String clinicalDataType,
+                                                            String projection) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        // staged identifiers are read with the cursor, within the transaction of the caller
+        if (clinicalDataType.equals(PersistenceConstants.SAMPLE_CLINICAL_DATA_TYPE)) {
+            return queryWithStagedIds(studyIds, ids, (stagedStudyIds, sampleIds) ->
+                clinicalDataMapper.getSampleClinicalDataIter(stagedStudyIds, sampleIds, attributeIds, projection, 0,
+                    0, null, null));
+        } else {
+            return queryWithStagedIds(studyIds, ids, (stagedStudyIds, patientIds) ->
+                clinicalDataMapper.getPatientClinicalDataIter(stagedStudyIds, patientIds, attributeIds, projection, 0,
+                    0, null, null));
         }
     }
 
@@ -164,8 +193,11 @@ public class ClinicalDataMyBatisRepository implements ClinicalDataRepository {
         
         
         
-        return clinicalDataMapper.getVisibleSampleInternalIdsForClinicalTable(studyIds, sampleIds,"SUMMARY", pageSize, 
-            offset, searchTerm, sortAttrId, sortAttrIsNumber, sortIsPatientAttr, direction);
+        Boolean finalSortAttrIsNumber = sortAttrIsNumber;
+        Boolean finalSortIsPatientAttr = sortIsPatientAttr;
+        return queryWithStagedIds(studyIds, sampleIds, (stagedStudyIds, stagedSampleIds) ->
+            clinicalDataMapper.getVisibleSampleInternalIdsForClinicalTable(stagedStudyIds, stagedSampleIds, "SUMMARY",
+                pageSize, offset, searchTerm, sortAttrId, finalSortAttrIsNumber, finalSortIsPatientAttr, direction));
     }
     
     private ClinicalAttribute getClinicalAttributeMeta(List<String> studyIds, String attrId) {
@@ -188,10 +220,12 @@ public class ClinicalDataMyBatisRepository implements ClinicalDataRepository {
         BaseMeta baseMeta = new BaseMeta();
 
         if (clinicalDataType.equals(PersistenceConstants.SAMPLE_CLINICAL_DATA_TYPE)) {
-            baseMeta.setTotalCount(clinicalDataMapper.getMetaSampleClinicalData(studyIds, ids, attributeIds)
+            baseMeta.setTotalCount(queryWithStagedIds(studyIds, ids, (stagedStudyIds, sampleIds) ->
+                clinicalDataMapper.getMetaSampleClinicalData(stagedStudyIds, sampleIds, attributeIds))
                 .getTotalCount());
         } else {
-            baseMeta.setTotalCount(clinicalDataMapper.getMetaPatientClinicalData(studyIds, ids, attributeIds)
+            baseMeta.setTotalCount(queryWithStagedIds(studyIds, ids, (stagedStudyIds, patientIds) ->
+                clinicalDataMapper.getMetaPatientClinicalData(stagedStudyIds, patientIds, attributeIds))
                 .getTotalCount());
         }
 
@@ -203,13 +237,16 @@ public class ClinicalDataMyBatisRepository implements ClinicalDataRepository {
 			List<String> attributeIds, String clinicalDataType, String projection) {
 
         if (clinicalDataType.equals(PersistenceConstants.SAMPLE_CLINICAL_DATA_TYPE)) {
-            return clinicalDataMapper.fetchSampleClinicalDataCounts(studyIds, sampleIds, attributeIds);
+            return queryWithStagedIds(studyIds, sampleIds, (stagedStudyIds, stagedSampleIds) ->
+                clinicalDataMapper.fetchSampleClinicalDataCounts(stagedStudyIds, stagedSampleIds, attributeIds));
         } else {
             List<Patient> patients = patientRepository.getPatientsOfSamples(studyIds, sampleIds);
             List<String> patientStudyIds = new ArrayList<>();
             patients.forEach(p -> patientStudyIds.add(p.getCancerStudyIdentifier()));
-            return clinicalDataMapper.fetchPatientClinicalDataCounts(patientStudyIds, 
-                patients.stream().map(Patient::getStableId).collect(Collectors.toList()), attributeIds, projection);
+            return queryWithStagedIds(patientStudyIds,
+                patients.stream().map(Patient::getStableId).collect(Collectors.toList()),
+                (stagedStudyIds, patientIds) -> clinicalDataMapper.fetchPatientClinicalDataCounts(stagedStudyIds,
+                    patientIds, attributeIds, projection));
         }
 	}
 	
@@ -217,8 +254,9 @@ public class ClinicalDataMyBatisRepository implements ClinicalDataRepository {
     public List<ClinicalData> getPatientClinicalDataDetailedToSample(List<String> studyIds, List<String> patientIds,
             List<String> attributeIds) {
 
-        return clinicalDataMapper.getPatientClinicalDataDetailedToSample(studyIds, patientIds, attributeIds, "SUMMARY",
-                0, 0, null, null);
+        return queryWithStagedIds(studyIds, patientIds, (stagedStudyIds, stagedPatientIds) ->
+            clinicalDataMapper.getPatientClinicalDataDetailedToSample(stagedStudyIds, stagedPatientIds, attributeIds,
+                "SUMMARY", 0, 0, null, null));
     }
 
     @Override
@@ -232,4 +270,17 @@ public class ClinicalDataMyBatisRepository implements ClinicalDataRepository {
         return sampleInternalIds == null || sampleInternalIds.isEmpty() ?
             new ArrayList<>() : clinicalDataMapper.getPatientClinicalDataBySampleInternalIds(sampleInternalIds);
     }
+
+    // large lists of case ids are staged, the mapper then selects them from the staging table
+    private <T> T queryWithStagedIds(List<String> studyIds, List<String> ids,
+                                     BiFunction<List<String>, List<String>, T> query) {
+        return idListStaging.query(stager -> query.apply(studyIds, stager.stage(studyIds, ids)), ids);
+    }
+
+    private <T> T queryInStudy(String studyId, List<String> ids, BiFunction<List<String>, List<String>, T> query) {
+        if (!idListStaging.isStaged(ids)) {
+            return query.apply(Arrays.asList(studyId), ids);
+        }
+        return queryWithStagedIds(Collections.nCopies(ids.size(), studyId), ids, query);
+    }
 }
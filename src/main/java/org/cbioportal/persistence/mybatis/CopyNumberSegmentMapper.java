@@ -1,5 +1,6 @@
 package org.cbioportal.persistence.mybatis;
 
+import org.apache.ibatis.cursor.Cursor;
 import org.cbioportal.model.CopyNumberSeg;
 import org.cbioportal.model.meta.BaseMeta;
 
@@ -9,6 +10,10 @@ public interface CopyNumberSegmentMapper {
     
     List<CopyNumberSeg> getCopyNumberSegments(List<String> studyIds, List<String> sampleIds, String chromosome, String projection, 
                                               Integer limit, Integer offset, String sortBy, String direction);
+
+    Cursor<CopyNumberSeg> getCopyNumberSegmentsIter(List<String> studyIds, List<String> sampleIds, String chromosome,
+                                                    String projection, Integer limit, Integer offset, String sortBy,
+                                                    String direction);
     
     List<Integer> getSamplesWithCopyNumberSegments(List<String> studyIds, List<String> sampleIds, String chromosome);
 
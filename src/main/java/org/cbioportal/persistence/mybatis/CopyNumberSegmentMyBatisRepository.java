@@ -3,6 +3,7 @@ package org.cbioportal.persistence.mybatis;
 import org.cbioportal.model.CopyNumberSeg;
 import org.cbioportal.model.meta.BaseMeta;
 import org.cbioportal.persistence.CopyNumberSegmentRepository;
+import org.cbioportal.persistence.mybatis.util.IdListStaging;
 import org.cbioportal.persistence.mybatis.util.PaginationCalculator;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
@@ -15,6 +16,8 @@ public class CopyNumberSegmentMyBatisRepository implements CopyNumberSegmentRepo
     
     @Autowired
     private CopyNumberSegmentMapper copyNumberSegmentMapper;
+    @Autowired
+    private IdListStaging idListStaging;
 
 
     @Override
@@ -35,7 +38,8 @@ public class CopyNumberSegmentMyBatisRepository implements CopyNumberSegmentRepo
 
     @Override
     public List<Integer> fetchSamplesWithCopyNumberSegments(List<String> studyIds, List<String> sampleIds, String chromosome) {
-        return copyNumberSegmentMapper.getSamplesWithCopyNumberSegments(studyIds, sampleIds, chromosome);
+        return idListStaging.query(stager -> copyNumberSegmentMapper.getSamplesWithCopyNumberSegments(studyIds,
+            stager.stage(studyIds, sampleIds), chromosome), sampleIds);
     }
     
     @Override
@@ -44,13 +48,26 @@ public class CopyNumberSegmentMyBatisRepository implements CopyNumberSegmentRepo
                                                        String chromosome,
                                                        String projection) {
         
-        return copyNumberSegmentMapper.getCopyNumberSegments(studyIds, sampleIds, chromosome, projection, 0, 0, null, null);
+        return idListStaging.query(stager -> copyNumberSegmentMapper.getCopyNumberSegments(studyIds,
+            stager.stage(studyIds, sampleIds), chromosome, projection, 0, 0, null, null), sampleIds);
+    }
+
+    @Override
+    public Iterable<CopyNumberSeg> fetchCopyNumberSegmentsIterable(List<String> studyIds,
+                                                                   List<String> sampleIds,
+                                                                   String chromosome,
+                                                                   String projection) {
+
+        // staged sample ids are read with the cursor, within the transaction of the caller
+        return idListStaging.query(stager -> copyNumberSegmentMapper.getCopyNumberSegmentsIter(studyIds,
+            stager.stage(studyIds, sampleIds), chromosome, projection, 0, 0, null, null), sampleIds);
     }
 
     @Override
     public BaseMeta fetchMetaCopyNumberSegments(List<String> studyIds, List<String> sampleIds, String chromosome) {
         
-        return copyNumberSegmentMapper.getMetaCopyNumberSegments(studyIds, sampleIds, chromosome);
+        return idListStaging.query(stager -> copyNumberSegmentMapper.getMetaCopyNumberSegments(studyIds,
+            stager.stage(studyIds, sampleIds), chromosome), sampleIds);
     }
 
     @Override
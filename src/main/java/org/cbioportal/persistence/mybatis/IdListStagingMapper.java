@@ -0,0 +1,24 @@
+package org.cbioportal.persistence.mybatis;
+
+import java.util.List;
+
+/**
+ * Connection-scoped temporary tables that hold large lists of case identifiers, see
+ * {@link org.cbioportal.persistence.mybatis.util.IdListStaging}. Identifiers are stored as (group id, id) pairs, e.g.
+ * (study id, sample id) or (molecular profile id, sample id), with the id of the list they belong to. Every list of a
+ * statement gets a table of its own, by the slot number of the list.
+ */
+public interface IdListStagingMapper {
+
+    void createStagedIdTable(int slot);
+
+    void createStagedInternalIdTable(int slot);
+
+    void clearStagedIds(int slot);
+
+    void clearStagedInternalIds(int slot);
+
+    void insertStagedIds(int slot, int listId, List<String> groupIds, List<String> ids);
+
+    void insertStagedInternalIds(int slot, int listId, List<Integer> groupIds, List<Integer> ids);
+}
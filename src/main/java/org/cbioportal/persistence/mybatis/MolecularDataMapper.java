@@ -15,6 +15,8 @@ public interface MolecularDataMapper {
 
     List<MolecularProfileSamples> getCommaSeparatedSampleIdsOfMolecularProfiles(Set<String> molecularProfileIds);
 
+    int getNumberOfMolecularAlterations(String molecularProfileId);
+
     List<GeneMolecularAlteration> getGeneMolecularAlterations(String molecularProfileId, List<Integer> entrezGeneIds,
                                                               String projection);
 
@@ -2,10 +2,16 @@ package org.cbioportal.persistence.mybatis;
 
 import org.cbioportal.model.*;
 import org.cbioportal.persistence.MolecularDataRepository;
+import org.cbioportal.persistence.mybatis.util.MolecularDataMatrixBuilder;
+import org.cbioportal.persistence.mybatis.util.MolecularDataMatrixCache;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -14,6 +20,12 @@ public class MolecularDataMyBatisRepository implements MolecularDataRepository {
 
     @Autowired
     private MolecularDataMapper molecularDataMapper;
+    @Autowired
+    private MolecularProfileMapper molecularProfileMapper;
+    @Autowired
+    private MolecularDataMatrixCache molecularDataMatrixCache;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
 
     @Override
     public MolecularProfileSamples getCommaSeparatedSampleIdsOfMolecularProfile(String molecularProfileId) {
@@ -82,4 +94,133 @@ public class MolecularDataMyBatisRepository implements MolecularDataRepository {
 			String molecularProfileId, List<String> stableIds, String projection) {
 		return molecularDataMapper.getGenericAssayMolecularAlterationsIter(molecularProfileId, stableIds, projection);
 	}
+
+    @Override
+    public MolecularDataRows getMolecularDataRows(String molecularProfileId) {
+
+        MolecularDataMatrix matrix = molecularDataMatrixCache.getIfPresent(molecularProfileId);
+        if (matrix != null) {
+            return matrix;
+        }
+        MolecularProfile molecularProfile = molecularProfileMapper.getMolecularProfile(molecularProfileId, "SUMMARY");
+        MolecularProfileSamples molecularProfileSamples = getCommaSeparatedSampleIdsOfMolecularProfile(molecularProfileId);
+        if (molecularProfile == null || molecularProfileSamples == null) {
+            return null;
+        }
+        int[] internalSampleIds = MolecularDataMatrixBuilder.parseInternalSampleIds(
+            molecularProfileSamples.getCommaSeparatedSampleIds());
+
+        // a matrix is only built when it can be retained; at least one byte is needed per value
+        long minimumSizeInBytes = (long) molecularDataMapper.getNumberOfMolecularAlterations(molecularProfileId) *
+            internalSampleIds.length * MolecularDataMatrix.BYTE_WIDTH;
+        if (!molecularDataMatrixCache.fits(minimumSizeInBytes)) {
+            return new StreamedMolecularDataRows(molecularProfile, internalSampleIds);
+        }
+        return molecularDataMatrixCache.get(molecularProfileId,
+            id -> loadMolecularDataMatrix(molecularProfile, internalSampleIds));
+    }
+
+    private MolecularDataMatrix loadMolecularDataMatrix(MolecularProfile molecularProfile, int[] internalSampleIds) {
+
+        try (MolecularDataMatrixBuilder builder = new MolecularDataMatrixBuilder(molecularProfile.getStableId(),
+            molecularProfile.getCancerStudyIdentifier(), internalSampleIds, molecularDataMatrixCache.getSpillDirectory())) {
+            forEachMolecularAlteration(molecularProfile,
+                molecularAlteration -> builder.addRow(molecularAlteration.getStableId(), molecularAlteration.getValues()));
+            return builder.build();
+        }
+    }
+
+    private void forEachMolecularAlteration(MolecularProfile molecularProfile,
+                                            Consumer<MolecularAlteration> consumer) {
+
+        String molecularProfileId = molecularProfile.getStableId();
+        // the cursors below are only open within a transaction; each row is parsed and released while streaming
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRED);
+        transactionTemplate.executeWithoutResult(status -> {
+            Iterable<? extends MolecularAlteration> molecularAlterations;
+            switch (molecularProfile.getMolecularAlterationType()) {
+                case GENESET_SCORE:
+                    molecularAlterations = molecularDataMapper.getGenesetMolecularAlterations(molecularProfileId, null,
+                        "SUMMARY");
+                    break;
+                case GENERIC_ASSAY:
+                    molecularAlterations = molecularDataMapper.getGenericAssayMolecularAlterationsIter(
+                        molecularProfileId, null, "SUMMARY");
+                    break;
+                default:
+                    molecularAlterations = molecularDataMapper.getGeneMolecularAlterationsIterFast(molecularProfileId);
+            }
+            for (MolecularAlteration molecularAlteration : molecularAlterations) {
+                consumer.accept(molecularAlteration);
+            }
+        });
+    }
+
+    /**
+     * Rows of a profile that is not retained, parsed one at a time from the database on every read.
+     */
+    private class StreamedMolecularDataRows implements MolecularDataRows {
+
+        private final MolecularProfile molecularProfile;
+        private final int[] internalSampleIds;
+        private final Map<Integer, Integer> sampleIndexes;
+
+        StreamedMolecularDataRows(MolecularProfile molecularProfile, int[] internalSampleIds) {
+            this.molecularProfile = molecularProfile;
+            this.internalSampleIds = internalSampleIds;
+            this.sampleIndexes = new HashMap<>(internalSampleIds.length * 2);
+            for (int sampleIndex = 0; sampleIndex < internalSampleIds.length; sampleIndex++) {
+                sampleIndexes.putIfAbsent(internalSampleIds[sampleIndex], sampleIndex);
+            }
+        }
+
+        @Override
+        public int getNumberOfSamples() {
+            return internalSampleIds.length;
+        }
+
+        @Override
+        public int getSampleIndex(int internalSampleId) {
+            return sampleIndexes.getOrDefault(internalSampleId, -1);
+        }
+
+        @Override
+        public boolean readRow(String stableId, double[] target) {
+            String molecularProfileId = molecularProfile.getStableId();
+            List<? extends MolecularAlteration> molecularAlterations;
+            switch (molecularProfile.getMolecularAlterationType()) {
+                case GENESET_SCORE:
+                    molecularAlterations = molecularDataMapper.getGenesetMolecularAlterations(molecularProfileId,
+                        Collections.singletonList(stableId), "SUMMARY");
+                    break;
+                case GENERIC_ASSAY:
+                    molecularAlterations = molecularDataMapper.getGenericAssayMolecularAlterations(molecularProfileId,
+                        Collections.singletonList(stableId), "SUMMARY");
+                    break;
+                default:
+                    try {
+                        molecularAlterations = molecularDataMapper.getGeneMolecularAlterations(molecularProfileId,
+                            Collections.singletonList(Integer.valueOf(stableId)), "SUMMARY");
+                    } catch (NumberFormatException e) {
+                        return false;
+                    }
+            }
+            if (molecularAlterations.isEmpty()) {
+                return false;
+            }
+            MolecularDataMatrixBuilder.parseRow(molecularAlterations.get(0).getValues(), target);
+            return true;
+        }
+
+        @Override
+        public void forEachRow(RowVisitor visitor) {
+            double[] values = new double[internalSampleIds.length];
+            forEachMolecularAlteration(molecularProfile, molecularAlteration -> {
+                MolecularDataMatrixBuilder.parseRow(molecularAlteration.getValues(), values);
+                visitor.visitRow(molecularAlteration.getStableId(), values);
+            });
+        }
+    }
 }
@@ -1,5 +1,6 @@
 package org.cbioportal.persistence.mybatis;
 
+import org.apache.ibatis.cursor.Cursor;
 import org.cbioportal.model.GeneFilterQuery;
 import org.cbioportal.model.GenomicDataCountItem;
 import org.cbioportal.model.Mutation;
@@ -23,6 +24,11 @@ public interface MutationMapper {
                                                                         String projection, Integer limit,
                                                                         Integer offset, String sortBy, String direction);
 
+    Cursor<Mutation> getMutationsInMultipleMolecularProfilesIter(List<String> molecularProfileIds,
+                                                                 List<String> sampleIds, List<Integer> entrezGeneIds,
+                                                                 boolean snpOnly, String projection, Integer limit,
+                                                                 Integer offset, String sortBy, String direction);
+
     List<Mutation> getMutationsInMultipleMolecularProfilesByGeneQueries(List<String> molecularProfileIds,
                                                                         List<String> sampleIds,
                                                                         boolean snpOnly,
@@ -1,5 +1,6 @@
 package org.cbioportal.persistence.mybatis;
 
+import com.google.common.collect.Iterables;
 import org.cbioportal.model.GeneFilterQuery;
 import org.cbioportal.model.GenomicDataCountItem;
 import org.cbioportal.model.Mutation;
@@ -63,6 +64,30 @@ public class MutationMyBatisRepository implements MutationRepository {
             .collect(Collectors.toList());
     }
 
+    @Override
+    public Iterable<Mutation> getMutationsInMultipleMolecularProfilesIterable(List<String> molecularProfileIds,
+                                                                              List<String> sampleIds,
+                                                                              List<Integer> entrezGeneIds,
+                                                                              String projection, Integer pageSize,
+                                                                              Integer pageNumber, String sortBy,
+                                                                              String direction) {
+
+        // the cursor of a profile is only opened once the mutations of the previous profile have been read
+        return Iterables.concat(Iterables.transform(
+            molecularProfileCaseIdentifierUtil.getGroupedCasesByMolecularProfileId(molecularProfileIds, sampleIds)
+                .entrySet(),
+            entry -> mutationMapper.getMutationsInMultipleMolecularProfilesIter(
+                Arrays.asList(entry.getKey()),
+                new ArrayList<>(entry.getValue()),
+                entrezGeneIds,
+                false,
+                projection,
+                pageSize,
+                PaginationCalculator.offset(pageSize, pageNumber),
+                sortBy,
+                direction)));
+    }
+
     @Override
     public List<Mutation> getMutationsInMultipleMolecularProfilesByGeneQueries(List<String> molecularProfileIds,
                                                                                List<String> sampleIds,
@@ -11,6 +11,11 @@ public interface StudyMapper {
     List<CancerStudy> getStudies(List<String> studyIds, String keyword, String projection, Integer limit, Integer offset, String sortBy, 
         String direction);
 
+    List<CancerStudy> getStudiesWithoutSampleCounts(List<String> studyIds, String keyword, String projection,
+                                                    Integer limit, Integer offset, String sortBy, String direction);
+
+    List<CancerStudy> getStudySummaries(List<String> studyIds);
+
     BaseMeta getMetaStudies(List<String> studyIds, String keyword);
 
     CancerStudy getStudy(String studyId, String projection);
@@ -5,10 +5,12 @@ import org.cbioportal.model.CancerStudyTags;
 import org.cbioportal.model.meta.BaseMeta;
 import org.cbioportal.persistence.StudyRepository;
 import org.cbioportal.persistence.mybatis.util.PaginationCalculator;
+import org.cbioportal.persistence.mybatis.util.StudySummarySnapshot;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 @Repository
@@ -16,11 +18,17 @@ public class StudyMyBatisRepository implements StudyRepository {
 
     @Autowired
     private StudyMapper studyMapper;
+    @Autowired
+    private StudySummarySnapshot studySummarySnapshot;
 
     @Override
     public List<CancerStudy> getAllStudies(String keyword, String projection, Integer pageSize, Integer pageNumber,
                                            String sortBy, String direction) {
 
+        if (studySummarySnapshot.isEnabled()) {
+            return getStudiesFromSnapshot(null, keyword, projection, pageSize,
+                PaginationCalculator.offset(pageSize, pageNumber), sortBy, direction);
+        }
         return studyMapper.getStudies(null, keyword, projection, pageSize, PaginationCalculator.offset(pageSize, pageNumber), 
             sortBy, direction);
     }
@@ -32,12 +40,20 @@ public class StudyMyBatisRepository implements StudyRepository {
 
     @Override
     public CancerStudy getStudy(String studyId, String projection) {
+        if (studySummarySnapshot.isEnabled()) {
+            List<CancerStudy> studies = getStudiesFromSnapshot(Collections.singletonList(studyId), null, projection,
+                0, 0, null, null);
+            return studies.isEmpty() ? null : studies.get(0);
+        }
         return studyMapper.getStudy(studyId, projection);
     }
 
 	@Override
 	public List<CancerStudy> fetchStudies(List<String> studyIds, String projection) {
         
+        if (studySummarySnapshot.isEnabled()) {
+            return getStudiesFromSnapshot(studyIds, null, projection, 0, 0, null, null);
+        }
         return studyMapper.getStudies(studyIds, null, projection, 0, 0, null, null);
 	}
 
@@ -59,4 +75,12 @@ public class StudyMyBatisRepository implements StudyRepository {
         }
         return studyMapper.getTagsForMultipleStudies(studyIds);
     }
+
+    private List<CancerStudy> getStudiesFromSnapshot(List<String> studyIds, String keyword, String projection,
+                                                     Integer limit, Integer offset, String sortBy, String direction) {
+        List<CancerStudy> studies = studyMapper.getStudiesWithoutSampleCounts(studyIds, keyword, projection, limit,
+            offset, sortBy, direction);
+        studySummarySnapshot.setSampleCounts(studies, projection);
+        return studies;
+    }
 }
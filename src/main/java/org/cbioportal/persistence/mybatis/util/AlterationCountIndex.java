@@ -0,0 +1,449 @@
+package org.cbioportal.persistence.mybatis.util;
+
+import org.cbioportal.model.AlterationCountEvent;
+import org.cbioportal.model.util.Select;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Inverted index of the alteration events of one molecular profile: for every gene, the samples (by internal id)
+ * that have events of a given event class. An event class is a distinct combination of the attributes the alteration
+ * counts can be filtered on (mutation type or copy number alteration, driver annotation, driver tier and status).
+ *
+ * For every gene and event class the index holds a bitmap of the samples with at least one event, one with at least
+ * two events and so on. The number of altered samples and the number of events in a set of samples are then bitmap
+ * intersection cardinalities, which replaces the GROUP BY queries of AlterationCountsMapper.
+ */
+public class AlterationCountIndex {
+
+    public enum EventType {
+        MUTATION,
+        COPY_NUMBER_ALTERATION,
+        STRUCTURAL_VARIANT
+    }
+
+    private static final byte DRIVER = 0;
+    private static final byte VUS = 1;
+    private static final byte UNKNOWN_ONCOGENICITY = 2;
+    // annotated with a value that none of the driver annotation options match
+    private static final byte OTHER_ONCOGENICITY = 3;
+
+    private static final byte GERMLINE = 0;
+    private static final byte SOMATIC = 1;
+    private static final byte UNKNOWN_STATUS = 2;
+    // no status at all, only counted when every status is included
+    private static final byte NO_STATUS = 3;
+
+    private record EventClass(String mutationType, Integer alteration, byte oncogenicity, String driverTiersFilter,
+                              byte status) {
+    }
+
+    private static final class GeneEvents {
+
+        private final String hugoGeneSymbol;
+        private final String cytoband;
+        private final boolean inReferenceGenome;
+        private final int[] eventClassIds;
+        // per event class: the samples with more than 0, 1, 2, ... events
+        private final RoaringBitmap[][] samplesByMinimumCount;
+
+        GeneEvents(String hugoGeneSymbol, String cytoband, boolean inReferenceGenome, int[] eventClassIds,
+                   RoaringBitmap[][] samplesByMinimumCount) {
+            this.hugoGeneSymbol = hugoGeneSymbol;
+            this.cytoband = cytoband;
+            this.inReferenceGenome = inReferenceGenome;
+            this.eventClassIds = eventClassIds;
+            this.samplesByMinimumCount = samplesByMinimumCount;
+        }
+    }
+
+    /**
+     * Counts of one gene (or one gene and copy number alteration), summed over the molecular profiles it was
+     * counted in.
+     */
+    public static final class GeneCount {
+
+        private final Integer entrezGeneId;
+        private final String hugoGeneSymbol;
+        private final Integer alteration;
+        private final String cytoband;
+        private int totalCount;
+        private final RoaringBitmap alteredSamples = new RoaringBitmap();
+
+        GeneCount(Integer entrezGeneId, String hugoGeneSymbol, Integer alteration, String cytoband) {
+            this.entrezGeneId = entrezGeneId;
+            this.hugoGeneSymbol = hugoGeneSymbol;
+            this.alteration = alteration;
+            this.cytoband = cytoband;
+        }
+
+        public Integer getEntrezGeneId() {
+            return entrezGeneId;
+        }
+
+        public String getHugoGeneSymbol() {
+            return hugoGeneSymbol;
+        }
+
+        public Integer getAlteration() {
+            return alteration;
+        }
+
+        public String getCytoband() {
+            return cytoband;
+        }
+
+        public int getTotalCount() {
+            return totalCount;
+        }
+
+        public int getNumberOfAlteredSamples() {
+            return alteredSamples.getCardinality();
+        }
+    }
+
+    /**
+     * The event filters of AlterationCountsMapper, with the same semantics as the SQL conditions.
+     */
+    public static final class EventFilter {
+
+        private final Select<String> mutationTypes;
+        private final Set<String> lowerCaseMutationTypes = new HashSet<>();
+        private final Select<Short> cnaTypes;
+        private final Set<Integer> cnaTypeCodes = new HashSet<>();
+        private final boolean includeDriver;
+        private final boolean includeVUS;
+        private final boolean includeUnknownOncogenicity;
+        private final Select<String> selectedTiers;
+        private final Set<String> selectedTierValues = new HashSet<>();
+        private final boolean includeUnknownTier;
+        private final boolean includeGermline;
+        private final boolean includeSomatic;
+        private final boolean includeUnknownStatus;
+
+        public EventFilter(Select<String> mutationTypes, Select<Short> cnaTypes, boolean includeDriver,
+                           boolean includeVUS, boolean includeUnknownOncogenicity, Select<String> selectedTiers,
+                           boolean includeUnknownTier, boolean includeGermline, boolean includeSomatic,
+                           boolean includeUnknownStatus) {
+            this.mutationTypes = mutationTypes;
+            if (mutationTypes.hasValues()) {
+                mutationTypes.forEach(mutationType -> lowerCaseMutationTypes.add(mutationType.toLowerCase()));
+            }
+            this.cnaTypes = cnaTypes;
+            if (cnaTypes.hasValues()) {
+                cnaTypes.forEach(cnaType -> cnaTypeCodes.add(cnaType.intValue()));
+            }
+            this.includeDriver = includeDriver;
+            this.includeVUS = includeVUS;
+            this.includeUnknownOncogenicity = includeUnknownOncogenicity;
+            this.selectedTiers = selectedTiers;
+            if (selectedTiers != null && selectedTiers.hasValues()) {
+                selectedTiers.forEach(selectedTierValues::add);
+            }
+            this.includeUnknownTier = includeUnknownTier;
+            this.includeGermline = includeGermline;
+            this.includeSomatic = includeSomatic;
+            this.includeUnknownStatus = includeUnknownStatus;
+        }
+
+        private boolean matches(EventType eventType, EventClass eventClass) {
+            switch (eventType) {
+                case MUTATION:
+                    if (!matchesMutationType(eventClass.mutationType()) || !matchesStatus(eventClass.status())) {
+                        return false;
+                    }
+                    break;
+                case COPY_NUMBER_ALTERATION:
+                    if (!matchesCnaType(eventClass.alteration())) {
+                        return false;
+                    }
+                    break;
+                default:
+                    if (!matchesStatus(eventClass.status())) {
+                        return false;
+                    }
+            }
+            return matchesOncogenicity(eventClass.oncogenicity()) && matchesTier(eventClass.driverTiersFilter());
+        }
+
+        private boolean matchesMutationType(String mutationType) {
+            if (mutationTypes.hasNone()) {
+                return false;
+            }
+            if (mutationTypes.hasAll()) {
+                return true;
+            }
+            // LOWER(MUTATION_TYPE) [NOT] IN (...) is not true for NULL
+            return mutationType != null && (mutationTypes.inverse() ^ lowerCaseMutationTypes.contains(mutationType));
+        }
+
+        private boolean matchesCnaType(Integer alteration) {
+            if (cnaTypes.hasNone()) {
+                return false;
+            }
+            return cnaTypes.hasAll() || cnaTypeCodes.contains(alteration);
+        }
+
+        private boolean matchesOncogenicity(byte oncogenicity) {
+            if (includeDriver && includeVUS && includeUnknownOncogenicity) {
+                return true;
+            }
+            return (includeDriver && oncogenicity == DRIVER)
+                || (includeVUS && oncogenicity == VUS)
+                || (includeUnknownOncogenicity && oncogenicity == UNKNOWN_ONCOGENICITY);
+        }
+
+        private boolean matchesTier(String driverTiersFilter) {
+            boolean allTierOptionsSelected = selectedTiers != null && selectedTiers.hasAll() && includeUnknownTier;
+            boolean noTierOptionsSelected = (selectedTiers == null || selectedTiers.hasNone()) && !includeUnknownTier;
+            if (allTierOptionsSelected) {
+                return true;
+            }
+            if (noTierOptionsSelected) {
+                return false;
+            }
+            boolean filtered = false;
+            boolean matches = false;
+            if (selectedTiers != null && selectedTiers.hasValues()) {
+                filtered = true;
+                matches = driverTiersFilter != null && selectedTierValues.contains(driverTiersFilter);
+            }
+            if (includeUnknownTier) {
+                filtered = true;
+                matches |= driverTiersFilter == null || isUnknown(driverTiersFilter.toLowerCase());
+            }
+            return !filtered || matches;
+        }
+
+        private boolean matchesStatus(byte status) {
+            if (includeGermline && includeSomatic && includeUnknownStatus) {
+                return true;
+            }
+            return (includeGermline && status == GERMLINE)
+                || (includeSomatic && status == SOMATIC)
+                || (includeUnknownStatus && status == UNKNOWN_STATUS);
+        }
+    }
+
+    private final int molecularProfileId;
+    private final String cancerStudyIdentifier;
+    private final EventType eventType;
+    private final EventClass[] eventClasses;
+    private final Map<Integer, GeneEvents> geneEventsByEntrezGeneId;
+
+    private AlterationCountIndex(int molecularProfileId, String cancerStudyIdentifier, EventType eventType,
+                                 EventClass[] eventClasses, Map<Integer, GeneEvents> geneEventsByEntrezGeneId) {
+        this.molecularProfileId = molecularProfileId;
+        this.cancerStudyIdentifier = cancerStudyIdentifier;
+        this.eventType = eventType;
+        this.eventClasses = eventClasses;
+        this.geneEventsByEntrezGeneId = geneEventsByEntrezGeneId;
+    }
+
+    public static AlterationCountIndex build(int molecularProfileId, String cancerStudyIdentifier, EventType eventType,
+                                             List<AlterationCountEvent> events) {
+
+        Map<EventClass, Integer> eventClassIds = new HashMap<>();
+        Map<Integer, AlterationCountEvent> firstEventByEntrezGeneId = new HashMap<>();
+        // entrez gene id -> event class id -> internal sample id -> number of events
+        Map<Integer, Map<Integer, Map<Integer, Integer>>> eventCounts = new HashMap<>();
+        for (AlterationCountEvent event : events) {
+            EventClass eventClass = new EventClass(
+                eventType == EventType.MUTATION && event.getMutationType() != null
+                    ? event.getMutationType().toLowerCase() : null,
+                eventType == EventType.COPY_NUMBER_ALTERATION ? event.getAlteration() : null,
+                oncogenicity(event.getDriverFilter()),
+                event.getDriverTiersFilter(),
+                status(eventType, event.getStatus()));
+            int eventClassId = eventClassIds.computeIfAbsent(eventClass, k -> eventClassIds.size());
+            firstEventByEntrezGeneId.putIfAbsent(event.getEntrezGeneId(), event);
+            eventCounts.computeIfAbsent(event.getEntrezGeneId(), k -> new HashMap<>())
+                .computeIfAbsent(eventClassId, k -> new HashMap<>())
+                .merge(event.getSampleId(), 1, Integer::sum);
+        }
+
+        EventClass[] eventClasses = new EventClass[eventClassIds.size()];
+        eventClassIds.forEach((eventClass, eventClassId) -> eventClasses[eventClassId] = eventClass);
+
+        Map<Integer, GeneEvents> geneEventsByEntrezGeneId = new HashMap<>();
+        eventCounts.forEach((entrezGeneId, countsByEventClass) -> {
+            int[] geneEventClassIds = new int[countsByEventClass.size()];
+            RoaringBitmap[][] samplesByMinimumCount = new RoaringBitmap[countsByEventClass.size()][];
+            int i = 0;
+            for (Map.Entry<Integer, Map<Integer, Integer>> entry : countsByEventClass.entrySet()) {
+                geneEventClassIds[i] = entry.getKey();
+                samplesByMinimumCount[i++] = toBitmaps(entry.getValue());
+            }
+            AlterationCountEvent event = firstEventByEntrezGeneId.get(entrezGeneId);
+            geneEventsByEntrezGeneId.put(entrezGeneId, new GeneEvents(event.getHugoGeneSymbol(), event.getCytoband(),
+                event.getReferenceGenomeEntrezGeneId() != null, geneEventClassIds, samplesByMinimumCount));
+        });
+
+        return new AlterationCountIndex(molecularProfileId, cancerStudyIdentifier, eventType, eventClasses,
+            geneEventsByEntrezGeneId);
+    }
+
+    public int getMolecularProfileId() {
+        return molecularProfileId;
+    }
+
+    public String getCancerStudyIdentifier() {
+        return cancerStudyIdentifier;
+    }
+
+    public EventType getEventType() {
+        return eventType;
+    }
+
+    /**
+     * @return approximate number of bytes held by the index
+     */
+    long getWeight() {
+        // strings are shared with the loaded events, only references, map entries and bitmaps are counted
+        long weight = 256L + 64L * eventClasses.length;
+        for (GeneEvents geneEvents : geneEventsByEntrezGeneId.values()) {
+            weight += 128L + 4L * geneEvents.eventClassIds.length;
+            for (RoaringBitmap[] bitmaps : geneEvents.samplesByMinimumCount) {
+                weight += 16L + 8L * bitmaps.length;
+                for (RoaringBitmap bitmap : bitmaps) {
+                    weight += bitmap.getLongSizeInBytes();
+                }
+            }
+        }
+        return weight;
+    }
+
+    /**
+     * Adds the events of the given samples to the counts per gene, like
+     * AlterationCountsMapper.getSampleAlterationGeneCounts.
+     *
+     * @param samples internal ids of the samples to count
+     * @param entrezGeneIds genes to count, or null to count all genes
+     */
+    public void addGeneCounts(RoaringBitmap samples, Set<Integer> entrezGeneIds, EventFilter eventFilter,
+                              Map<Long, GeneCount> geneCounts) {
+        addCounts(samples, entrezGeneIds, eventFilter, false, geneCounts);
+    }
+
+    /**
+     * Adds the events of the given samples to the counts per gene and copy number alteration, like
+     * AlterationCountsMapper.getSampleCnaGeneCounts. Genes that are not part of the reference genome of the study
+     * are left out.
+     */
+    public void addCopyNumberGeneCounts(RoaringBitmap samples, Set<Integer> entrezGeneIds, EventFilter eventFilter,
+                                        Map<Long, GeneCount> geneCounts) {
+        addCounts(samples, entrezGeneIds, eventFilter, true, geneCounts);
+    }
+
+    private void addCounts(RoaringBitmap samples, Set<Integer> entrezGeneIds, EventFilter eventFilter,
+                           boolean byAlteration, Map<Long, GeneCount> geneCounts) {
+
+        if (samples.isEmpty()) {
+            return;
+        }
+
+        boolean[] matchingEventClasses = new boolean[eventClasses.length];
+        boolean anyMatchingEventClass = false;
+        for (int i = 0; i < eventClasses.length; i++) {
+            matchingEventClasses[i] = eventFilter.matches(eventType, eventClasses[i]);
+            anyMatchingEventClass |= matchingEventClasses[i];
+        }
+        if (!anyMatchingEventClass) {
+            return;
+        }
+
+        if (entrezGeneIds != null) {
+            for (Integer entrezGeneId : entrezGeneIds) {
+                GeneEvents geneEvents = geneEventsByEntrezGeneId.get(entrezGeneId);
+                if (geneEvents != null) {
+                    addCounts(samples, entrezGeneId, geneEvents, matchingEventClasses, byAlteration, geneCounts);
+                }
+            }
+        } else {
+            geneEventsByEntrezGeneId.forEach((entrezGeneId, geneEvents) ->
+                addCounts(samples, entrezGeneId, geneEvents, matchingEventClasses, byAlteration, geneCounts));
+        }
+    }
+
+    private void addCounts(RoaringBitmap samples, Integer entrezGeneId, GeneEvents geneEvents,
+                           boolean[] matchingEventClasses, boolean byAlteration, Map<Long, GeneCount> geneCounts) {
+
+        if (byAlteration && !geneEvents.inReferenceGenome) {
+            return;
+        }
+        for (int i = 0; i < geneEvents.eventClassIds.length; i++) {
+            if (!matchingEventClasses[geneEvents.eventClassIds[i]]) {
+                continue;
+            }
+            RoaringBitmap[] samplesByMinimumCount = geneEvents.samplesByMinimumCount[i];
+            if (!RoaringBitmap.intersects(samplesByMinimumCount[0], samples)) {
+                continue;
+            }
+            Integer alteration = byAlteration ? eventClasses[geneEvents.eventClassIds[i]].alteration() : null;
+            long key = byAlteration ? ((long) entrezGeneId << 8) | (alteration & 0xff) : entrezGeneId;
+            GeneCount geneCount = geneCounts.computeIfAbsent(key, k -> new GeneCount(entrezGeneId,
+                geneEvents.hugoGeneSymbol, alteration, byAlteration ? geneEvents.cytoband : null));
+            for (RoaringBitmap minimumCountSamples : samplesByMinimumCount) {
+                geneCount.totalCount += RoaringBitmap.andCardinality(minimumCountSamples, samples);
+            }
+            geneCount.alteredSamples.or(RoaringBitmap.and(samplesByMinimumCount[0], samples));
+        }
+    }
+
+    private static RoaringBitmap[] toBitmaps(Map<Integer, Integer> countsBySample) {
+        int maximumCount = 0;
+        for (int count : countsBySample.values()) {
+            maximumCount = Math.max(maximumCount, count);
+        }
+        RoaringBitmap[] samplesByMinimumCount = new RoaringBitmap[maximumCount];
+        for (int i = 0; i < maximumCount; i++) {
+            samplesByMinimumCount[i] = new RoaringBitmap();
+        }
+        countsBySample.forEach((sampleId, count) -> {
+            for (int i = 0; i < count; i++) {
+                samplesByMinimumCount[i].add(sampleId);
+            }
+        });
+        for (RoaringBitmap samples : samplesByMinimumCount) {
+            samples.runOptimize();
+        }
+        return samplesByMinimumCount;
+    }
+
+    private static byte oncogenicity(String driverFilter) {
+        if (driverFilter == null) {
+            return UNKNOWN_ONCOGENICITY;
+        }
+        String lowerCaseDriverFilter = driverFilter.toLowerCase();
+        if (lowerCaseDriverFilter.equals("putative_driver")) {
+            return DRIVER;
+        }
+        if (lowerCaseDriverFilter.equals("putative_passenger")) {
+            return VUS;
+        }
+        return Arrays.asList("unknown", "na", "").contains(lowerCaseDriverFilter)
+            ? UNKNOWN_ONCOGENICITY : OTHER_ONCOGENICITY;
+    }
+
+    private static byte status(EventType eventType, String status) {
+        if (status == null) {
+            return NO_STATUS;
+        }
+        String lowerCaseStatus = status.toLowerCase();
+        if (eventType == EventType.MUTATION ? lowerCaseStatus.contains("germline") : lowerCaseStatus.equals("germline")) {
+            return GERMLINE;
+        }
+        return lowerCaseStatus.equals("somatic") ? SOMATIC : UNKNOWN_STATUS;
+    }
+
+    private static boolean isUnknown(String lowerCaseDriverTiersFilter) {
+        return lowerCaseDriverTiersFilter.isEmpty() || lowerCaseDriverTiersFilter.equals("na")
+            || lowerCaseDriverTiersFilter.equals("unknown");
+    }
+}
@@ -0,0 +1,85 @@
+package org.cbioportal.persistence.mybatis.util;
+
+import org.cbioportal.model.AlterationCountEvent;
+import org.cbioportal.model.MolecularProfile;
+import org.cbioportal.persistence.mybatis.util.AlterationCountIndex.EventType;
+import org.cbioportal.persistence.util.AbstractStudyScopedCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Size-bounded store of the {@link AlterationCountIndex} of every mutation, copy number and structural variant profile
+ * that alteration counts were requested for, by internal molecular profile id. An index is built with a single scan of
+ * the events of the profile the first time it is needed, and dropped when the study is flushed from the caches (e.g.
+ * after a study import) or when the store grows beyond its limit. When no index is retained, or the index of a profile
+ * would not fit within the limit, the alteration counts are computed by the database.
+ */
+@Component
+public class AlterationCountIndexCache extends AbstractStudyScopedCache<Integer, AlterationCountIndex> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(AlterationCountIndexCache.class);
+    // every event is at least one 16-bit value in a bitmap of the index
+    private static final long MINIMUM_BYTES_PER_EVENT = 2;
+
+    @Value("${persistence.alteration_count_index.enabled:true}")
+    private boolean indexEnabled;
+
+    @Value("${persistence.alteration_count_index.max_mega_bytes:256}")
+    private long maxMegaBytes;
+
+    public boolean isEnabled() {
+        return isRetaining();
+    }
+
+    /**
+     * @return whether the index of the molecular profile is retained, or could be retained if it was built from the
+     * number of events returned by the counter; the events are only counted when the index is not retained
+     */
+    public boolean fits(MolecularProfile molecularProfile, Function<Integer, Integer> eventCounter) {
+        if (!isRetaining()) {
+            return false;
+        }
+        Integer molecularProfileId = molecularProfile.getMolecularProfileId();
+        return getIfPresent(molecularProfileId) != null ||
+            (long) eventCounter.apply(molecularProfileId) * MINIMUM_BYTES_PER_EVENT <= maxMegaBytes * 1024 * 1024;
+    }
+
+    /**
+     * Returns the index of the molecular profile, or builds it from the events returned by the loader. Concurrent
+     * requests for a profile that is being indexed wait for that build instead of scanning the profile again.
+     */
+    public AlterationCountIndex get(MolecularProfile molecularProfile, EventType eventType,
+                                    Function<Integer, List<AlterationCountEvent>> loader) {
+
+        return get(molecularProfile.getMolecularProfileId(), molecularProfileId -> {
+            LOG.debug("Building alteration count index of " + molecularProfile.getStableId());
+            return AlterationCountIndex.build(molecularProfileId, molecularProfile.getCancerStudyIdentifier(),
+                eventType, loader.apply(molecularProfileId));
+        });
+    }
+
+    @Override
+    protected boolean isConfigured() {
+        return indexEnabled && maxMegaBytes > 0;
+    }
+
+    @Override
+    protected boolean isOfStudy(Integer molecularProfileId, AlterationCountIndex index, String studyId) {
+        return studyId.equals(index.getCancerStudyIdentifier());
+    }
+
+    @Override
+    protected long getMaxMegaBytes() {
+        return maxMegaBytes;
+    }
+
+    @Override
+    protected long weigh(Integer molecularProfileId, AlterationCountIndex index) {
+        return index.getWeight();
+    }
+}
@@ -0,0 +1,196 @@
+package org.cbioportal.persistence.mybatis.util;
+
+import org.cbioportal.model.MolecularProfileCaseIdentifier;
+import org.cbioportal.persistence.mybatis.IdListStagingMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+/**
+ * Replaces large lists of case identifiers in mapper statements by a semi-join on a temporary table. Lists with
+ * thousands of identifiers make huge IN or row constructor predicates, which are slow to parse and which MySQL
+ * often evaluates without using an index.
+ *
+ * A query is run through {@link #query}; when one of its identifier lists is larger than
+ * persistence.id_list_staging.threshold, the query runs in a transaction (temporary tables only exist for the
+ * connection that created them) and the {@link Stager} inserts the (group id, id) pairs of large lists into staging
+ * tables in batches. Every list of a query gets a table of its own, because MySQL cannot refer to a temporary table
+ * more than once in a statement (e.g. in the branches of a UNION ALL). The returned {@link StagedIdList} is passed to
+ * the mapper instead of the original list, the mapper statements select the identifiers from the staging table for it
+ * (see IdListStagingMapper.xml#selectStagedIds).
+ */
+@Component
+public class IdListStaging {
+
+    private static final int INSERT_BATCH_SIZE = 1000;
+
+    @Autowired
+    private IdListStagingMapper idListStagingMapper;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private DataSource dataSource;
+
+    @Value("${persistence.id_list_staging.threshold:2000}")
+    private int threshold;
+
+    // unique over all connections, so that lists staged by a caller's transaction are never overwritten
+    private final AtomicInteger lastListId = new AtomicInteger();
+
+    /**
+     * @return whether the list is large enough to be staged; 0 disables staging
+     */
+    public boolean isStaged(Collection<?> ids) {
+        return threshold > 0 && ids != null && ids.size() > threshold;
+    }
+
+    /**
+     * Runs the query, in a transaction if one of the identifier lists is staged.
+     *
+     * @param query runs the mapper statement with the identifier lists passed through the stager
+     * @param idLists identifier lists of the query
+     */
+    public <T> T query(Function<Stager, T> query, Collection<?>... idLists) {
+        boolean staged = false;
+        for (Collection<?> ids : idLists) {
+            staged |= isStaged(ids);
+        }
+        if (!staged) {
+            return query.apply(new Stager(false));
+        }
+
+        // joins the caller's transaction, e.g. when the result is a cursor that is read later
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRED);
+        return transactionTemplate.execute(status -> {
+            Stager stager = new Stager(status.isNewTransaction());
+            if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+                return query.apply(stager);
+            }
+            // e.g. a streamed result read in a read-only transaction: MySQL allows temporary tables in it, but
+            // Connector/J refuses all statements other than queries on a read-only connection
+            Connection connection = DataSourceUtils.getConnection(dataSource);
+            try {
+                connection.setReadOnly(false);
+                try {
+                    return query.apply(stager);
+                } finally {
+                    connection.setReadOnly(true);
+                }
+            } catch (SQLException e) {
+                throw new DataAccessResourceFailureException("Could not stage identifiers in a read-only transaction",
+                    e);
+            } finally {
+                DataSourceUtils.releaseConnection(connection, dataSource);
+            }
+        });
+    }
+
+    public class Stager {
+
+        private final boolean clear;
+        // number of the staging table of the next list of the query
+        private int nextSlot = 0;
+
+        private Stager(boolean clear) {
+            this.clear = clear;
+        }
+
+        /**
+         * @param groupIds study stable ids, parallel to ids
+         * @param ids sample or patient stable ids
+         * @return a {@link StagedIdList} of the ids if the list is large, the ids otherwise
+         */
+        public List<String> stage(List<String> groupIds, List<String> ids) {
+            return stage(ids, groupIds::get, ids::get, false);
+        }
+
+        /**
+         * @param identifiers molecular profile and case stable ids
+         * @return a {@link StagedIdList} of the identifiers if the list is large, the identifiers otherwise
+         */
+        public List<MolecularProfileCaseIdentifier> stageCases(List<MolecularProfileCaseIdentifier> identifiers) {
+            return stage(identifiers, i -> identifiers.get(i).getMolecularProfileId(),
+                i -> identifiers.get(i).getCaseId(), false);
+        }
+
+        /**
+         * @param identifiers internal molecular profile and case ids, as returned by
+         *                    AlterationCountsMapper#getMolecularProfileCaseInternalIdentifier
+         * @return a {@link StagedIdList} of the identifiers if the list is large, the identifiers otherwise
+         */
+        public List<MolecularProfileCaseIdentifier> stageInternalCases(
+            List<MolecularProfileCaseIdentifier> identifiers) {
+            return stage(identifiers, i -> Integer.valueOf(identifiers.get(i).getMolecularProfileId()),
+                i -> Integer.valueOf(identifiers.get(i).getCaseId()), true);
+        }
+
+        @SuppressWarnings("unchecked")
+        private <E, K> List<E> stage(List<E> elements, IntFunction<K> groupId, IntFunction<K> id, boolean internalIds) {
+            if (!isStaged(elements)) {
+                return elements;
+            }
+            int slot = nextSlot++;
+            // rows left by earlier transactions of the (pooled) connection are removed, unless the caller's
+            // transaction may still read them
+            if (internalIds) {
+                idListStagingMapper.createStagedInternalIdTable(slot);
+                if (clear) {
+                    idListStagingMapper.clearStagedInternalIds(slot);
+                }
+            } else {
+                idListStagingMapper.createStagedIdTable(slot);
+                if (clear) {
+                    idListStagingMapper.clearStagedIds(slot);
+                }
+            }
+
+            int listId = lastListId.incrementAndGet();
+            // pairs are the primary key of the staging tables
+            Set<Map.Entry<K, K>> pairs = new LinkedHashSet<>();
+            for (int i = 0; i < elements.size(); i++) {
+                pairs.add(Map.entry(groupId.apply(i), id.apply(i)));
+            }
+            List<K> batchGroupIds = new ArrayList<>(INSERT_BATCH_SIZE);
+            List<K> batchIds = new ArrayList<>(INSERT_BATCH_SIZE);
+            Iterator<Map.Entry<K, K>> iterator = pairs.iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<K, K> pair = iterator.next();
+                batchGroupIds.add(pair.getKey());
+                batchIds.add(pair.getValue());
+                if (batchIds.size() == INSERT_BATCH_SIZE || !iterator.hasNext()) {
+                    if (internalIds) {
+                        idListStagingMapper.insertStagedInternalIds(slot, listId, (List<Integer>) batchGroupIds,
+                            (List<Integer>) batchIds);
+                    } else {
+                        idListStagingMapper.insertStagedIds(slot, listId, (List<String>) batchGroupIds,
+                            (List<String>) batchIds);
+                    }
+                    batchGroupIds.clear();
+                    batchIds.clear();
+                }
+            }
+            return new StagedIdList<>(elements, (internalIds ? "staged_internal_id_" : "staged_id_") + slot, listId);
+        }
+    }
+}
@@ -0,0 +1,355 @@
+package org.cbioportal.persistence.mybatis.util;
+
+import org.cbioportal.model.MolecularDataMatrix;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Parses genetic_alteration.VALUES strings into a {@link MolecularDataMatrix}.
+ *
+ * Values are scanned in place, so no String is created per sample. Rows are collected in blocks of a bounded size;
+ * a full block is written with the narrowest lossless width of its rows, to the heap or to the spill file, so only
+ * the rows of one block are held while the profile is read.
+ */
+public class MolecularDataMatrixBuilder implements Closeable {
+
+    // target size of a block at double width, so that the parsed rows of a block stay small
+    private static final int BLOCK_SIZE = 1 << 26;
+    // upper limit of a single backing buffer, for profiles in which a single row is larger than BLOCK_SIZE
+    private static final int MAX_BLOCK_SIZE = 1 << 30;
+    private static final double[] POWERS_OF_TEN = new double[23];
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    private final String molecularProfileId;
+    private final String cancerStudyIdentifier;
+    private final int[] internalSampleIds;
+    private final Path spillDirectory;
+    private final int rowsPerBlock;
+    private final List<String> stableIds = new ArrayList<>();
+    private final List<ByteBuffer> blocks = new ArrayList<>();
+    private final List<Integer> blockWidths = new ArrayList<>();
+    // rows of the block that is being filled, each a byte[], float[] or double[]
+    private final List<Object> blockRows = new ArrayList<>();
+    private final double[] scratch;
+    private int blockWidth = MolecularDataMatrix.BYTE_WIDTH;
+    private FileChannel spillChannel;
+    private long spillPosition = 0;
+
+    public MolecularDataMatrixBuilder(String molecularProfileId, String cancerStudyIdentifier, int[] internalSampleIds) {
+        this(molecularProfileId, cancerStudyIdentifier, internalSampleIds, null);
+    }
+
+    /**
+     * @param spillDirectory when not null, the values are written to a file in this directory and memory-mapped
+     *                       instead of being kept on the heap
+     */
+    public MolecularDataMatrixBuilder(String molecularProfileId, String cancerStudyIdentifier, int[] internalSampleIds,
+                                      Path spillDirectory) {
+        long maxRowSize = (long) internalSampleIds.length * MolecularDataMatrix.DOUBLE_WIDTH;
+        if (maxRowSize > MAX_BLOCK_SIZE) {
+            throw new IllegalStateException("Too many samples in molecular profile " + molecularProfileId);
+        }
+        this.molecularProfileId = molecularProfileId;
+        this.cancerStudyIdentifier = cancerStudyIdentifier;
+        this.internalSampleIds = internalSampleIds;
+        this.spillDirectory = spillDirectory;
+        this.rowsPerBlock = maxRowSize == 0 ? Integer.MAX_VALUE : (int) Math.max(1, BLOCK_SIZE / maxRowSize);
+        this.scratch = new double[internalSampleIds.length];
+    }
+
+    /**
+     * Parses a genetic_profile_samples.ORDERED_SAMPLE_LIST value (comma separated, usually with a trailing comma).
+     */
+    public static int[] parseInternalSampleIds(String commaSeparatedSampleIds) {
+        int[] result = new int[16];
+        int count = 0;
+        int value = 0;
+        boolean inNumber = false;
+        for (int i = 0; i < commaSeparatedSampleIds.length(); i++) {
+            char c = commaSeparatedSampleIds.charAt(i);
+            if (c == ',') {
+                if (inNumber) {
+                    if (count == result.length) {
+                        result = Arrays.copyOf(result, count * 2);
+                    }
+                    result[count++] = value;
+                }
+                value = 0;
+                inNumber = false;
+            } else if (c >= '0' && c <= '9') {
+                value = value * 10 + (c - '0');
+                inNumber = true;
+            } else if (!Character.isWhitespace(c)) {
+                throw new NumberFormatException("Invalid sample id list: " + commaSeparatedSampleIds);
+            }
+        }
+        if (inNumber) {
+            result = Arrays.copyOf(result, count + 1);
+            result[count++] = value;
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    /**
+     * Adds the values of one genetic entity. Values beyond the number of samples in the profile are ignored,
+     * missing values are treated as NA.
+     */
+    public MolecularDataMatrixBuilder addRow(String stableId, String commaSeparatedValues) {
+
+        parseRow(commaSeparatedValues, scratch);
+        int rowWidth = narrowestWidth(scratch);
+        blockWidth = Math.max(blockWidth, rowWidth);
+        stableIds.add(stableId);
+        blockRows.add(toRow(scratch, rowWidth));
+        if (blockRows.size() == rowsPerBlock) {
+            writeBlock();
+        }
+        return this;
+    }
+
+    /**
+     * Parses the values of one genetic entity into target, one value per sample. Values beyond the length of target
+     * are ignored, missing values and values that are not numbers are NaN.
+     */
+    public static void parseRow(String commaSeparatedValues, double[] target) {
+        Arrays.fill(target, Double.NaN);
+        if (commaSeparatedValues != null) {
+            int sampleIndex = 0;
+            int start = 0;
+            int length = commaSeparatedValues.length();
+            while (sampleIndex < target.length && start <= length) {
+                int end = commaSeparatedValues.indexOf(',', start);
+                if (end < 0) {
+                    end = length;
+                }
+                target[sampleIndex++] = parseValue(commaSeparatedValues, start, end);
+                start = end + 1;
+            }
+        }
+    }
+
+    public MolecularDataMatrix build() {
+        if (!blockRows.isEmpty()) {
+            writeBlock();
+        }
+        // the spill file is unlinked, the mapped blocks remain valid until garbage collected
+        close();
+        return new MolecularDataMatrix(molecularProfileId, cancerStudyIdentifier, internalSampleIds,
+            stableIds.toArray(new String[0]), rowsPerBlock, blocks.toArray(new ByteBuffer[0]),
+            blockWidths.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    /**
+     * Removes the spill file of a matrix that is not built, e.g. because reading the profile failed.
+     */
+    @Override
+    public void close() {
+        if (spillChannel != null) {
+            try {
+                spillChannel.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not close spill file of molecular profile " +
+                    molecularProfileId, e);
+            } finally {
+                spillChannel = null;
+            }
+        }
+    }
+
+    private void writeBlock() {
+        ByteBuffer buffer = ByteBuffer.allocate(blockRows.size() * internalSampleIds.length * blockWidth)
+            .order(ByteOrder.nativeOrder());
+        for (Object row : blockRows) {
+            writeRow(buffer, row, blockWidth);
+        }
+        buffer.flip();
+        if (spillDirectory != null) {
+            try {
+                if (spillChannel == null) {
+                    spillChannel = openSpillFile(spillDirectory);
+                }
+                int blockSize = buffer.remaining();
+                while (buffer.hasRemaining()) {
+                    spillPosition += spillChannel.write(buffer, spillPosition);
+                }
+                buffer = spillChannel.map(FileChannel.MapMode.READ_ONLY, spillPosition - blockSize, blockSize)
+                    .order(ByteOrder.nativeOrder());
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not spill molecular profile " + molecularProfileId, e);
+            }
+        }
+        blocks.add(buffer);
+        blockWidths.add(blockWidth);
+        blockRows.clear();
+        blockWidth = MolecularDataMatrix.BYTE_WIDTH;
+    }
+
+    /**
+     * Parses the value between start (inclusive) and end (exclusive). Anything that is not a plain decimal number
+     * (optional sign, digits, optional fraction and exponent) is NA and returned as NaN. The result is identical to
+     * {@link Double#parseDouble(String)} for all accepted input.
+     */
+    static double parseValue(String values, int start, int end) {
+
+        int i = start;
+        boolean negative = false;
+        if (i < end && (values.charAt(i) == '-' || values.charAt(i) == '+')) {
+            negative = values.charAt(i) == '-';
+            i++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int significantDigits = 0;
+        int fractionDigits = 0;
+        boolean seenDot = false;
+        for (; i < end; i++) {
+            char c = values.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits++;
+                if (mantissa != 0 || c != '0') {
+                    significantDigits++;
+                }
+                if (significantDigits <= 18) {
+                    mantissa = mantissa * 10 + (c - '0');
+                    if (seenDot) {
+                        fractionDigits++;
+                    }
+                }
+            } else if (c == '.' && !seenDot) {
+                seenDot = true;
+            } else {
+                break;
+            }
+        }
+        if (digits == 0) {
+            return Double.NaN;
+        }
+        int exponent = 0;
+        if (i < end) {
+            char c = values.charAt(i);
+            if (c != 'e' && c != 'E') {
+                return Double.NaN;
+            }
+            i++;
+            boolean negativeExponent = false;
+            if (i < end && (values.charAt(i) == '-' || values.charAt(i) == '+')) {
+                negativeExponent = values.charAt(i) == '-';
+                i++;
+            }
+            if (i == end) {
+                return Double.NaN;
+            }
+            for (; i < end; i++) {
+                c = values.charAt(i);
+                if (c < '0' || c > '9') {
+                    return Double.NaN;
+                }
+                exponent = Math.min(exponent * 10 + (c - '0'), 10000);
+            }
+            if (negativeExponent) {
+                exponent = -exponent;
+            }
+        }
+
+        // fast path: the mantissa and the power of ten are both exact doubles, so a single multiplication or
+        // division is correctly rounded
+        int scale = exponent - fractionDigits;
+        if (significantDigits <= 18 && mantissa < MAX_EXACT_MANTISSA && Math.abs(scale) < POWERS_OF_TEN.length) {
+            double value = scale < 0 ? mantissa / POWERS_OF_TEN[-scale] : mantissa * POWERS_OF_TEN[scale];
+            return negative ? -value : value;
+        }
+        return Double.parseDouble(values.substring(start, end));
+    }
+
+    private static int narrowestWidth(double[] values) {
+        int width = MolecularDataMatrix.BYTE_WIDTH;
+        for (double value : values) {
+            if (Double.isNaN(value)) {
+                continue;
+            }
+            if (width == MolecularDataMatrix.BYTE_WIDTH
+                && (value != Math.rint(value) || value <= MolecularDataMatrix.BYTE_NA || value > Byte.MAX_VALUE
+                || (value == 0 && Double.doubleToRawLongBits(value) != 0))) {
+                width = MolecularDataMatrix.FLOAT_WIDTH;
+            }
+            if (width == MolecularDataMatrix.FLOAT_WIDTH && (double) (float) value != value) {
+                return MolecularDataMatrix.DOUBLE_WIDTH;
+            }
+        }
+        return width;
+    }
+
+    private static Object toRow(double[] values, int width) {
+        switch (width) {
+            case MolecularDataMatrix.BYTE_WIDTH:
+                byte[] bytes = new byte[values.length];
+                for (int i = 0; i < values.length; i++) {
+                    bytes[i] = Double.isNaN(values[i]) ? MolecularDataMatrix.BYTE_NA : (byte) values[i];
+                }
+                return bytes;
+            case MolecularDataMatrix.FLOAT_WIDTH:
+                float[] floats = new float[values.length];
+                for (int i = 0; i < values.length; i++) {
+                    floats[i] = (float) values[i];
+                }
+                return floats;
+            default:
+                return values.clone();
+        }
+    }
+
+    private static void writeRow(ByteBuffer buffer, Object row, int valueWidth) {
+        if (row instanceof byte[] bytes) {
+            for (byte value : bytes) {
+                putValue(buffer, value == MolecularDataMatrix.BYTE_NA ? Double.NaN : value, valueWidth);
+            }
+        } else if (row instanceof float[] floats) {
+            for (float value : floats) {
+                putValue(buffer, value, valueWidth);
+            }
+        } else {
+            for (double value : (double[]) row) {
+                putValue(buffer, value, valueWidth);
+            }
+        }
+    }
+
+    private static void putValue(ByteBuffer buffer, double value, int valueWidth) {
+        switch (valueWidth) {
+            case MolecularDataMatrix.BYTE_WIDTH:
+                buffer.put(Double.isNaN(value) ? MolecularDataMatrix.BYTE_NA : (byte) value);
+                break;
+            case MolecularDataMatrix.FLOAT_WIDTH:
+                buffer.putFloat((float) value);
+                break;
+            default:
+                buffer.putDouble(value);
+        }
+    }
+
+    private static FileChannel openSpillFile(Path spillDirectory) throws IOException {
+        Files.createDirectories(spillDirectory);
+        Path file = Files.createTempFile(spillDirectory, "molecular-data-", ".bin");
+        // the file is unlinked when the channel is closed
+        return FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE,
+            StandardOpenOption.DELETE_ON_CLOSE);
+    }
+}
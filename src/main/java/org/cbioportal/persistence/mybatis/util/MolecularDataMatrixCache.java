@@ -0,0 +1,61 @@
+package org.cbioportal.persistence.mybatis.util;
+
+import org.apache.commons.lang3.StringUtils;
+import org.cbioportal.model.MolecularDataMatrix;
+import org.cbioportal.persistence.util.AbstractStudyScopedCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Size-bounded store of parsed molecular profiles, by molecular profile stable id. Matrices are too large to go
+ * through the general repository cache (Ehcache/Redis serialize every entry), so they are kept here as plain
+ * references. Profiles that are not retained (caching disabled, or larger than the limit) are parsed row by row on
+ * every request instead of being built into a matrix.
+ */
+@Component
+public class MolecularDataMatrixCache extends AbstractStudyScopedCache<String, MolecularDataMatrix> {
+
+    @Value("${persistence.molecular_data_matrix_cache.max_mega_bytes:1024}")
+    private long maxMegaBytes;
+
+    @Value("${persistence.molecular_data_matrix_cache.spill_directory:}")
+    private String spillDirectory;
+
+    /**
+     * @return directory for memory-mapped matrices, or null when matrices are kept on the heap
+     */
+    public Path getSpillDirectory() {
+        return StringUtils.isBlank(spillDirectory) ? null : Paths.get(spillDirectory);
+    }
+
+    /**
+     * @return whether a matrix of at least the given size could be retained
+     */
+    public boolean fits(long minimumSizeInBytes) {
+        return isRetaining() && minimumSizeInBytes <= maxMegaBytes * 1024 * 1024;
+    }
+
+    @Override
+    protected boolean isConfigured() {
+        return maxMegaBytes > 0;
+    }
+
+    @Override
+    protected boolean isOfStudy(String molecularProfileId, MolecularDataMatrix matrix, String studyId) {
+        return studyId.equals(matrix.getCancerStudyIdentifier());
+    }
+
+    @Override
+    protected long getMaxMegaBytes() {
+        return maxMegaBytes;
+    }
+
+    @Override
+    protected long weigh(String molecularProfileId, MolecularDataMatrix matrix) {
+        // the limit applies to memory-mapped matrices as well, to bound the size of the spill directory
+        return matrix.getSizeInBytes();
+    }
+}
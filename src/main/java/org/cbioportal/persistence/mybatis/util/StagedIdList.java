@@ -0,0 +1,46 @@
+package org.cbioportal.persistence.mybatis.util;
+
+import java.util.AbstractList;
+import java.util.List;
+
+/**
+ * A list of case identifiers that was staged by {@link IdListStaging}. The elements are those of the original list,
+ * mapper statements test for this class and select the identifiers from the staging table instead of binding each
+ * of them (see IdListStagingMapper.xml).
+ */
+public final class StagedIdList<E> extends AbstractList<E> {
+
+    private final List<E> ids;
+    private final String table;
+    private final int listId;
+
+    StagedIdList(List<E> ids, String table, int listId) {
+        this.ids = ids;
+        this.table = table;
+        this.listId = listId;
+    }
+
+    /**
+     * @return the staging table of this list, of its own within the statement
+     */
+    public String getTable() {
+        return table;
+    }
+
+    /**
+     * @return the id of the rows of this list in the staging table
+     */
+    public int getListId() {
+        return listId;
+    }
+
+    @Override
+    public E get(int index) {
+        return ids.get(index);
+    }
+
+    @Override
+    public int size() {
+        return ids.size();
+    }
+}
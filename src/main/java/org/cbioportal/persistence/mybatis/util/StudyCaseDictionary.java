@@ -0,0 +1,95 @@
+package org.cbioportal.persistence.mybatis.util;
+
+import org.cbioportal.model.MolecularProfile;
+import org.cbioportal.model.Sample;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The internal ids of the molecular profiles, samples and patients of a study by their stable ids, to translate the
+ * (molecular profile, case) identifiers of a request into internal ids without a query. Like
+ * AlterationCountsMapper#getMolecularProfileCaseInternalIdentifier, every case of the study is a case of each of its
+ * profiles, and only patients with samples are included.
+ */
+public final class StudyCaseDictionary {
+
+    private final String studyId;
+    private final Map<String, MolecularProfile> molecularProfiles;
+    private final Map<String, Integer> sampleInternalIds;
+    private final Map<String, Integer> patientInternalIds;
+
+    private StudyCaseDictionary(String studyId,
+                                Map<String, MolecularProfile> molecularProfiles,
+                                Map<String, Integer> sampleInternalIds,
+                                Map<String, Integer> patientInternalIds) {
+        this.studyId = studyId;
+        this.molecularProfiles = molecularProfiles;
+        this.sampleInternalIds = sampleInternalIds;
+        this.patientInternalIds = patientInternalIds;
+    }
+
+    /**
+     * @param molecularProfiles all molecular profiles of the study (SUMMARY projection)
+     * @param samples all samples of the study, with the internal id of their patient (SUMMARY projection)
+     */
+    public static StudyCaseDictionary build(String studyId,
+                                            Collection<MolecularProfile> molecularProfiles,
+                                            List<Sample> samples) {
+        Map<String, MolecularProfile> molecularProfilesByStableId = new HashMap<>();
+        for (MolecularProfile molecularProfile : molecularProfiles) {
+            molecularProfilesByStableId.put(molecularProfile.getStableId(), molecularProfile);
+        }
+        Map<String, Integer> sampleInternalIds = new HashMap<>(samples.size() * 2);
+        Map<String, Integer> patientInternalIds = new HashMap<>();
+        for (Sample sample : samples) {
+            sampleInternalIds.put(sample.getStableId(), sample.getInternalId());
+            patientInternalIds.put(sample.getPatientStableId(), sample.getPatientId());
+        }
+        return new StudyCaseDictionary(studyId, molecularProfilesByStableId, sampleInternalIds, patientInternalIds);
+    }
+
+    public String getStudyId() {
+        return studyId;
+    }
+
+    public Collection<MolecularProfile> getMolecularProfiles() {
+        return molecularProfiles.values();
+    }
+
+    public MolecularProfile getMolecularProfile(String molecularProfileId) {
+        return molecularProfiles.get(molecularProfileId);
+    }
+
+    /**
+     * @return the internal id of the sample, or null if the study has no such sample
+     */
+    public Integer getSampleInternalId(String sampleId) {
+        return sampleInternalIds.get(sampleId);
+    }
+
+    /**
+     * @return the internal id of the patient, or null if the study has no such patient with samples
+     */
+    public Integer getPatientInternalId(String patientId) {
+        return patientInternalIds.get(patientId);
+    }
+
+    /**
+     * @return approximate number of bytes held by the dictionary
+     */
+    long getWeight() {
+        // the stable ids are only referenced from here, so they are counted with the map entries
+        return 256L + 256L * molecularProfiles.size() + getWeight(sampleInternalIds) + getWeight(patientInternalIds);
+    }
+
+    private static long getWeight(Map<String, Integer> internalIds) {
+        long weight = 0;
+        for (String stableId : internalIds.keySet()) {
+            weight += 112L + stableId.length();
+        }
+        return weight;
+    }
+}
@@ -0,0 +1,176 @@
+package org.cbioportal.persistence.mybatis.util;
+
+import org.cbioportal.model.MolecularProfile;
+import org.cbioportal.model.MolecularProfileCaseIdentifier;
+import org.cbioportal.persistence.mybatis.MolecularProfileMapper;
+import org.cbioportal.persistence.mybatis.SampleMapper;
+import org.cbioportal.persistence.util.AbstractStudyScopedCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Size-bounded store of the {@link StudyCaseDictionary} of every study that molecular profile case identifiers were
+ * translated for, so that the alteration count queries get the internal ids of their profiles and cases without a
+ * query each time. A dictionary is loaded the first time a profile of the study is requested, and dropped when the
+ * study is flushed from the caches (e.g. after a study import) or when the store grows beyond its limit. When no
+ * dictionary is retained, the ids are translated by the database.
+ */
+@Component
+public class StudyCaseDictionaryCache extends AbstractStudyScopedCache<String, StudyCaseDictionary> {
+
+    @Autowired
+    private MolecularProfileMapper molecularProfileMapper;
+    @Autowired
+    private SampleMapper sampleMapper;
+
+    @Value("${persistence.study_case_dictionary.enabled:true}")
+    private boolean dictionaryEnabled;
+
+    @Value("${persistence.study_case_dictionary.max_mega_bytes:128}")
+    private long maxMegaBytes;
+
+    // study of every molecular profile of the loaded dictionaries, also kept when a dictionary is removed for its size
+    private final Map<String, String> studyIdsOfMolecularProfiles = new ConcurrentHashMap<>();
+
+    public boolean isEnabled() {
+        return isRetaining();
+    }
+
+    /**
+     * @return the existing molecular profiles among the given ones (SUMMARY projection), by stable id
+     */
+    public Map<String, MolecularProfile> getMolecularProfiles(Collection<String> molecularProfileIds) {
+        Map<String, StudyCaseDictionary> dictionariesOfProfiles = getDictionaries(molecularProfileIds);
+        Map<String, MolecularProfile> molecularProfiles = new HashMap<>();
+        for (String molecularProfileId : molecularProfileIds) {
+            StudyCaseDictionary dictionary = dictionariesOfProfiles.get(molecularProfileId);
+            if (dictionary != null) {
+                molecularProfiles.put(molecularProfileId, dictionary.getMolecularProfile(molecularProfileId));
+            }
+        }
+        return molecularProfiles;
+    }
+
+    /**
+     * Translates the stable ids of molecular profiles and samples or patients into internal ids, with the same result
+     * as AlterationCountsMapper#getMolecularProfileCaseInternalIdentifier: cases that are not in the study of the
+     * profile are left out.
+     *
+     * @param caseType SAMPLE_ID or PATIENT_ID
+     */
+    public List<MolecularProfileCaseIdentifier> getMolecularProfileCaseInternalIdentifiers(
+        Collection<MolecularProfileCaseIdentifier> molecularProfileCaseIdentifiers, String caseType) {
+
+        Set<String> molecularProfileIds = new HashSet<>();
+        for (MolecularProfileCaseIdentifier identifier : molecularProfileCaseIdentifiers) {
+            molecularProfileIds.add(identifier.getMolecularProfileId());
+        }
+        Map<String, StudyCaseDictionary> dictionariesOfProfiles = getDictionaries(molecularProfileIds);
+        boolean patients = "PATIENT_ID".equals(caseType);
+
+        List<MolecularProfileCaseIdentifier> internalIdentifiers = new ArrayList<>(molecularProfileCaseIdentifiers.size());
+        for (MolecularProfileCaseIdentifier identifier : molecularProfileCaseIdentifiers) {
+            StudyCaseDictionary dictionary = dictionariesOfProfiles.get(identifier.getMolecularProfileId());
+            if (dictionary == null) {
+                continue;
+            }
+            Integer caseInternalId = patients ? dictionary.getPatientInternalId(identifier.getCaseId()) :
+                dictionary.getSampleInternalId(identifier.getCaseId());
+            if (caseInternalId != null) {
+                internalIdentifiers.add(new MolecularProfileCaseIdentifier(caseInternalId.toString(),
+                    dictionary.getMolecularProfile(identifier.getMolecularProfileId()).getMolecularProfileId()
+                        .toString()));
+            }
+        }
+        return internalIdentifiers;
+    }
+
+    // dictionaries by molecular profile stable id, loading the studies of profiles that were not seen yet
+    private Map<String, StudyCaseDictionary> getDictionaries(Collection<String> molecularProfileIds) {
+        Map<String, StudyCaseDictionary> dictionariesOfProfiles = new HashMap<>();
+        Set<String> unknownMolecularProfileIds = new HashSet<>();
+        for (String molecularProfileId : molecularProfileIds) {
+            StudyCaseDictionary dictionary = getDictionaryOfProfile(molecularProfileId);
+            if (dictionary != null) {
+                dictionariesOfProfiles.put(molecularProfileId, dictionary);
+            } else {
+                unknownMolecularProfileIds.add(molecularProfileId);
+            }
+        }
+        if (unknownMolecularProfileIds.isEmpty()) {
+            return dictionariesOfProfiles;
+        }
+
+        long loadGeneration = getGeneration();
+        Set<String> studyIds = new HashSet<>();
+        for (MolecularProfile molecularProfile : molecularProfileMapper.getMolecularProfiles(unknownMolecularProfileIds,
+            "SUMMARY")) {
+            studyIds.add(molecularProfile.getCancerStudyIdentifier());
+        }
+        for (String studyId : studyIds) {
+            StudyCaseDictionary dictionary = StudyCaseDictionary.build(studyId,
+                molecularProfileMapper.getAllMolecularProfilesInStudies(Collections.singletonList(studyId), "SUMMARY",
+                    null, null, null, null),
+                sampleMapper.getSamples(Collections.singletonList(studyId), null, null, null, "SUMMARY", null, null,
+                    null, null));
+            put(studyId, dictionary, loadGeneration);
+            for (MolecularProfile molecularProfile : dictionary.getMolecularProfiles()) {
+                studyIdsOfMolecularProfiles.put(molecularProfile.getStableId(), studyId);
+                if (unknownMolecularProfileIds.contains(molecularProfile.getStableId())) {
+                    dictionariesOfProfiles.put(molecularProfile.getStableId(), dictionary);
+                }
+            }
+        }
+        return dictionariesOfProfiles;
+    }
+
+    private StudyCaseDictionary getDictionaryOfProfile(String molecularProfileId) {
+        String studyId = studyIdsOfMolecularProfiles.get(molecularProfileId);
+        StudyCaseDictionary dictionary = studyId == null ? null : getIfPresent(studyId);
+        // the dictionary may have been dropped, or the profile deleted from the study since it was seen
+        return dictionary == null || dictionary.getMolecularProfile(molecularProfileId) == null ? null : dictionary;
+    }
+
+    @Override
+    public synchronized void evictStudy(String studyId) {
+        super.evictStudy(studyId);
+        studyIdsOfMolecularProfiles.values().removeIf(studyId::equals);
+    }
+
+    @Override
+    public synchronized void evictAll() {
+        super.evictAll();
+        studyIdsOfMolecularProfiles.clear();
+    }
+
+    @Override
+    protected boolean isConfigured() {
+        return dictionaryEnabled && maxMegaBytes > 0;
+    }
+
+    @Override
+    protected boolean isOfStudy(String studyId, StudyCaseDictionary dictionary, String evictedStudyId) {
+        return studyId.equals(evictedStudyId);
+    }
+
+    @Override
+    protected long getMaxMegaBytes() {
+        return maxMegaBytes;
+    }
+
+    @Override
+    protected long weigh(String studyId, StudyCaseDictionary dictionary) {
+        return dictionary.getWeight();
+    }
+}
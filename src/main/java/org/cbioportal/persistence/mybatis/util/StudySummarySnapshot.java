@@ -0,0 +1,110 @@
+package org.cbioportal.persistence.mybatis.util;
+
+import org.cbioportal.model.CancerStudy;
+import org.cbioportal.persistence.mybatis.StudyMapper;
+import org.cbioportal.persistence.util.AbstractStudyScopedCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Keeps the sample counts of every study that was listed (the sizes of the _all, _sequenced, _cna, ... sample lists,
+ * and the number of patients with treatments and of samples with structural variants), so that listing studies does
+ * not aggregate all sample lists of the database each time.
+ *
+ * The summary of a study is loaded the first time the study is listed, and loaded again when the import date of the
+ * study changed (i.e. the study was imported again) or after the study was flushed from the caches. Summaries of
+ * deleted studies are dropped when the caches are flushed for the study. When no summary is retained, the counts are
+ * computed by the database.
+ */
+@Component
+public class StudySummarySnapshot extends AbstractStudyScopedCache<String, CancerStudy> {
+
+    @Autowired
+    private StudyMapper studyMapper;
+
+    @Value("${persistence.study_summary_snapshot.enabled:true}")
+    private boolean snapshotEnabled;
+
+    public boolean isEnabled() {
+        return isRetaining();
+    }
+
+    /**
+     * Sets the sample counts of the studies that getStudies sets for the projection: the number of all samples for
+     * the SUMMARY and DETAILED projections, all other counts for the DETAILED projection.
+     *
+     * @param studies studies of StudyMapper#getStudiesWithoutSampleCounts
+     */
+    public void setSampleCounts(Collection<CancerStudy> studies, String projection) {
+        boolean summary = "SUMMARY".equals(projection);
+        boolean detailed = "DETAILED".equals(projection);
+        if (!summary && !detailed) {
+            return;
+        }
+
+        Map<String, CancerStudy> studySummaries = new HashMap<>();
+        List<String> staleStudyIds = new ArrayList<>();
+        for (CancerStudy study : studies) {
+            CancerStudy studySummary = getIfPresent(study.getCancerStudyIdentifier());
+            if (studySummary != null && Objects.equals(studySummary.getImportDate(), study.getImportDate())) {
+                studySummaries.put(study.getCancerStudyIdentifier(), studySummary);
+            } else {
+                staleStudyIds.add(study.getCancerStudyIdentifier());
+            }
+        }
+        if (!staleStudyIds.isEmpty()) {
+            studySummaries.putAll(loadSummaries(staleStudyIds));
+        }
+
+        for (CancerStudy study : studies) {
+            CancerStudy studySummary = studySummaries.get(study.getCancerStudyIdentifier());
+            if (studySummary == null) {
+                // the sample lists of the study changed while it was listed
+                continue;
+            }
+            study.setAllSampleCount(studySummary.getAllSampleCount());
+            if (detailed) {
+                study.setSequencedSampleCount(studySummary.getSequencedSampleCount());
+                study.setCnaSampleCount(studySummary.getCnaSampleCount());
+                study.setMrnaRnaSeqSampleCount(studySummary.getMrnaRnaSeqSampleCount());
+                study.setMrnaRnaSeqV2SampleCount(studySummary.getMrnaRnaSeqV2SampleCount());
+                study.setMiRnaSampleCount(studySummary.getMiRnaSampleCount());
+                study.setMrnaMicroarraySampleCount(studySummary.getMrnaMicroarraySampleCount());
+                study.setMethylationHm27SampleCount(studySummary.getMethylationHm27SampleCount());
+                study.setRppaSampleCount(studySummary.getRppaSampleCount());
+                study.setMassSpectrometrySampleCount(studySummary.getMassSpectrometrySampleCount());
+                study.setCompleteSampleCount(studySummary.getCompleteSampleCount());
+                study.setTreatmentCount(studySummary.getTreatmentCount());
+                study.setStructuralVariantCount(studySummary.getStructuralVariantCount());
+            }
+        }
+    }
+
+    private Map<String, CancerStudy> loadSummaries(List<String> studyIds) {
+        Map<String, CancerStudy> loadedSummaries = new HashMap<>();
+        long loadGeneration = getGeneration();
+        for (CancerStudy studySummary : studyMapper.getStudySummaries(studyIds)) {
+            loadedSummaries.put(studySummary.getCancerStudyIdentifier(), studySummary);
+        }
+        putAll(loadedSummaries, loadGeneration);
+        return loadedSummaries;
+    }
+
+    @Override
+    protected boolean isConfigured() {
+        return snapshotEnabled;
+    }
+
+    @Override
+    protected boolean isOfStudy(String studyId, CancerStudy studySummary, String evictedStudyId) {
+        return studyId.equals(evictedStudyId);
+    }
+}
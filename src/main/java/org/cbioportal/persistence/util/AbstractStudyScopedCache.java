@@ -0,0 +1,170 @@
+package org.cbioportal.persistence.util;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.cbioportal.persistence.CacheEnabledConfig;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Base of the {@link StudyScopedCache}s that keep values derived from study data by key, optionally bounded by the
+ * approximate size of the values (see {@link #getMaxMegaBytes()}).
+ *
+ * Values are only retained when caching is enabled (persistence.cache_type), because only then is the portal expected
+ * to flush caches after data changes. Every eviction starts a new generation; values that were loaded in an earlier
+ * generation are not stored, so a load that overlaps a flush does not bring back stale data.
+ */
+public abstract class AbstractStudyScopedCache<K, V> implements StudyScopedCache {
+
+    @Autowired
+    private CacheEnabledConfig cacheEnabledConfig;
+
+    private volatile Cache<K, V> values;
+    private final Map<K, CompletableFuture<V>> loading = new ConcurrentHashMap<>();
+    // incremented on every eviction so that loads which started before the eviction are not stored
+    private long generation = 0;
+
+    /**
+     * @return whether the properties of the cache itself switch it on, e.g. a size limit above 0
+     */
+    protected abstract boolean isConfigured();
+
+    /**
+     * @return whether the value holds data of the study
+     */
+    protected abstract boolean isOfStudy(K key, V value, String studyId);
+
+    /**
+     * @return limit of the total weight of the retained values in megabytes, or 0 when the cache is not bounded
+     */
+    protected long getMaxMegaBytes() {
+        return 0;
+    }
+
+    /**
+     * @return approximate number of bytes held by the entry, only called when the cache is bounded
+     */
+    protected long weigh(K key, V value) {
+        return 0;
+    }
+
+    public boolean isRetaining() {
+        return cacheEnabledConfig.isEnabled() && isConfigured();
+    }
+
+    /**
+     * @return the current generation, to be passed to {@link #put} or {@link #putAll} with the values loaded afterwards
+     */
+    public synchronized long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * @return the retained value, or null when the value is not retained (or nothing is retained at all)
+     */
+    public V getIfPresent(K key) {
+        return isRetaining() ? getValues().getIfPresent(key) : null;
+    }
+
+    /**
+     * Returns the retained value, or loads it. Concurrent requests for a value that is being loaded wait for that
+     * load instead of loading the value again. Null values are returned but not retained.
+     */
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        if (!isRetaining()) {
+            return loader.apply(key);
+        }
+        V value = getValues().getIfPresent(key);
+        if (value != null) {
+            return value;
+        }
+        long loadGeneration = getGeneration();
+
+        CompletableFuture<V> future = new CompletableFuture<>();
+        CompletableFuture<V> inFlight = loading.putIfAbsent(key, future);
+        if (inFlight != null) {
+            try {
+                return inFlight.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+            }
+        }
+
+        try {
+            value = loader.apply(key);
+            if (value != null) {
+                put(key, value, loadGeneration);
+            }
+            future.complete(value);
+            return value;
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(key, future);
+        }
+    }
+
+    /**
+     * Stores the value unless the cache was flushed since the given generation.
+     */
+    public void put(K key, V value, long loadGeneration) {
+        putAll(Map.of(key, value), loadGeneration);
+    }
+
+    /**
+     * Stores the values unless the cache was flushed since the given generation.
+     */
+    public void putAll(Map<? extends K, ? extends V> loadedValues, long loadGeneration) {
+        if (!isRetaining()) {
+            return;
+        }
+        Cache<K, V> cache = getValues();
+        synchronized (this) {
+            if (loadGeneration == generation) {
+                cache.putAll(loadedValues);
+            }
+        }
+    }
+
+    @Override
+    public synchronized void evictStudy(String studyId) {
+        generation++;
+        if (values != null) {
+            values.asMap().entrySet().removeIf(entry -> isOfStudy(entry.getKey(), entry.getValue(), studyId));
+        }
+    }
+
+    @Override
+    public synchronized void evictAll() {
+        generation++;
+        if (values != null) {
+            values.invalidateAll();
+        }
+    }
+
+    private Cache<K, V> getValues() {
+        Cache<K, V> cache = values;
+        if (cache == null) {
+            synchronized (this) {
+                if (values == null) {
+                    // built on first use, after the properties of the subclass have been injected
+                    long maxMegaBytes = getMaxMegaBytes();
+                    values = maxMegaBytes > 0 ?
+                        Caffeine.newBuilder()
+                            .maximumWeight(maxMegaBytes * 1024 * 1024)
+                            .weigher((K key, V value) -> (int) Math.min(Integer.MAX_VALUE, weigh(key, value)))
+                            .build() :
+                        Caffeine.newBuilder().build();
+                }
+                cache = values;
+            }
+        }
+        return cache;
+    }
+}
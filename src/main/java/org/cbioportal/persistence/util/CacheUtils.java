@@ -5,4 +5,10 @@ import java.util.List;
 public interface CacheUtils {
     List<String> getKeys(String cacheName);
     void evictByPattern(String cacheName, String pattern);
+
+    /**
+     * Evicts the keys of the given study and the keys that are not specific to a study; see
+     * {@link StudyTaggedCacheKey}.
+     */
+    void evictStudy(String cacheName, String studyId);
 }
@@ -0,0 +1,75 @@
+package org.cbioportal.persistence.util;
+
+import org.cbioportal.utils.concurrency.ConcurrencyLimit;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Holds a permit of the {@link ConcurrencyLimit} for every open connection, so that requests running on virtual threads
+ * wait for a connection in order instead of failing once the wait for the connection pool times out.
+ */
+public class ConcurrencyLimitedDataSource extends DelegatingDataSource {
+
+    private final ConcurrencyLimit concurrencyLimit;
+
+    public ConcurrencyLimitedDataSource(DataSource targetDataSource, ConcurrencyLimit concurrencyLimit) {
+        super(targetDataSource);
+        this.concurrencyLimit = concurrencyLimit;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        acquire();
+        try {
+            return releaseOnClose(super.getConnection());
+        } catch (SQLException | RuntimeException e) {
+            concurrencyLimit.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        acquire();
+        try {
+            return releaseOnClose(super.getConnection(username, password));
+        } catch (SQLException | RuntimeException e) {
+            concurrencyLimit.release();
+            throw e;
+        }
+    }
+
+    private void acquire() throws SQLException {
+        try {
+            if (!concurrencyLimit.acquire()) {
+                throw new SQLTransientConnectionException("Timed out waiting for a " + concurrencyLimit.getName() +
+                    " connection, " + concurrencyLimit.getQueueLength() + " requests are waiting");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrupted while waiting for a connection", e);
+        }
+    }
+
+    private Connection releaseOnClose(Connection connection) {
+        AtomicBoolean released = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+            (proxy, method, args) -> {
+                if (method.getName().equals("close") && released.compareAndSet(false, true)) {
+                    concurrencyLimit.release();
+                }
+                try {
+                    return method.invoke(connection, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getTargetException();
+                }
+            });
+    }
+}
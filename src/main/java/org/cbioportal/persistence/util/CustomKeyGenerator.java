@@ -45,14 +45,27 @@ import org.springframework.cache.interceptor.KeyGenerator;
 import org.springframework.util.DigestUtils;
 
 import java.lang.reflect.Method;
-import java.util.Arrays;
-import java.util.stream.Collectors;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
 
-
-public class CustomKeyGenerator implements KeyGenerator {
+/**
+ * Generates {@link StudyTaggedCacheKey}s: the class, method and (JSON) parameters of the cached call, tagged with the
+ * ids of the studies that occur in the parameters.
+ *
+ * The study ids are found without a database query, by looking up the words of the parameters (and the parts of
+ * them between underscores, e.g. the study of a molecular profile id) in the ids of all studies, which are read
+ * once and again after the caches of a study are evicted.
+ */
+public class CustomKeyGenerator implements KeyGenerator, StudyScopedCache {
     public static final String CACHE_KEY_PARAM_DELIMITER = "_";
     public static final int PARAM_LENGTH_HASH_LIMIT = 1024;
 
+    private static final Pattern REGULAR_STUDY_ID = Pattern.compile("[A-Za-z0-9_]+");
+
     @Autowired
     private CacheEnabledConfig cacheEnabledConfig;
 
@@ -63,20 +76,31 @@ public class CustomKeyGenerator implements KeyGenerator {
 
     private static final Logger LOG = LoggerFactory.getLogger(CustomKeyGenerator.class);
 
+    // null until read (again)
+    private volatile StudyIds studyIds;
+    // reading the study ids generates the key of the (cached) study query, which must not read them again
+    private final ThreadLocal<Boolean> readingStudyIds = ThreadLocal.withInitial(() -> false);
+
     public Object generate(Object target, Method method, Object... params) {
         if (!cacheEnabledConfig.isEnabled()) {
             return "";
         }
-        String key = target.getClass().getSimpleName() + CACHE_KEY_PARAM_DELIMITER
-            + method.getName() + CACHE_KEY_PARAM_DELIMITER
-            + Arrays.stream(params)
-                .map(this::exceptionlessWrite)
-                .collect(Collectors.joining(CACHE_KEY_PARAM_DELIMITER));
+        StudyIds studyIds = getStudyIds();
+        Set<String> keyStudyIds = new LinkedHashSet<>();
+        StringBuilder key = new StringBuilder()
+            .append(target.getClass().getSimpleName()).append(CACHE_KEY_PARAM_DELIMITER)
+            .append(method.getName()).append(CACHE_KEY_PARAM_DELIMITER);
+        for (int i = 0; i < params.length; i++) {
+            if (i > 0) {
+                key.append(CACHE_KEY_PARAM_DELIMITER);
+            }
+            key.append(exceptionlessWrite(params[i], studyIds, keyStudyIds));
+        }
         LOG.debug("Created key: " + key);
-        return key;
+        return new StudyTaggedCacheKey(key.toString(), keyStudyIds);
     }
     
-    private String exceptionlessWrite(Object toSerialize) {
+    private String exceptionlessWrite(Object toSerialize, StudyIds studyIds, Set<String> keyStudyIds) {
         if (toSerialize instanceof Select && ((Select) toSerialize).hasAll()) {
             // Select implements Iterable, but Select.All throws an exception
             // when you call iterator(), which breaks Jackson, so we need some custom logic
@@ -84,16 +108,13 @@ public class CustomKeyGenerator implements KeyGenerator {
         }
         try {
             String json = mapper.writeValueAsString(toSerialize);
+            Set<String> matchedStudyIds = studyIds.find(json);
+            keyStudyIds.addAll(matchedStudyIds);
             if (json.length() > PARAM_LENGTH_HASH_LIMIT) {
-                // To allow study-specific cache eviction, extract relevant
-                // study identifiers and add these to the cache keys.
-                String matchedStudyIds = studyRepository.getAllStudies(null, "SUMMARY", null, null, null, null)
-                    .stream()
-                    .map(CancerStudy::getCancerStudyIdentifier)
-                    .distinct()
-                    .filter(json::contains)
-                    .collect(Collectors.joining(CACHE_KEY_PARAM_DELIMITER));
-                return matchedStudyIds + CACHE_KEY_PARAM_DELIMITER + DigestUtils.md5DigestAsHex(json.getBytes());
+                // Keep the study identifiers readable in hashed keys
+                return (matchedStudyIds.isEmpty() ? ""
+                    : String.join(CACHE_KEY_PARAM_DELIMITER, matchedStudyIds) + CACHE_KEY_PARAM_DELIMITER)
+                    + DigestUtils.md5DigestAsHex(json.getBytes());
             } else {
                 // leave short keys intact, but remove semicolons to make things look cleaner in redis
                 return json.replaceAll(":", CACHE_KEY_PARAM_DELIMITER);
@@ -103,4 +124,110 @@ public class CustomKeyGenerator implements KeyGenerator {
             return "";
         }
     }
+
+    private StudyIds getStudyIds() {
+        StudyIds studyIds = this.studyIds;
+        if (studyIds != null) {
+            return studyIds;
+        }
+        if (readingStudyIds.get()) {
+            return StudyIds.NONE;
+        }
+        readingStudyIds.set(true);
+        try {
+            studyIds = new StudyIds(studyRepository.getAllStudies(null, "SUMMARY", null, null, null, null));
+        } finally {
+            readingStudyIds.set(false);
+        }
+        this.studyIds = studyIds;
+        return studyIds;
+    }
+
+    @Override
+    public void evictStudy(String studyId) {
+        // the study may be new
+        studyIds = null;
+    }
+
+    @Override
+    public void evictAll() {
+        studyIds = null;
+    }
+
+    private static class StudyIds {
+
+        private static final StudyIds NONE = new StudyIds(new ArrayList<>());
+
+        // ids of letters, digits and underscores, which are found by word
+        private final Set<String> regularIds = new HashSet<>();
+        private final int maxRegularIdLength;
+        // any other ids, which are searched for
+        private final List<String> otherIds = new ArrayList<>();
+
+        private StudyIds(List<CancerStudy> studies) {
+            int maxLength = 0;
+            for (CancerStudy study : studies) {
+                String id = study.getCancerStudyIdentifier();
+                if (REGULAR_STUDY_ID.matcher(id).matches()) {
+                    regularIds.add(id);
+                    maxLength = Math.max(maxLength, id.length());
+                } else if (!otherIds.contains(id)) {
+                    otherIds.add(id);
+                }
+            }
+            maxRegularIdLength = maxLength;
+        }
+
+        private Set<String> find(String json) {
+            Set<String> found = new LinkedHashSet<>();
+            if (!regularIds.isEmpty()) {
+                List<Integer> underscores = new ArrayList<>();
+                int wordStart = -1;
+                for (int i = 0; i <= json.length(); i++) {
+                    boolean wordChar = i < json.length() && isWordChar(json.charAt(i));
+                    if (wordChar && wordStart < 0) {
+                        wordStart = i;
+                    } else if (!wordChar && wordStart >= 0) {
+                        findInWord(json, wordStart, i, underscores, found);
+                        wordStart = -1;
+                    }
+                }
+            }
+            for (String id : otherIds) {
+                if (json.contains(id)) {
+                    found.add(id);
+                }
+            }
+            return found;
+        }
+
+        // looks up every part of the word which starts and ends at an underscore or the word boundaries
+        private void findInWord(String json, int start, int end, List<Integer> underscores, Set<String> found) {
+            underscores.clear();
+            underscores.add(start - 1);
+            for (int i = start; i < end; i++) {
+                if (json.charAt(i) == '_') {
+                    underscores.add(i);
+                }
+            }
+            underscores.add(end);
+            for (int i = 0; i < underscores.size() - 1; i++) {
+                int partStart = underscores.get(i) + 1;
+                for (int j = i + 1; j < underscores.size(); j++) {
+                    int partEnd = underscores.get(j);
+                    if (partEnd - partStart > maxRegularIdLength) {
+                        break;
+                    }
+                    String part = json.substring(partStart, partEnd);
+                    if (regularIds.contains(part)) {
+                        found.add(part);
+                    }
+                }
+            }
+        }
+
+        private static boolean isWordChar(char c) {
+            return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_';
+        }
+    }
 }
@@ -1,6 +1,10 @@
 package org.cbioportal.persistence.util;
 
+import org.cbioportal.utils.concurrency.ConcurrencyLimit;
+import org.redisson.api.RKeys;
+import org.redisson.api.RSet;
 import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.cache.Cache;
@@ -8,30 +12,76 @@ import org.springframework.cache.support.AbstractValueAdaptingCache;
 import org.springframework.cache.support.SimpleValueWrapper;
 import org.springframework.lang.Nullable;
 
-import java.io.*;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.concurrent.TimeUnit;
-import java.util.zip.GZIPInputStream;
-import java.util.zip.GZIPOutputStream;
+import java.util.concurrent.atomic.LongAdder;
 
 public class CustomRedisCache extends AbstractValueAdaptingCache {
     private static final Logger LOG = LoggerFactory.getLogger(CustomRedisCache.class);
     public static final String DELIMITER = ":";
     public static final int INFINITE_TTL = -1;
+    // prefix of the sets of the keys of each study; outside of the keys of the cache, which start with its name
+    public static final String STUDY_INDEX_PREFIX = "study-index" + DELIMITER;
+    // the keys without study ids are indexed as a study of their own, and evicted with every study
+    private static final String ANY_STUDY = "*";
+    private static final int EVICTION_BATCH_SIZE = 1000;
+    // how many times per time to live the Redis TTL of a key that is served from the near cache is extended at most
+    private static final int TTL_REFRESHES_PER_TTL = 4;
 
     private final String name;
     private final long ttlMinutes;
     private final RedissonClient redissonClient;
+    private final RedisCacheCodec codec;
+    private final RedisCacheCodecStatistics codecStatistics;
+    @Nullable
+    private final RedisNearCache nearCache;
+    private final ConcurrencyLimit concurrencyLimit;
+    private final LongAdder redisHits = new LongAdder();
+    private final LongAdder redisMisses = new LongAdder();
 
     /**
      * Create a new ConcurrentMapCache with the specified name.
      * @param name the name of the cache
      */
     public CustomRedisCache(String name, RedissonClient client, long ttlMinutes) {
+        this(name, client, ttlMinutes, new JavaGzipRedisCacheCodec(),
+            new RedisCacheCodecStatistics(JavaGzipRedisCacheCodec.NAME));
+    }
+
+    /**
+     * @param codec converts the values to and from the bytes stored in Redis
+     * @param codecStatistics records the encode and decode latency and the stored size of the values
+     */
+    public CustomRedisCache(String name, RedissonClient client, long ttlMinutes, RedisCacheCodec codec,
+                            RedisCacheCodecStatistics codecStatistics) {
+        this(name, client, ttlMinutes, codec, codecStatistics, null);
+    }
+
+    /**
+     * @param nearCache local copy of the most used values, or null to always read from Redis
+     */
+    public CustomRedisCache(String name, RedissonClient client, long ttlMinutes, RedisCacheCodec codec,
+                            RedisCacheCodecStatistics codecStatistics, @Nullable RedisNearCache nearCache) {
+        this(name, client, ttlMinutes, codec, codecStatistics, nearCache, ConcurrencyLimit.UNLIMITED);
+    }
+
+    /**
+     * @param concurrencyLimit limits the concurrent reads from Redis; a read that times out is a cache miss
+     */
+    public CustomRedisCache(String name, RedissonClient client, long ttlMinutes, RedisCacheCodec codec,
+                            RedisCacheCodecStatistics codecStatistics, @Nullable RedisNearCache nearCache,
+                            ConcurrencyLimit concurrencyLimit) {
         super(true);
         this.name = name;
         this.redissonClient = client;
         this.ttlMinutes = ttlMinutes;
+        this.codec = codec;
+        this.codecStatistics = codecStatistics;
+        this.nearCache = nearCache;
+        this.concurrencyLimit = concurrencyLimit;
     }
 
     @Override
@@ -46,29 +96,75 @@ public class CustomRedisCache extends AbstractValueAdaptingCache {
     @Override
     @Nullable
     protected Object lookup(Object key) {
-        Object value = this.redissonClient.getBucket(name + DELIMITER + key).get();
-        if (value != null){
-            value = fromStoreValue(value);
+        String redisKey = name + DELIMITER + key;
+        Object storeValue = nearCache == null ? null : nearCache.get(redisKey);
+        if (storeValue != null) {
+            // other portals may only find the key in Redis, where it must not expire while it is used here
+            if (ttlMinutes != INFINITE_TTL && nearCache.isTtlRefreshDue(redisKey,
+                TimeUnit.MINUTES.toNanos(ttlMinutes) / TTL_REFRESHES_PER_TTL)) {
+                asyncRefresh(key);
+            }
+        } else {
+            long nearCacheGeneration = nearCache == null ? 0 : nearCache.getGeneration();
+            storeValue = getFromRedis(redisKey);
+            if (storeValue == null) {
+                redisMisses.increment();
+                return null;
+            }
+            redisHits.increment();
             asyncRefresh(key);
+            if (nearCache != null) {
+                nearCache.put(redisKey, (byte[]) storeValue, nearCacheGeneration);
+            }
         }
-        return value;
+        return fromStoreValue(storeValue);
     }
     
+    @Nullable
+    private Object getFromRedis(String redisKey) {
+        try {
+            if (!concurrencyLimit.acquire()) {
+                LOG.warn("Timed out waiting for a Redis read of {}, {} reads are waiting", redisKey,
+                    concurrencyLimit.getQueueLength());
+                return null;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+        try {
+            return this.redissonClient.getBucket(redisKey).get();
+        } finally {
+            concurrencyLimit.release();
+        }
+    }
+
     private void asyncRefresh(Object key) {
         if (ttlMinutes != INFINITE_TTL) {
             this.redissonClient.getBucket(name + DELIMITER + key).expireAsync(ttlMinutes, TimeUnit.MINUTES);
+            // the study index must live as long as the keys in it
+            for (String studyId : getIndexedStudyIds(key)) {
+                getStudyIndex(studyId).expireAsync(ttlMinutes, TimeUnit.MINUTES);
+            }
         }
     }
 
+    private Set<String> getIndexedStudyIds(Object key) {
+        if (!(key instanceof StudyTaggedCacheKey)) {
+            return Collections.emptySet();
+        }
+        Set<String> studyIds = ((StudyTaggedCacheKey) key).getStudyIds();
+        return studyIds.isEmpty() ? Collections.singleton(ANY_STUDY) : studyIds;
+    }
+
+    private RSet<String> getStudyIndex(String studyId) {
+        return this.redissonClient.getSet(STUDY_INDEX_PREFIX + name + DELIMITER + studyId, StringCodec.INSTANCE);
+    }
+
     @Override
     @Nullable
     public <T> T get(Object key, Callable<T> valueLoader) {
-        Object zippedValue = this.redissonClient.getBucket(name + DELIMITER + key).get();
-        T value = null;
-        if (zippedValue != null) {
-            value = (T) fromStoreValue(zippedValue);
-            asyncRefresh(key);
-        }
+        T value = (T) lookup(key);
         try {
             return value == null ? valueLoader.call() : value;
         } catch (Exception ex) {
@@ -81,10 +177,22 @@ public class CustomRedisCache extends AbstractValueAdaptingCache {
         if (value == null) {
             LOG.warn("Storing null value for key {} in cache. That's probably not great.", key);
         }
+        String redisKey = name + DELIMITER + key;
+        Object storeValue = toStoreValue(value);
         if (ttlMinutes == INFINITE_TTL) {
-            this.redissonClient.getBucket(name + DELIMITER + key).setAsync(toStoreValue(value));
+            this.redissonClient.getBucket(redisKey).setAsync(storeValue);
         } else {
-            this.redissonClient.getBucket(name + DELIMITER + key).setAsync(toStoreValue(value), ttlMinutes, TimeUnit.MINUTES);
+            this.redissonClient.getBucket(redisKey).setAsync(storeValue, ttlMinutes, TimeUnit.MINUTES);
+        }
+        for (String studyId : getIndexedStudyIds(key)) {
+            RSet<String> studyIndex = getStudyIndex(studyId);
+            studyIndex.addAsync(redisKey);
+            if (ttlMinutes != INFINITE_TTL) {
+                studyIndex.expireAsync(ttlMinutes, TimeUnit.MINUTES);
+            }
+        }
+        if (nearCache != null && storeValue != null) {
+            nearCache.put(redisKey, (byte[]) storeValue, nearCache.getGeneration());
         }
     }
 
@@ -114,22 +222,72 @@ public class CustomRedisCache extends AbstractValueAdaptingCache {
                 .filter(key -> key.matches((String) pattern))
                 .toArray(String[]::new);
             // Calling delete() with empty array causes an error in the Redisson client.
-            if (keys.length > 0)
-                return redissonClient.getKeys().delete(keys) > 0;
+            boolean evicted = keys.length > 0 && redissonClient.getKeys().delete(keys) > 0;
+            // only after the deletion, as a near cache miss would otherwise read the evicted value from Redis again
+            if (nearCache != null) {
+                nearCache.evict((String) pattern);
+            }
+            return evicted;
         } else {
             LOG.warn("Pattern passed for cache key eviction is not of String type. Cache eviction could not be performed.");
         }
         return false;
     }
 
+    /**
+     * Evicts the keys of the given study, and the keys without study, as found in the study index; see
+     * {@link StudyTaggedCacheKey}. Keys that were not generated by {@link CustomKeyGenerator} are not evicted.
+     *
+     * @return whether any key was evicted
+     */
+    public boolean evictStudy(String studyId) {
+        boolean evicted = false;
+        for (String indexedStudyId : new String[] {studyId, ANY_STUDY}) {
+            RSet<String> studyIndex = getStudyIndex(indexedStudyId);
+            // removed from the index in batches, so that keys added meanwhile stay in the index
+            Set<String> keys;
+            while (!(keys = studyIndex.removeRandom(EVICTION_BATCH_SIZE)).isEmpty()) {
+                evicted |= redissonClient.getKeys().delete(keys.toArray(new String[0])) > 0;
+                if (nearCache != null) {
+                    nearCache.evictKeys(keys);
+                }
+            }
+        }
+        return evicted;
+    }
+
     @Override
     public void clear() {
-        this.redissonClient.getKeys().deleteByPattern(name + DELIMITER + "*");
+        RKeys keys = this.redissonClient.getKeys();
+        keys.deleteByPattern(name + DELIMITER + "*");
+        keys.deleteByPattern(STUDY_INDEX_PREFIX + name + DELIMITER + "*");
+        if (nearCache != null) {
+            nearCache.clear();
+        }
     }
 
     @Override
     public boolean invalidate() {
-        return this.redissonClient.getKeys().deleteByPattern(name + DELIMITER + "*") > 0;
+        RKeys keys = this.redissonClient.getKeys();
+        boolean invalidated = keys.deleteByPattern(name + DELIMITER + "*") > 0;
+        keys.deleteByPattern(STUDY_INDEX_PREFIX + name + DELIMITER + "*");
+        if (nearCache != null) {
+            nearCache.clear();
+        }
+        return invalidated;
+    }
+
+    /**
+     * @return the hits and misses of the near cache, if any, and of Redis (for the lookups the near cache missed)
+     */
+    public String getStatistics() {
+        long hits = redisHits.sum();
+        long lookups = hits + redisMisses.sum();
+        return "Cache: " + name + "\n" +
+            (nearCache == null ? "" : nearCache.getStatistics()) +
+            "Redis hits: " + hits + "\n" +
+            "Redis misses: " + (lookups - hits) + "\n" +
+            "Redis hit ratio: " + String.format("%.3f", lookups == 0 ? 1.0 : (double) hits / lookups) + "\n";
     }
 
     @Override
@@ -137,23 +295,14 @@ public class CustomRedisCache extends AbstractValueAdaptingCache {
         if (userValue == null) {
             return null;
         }
-        
-        ByteArrayOutputStream byteOut = new ByteArrayOutputStream();
-        ObjectOutputStream objectOut;
+
+        long start = System.nanoTime();
         try {
-            // serialize to byte array
-            objectOut = new ObjectOutputStream(byteOut);
-            objectOut.writeObject(userValue);
-            objectOut.flush();
-            byte[] uncompressedByteArray = byteOut.toByteArray();
-            
-            // compress byte array
-            byteOut = new ByteArrayOutputStream(uncompressedByteArray.length);
-            GZIPOutputStream g = new GZIPOutputStream(byteOut);
-            g.write(uncompressedByteArray);
-            g.close();
-            return byteOut.toByteArray();
+            byte[] bytes = codec.encode(userValue);
+            codecStatistics.recordEncode(System.nanoTime() - start, bytes.length);
+            return bytes;
         } catch (IOException e) {
+            codecStatistics.recordError();
             LOG.warn("Error compressing object for cache: ", e);
             return null;
         }
@@ -164,26 +313,15 @@ public class CustomRedisCache extends AbstractValueAdaptingCache {
         if (storeValue == null) {
             return null;
         }
-        
+
         byte[] bytes = (byte[]) storeValue;
-        ByteArrayInputStream byteIn = new ByteArrayInputStream(bytes);
-        ByteArrayOutputStream byteOut = new ByteArrayOutputStream();
-        GZIPInputStream gzipIn;
+        long start = System.nanoTime();
         try {
-            // inflate to byte array
-            gzipIn = new GZIPInputStream(byteIn);
-            byte[] buffer = new byte[1024];
-            int len;
-            while ((len = gzipIn.read(buffer)) != -1) {
-                byteOut.write(buffer, 0, len);
-            }
-            byte[] unzippedBytes = byteOut.toByteArray();
-            
-            // deserialize byte array to object
-            byteIn = new ByteArrayInputStream(unzippedBytes);
-            ObjectInputStream oi = new ObjectInputStream(byteIn);
-            return oi.readObject();
-        } catch (IOException | ClassNotFoundException e) {
+            Object value = codec.decode(bytes);
+            codecStatistics.recordDecode(System.nanoTime() - start, bytes.length);
+            return value;
+        } catch (IOException e) {
+            codecStatistics.recordError();
             LOG.warn("Error inflating object from cache: ", e);
             return null;
         }
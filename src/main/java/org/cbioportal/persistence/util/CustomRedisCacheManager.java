@@ -1,6 +1,7 @@
 package org.cbioportal.persistence.util;
 
 import jakarta.validation.constraints.NotNull;
+import org.cbioportal.utils.concurrency.ConcurrencyLimit;
 import org.redisson.api.RedissonClient;
 import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
@@ -14,10 +15,42 @@ public class CustomRedisCacheManager implements CacheManager {
     private final ConcurrentMap<String, CustomRedisCache> caches = new ConcurrentHashMap<>();
     private final RedissonClient client;
     private final long ttlInMins;
+    private final RedisCacheCodec codec;
+    private final RedisCacheCodecStatistics codecStatistics;
+    private final long nearCacheMaxBytes;
+    private final long nearCacheTtlSeconds;
+    private final ConcurrencyLimit concurrencyLimit;
 
     public CustomRedisCacheManager(RedissonClient client, long ttlInMins) {
+        this(client, ttlInMins, new JavaGzipRedisCacheCodec());
+    }
+
+    public CustomRedisCacheManager(RedissonClient client, long ttlInMins, RedisCacheCodec codec) {
+        this(client, ttlInMins, codec, 0, 0);
+    }
+
+    /**
+     * @param nearCacheMaxBytes size of the local near cache of each cache, or 0 for no near caches
+     * @param nearCacheTtlSeconds time after which values expire from the near caches
+     */
+    public CustomRedisCacheManager(RedissonClient client, long ttlInMins, RedisCacheCodec codec,
+                                   long nearCacheMaxBytes, long nearCacheTtlSeconds) {
+        this(client, ttlInMins, codec, nearCacheMaxBytes, nearCacheTtlSeconds, ConcurrencyLimit.UNLIMITED);
+    }
+
+    /**
+     * @param concurrencyLimit limits the concurrent reads from Redis of all caches
+     */
+    public CustomRedisCacheManager(RedissonClient client, long ttlInMins, RedisCacheCodec codec,
+                                   long nearCacheMaxBytes, long nearCacheTtlSeconds,
+                                   ConcurrencyLimit concurrencyLimit) {
         this.client = client;
         this.ttlInMins = ttlInMins;
+        this.codec = codec;
+        this.codecStatistics = new RedisCacheCodecStatistics(codec.getName());
+        this.nearCacheMaxBytes = nearCacheMaxBytes;
+        this.nearCacheTtlSeconds = nearCacheTtlSeconds;
+        this.concurrencyLimit = concurrencyLimit;
     }
 
     /**
@@ -42,7 +75,10 @@ public class CustomRedisCacheManager implements CacheManager {
     @NotNull
     public Cache getCache(String name, boolean expires) {
         long clientTTLInMinutes = expires ? ttlInMins : CustomRedisCache.INFINITE_TTL;
-        return caches.computeIfAbsent(name, k -> new CustomRedisCache(name, client, clientTTLInMinutes));
+        return caches.computeIfAbsent(name, k -> new CustomRedisCache(name, client, clientTTLInMinutes, codec,
+            codecStatistics, nearCacheMaxBytes > 0
+                ? new RedisNearCache(name, client, nearCacheMaxBytes, nearCacheTtlSeconds) : null,
+            concurrencyLimit));
     }
 
     /**
@@ -54,4 +90,11 @@ public class CustomRedisCacheManager implements CacheManager {
     public Collection<String> getCacheNames() {
         return caches.keySet();
     }
+
+    /**
+     * @return the encode and decode statistics of the values of all caches of this manager
+     */
+    public RedisCacheCodecStatistics getCodecStatistics() {
+        return codecStatistics;
+    }
 }
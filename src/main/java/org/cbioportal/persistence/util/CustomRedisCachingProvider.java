@@ -32,11 +32,14 @@
 
 package org.cbioportal.persistence.util;
 
+import org.cbioportal.utils.concurrency.ConcurrencyLimit;
+import org.cbioportal.utils.concurrency.ConcurrencyLimits;
 import org.redisson.Redisson;
 import org.redisson.api.RedissonClient;
 import org.redisson.config.Config;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
@@ -65,6 +68,21 @@ public class CustomRedisCachingProvider {
 
     @Value("${redis.clear_on_startup:true}")
     private boolean clearOnStartup;
+
+    @Value("${redis.codec:" + JavaGzipRedisCacheCodec.NAME + "}")
+    private String codecName;
+
+    @Value("${redis.near_cache.enabled:false}")
+    private boolean nearCacheEnabled;
+
+    @Value("${redis.near_cache.max_size_mb:256}")
+    private long nearCacheMaxSizeMb;
+
+    @Value("${redis.near_cache.ttl_seconds:300}")
+    private long nearCacheTtlSeconds;
+
+    @Autowired(required = false)
+    private ConcurrencyLimits concurrencyLimits;
     
     public RedissonClient getRedissonClient() {
         if (leaderAddress == null || "".equals(leaderAddress)) {
@@ -86,7 +104,9 @@ public class CustomRedisCachingProvider {
     }
 
     public CacheManager getCacheManager(RedissonClient redissonClient) {
-        CustomRedisCacheManager manager = new CustomRedisCacheManager(redissonClient, expiryMins);
+        CustomRedisCacheManager manager = new CustomRedisCacheManager(redissonClient, expiryMins, createCodec(codecName),
+            nearCacheEnabled ? nearCacheMaxSizeMb * 1024 * 1024 : 0, nearCacheTtlSeconds,
+            concurrencyLimits == null ? ConcurrencyLimit.UNLIMITED : concurrencyLimits.getRedis());
         
         if (clearOnStartup) {
         	Cache generalCache = manager.getCache(redisName + "GeneralRepositoryCache");
@@ -101,4 +121,16 @@ public class CustomRedisCachingProvider {
         }
         return manager;
     }
+
+    static RedisCacheCodec createCodec(String codecName) {
+        switch (codecName) {
+            case JavaGzipRedisCacheCodec.NAME:
+                return new JavaGzipRedisCacheCodec();
+            case KryoLz4RedisCacheCodec.NAME:
+                return new KryoLz4RedisCacheCodec();
+            default:
+                throw new IllegalArgumentException("Unknown redis.codec: " + codecName + ", expected "
+                    + JavaGzipRedisCacheCodec.NAME + " or " + KryoLz4RedisCacheCodec.NAME);
+        }
+    }
 }
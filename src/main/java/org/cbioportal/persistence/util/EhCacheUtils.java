@@ -18,6 +18,9 @@ public class EhCacheUtils implements CacheUtils {
     private CustomEhcachingProvider customEhcachingProvider;
     private CacheManager cacheManager;
 
+    @Autowired
+    private org.springframework.cache.CacheManager springCacheManager;
+
     @PostConstruct
     public void init() {
         this.cacheManager = customEhcachingProvider.getCacheManager();
@@ -25,22 +28,33 @@ public class EhCacheUtils implements CacheUtils {
     
     @Override
     public List<String> getKeys(String cacheName) throws IllegalArgumentException {
-        javax.cache.Cache<String, Object> cache = cacheManager.getCache(cacheName);
+        javax.cache.Cache<Object, Object> cache = cacheManager.getCache(cacheName);
         if (cache == null) {
             throw new IllegalArgumentException("Cannot find cache with name '" + cacheName + "'");
         }
         List<String> keysInCache = new ArrayList<>();
-        cache.iterator().forEachRemaining(entry -> keysInCache.add(entry.getKey()));
+        cache.iterator().forEachRemaining(entry -> keysInCache.add(entry.getKey().toString()));
         return keysInCache;
     }
 
     @Override
     public void evictByPattern(String cacheName, String pattern) {
-        javax.cache.Cache<String, Object> cache = cacheManager.getCache(cacheName);
-        this.getKeys(cacheName).stream()
-            .filter(key -> key.matches(pattern))
-            .forEach(key -> {
-                cache.remove(key);
-            });
+        javax.cache.Cache<Object, Object> cache = cacheManager.getCache(cacheName);
+        // the keys are StudyTaggedCacheKeys, so remove the key objects rather than their strings
+        List<Object> keysToRemove = new ArrayList<>();
+        cache.iterator().forEachRemaining(entry -> {
+            if (entry.getKey().toString().matches(pattern)) {
+                keysToRemove.add(entry.getKey());
+            }
+        });
+        keysToRemove.forEach(cache::remove);
+    }
+
+    @Override
+    public void evictStudy(String cacheName, String studyId) {
+        org.springframework.cache.Cache cache = springCacheManager.getCache(cacheName);
+        if (cache instanceof StudyIndexedCache) {
+            ((StudyIndexedCache) cache).evictStudy(studyId);
+        }
     }
 }
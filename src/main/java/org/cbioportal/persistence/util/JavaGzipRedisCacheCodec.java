@@ -0,0 +1,42 @@
+package org.cbioportal.persistence.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Java serialization compressed with GZIP. The format the Redis cache has always used, and the default, so that
+ * portals sharing a Redis instance keep reading each other's values.
+ */
+public class JavaGzipRedisCacheCodec implements RedisCacheCodec {
+
+    public static final String NAME = "java";
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public byte[] encode(Object value) throws IOException {
+        ByteArrayOutputStream byteOut = new ByteArrayOutputStream();
+        // serialize straight into the compressing stream instead of compressing a serialized copy
+        try (ObjectOutputStream objectOut = new ObjectOutputStream(new GZIPOutputStream(byteOut))) {
+            objectOut.writeObject(value);
+        }
+        return byteOut.toByteArray();
+    }
+
+    @Override
+    public Object decode(byte[] bytes) throws IOException {
+        try (ObjectInputStream objectIn = new ObjectInputStream(new GZIPInputStream(new ByteArrayInputStream(bytes)))) {
+            return objectIn.readObject();
+        } catch (ClassNotFoundException e) {
+            throw new IOException(e);
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package org.cbioportal.persistence.util;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.KryoException;
+import com.esotericsoftware.kryo.Serializer;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import com.esotericsoftware.kryo.util.DefaultInstantiatorStrategy;
+import com.esotericsoftware.kryo.util.Pool;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Exception;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FastDecompressor;
+import org.objenesis.strategy.StdInstantiatorStrategy;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Kryo serialization compressed with LZ4. Several times faster than {@link JavaGzipRedisCacheCodec}, at the price of
+ * values that are about a quarter larger for lists of model objects, as LZ4 compresses less than gzip. Kryo instances
+ * and buffers are pooled, so the only copy of a value is the compressed result in an array of its exact length.
+ *
+ * Values are written as a format byte, the serialized length and the LZ4 block. As classes are not registered, the
+ * values stay readable by a portal of another version as long as the fields of the cached classes do not change;
+ * clear the cache (redis.clear_on_startup) when upgrading.
+ */
+public class KryoLz4RedisCacheCodec implements RedisCacheCodec {
+
+    public static final String NAME = "kryo-lz4";
+
+    private static final byte FORMAT = 1;
+    private static final int HEADER_LENGTH = 5;
+    private static final int INITIAL_BUFFER_SIZE = 64 * 1024;
+    // larger buffers are not returned to the pool, so that a few huge values do not pin their buffers
+    private static final int MAX_POOLED_BUFFER_SIZE = 4 * 1024 * 1024;
+    private static final int POOL_SIZE = 32;
+    // an LZ4 block cannot expand to more than about 255 times its size, so larger lengths are corrupt headers
+    private static final long MAX_COMPRESSION_RATIO = 255;
+    private static final byte[] EMPTY = new byte[0];
+
+    private final LZ4Compressor compressor = LZ4Factory.fastestInstance().fastCompressor();
+    private final LZ4FastDecompressor decompressor = LZ4Factory.fastestInstance().fastDecompressor();
+
+    private final Pool<Context> pool = new Pool<Context>(true, false, POOL_SIZE) {
+        @Override
+        protected Context create() {
+            return new Context();
+        }
+    };
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public byte[] encode(Object value) throws IOException {
+        Context context = pool.obtain();
+        try {
+            Output output = context.output;
+            output.reset();
+            context.kryo.writeClassAndObject(output, value);
+            int length = output.position();
+            byte[] compressed = context.buffer(HEADER_LENGTH + compressor.maxCompressedLength(length));
+            int compressedLength = compressor.compress(output.getBuffer(), 0, length, compressed, HEADER_LENGTH);
+            compressed[0] = FORMAT;
+            writeInt(compressed, 1, length);
+            return Arrays.copyOf(compressed, HEADER_LENGTH + compressedLength);
+        } catch (KryoException | LZ4Exception e) {
+            throw new IOException(e);
+        } finally {
+            release(context);
+        }
+    }
+
+    @Override
+    public Object decode(byte[] bytes) throws IOException {
+        if (bytes.length < HEADER_LENGTH || bytes[0] != FORMAT) {
+            throw new IOException("Value was not written by the " + NAME + " codec");
+        }
+        int length = readInt(bytes, 1);
+        if (length < 0 || length > (bytes.length - HEADER_LENGTH) * MAX_COMPRESSION_RATIO) {
+            throw new IOException("Invalid serialized length " + length + " of a " + bytes.length + " byte value");
+        }
+        Context context = pool.obtain();
+        try {
+            byte[] buffer = context.buffer(length);
+            decompressor.decompress(bytes, HEADER_LENGTH, buffer, 0, length);
+            Input input = context.input;
+            input.setBuffer(buffer, 0, length);
+            return context.kryo.readClassAndObject(input);
+        } catch (KryoException | LZ4Exception e) {
+            throw new IOException(e);
+        } finally {
+            context.input.setBuffer(EMPTY);
+            release(context);
+        }
+    }
+
+    private void release(Context context) {
+        if (context.output.getBuffer().length <= MAX_POOLED_BUFFER_SIZE
+            && context.buffer.length <= MAX_POOLED_BUFFER_SIZE) {
+            pool.free(context);
+        }
+    }
+
+    private static void writeInt(byte[] bytes, int offset, int value) {
+        bytes[offset] = (byte) (value >>> 24);
+        bytes[offset + 1] = (byte) (value >>> 16);
+        bytes[offset + 2] = (byte) (value >>> 8);
+        bytes[offset + 3] = (byte) value;
+    }
+
+    private static int readInt(byte[] bytes, int offset) {
+        return (bytes[offset] & 0xFF) << 24 | (bytes[offset + 1] & 0xFF) << 16 | (bytes[offset + 2] & 0xFF) << 8
+            | (bytes[offset + 3] & 0xFF);
+    }
+
+    private static Kryo createKryo() {
+        Kryo kryo = new Kryo();
+        kryo.setClassLoader(KryoLz4RedisCacheCodec.class.getClassLoader());
+        kryo.setRegistrationRequired(false);
+        kryo.setReferences(true);
+        // model classes without a no-arg constructor are created without calling a constructor, as Java
+        // serialization does
+        kryo.setInstantiatorStrategy(new DefaultInstantiatorStrategy(new StdInstantiatorStrategy()));
+        // Kryo cannot fill the unmodifiable views of java.util.Collections, so they are written as a copy of their
+        // contents and wrapped again when read
+        addUnmodifiableSerializer(kryo, Collections.unmodifiableCollection(new ArrayList<>()),
+            c -> new ArrayList<>((Collection<?>) c),
+            c -> Collections.unmodifiableCollection((Collection<?>) c));
+        addUnmodifiableSerializer(kryo, Collections.unmodifiableList(new ArrayList<>()),
+            c -> new ArrayList<>((Collection<?>) c),
+            c -> Collections.unmodifiableList((List<?>) c));
+        addUnmodifiableSerializer(kryo, Collections.unmodifiableList(new LinkedList<>()),
+            c -> new ArrayList<>((Collection<?>) c),
+            c -> Collections.unmodifiableList((List<?>) c));
+        addUnmodifiableSerializer(kryo, Collections.unmodifiableSet(new HashSet<>()),
+            c -> new LinkedHashSet<>((Collection<?>) c),
+            c -> Collections.unmodifiableSet((Set<?>) c));
+        addUnmodifiableSerializer(kryo, Collections.unmodifiableMap(new HashMap<>()),
+            m -> new LinkedHashMap<>((Map<?, ?>) m), m -> Collections.unmodifiableMap((Map<?, ?>) m));
+        return kryo;
+    }
+
+    private static void addUnmodifiableSerializer(Kryo kryo, Object view, Function<Object, Object> copy,
+                                                  Function<Object, Object> wrap) {
+        kryo.addDefaultSerializer(view.getClass(), new Serializer<Object>() {
+            @Override
+            public void write(Kryo kryo, Output output, Object object) {
+                kryo.writeClassAndObject(output, copy.apply(object));
+            }
+
+            @Override
+            public Object read(Kryo kryo, Input input, Class<?> type) {
+                return wrap.apply(kryo.readClassAndObject(input));
+            }
+        });
+    }
+
+    private static class Context {
+        private final Kryo kryo = createKryo();
+        private final Output output = new Output(INITIAL_BUFFER_SIZE, -1);
+        private final Input input = new Input();
+        private byte[] buffer = new byte[INITIAL_BUFFER_SIZE];
+
+        private byte[] buffer(int minimumLength) {
+            if (buffer.length < minimumLength) {
+                buffer = new byte[Math.max(minimumLength, buffer.length * 2)];
+            }
+            return buffer;
+        }
+    }
+}
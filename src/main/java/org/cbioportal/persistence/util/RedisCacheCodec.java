@@ -0,0 +1,19 @@
+package org.cbioportal.persistence.util;
+
+import java.io.IOException;
+
+/**
+ * Converts the values stored in the Redis cache to and from bytes. Selected with the redis.codec property; see
+ * {@link CustomRedisCachingProvider}.
+ */
+public interface RedisCacheCodec {
+
+    /**
+     * @return the name of the codec, as used in the redis.codec property and in the cache statistics
+     */
+    String getName();
+
+    byte[] encode(Object value) throws IOException;
+
+    Object decode(byte[] bytes) throws IOException;
+}
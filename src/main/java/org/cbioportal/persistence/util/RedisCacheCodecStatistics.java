@@ -0,0 +1,92 @@
+package org.cbioportal.persistence.util;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Encode and decode latency and stored size of the values of the Redis caches, for the codec in use. Shared by all
+ * caches of a {@link CustomRedisCacheManager} and reported by the cache statistics endpoint.
+ */
+public class RedisCacheCodecStatistics {
+
+    private final String codecName;
+    private final LongAdder encodeCount = new LongAdder();
+    private final LongAdder encodeNanos = new LongAdder();
+    private final LongAdder encodedBytes = new LongAdder();
+    private final LongAdder decodeCount = new LongAdder();
+    private final LongAdder decodeNanos = new LongAdder();
+    private final LongAdder decodedBytes = new LongAdder();
+    private final LongAdder errorCount = new LongAdder();
+
+    public RedisCacheCodecStatistics(String codecName) {
+        this.codecName = codecName;
+    }
+
+    public String getCodecName() {
+        return codecName;
+    }
+
+    public void recordEncode(long nanos, int bytes) {
+        encodeCount.increment();
+        encodeNanos.add(nanos);
+        encodedBytes.add(bytes);
+    }
+
+    public void recordDecode(long nanos, int bytes) {
+        decodeCount.increment();
+        decodeNanos.add(nanos);
+        decodedBytes.add(bytes);
+    }
+
+    public void recordError() {
+        errorCount.increment();
+    }
+
+    public long getEncodeCount() {
+        return encodeCount.sum();
+    }
+
+    public long getDecodeCount() {
+        return decodeCount.sum();
+    }
+
+    public long getErrorCount() {
+        return errorCount.sum();
+    }
+
+    public double getMeanEncodeMicros() {
+        return mean(encodeNanos.sum(), encodeCount.sum()) / 1000;
+    }
+
+    public double getMeanDecodeMicros() {
+        return mean(decodeNanos.sum(), decodeCount.sum()) / 1000;
+    }
+
+    /**
+     * @return the mean size of the stored (compressed) values written
+     */
+    public double getMeanEncodedBytes() {
+        return mean(encodedBytes.sum(), encodeCount.sum());
+    }
+
+    /**
+     * @return the mean size of the stored (compressed) values read
+     */
+    public double getMeanDecodedBytes() {
+        return mean(decodedBytes.sum(), decodeCount.sum());
+    }
+
+    public String getStatistics() {
+        return "Codec: " + codecName + "\n" +
+            "Encoded values: " + getEncodeCount() + "\n" +
+            "Mean encode time (us): " + String.format("%.1f", getMeanEncodeMicros()) + "\n" +
+            "Mean encoded size (bytes): " + String.format("%.0f", getMeanEncodedBytes()) + "\n" +
+            "Decoded values: " + getDecodeCount() + "\n" +
+            "Mean decode time (us): " + String.format("%.1f", getMeanDecodeMicros()) + "\n" +
+            "Mean decoded size (bytes): " + String.format("%.0f", getMeanDecodedBytes()) + "\n" +
+            "Codec errors: " + getErrorCount() + "\n";
+    }
+
+    private static double mean(long total, long count) {
+        return count == 0 ? 0 : (double) total / count;
+    }
+}
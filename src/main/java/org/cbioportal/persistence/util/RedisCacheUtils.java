@@ -46,4 +46,12 @@ public class RedisCacheUtils implements CacheUtils {
         	cache.evict(pattern);
         }
     }
+
+    @Override
+    public void evictStudy(String cacheName, String studyId) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache instanceof CustomRedisCache) {
+            ((CustomRedisCache) cache).evictStudy(studyId);
+        }
+    }
 }
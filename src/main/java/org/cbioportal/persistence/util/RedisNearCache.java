@@ -0,0 +1,166 @@
+package org.cbioportal.persistence.util;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+import static org.cbioportal.persistence.util.CustomRedisCache.DELIMITER;
+
+/**
+ * Local heap copy of the most used values of a {@link CustomRedisCache}, so that they are read without a round trip
+ * to Redis. Bounded by the total size of the stored values and evicted by Caffeine's W-TinyLFU policy.
+ *
+ * The stored (encoded) values are kept rather than the objects, as callers may modify the objects they get from the
+ * cache; decoding is cheap compared to the round trip, in particular with the kryo-lz4 codec.
+ *
+ * Evictions are published on a Redis topic, so that every portal sharing the Redis database drops the evicted keys
+ * from its near cache. As a published eviction can be missed (e.g. while reconnecting), values also expire after a
+ * fixed time.
+ *
+ * The time of the last extension of the Redis time to live is kept with every value (see {@link #isTtlRefreshDue}),
+ * so that keys served from here keep being extended in Redis for the other portals, without a round trip per hit.
+ */
+public class RedisNearCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RedisNearCache.class);
+    private static final String EVICT_MESSAGE_PREFIX = "evict" + DELIMITER;
+    private static final String EVICT_KEYS_MESSAGE_PREFIX = "evict-keys" + DELIMITER;
+    private static final String KEY_SEPARATOR = "\n";
+    private static final String CLEAR_MESSAGE = "clear";
+
+    private final Cache<String, Entry> values;
+    private final RTopic invalidationTopic;
+    // incremented by every invalidation, so that a value read from Redis before an invalidation is not added after it
+    private final AtomicLong generation = new AtomicLong();
+
+    public RedisNearCache(String cacheName, RedissonClient client, long maxBytes, long ttlSeconds) {
+        this.values = Caffeine.newBuilder()
+            .maximumWeight(maxBytes)
+            .weigher((String key, Entry entry) -> entry.value.length)
+            .expireAfterWrite(ttlSeconds, TimeUnit.SECONDS)
+            .recordStats()
+            .build();
+        this.invalidationTopic = client.getTopic(cacheName + DELIMITER + "near-cache-invalidations",
+            StringCodec.INSTANCE);
+        this.invalidationTopic.addListener(String.class, (channel, message) -> invalidateLocally(message));
+    }
+
+    public byte[] get(String key) {
+        Entry entry = values.getIfPresent(key);
+        return entry == null ? null : entry.value;
+    }
+
+    /**
+     * @return true, at most once per interval, when the time to live of the key in Redis has not been extended for
+     * the given interval; the extension is then up to the caller
+     */
+    public boolean isTtlRefreshDue(String key, long intervalNanos) {
+        // not counted as a hit or miss, the value itself was already looked up
+        Entry entry = values.asMap().get(key);
+        if (entry == null) {
+            return false;
+        }
+        long now = System.nanoTime();
+        long refreshedAt = entry.ttlRefreshedAtNanos.get();
+        return now - refreshedAt >= intervalNanos && entry.ttlRefreshedAtNanos.compareAndSet(refreshedAt, now);
+    }
+
+    public long getGeneration() {
+        return generation.get();
+    }
+
+    /**
+     * @param generation the generation when the value was read from Redis
+     */
+    public void put(String key, byte[] value, long generation) {
+        if (this.generation.get() != generation) {
+            return;
+        }
+        // the value was just read or written with a fresh time to live
+        Entry entry = new Entry(value, System.nanoTime());
+        values.put(key, entry);
+        // an invalidation between the check and the put must not be lost
+        if (this.generation.get() != generation) {
+            values.asMap().remove(key, entry);
+        }
+    }
+
+    /**
+     * Drops the keys matching the regular expression from the near caches of all portals.
+     */
+    public void evict(String pattern) {
+        publish(EVICT_MESSAGE_PREFIX + pattern);
+    }
+
+    /**
+     * Drops the keys from the near caches of all portals.
+     */
+    public void evictKeys(Collection<String> keys) {
+        publish(EVICT_KEYS_MESSAGE_PREFIX + String.join(KEY_SEPARATOR, keys));
+    }
+
+    /**
+     * Drops all keys from the near caches of all portals.
+     */
+    public void clear() {
+        publish(CLEAR_MESSAGE);
+    }
+
+    public String getStatistics() {
+        CacheStats stats = values.stats();
+        return "Near cache hits: " + stats.hitCount() + "\n" +
+            "Near cache misses: " + stats.missCount() + "\n" +
+            "Near cache hit ratio: " + String.format("%.3f", stats.hitRate()) + "\n" +
+            "Near cache evictions: " + stats.evictionCount() + "\n" +
+            "Near cache entries: " + values.estimatedSize() + "\n" +
+            "Near cache size (bytes): " + values.policy().eviction().map(e -> e.weightedSize().orElse(0)).orElse(0L)
+            + "\n";
+    }
+
+    CacheStats getStats() {
+        return values.stats();
+    }
+
+    private void publish(String message) {
+        // locally right away, as the own message arrives asynchronously
+        invalidateLocally(message);
+        invalidationTopic.publish(message);
+    }
+
+    private void invalidateLocally(String message) {
+        generation.incrementAndGet();
+        if (CLEAR_MESSAGE.equals(message)) {
+            values.invalidateAll();
+        } else if (message.startsWith(EVICT_KEYS_MESSAGE_PREFIX)) {
+            values.invalidateAll(Arrays.asList(
+                message.substring(EVICT_KEYS_MESSAGE_PREFIX.length()).split(KEY_SEPARATOR)));
+        } else if (message.startsWith(EVICT_MESSAGE_PREFIX)) {
+            Pattern pattern = Pattern.compile(message.substring(EVICT_MESSAGE_PREFIX.length()));
+            values.asMap().keySet().removeIf(key -> pattern.matcher(key).matches());
+        } else {
+            LOG.warn("Unknown near cache invalidation message: {}", message);
+        }
+    }
+
+    private static final class Entry {
+
+        private final byte[] value;
+        private final AtomicLong ttlRefreshedAtNanos;
+
+        private Entry(byte[] value, long ttlRefreshedAtNanos) {
+            this.value = value;
+            this.ttlRefreshedAtNanos = new AtomicLong(ttlRefreshedAtNanos);
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package org.cbioportal.persistence.util;
+
+import org.springframework.cache.Cache;
+import org.springframework.lang.Nullable;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps an index from study id to the {@link StudyTaggedCacheKey}s of a local (Ehcache) cache, so that the keys of a
+ * study are evicted without iterating over the cache. Keys without study ids are indexed under a study of their own,
+ * and evicted with every study.
+ *
+ * Keys that the cache itself drops (on expiry or when full) stay in the index until their study is evicted, or until
+ * the index has grown to twice its size after the last pruning, when the keys no longer in the cache are removed.
+ */
+public class StudyIndexedCache implements Cache {
+
+    private static final String ANY_STUDY = "*";
+    private static final int MIN_PRUNE_SIZE = 10000;
+
+    private final Cache cache;
+    private final Map<String, Set<Object>> keysByStudy = new ConcurrentHashMap<>();
+    private final AtomicInteger indexSize = new AtomicInteger();
+    private volatile int pruneSize = MIN_PRUNE_SIZE;
+
+    public StudyIndexedCache(Cache cache) {
+        this.cache = cache;
+    }
+
+    @Override
+    public String getName() {
+        return cache.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return cache.getNativeCache();
+    }
+
+    @Override
+    @Nullable
+    public ValueWrapper get(Object key) {
+        return cache.get(key);
+    }
+
+    @Override
+    @Nullable
+    public <T> T get(Object key, @Nullable Class<T> type) {
+        return cache.get(key, type);
+    }
+
+    @Override
+    @Nullable
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        return cache.get(key, () -> {
+            T value = valueLoader.call();
+            index(key);
+            return value;
+        });
+    }
+
+    @Override
+    public void put(Object key, @Nullable Object value) {
+        cache.put(key, value);
+        index(key);
+    }
+
+    @Override
+    @Nullable
+    public ValueWrapper putIfAbsent(Object key, @Nullable Object value) {
+        ValueWrapper existingValue = cache.putIfAbsent(key, value);
+        if (existingValue == null) {
+            index(key);
+        }
+        return existingValue;
+    }
+
+    @Override
+    public void evict(Object key) {
+        cache.evict(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        return cache.evictIfPresent(key);
+    }
+
+    @Override
+    public void clear() {
+        cache.clear();
+        clearIndex();
+    }
+
+    @Override
+    public boolean invalidate() {
+        boolean invalidated = cache.invalidate();
+        clearIndex();
+        return invalidated;
+    }
+
+    /**
+     * Evicts the keys of the given study and the keys without study.
+     */
+    public void evictStudy(String studyId) {
+        for (String indexedStudyId : new String[] {studyId, ANY_STUDY}) {
+            Set<Object> keys = keysByStudy.get(indexedStudyId);
+            if (keys != null) {
+                // key by key, so that keys added meanwhile stay in the index
+                for (Object key : keys) {
+                    if (keys.remove(key)) {
+                        indexSize.decrementAndGet();
+                        cache.evict(key);
+                    }
+                }
+            }
+        }
+    }
+
+    private void index(Object key) {
+        if (!(key instanceof StudyTaggedCacheKey)) {
+            return;
+        }
+        Set<String> studyIds = ((StudyTaggedCacheKey) key).getStudyIds();
+        if (studyIds.isEmpty()) {
+            index(ANY_STUDY, key);
+        } else {
+            studyIds.forEach(studyId -> index(studyId, key));
+        }
+        if (indexSize.get() > pruneSize) {
+            prune();
+        }
+    }
+
+    private void index(String studyId, Object key) {
+        if (keysByStudy.computeIfAbsent(studyId, id -> ConcurrentHashMap.newKeySet()).add(key)) {
+            indexSize.incrementAndGet();
+        }
+    }
+
+    private synchronized void prune() {
+        if (indexSize.get() <= pruneSize) {
+            return;
+        }
+        keysByStudy.values().forEach(keys -> keys.removeIf(key -> {
+            boolean absent = !contains(key);
+            if (absent) {
+                indexSize.decrementAndGet();
+            }
+            return absent;
+        }));
+        pruneSize = Math.max(MIN_PRUNE_SIZE, indexSize.get() * 2);
+    }
+
+    private boolean contains(Object key) {
+        Object nativeCache = cache.getNativeCache();
+        // without reading the value, which may be on disk
+        return nativeCache instanceof javax.cache.Cache
+            ? ((javax.cache.Cache<Object, Object>) nativeCache).containsKey(key)
+            : cache.get(key) != null;
+    }
+
+    private void clearIndex() {
+        keysByStudy.clear();
+        indexSize.set(0);
+    }
+}
@@ -0,0 +1,19 @@
+package org.cbioportal.persistence.util;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.jcache.JCacheCacheManager;
+
+/**
+ * JCache (Ehcache) cache manager whose caches index their keys by study; see {@link StudyIndexedCache}.
+ */
+public class StudyIndexedJCacheCacheManager extends JCacheCacheManager {
+
+    public StudyIndexedJCacheCacheManager(javax.cache.CacheManager cacheManager) {
+        super(cacheManager);
+    }
+
+    @Override
+    protected Cache decorateCache(Cache cache) {
+        return super.decorateCache(new StudyIndexedCache(cache));
+    }
+}
@@ -0,0 +1,15 @@
+package org.cbioportal.persistence.util;
+
+/**
+ * In-memory structure derived from study data that lives outside of the Spring-managed caches. Implementations are
+ * flushed by the cache service whenever the Spring-managed caches are flushed, e.g. after a study is imported.
+ */
+public interface StudyScopedCache {
+
+    /**
+     * Drop everything that was derived from data of the given study.
+     */
+    void evictStudy(String studyId);
+
+    void evictAll();
+}
@@ -0,0 +1,42 @@
+package org.cbioportal.persistence.util;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * Cache key generated by {@link CustomKeyGenerator}, carrying the ids of the studies the cached value was derived
+ * from, so that the caches can index their keys by study and evict the keys of a study without scanning. A key
+ * without study ids may depend on any study (e.g. a list of all studies) and is evicted with every study.
+ *
+ * Equal to another key with the same string, which is also the key in Redis.
+ */
+public final class StudyTaggedCacheKey implements Serializable {
+
+    private final String key;
+    private final Set<String> studyIds;
+
+    public StudyTaggedCacheKey(String key, Set<String> studyIds) {
+        this.key = key;
+        this.studyIds = Collections.unmodifiableSet(studyIds);
+    }
+
+    public Set<String> getStudyIds() {
+        return studyIds;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || (o instanceof StudyTaggedCacheKey && key.equals(((StudyTaggedCacheKey) o).key));
+    }
+
+    @Override
+    public int hashCode() {
+        return key.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return key;
+    }
+}
@@ -34,8 +34,11 @@ package org.cbioportal.security;
 
 import java.io.Serializable;
 import java.util.*;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import org.cbioportal.model.CancerStudy;
 import org.cbioportal.model.MolecularProfile;
 import org.cbioportal.model.Patient;
@@ -54,6 +57,10 @@ import org.springframework.security.core.authority.AuthorityUtils;
  *
  * Anonymous users will only get access to public studies.
  *
+ * The authorities of an authentication are compiled once into the set of studies it has access to, which is kept
+ * for as long as the authentication is in use and the cancer study map of the CacheMapUtil is not rebuilt. Checks of
+ * collections of studies are then set lookups.
+ *
  * @author Benjamin Gross
  */
 public class CancerStudyPermissionEvaluator implements PermissionEvaluator {
@@ -72,6 +79,14 @@ public class CancerStudyPermissionEvaluator implements PermissionEvaluator {
     private static final String TARGET_TYPE_COLLECTION_OF_MOLECULAR_PROFILE_IDS = "Collection<MolecularProfileId>";
     private static final String TARGET_TYPE_COLLECTION_OF_GENETIC_PROFILE_IDS = "Collection<GeneticProfileId>";
     private static final Logger log = LoggerFactory.getLogger(CancerStudyPermissionEvaluator.class);
+    private static final Pattern ROLE_PREFIX = Pattern.compile("^ROLE_");
+    private static final int MAX_CACHED_STUDY_ACCESSES = 10000;
+
+    // keyed by the normalized authorities rather than the authentication, as requests with a data access token
+    // authenticate with a new Authentication every time
+    private final Cache<Set<String>, StudyAccess> studyAccessCache = Caffeine.newBuilder()
+        .maximumSize(MAX_CACHED_STUDY_ACCESSES)
+        .build();
 
     private final String APP_NAME;
     private String DEFAULT_APP_NAME = "public_portal";
@@ -242,14 +257,17 @@ public class CancerStudyPermissionEvaluator implements PermissionEvaluator {
             return true;
         }
 
-        Set<String> grantedAuthorities = getGrantedAuthorities(authentication);
+        return getStudyAccess(authentication).hasAccessTo(cancerStudy);
+    }
+
+    /**
+     * Helper function to determine if a user with the given (normalized) authorities has access to given cancer study.
+     */
+    private boolean hasAccessToCancerStudy(Set<String> grantedAuthorities, CancerStudy cancerStudy) {
+
         String stableStudyID = cancerStudy.getCancerStudyIdentifier();
         if (log.isDebugEnabled()) {
             log.debug("hasAccessToCancerStudy(), cancer study stable id: " + stableStudyID);
-            log.debug("hasAccessToCancerStudy(), user: " + authentication.getPrincipal().toString());
-            for (String authority : grantedAuthorities) {
-                log.debug("hasAccessToCancerStudy(), authority: " + authority);
-            }
         }
         // everybody has access the 'all' cancer study
         if (stableStudyID.equalsIgnoreCase(ALL_CANCER_STUDIES_ID)) {
@@ -335,8 +353,31 @@ public class CancerStudyPermissionEvaluator implements PermissionEvaluator {
     }
 
     private boolean hasAccessToCancerStudies(Authentication authentication, Collection<String> cancerStudyIds, Object permission) {
+        // same outcome as checking the studies one by one, but the study map and the study access of the
+        // authentication are only looked up once
+        Map<String, CancerStudy> cancerStudyMap = null;
+        StudyAccess studyAccess = null;
         for (String cancerStudyId : cancerStudyIds) {
-            if (!hasPermission(authentication, cancerStudyId, TARGET_TYPE_CANCER_STUDY_ID, permission)) {
+            if (cancerStudyId == null) {
+                return false;
+            }
+            if (cancerStudyId.equalsIgnoreCase(ALL_CANCER_STUDIES_ID)) {
+                continue;
+            }
+            if (cancerStudyMap == null) {
+                cancerStudyMap = cacheMapUtil.getCancerStudyMap();
+            }
+            CancerStudy cancerStudy = cancerStudyMap.get(cancerStudyId);
+            if (cancerStudy == null || authentication == null || authentication.getPrincipal() == null) {
+                return false;
+            }
+            if (AccessLevel.LIST == permission) {
+                continue;
+            }
+            if (studyAccess == null) {
+                studyAccess = getStudyAccess(authentication);
+            }
+            if (!studyAccess.hasAccessTo(cancerStudy)) {
                 return false;
             }
         }
@@ -363,12 +404,49 @@ public class CancerStudyPermissionEvaluator implements PermissionEvaluator {
         return true;
     }
 
+    /**
+     * Returns the study access of the authorities of the authentication, compiled when these authorities are seen for
+     * the first time or the cancer study map has been rebuilt since. If the CacheMapUtil does not tell when its maps
+     * are rebuilt, only the granted authorities are resolved and every study is checked against them.
+     */
+    private StudyAccess getStudyAccess(Authentication authentication) {
+        // read before the map, so that an access compiled from a map that is being replaced is compiled again
+        long generation = cacheMapUtil.getGeneration();
+        Set<String> grantedAuthorities = Set.copyOf(getGrantedAuthorities(authentication));
+        if (generation < 0) {
+            return new StudyAccess(generation, grantedAuthorities, null, null);
+        }
+        StudyAccess studyAccess = studyAccessCache.getIfPresent(grantedAuthorities);
+        if (studyAccess == null || studyAccess.generation != generation) {
+            studyAccess = compileStudyAccess(grantedAuthorities, generation);
+            studyAccessCache.put(grantedAuthorities, studyAccess);
+        }
+        return studyAccess;
+    }
+
+    private StudyAccess compileStudyAccess(Set<String> grantedAuthorities, long generation) {
+        if (log.isDebugEnabled()) {
+            for (String authority : grantedAuthorities) {
+                log.debug("compileStudyAccess(), authority: " + authority);
+            }
+        }
+        Map<String, CancerStudy> cancerStudyMap = cacheMapUtil.getCancerStudyMap();
+        Set<String> accessibleStudyIds = new HashSet<>();
+        for (CancerStudy cancerStudy : cancerStudyMap.values()) {
+            if (hasAccessToCancerStudy(grantedAuthorities, cancerStudy)) {
+                accessibleStudyIds.add(cancerStudy.getCancerStudyIdentifier());
+            }
+        }
+        return new StudyAccess(generation, grantedAuthorities, Set.copyOf(cancerStudyMap.keySet()),
+            Set.copyOf(accessibleStudyIds));
+    }
+
     private Set<String> getGrantedAuthorities(Authentication authentication) {
         String appName = getAppName().toUpperCase();
         // need to filter out empty authorities, this can cause issue if grantedAuthorities and groups both contain empty string
         Set<String> allAuthorities = AuthorityUtils.authorityListToSet(authentication.getAuthorities())
             .stream()
-            .map(authority -> authority.replaceAll("^ROLE_", ""))
+            .map(authority -> ROLE_PREFIX.matcher(authority).replaceFirst(""))
             .filter(a -> !a.isEmpty())
             .collect(Collectors.toSet());
         Set<String> grantedAuthorities = new HashSet<>();
@@ -406,4 +484,31 @@ public class CancerStudyPermissionEvaluator implements PermissionEvaluator {
         }
         return FILTER_GROUPS_BY_APP_NAME == null || Boolean.parseBoolean(FILTER_GROUPS_BY_APP_NAME);
     }
-}
\ No newline at end of file
+
+    /**
+     * A set of normalized authorities and the studies of one generation of the cancer study map it has access to. Studies that are not in that map are checked against the authorities.
+     */
+    private final class StudyAccess {
+
+        private final long generation;
+        private final Set<String> grantedAuthorities;
+        private final Set<String> compiledStudyIds;
+        private final Set<String> accessibleStudyIds;
+
+        private StudyAccess(long generation, Set<String> grantedAuthorities, Set<String> compiledStudyIds,
+                            Set<String> accessibleStudyIds) {
+            this.generation = generation;
+            this.grantedAuthorities = grantedAuthorities;
+            this.compiledStudyIds = compiledStudyIds;
+            this.accessibleStudyIds = accessibleStudyIds;
+        }
+
+        private boolean hasAccessTo(CancerStudy cancerStudy) {
+            String cancerStudyId = cancerStudy.getCancerStudyIdentifier();
+            if (compiledStudyIds != null && compiledStudyIds.contains(cancerStudyId)) {
+                return accessibleStudyIds.contains(cancerStudyId);
+            }
+            return hasAccessToCancerStudy(grantedAuthorities, cancerStudy);
+        }
+    }
+}
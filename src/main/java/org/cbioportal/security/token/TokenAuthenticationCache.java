@@ -0,0 +1,161 @@
+package org.cbioportal.security.token;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HexFormat;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Keeps the outcome of authenticating a data access token for dat.authentication_cache.ttl_seconds, so that a
+ * request with a recently seen token neither looks up the token (uuid) or verifies its signature (jwt) nor loads the
+ * authorities of its user again. Entries are keyed by the SHA-256 digest of the token, so the tokens themselves are
+ * not kept in memory.
+ *
+ * Revoking a token through the DataAccessTokenService invalidates its entry on this instance only: on a portal with
+ * several instances, a revoked token stays usable on the other instances until its entry expires. The cache is
+ * disabled when the TTL is 0 (default).
+ */
+@Component
+public class TokenAuthenticationCache {
+
+    @Value("${dat.authentication_cache.ttl_seconds:0}")
+    private int ttlSeconds;
+
+    @Value("${dat.authentication_cache.max_size:10000}")
+    private int maxSize;
+
+    private Cache<String, CachedToken> cache;
+
+    @PostConstruct
+    public void init() {
+        if (ttlSeconds > 0) {
+            cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        }
+    }
+
+    public boolean isEnabled() {
+        return cache != null;
+    }
+
+    /**
+     * @return the cached authentication of the token, or null if there is none or the token has expired since
+     */
+    public CachedToken getIfPresent(String token) {
+        if (cache == null) {
+            return null;
+        }
+        String digest = digest(token);
+        CachedToken cachedToken = cache.getIfPresent(digest);
+        if (cachedToken != null && cachedToken.isExpired()) {
+            cache.invalidate(digest);
+            return null;
+        }
+        return cachedToken;
+    }
+
+    /**
+     * Caches the authentication of a token that has just been verified.
+     *
+     * @param expiration expiration date of the token, or null if it does not expire
+     * @return the cached authentication, which is returned but not kept when the cache is disabled
+     */
+    public CachedToken put(String token, String username, Date expiration) {
+        CachedToken cachedToken = new CachedToken(username, expiration);
+        if (cache != null) {
+            cache.put(digest(token), cachedToken);
+        }
+        return cachedToken;
+    }
+
+    public void invalidate(String token) {
+        if (cache != null) {
+            cache.invalidate(digest(token));
+        }
+    }
+
+    public void invalidateUser(String username) {
+        if (cache != null) {
+            cache.asMap().values().removeIf(cachedToken -> Objects.equals(cachedToken.getUsername(), username));
+        }
+    }
+
+    public void invalidateAll() {
+        if (cache != null) {
+            cache.invalidateAll();
+        }
+    }
+
+    public String getStatistics() {
+        if (cache == null) {
+            return "Token authentication cache: disabled";
+        }
+        CacheStats stats = cache.stats();
+        return String.format("Token authentication cache: %d entries, %d hits, %d misses (hit rate %.2f), %d evictions",
+            cache.estimatedSize(), stats.hitCount(), stats.missCount(), stats.hitRate(), stats.evictionCount());
+    }
+
+    private static String digest(String token) {
+        try {
+            MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(messageDigest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            // every Java platform is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * The user a token belongs to and, once the token has been authenticated, the authorities of that user.
+     */
+    public static final class CachedToken {
+
+        private final String username;
+        private final Date expiration;
+        private volatile Set<GrantedAuthority> authorities;
+
+        private CachedToken(String username, Date expiration) {
+            this.username = username;
+            this.expiration = expiration;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public Date getExpiration() {
+            return expiration;
+        }
+
+        /**
+         * @return the authorities of the user, or null if they have not been loaded yet
+         */
+        public Set<GrantedAuthority> getAuthorities() {
+            return authorities;
+        }
+
+        public void setAuthorities(Collection<? extends GrantedAuthority> authorities) {
+            this.authorities = Set.copyOf(authorities);
+        }
+
+        private boolean isExpired() {
+            return expiration != null && expiration.before(new Date());
+        }
+    }
+}
@@ -2,6 +2,7 @@ package org.cbioportal.security.token.uuid;
 
 import org.cbioportal.model.UserAuthorities;
 import org.cbioportal.persistence.SecurityRepository;
+import org.cbioportal.security.token.TokenAuthenticationCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.security.authentication.AuthenticationProvider;
@@ -27,12 +28,22 @@ public class UuidTokenAuthenticationProvider implements AuthenticationProvider {
     @Override
     public Authentication authenticate(Authentication authentication) throws AuthenticationException {
         String user = (String) authentication.getPrincipal();
+        // the authentication request of a token seen recently carries the authorities loaded for it
+        TokenAuthenticationCache.CachedToken cachedToken =
+            authentication.getDetails() instanceof TokenAuthenticationCache.CachedToken ?
+                (TokenAuthenticationCache.CachedToken) authentication.getDetails() : null;
+        if (cachedToken != null && cachedToken.getAuthorities() != null) {
+            return new UsernamePasswordAuthenticationToken(user, "does not match unused", cachedToken.getAuthorities());
+        }
         log.debug("Attempt to grab user Authorities for user: {}", user);
         UserAuthorities authorities = securityRepository.getPortalUserAuthorities(user);
         Set<GrantedAuthority> mappedAuthorities = new HashSet<>();
         if (!Objects.isNull(authorities)) {
             mappedAuthorities.addAll(AuthorityUtils.createAuthorityList(authorities.getAuthorities()));
         }
+        if (cachedToken != null) {
+            cachedToken.setAuthorities(mappedAuthorities);
+        }
         return new UsernamePasswordAuthenticationToken(user, "does not match unused", mappedAuthorities);
     }
 
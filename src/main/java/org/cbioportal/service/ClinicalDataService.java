@@ -9,6 +9,7 @@ import org.cbioportal.service.exception.PatientNotFoundException;
 import org.cbioportal.service.exception.SampleNotFoundException;
 import org.cbioportal.service.exception.StudyNotFoundException;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface ClinicalDataService {
 
@@ -46,6 +47,11 @@ public interface ClinicalDataService {
     List<ClinicalData> fetchClinicalData(List<String> studyIds, List<String> ids, List<String> attributeIds,
                                                           String clinicalDataType, String projection);
 
+    // Same as fetchClinicalData above, except that the clinical data is passed to the consumer while it is read from
+    // the database instead of being collected in a list
+    void streamClinicalData(List<String> studyIds, List<String> ids, List<String> attributeIds,
+                            String clinicalDataType, String projection, Consumer<ClinicalData> consumer);
+
     BaseMeta fetchMetaClinicalData(List<String> studyIds, List<String> ids, List<String> attributeIds,
                                    String clinicalDataType);
 
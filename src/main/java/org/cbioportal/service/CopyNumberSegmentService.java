@@ -6,6 +6,7 @@ import org.cbioportal.service.exception.SampleNotFoundException;
 import org.cbioportal.service.exception.StudyNotFoundException;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface CopyNumberSegmentService {
 
@@ -19,6 +20,11 @@ public interface CopyNumberSegmentService {
 
     List<CopyNumberSeg> fetchCopyNumberSegments(List<String> studyIds, List<String> sampleIds, String chromosome, String projection);
 
+    // Same as fetchCopyNumberSegments above, except that the segments are passed to the consumer while they are read
+    // from the database instead of being collected in a list
+    void streamCopyNumberSegments(List<String> studyIds, List<String> sampleIds, String chromosome, String projection,
+                                  Consumer<CopyNumberSeg> consumer);
+
     BaseMeta fetchMetaCopyNumberSegments(List<String> studyIds, List<String> sampleIds, String chromosome);
 
     List<CopyNumberSeg> getCopyNumberSegmentsBySampleListId(String studyId, String sampleListId, String chromosome, String projection);
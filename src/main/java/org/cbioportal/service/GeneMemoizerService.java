@@ -1,6 +1,7 @@
 package org.cbioportal.service;
 
 import org.cbioportal.model.ReferenceGenomeGene;
+import org.cbioportal.service.util.ReferenceGenomeGeneIndex;
 
 import java.util.List;
 
@@ -8,4 +9,20 @@ public interface GeneMemoizerService {
     List<ReferenceGenomeGene> fetchGenes(String genomeName);
     
     void cacheGenes(List<ReferenceGenomeGene> genes, String genomeName); 
+
+    /**
+     * @return the index of the memoized genes of the genome, or null if they are not memoized
+     */
+    ReferenceGenomeGeneIndex getGeneIndex(String genomeName);
+
+    /**
+     * @param alias lower case gene alias
+     * @return entrez gene ids of the genes having the alias
+     */
+    List<Integer> getEntrezGeneIdsByAlias(String alias);
+
+    /**
+     * Drops every memoized gene list and the alias index, e.g. after the gene tables have been updated.
+     */
+    void invalidate();
 }
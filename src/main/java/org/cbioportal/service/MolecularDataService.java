@@ -3,10 +3,12 @@ package org.cbioportal.service;
 import org.cbioportal.model.GeneFilterQuery;
 import org.cbioportal.model.GeneMolecularAlteration;
 import org.cbioportal.model.GeneMolecularData;
+import org.cbioportal.model.MolecularDataRows;
 import org.cbioportal.model.meta.BaseMeta;
 import org.cbioportal.service.exception.MolecularProfileNotFoundException;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface MolecularDataService {
 
@@ -27,6 +29,8 @@ public interface MolecularDataService {
     Iterable<GeneMolecularAlteration> getMolecularAlterations(String molecularProfileId, List<Integer> entrezGeneIds,
                                                               String projection) throws MolecularProfileNotFoundException;
 
+    MolecularDataRows getMolecularDataRows(String molecularProfileId) throws MolecularProfileNotFoundException;
+
     Integer getNumberOfSamplesInMolecularProfile(String molecularProfileId);
 
     List<GeneMolecularData> getMolecularDataInMultipleMolecularProfiles(List<String> molecularProfileIds,
@@ -34,6 +38,12 @@ public interface MolecularDataService {
                                                                         List<Integer> entrezGeneIds,
                                                                         String projection);
 
+    // Same as getMolecularDataInMultipleMolecularProfiles above, except that the molecular data is passed to the
+    // consumer as it is generated instead of being collected in a list
+    void streamMolecularDataInMultipleMolecularProfiles(List<String> molecularProfileIds, List<String> sampleIds,
+                                                        List<Integer> entrezGeneIds, String projection,
+                                                        Consumer<GeneMolecularData> consumer);
+
     List<GeneMolecularData> getMolecularDataInMultipleMolecularProfilesByGeneQueries(List<String> molecularProfileIds,
                                                                                      List<String> sampleIds,
                                                                                      List<GeneFilterQuery> geneQueries,
@@ -9,4 +9,8 @@ public interface MrnaPercentileService {
     
     List<MrnaPercentile> fetchMrnaPercentile(String molecularProfileId, String sampleId, List<Integer> entrezGeneIds) 
         throws MolecularProfileNotFoundException;
+
+    List<MrnaPercentile> fetchMrnaPercentiles(String molecularProfileId, List<String> sampleIds,
+                                              List<Integer> entrezGeneIds)
+        throws MolecularProfileNotFoundException;
 }
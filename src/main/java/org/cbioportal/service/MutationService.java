@@ -8,6 +8,7 @@ import org.cbioportal.model.meta.MutationMeta;
 import org.cbioportal.service.exception.MolecularProfileNotFoundException;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface MutationService {
 
@@ -26,6 +27,13 @@ public interface MutationService {
                                                            Integer pageSize, Integer pageNumber,
                                                            String sortBy, String direction);
 
+    // Same as getMutationsInMultipleMolecularProfiles above, except that the mutations are passed to the consumer
+    // while they are read from the database instead of being collected in a list
+    void streamMutationsInMultipleMolecularProfiles(List<String> molecularProfileIds, List<String> sampleIds,
+                                                    List<Integer> entrezGeneIds, String projection, Integer pageSize,
+                                                    Integer pageNumber, String sortBy, String direction,
+                                                    Consumer<Mutation> consumer);
+
     List<Mutation> getMutationsInMultipleMolecularProfilesByGeneQueries(List<String> molecularProfileIds, List<String> sampleIds,
                                                                       List<GeneFilterQuery> geneQueries,
                                                                       String projection, Integer pageSize, Integer pageNumber,
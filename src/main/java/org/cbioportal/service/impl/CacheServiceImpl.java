@@ -2,11 +2,12 @@ package org.cbioportal.service.impl;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
-import org.cbioportal.persistence.StudyRepository;
 import org.cbioportal.persistence.cachemaputil.CacheMapUtil;
 import org.cbioportal.persistence.cachemaputil.StaticRefCacheMapUtil;
 import org.cbioportal.persistence.util.CacheUtils;
+import org.cbioportal.persistence.util.StudyScopedCache;
 import org.cbioportal.service.CacheService;
+import org.cbioportal.service.GeneMemoizerService;
 import org.cbioportal.service.exception.CacheOperationException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cache.CacheManager;
@@ -14,7 +15,7 @@ import org.springframework.stereotype.Component;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
 
 @Component
 public class CacheServiceImpl implements CacheService {
@@ -31,8 +32,12 @@ public class CacheServiceImpl implements CacheService {
     @Autowired(required = false)
     private CacheUtils cacheUtils;
 
+    // In-memory caches and indexes that are not managed by Spring (e.g. parsed molecular profiles).
+    @Autowired(required = false)
+    private List<StudyScopedCache> studyScopedCaches = new ArrayList<>();
+
     @Autowired
-    private StudyRepository studyRepository;
+    private GeneMemoizerService geneMemoizerService;
     
     @Override
     public void clearCaches(boolean clearSpringManagedCache) throws CacheOperationException {
@@ -42,6 +47,11 @@ public class CacheServiceImpl implements CacheService {
             attemptEvictSpringManagedCache(".*");
         }
 
+        studyScopedCaches.forEach(StudyScopedCache::evictAll);
+
+        // Gene tables may have been updated as well, do not wait for the memoizer to notice.
+        geneMemoizerService.invalidate();
+
         // Flush cache used for user permission evaluation.
         // Only needed when using cache not managed by the Spring caches.
         if (cacheMapUtil instanceof StaticRefCacheMapUtil) {
@@ -57,16 +67,14 @@ public class CacheServiceImpl implements CacheService {
     // This evicts keys from the general and static caches when updating/adding/deleting a study.
     public void clearCachesForStudy(String studyId, boolean clearSpringManagedCache) throws CacheOperationException {
 
-        List<String> allStudyIds = studyRepository.getAllStudies(null, "SUMMARY", null, null, null, null)
-            .stream()
-            .map(study -> study.getCancerStudyIdentifier())
-            .collect(Collectors.toList());
-            
         // Flush Spring-managed caches (only when cache strategy has been defined).
+        // Evicts the keys of the study and the keys lacking any study id, using the study index of the caches.
         if (clearSpringManagedCache) {
-            attemptEvictSpringManagedCache(buildEvictionRegex(studyId, allStudyIds));
+            attemptEvictSpringManagedCache(cacheName -> cacheUtils.evictStudy(cacheName, studyId));
         }
 
+        studyScopedCaches.forEach(cache -> cache.evictStudy(studyId));
+
         // Flush cache used for user permission evaluation.
         // Only needed when using cache not managed by the Spring caches.
         if (cacheMapUtil instanceof StaticRefCacheMapUtil) {
@@ -76,12 +84,13 @@ public class CacheServiceImpl implements CacheService {
     }
     
     private void attemptEvictSpringManagedCache(String pattern) throws CacheOperationException {
+        attemptEvictSpringManagedCache(cacheName -> cacheUtils.evictByPattern(cacheName, pattern));
+    }
+
+    private void attemptEvictSpringManagedCache(Consumer<String> evictCache) throws CacheOperationException {
         try {
             if (cacheManager != null) {
-                cacheManager.getCacheNames().stream()
-                    .forEach(cacheName -> {
-                        cacheUtils.evictByPattern(cacheName, pattern);
-                    });
+                cacheManager.getCacheNames().forEach(evictCache);
             }
         } catch (RuntimeException e) {
             e.printStackTrace();
@@ -90,22 +99,4 @@ public class CacheServiceImpl implements CacheService {
         }
     }
     
-    // Regex that selects keys that match id of deleted study
-    // or lacking any study id completely. For example:
-    // ^(?=.*study_id_1).*|^(?!.*study_id_1)(?!.*study_id_2)(?!.*study_id_3).*
-    // https://stackoverflow.com/a/8240998/11651683
-    private String buildEvictionRegex(String studyId, List<String> allStudyIds) {
-        
-        // make sure imported studyId is in all studies.
-        List<String> all = new ArrayList<>();
-        all.add(studyId);
-        all.addAll(allStudyIds);
-
-        String allIdsRegex = all.stream()
-            .map(id -> "(?!.*" + id + ")")
-            .collect(Collectors.joining(""));
-
-        return "^(?=.*" + studyId + ").*|^" + allIdsRegex + ".*";
-    }
-    
 }
@@ -43,15 +43,15 @@ public class CacheStatisticsServiceImpl implements CacheStatisticsService {
     @Override
     public List<String> getKeyCountsPerClass(String cacheName) throws CacheNotFoundException {
         checkIfCacheStatisticsEndpointEnabled();
-        Cache<String, Object> cache = cacheManager.getCache(cacheName);
+        Cache<Object, Object> cache = cacheManager.getCache(cacheName);
         if (cache == null) {
             throw new CacheNotFoundException(cacheName);
         }
         Map<String, Integer> classToKeyCount = new HashMap<String, Integer>();
-        Iterator<Cache.Entry<String, Object>> iterator = cache.iterator();
+        Iterator<Cache.Entry<Object, Object>> iterator = cache.iterator();
         while (iterator.hasNext()) {
-            Cache.Entry<String, Object> entry = iterator.next();
-            String cacheKey = entry.getKey();
+            Cache.Entry<Object, Object> entry = iterator.next();
+            String cacheKey = entry.getKey().toString();
             String className = cacheKey.split("_")[0];
             int keyCount = classToKeyCount.containsKey(className) ? classToKeyCount.get(className) : 0;
             classToKeyCount.put(className, keyCount + 1);
@@ -66,16 +66,16 @@ public class CacheStatisticsServiceImpl implements CacheStatisticsService {
     @Override
     public List<String> getKeysInCache(String cacheName) throws CacheNotFoundException {
         checkIfCacheStatisticsEndpointEnabled();
-        Cache<String, Object> cache = cacheManager.getCache(cacheName);
+        Cache<Object, Object> cache = cacheManager.getCache(cacheName);
         if (cache == null) {
             throw new CacheNotFoundException(cacheName);
         }
         Integer numberOfKeys = 0;
         List<String> keysInCache = new ArrayList<String>();
-        Iterator<Cache.Entry<String, Object>> iterator = cache.iterator();
+        Iterator<Cache.Entry<Object, Object>> iterator = cache.iterator();
         while (iterator.hasNext()) {
-            Cache.Entry<String, Object> entry = iterator.next();
-            keysInCache.add(entry.getKey());
+            Cache.Entry<Object, Object> entry = iterator.next();
+            keysInCache.add(entry.getKey().toString());
             numberOfKeys += 1;
         }
         keysInCache.add("Total Number of Keys: " + numberOfKeys.toString());
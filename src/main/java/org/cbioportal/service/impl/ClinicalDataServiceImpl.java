@@ -10,8 +10,10 @@ import org.cbioportal.service.exception.*;
 import org.cbioportal.service.util.ClinicalAttributeUtil;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -125,6 +127,17 @@ public class ClinicalDataServiceImpl implements ClinicalDataService {
         return clinicalDataRepository.fetchClinicalData(studyIds, ids, attributeIds, clinicalDataType, projection);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public void streamClinicalData(List<String> studyIds, List<String> ids, List<String> attributeIds,
+                                   String clinicalDataType, String projection, Consumer<ClinicalData> consumer) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        clinicalDataRepository.fetchClinicalDataIterable(studyIds, ids, attributeIds, clinicalDataType, projection)
+            .forEach(consumer);
+    }
+
     @Override
     public BaseMeta fetchMetaClinicalData(List<String> studyIds, List<String> ids, List<String> attributeIds, 
                                           String clinicalDataType) {
@@ -1,26 +1,24 @@
 package org.cbioportal.service.impl;
 
+import org.apache.commons.lang3.math.NumberUtils;
 import org.cbioportal.model.*;
 import org.cbioportal.persistence.MolecularDataRepository;
 import org.cbioportal.persistence.SampleListRepository;
 import org.cbioportal.service.*;
 import org.cbioportal.service.exception.*;
-import org.cbioportal.service.util.CoExpressionAsyncMethods;
+import org.cbioportal.service.util.CoExpressionCalculator;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
-import java.util.Map.Entry;
-import java.util.function.Function;
 import java.util.stream.Collectors;
-import java.util.concurrent.CompletableFuture;
 
 @Service
 public class CoExpressionServiceImpl implements CoExpressionService {
 
     @Autowired
-    private CoExpressionAsyncMethods asyncMethods;
+    private CoExpressionCalculator coExpressionCalculator;
     @Autowired
     private MolecularDataService molecularDataService;
     @Autowired
@@ -97,91 +95,57 @@ public class CoExpressionServiceImpl implements CoExpressionService {
                                                  Double threshold)
         throws MolecularProfileNotFoundException, GenesetNotFoundException, GeneNotFoundException {
 
-        // For the purpose of the CoExpression computation, we separate the MolecularAlteration
-        // (genetic_alteration table record) for the query gene/geneset from the MolecularAlteration(s)
-        // for the remaining genes/geneset in the profile.
-        MolecularAlteration queryMolecularDataList = null;
-        Iterable<? extends MolecularAlteration> maItr = null;
-        if (geneticEntityType.equals(EntityType.GENE)) {
-            List<Integer> queryGeneticEntityIds = Arrays.asList(Integer.valueOf(queryGeneticEntityId));
-            maItr = molecularDataService.getMolecularAlterations(molecularProfileId, queryGeneticEntityIds, "SUMMARY");
-        } else if (geneticEntityType.equals(EntityType.GENESET)) {
-            List<String> queryGeneticEntityIds = Arrays.asList(queryGeneticEntityId);
-            maItr = genesetDataService.getGenesetAlterations(molecularProfileId, queryGeneticEntityIds);
-        }
-        for (MolecularAlteration ma : maItr) {
-            queryMolecularDataList = ma;
-        }
-        if (queryMolecularDataList == null) {
+        // The parsed values of all genes/genesets (genetic_alteration records) in the profile. Columns are the
+        // samples of the profile in the order of genetic_profile_samples.ORDERED_SAMPLE_LIST.
+        MolecularDataRows rows = molecularDataService.getMolecularDataRows(molecularProfileId);
+        double[] queryValues = rows == null ? null : new double[rows.getNumberOfSamples()];
+        if (rows == null || !rows.readRow(queryGeneticEntityId, queryValues)) {
             return Collections.emptyList();
         }
 
-        // These next few lines are used to build a map of internal sample ids to
-        // indices into the genetic_alteration.VALUES column. Recall this column
-        // of the genetic_alteration table is a comma separated list of scalar values.
-        // Each value in this list is associated with a sample at the same position found in
-        // the genetic_profile_samples.ORDERED_SAMPLE_LIST column.
-        MolecularProfileSamples commaSeparatedSampleIdsOfMolecularProfile = molecularDataRepository
-            .getCommaSeparatedSampleIdsOfMolecularProfile(molecularProfileId);
-        List<Integer> internalSampleIds = Arrays.stream(commaSeparatedSampleIdsOfMolecularProfile.getSplitSampleIds())
-            .mapToInt(Integer::parseInt).boxed().collect(Collectors.toList());
-        Map<Integer, Integer> internalSampleIdToIndexMap = new HashMap<>();
-        for (int lc = 0; lc < internalSampleIds.size(); lc++) {
-            internalSampleIdToIndexMap.put(internalSampleIds.get(lc), lc);
-        }
-
-        // These next few lines build a list of Sample from the sampleIds method parameter (the user query).
-        // A map is then built of internal sample ids to indices into the Sample list (although the map is
-        // only used to quickly identify if a sample in the molecular profile is part of the user query - see below).
+        // These next few lines build a list of Sample from the sampleIds method parameter (the user query)
+        // and select the columns of the samples that are included in the user query.
         MolecularProfile molecularProfile = molecularProfileService.getMolecularProfile(molecularProfileId);
         List<String> studyIds = new ArrayList<>();
         sampleIds.forEach(s -> studyIds.add(molecularProfile.getCancerStudyIdentifier()));
         List<Sample> samples = sampleService.fetchSamples(studyIds, sampleIds, "ID");
-        Map<Integer, Integer> selectedSampleIdsMap = new HashMap<>();
-        for (int lc = 0; lc < samples.size(); lc++) {
-            selectedSampleIdsMap.put(samples.get(lc).getInternalId(), lc);
-        }
-
-        // These next few lines build a list of indices into the genetic_alteration.VALUES
-        // column by iterating over all the samples in the molecular profile (method parameter)
-        // and selecting only samples that are included in the user query.
-        Set<Integer> includedIndexes = new HashSet<>();
-        for (Integer internalSampleId : internalSampleIds) {
-            if (selectedSampleIdsMap.containsKey(internalSampleId)) {
-                includedIndexes.add(internalSampleIdToIndexMap.get(internalSampleId));
+        int[] includedIndexes = samples.stream()
+            .mapToInt(sample -> rows.getSampleIndex(sample.getInternalId()))
+            .filter(index -> index >= 0)
+            .sorted()
+            .distinct()
+            .toArray();
+
+        double[] includedQueryValues = new double[includedIndexes.length];
+        selectValues(queryValues, includedIndexes, includedQueryValues);
+
+        if (rows instanceof MolecularDataMatrix matrix) {
+            // Compute a CoExpression for every row of the matrix except the row of the query gene/geneset.
+            int queryRow = matrix.getRowIndex(queryGeneticEntityId);
+            String[] entityIds = new String[matrix.getNumberOfRows()];
+            for (int row = 0; row < entityIds.length; row++) {
+                entityIds[row] = row == queryRow ? null : matrix.getStableId(row);
             }
+            return coExpressionCalculator.computeCoExpressions(includedQueryValues, entityIds,
+                (row, target) -> matrix.getValues(row, includedIndexes, target), threshold);
         }
 
-        // These next few lines filter out genetic_alteration values from the query gene/geneset
-        // genetic_alteration.VALUES column by considering only the indices of the samples in the user query.
-        List<String> queryValues = Arrays.asList(queryMolecularDataList.getSplitValues());
-        List<String> includedQueryValues = includedIndexes.stream().map(index -> queryValues.get(index))
-            .collect(Collectors.toList());
-
-        // Get an iterator to all the MolecularAlteration (genetic_alteration table records) in the profile
-        if (geneticEntityType.equals(EntityType.GENE)) {
-            maItr = molecularDataService.getMolecularAlterations(molecularProfileId, null, "SUMMARY");
-        } else if (geneticEntityType.equals(EntityType.GENESET)) {
-            maItr = genesetDataService.getGenesetAlterations(molecularProfileId, null);
-        }
-
-        // For each MolecularAlteration in the profile, compute a CoExpression to return.
-        // If the MolecularAlteration is for the query gene/geneset, skip it.  Otherwise,
-        // filter out genetic_alteration values from genetic_alteration.VALUES
-        // by considering oly the indices of the samples in the user query.
-        List<CompletableFuture<CoExpression>> returnFutures = new ArrayList<>();
-        for (MolecularAlteration ma : maItr) {
-            String entityId = ma.getStableId();
-            if (entityId.equals(queryGeneticEntityId)) {
-                continue;
-            }
-            List<String> internalValues = new ArrayList<>(Arrays.asList(ma.getSplitValues()));
-            List<String> values = includedIndexes.stream().map(index -> internalValues.get(index)).collect(Collectors.toList());
+        // The profile is not kept in memory: its rows are parsed while they are read from the database.
+        return coExpressionCalculator.computeCoExpressions(includedQueryValues, consumer -> {
+            double[] includedValues = new double[includedIndexes.length];
+            rows.forEachRow((stableId, values) -> {
+                if (!stableId.equals(queryGeneticEntityId)) {
+                    selectValues(values, includedIndexes, includedValues);
+                    consumer.accept(stableId, includedValues);
+                }
+            });
+        }, threshold);
+    }
 
-            CompletableFuture<CoExpression> future = asyncMethods.computeCoExpression(entityId, values, includedQueryValues, threshold);
-            returnFutures.add(future);
+    private static void selectValues(double[] values, int[] indexes, double[] target) {
+        for (int i = 0; i < indexes.length; i++) {
+            target[i] = values[indexes[i]];
         }
-        return returnFutures.stream().map(CompletableFuture::join).filter(Objects::nonNull).collect(Collectors.toList());
     }
 
     @Override
@@ -240,27 +204,36 @@ public class CoExpressionServiceImpl implements CoExpressionService {
             }
         }
 
-        List<CompletableFuture<CoExpression>> returnFutures = new ArrayList<>();
-
-        Map<String, ? extends MolecularData> dataMapA = finalMolecularDataListA.stream()
-                .collect(Collectors.toMap(MolecularData::getSampleId, Function.identity()));
-
-        for (Entry<String, List<MolecularData>> entry : molecularDataMapB.entrySet()) {
-            List<String> valuesA = new ArrayList<>();
-            List<String> valuesB = new ArrayList<>();
+        // Values of every other genetic entity are aligned to the samples of the query genetic entity; samples
+        // without a value are NaN.
+        Map<String, Integer> sampleIndexes = new HashMap<>();
+        double[] queryValues = new double[finalMolecularDataListA.size()];
+        for (MolecularData molecularData : finalMolecularDataListA) {
+            if (!sampleIndexes.containsKey(molecularData.getSampleId())) {
+                queryValues[sampleIndexes.size()] = parseValue(molecularData.getValue());
+                sampleIndexes.put(molecularData.getSampleId(), sampleIndexes.size());
+            }
+        }
+        queryValues = Arrays.copyOf(queryValues, sampleIndexes.size());
 
-            entry.getValue().stream().forEach(molecularData -> {
-                if (dataMapA.containsKey(molecularData.getSampleId())) {
-                    valuesA.add(molecularData.getValue());
-                    valuesB.add(dataMapA.get(molecularData.getSampleId()).getValue());
+        String[] entityIds = molecularDataMapB.keySet().toArray(new String[0]);
+        double[][] values = new double[entityIds.length][queryValues.length];
+        for (int row = 0; row < entityIds.length; row++) {
+            Arrays.fill(values[row], Double.NaN);
+            for (MolecularData molecularData : molecularDataMapB.get(entityIds[row])) {
+                Integer sampleIndex = sampleIndexes.get(molecularData.getSampleId());
+                if (sampleIndex != null) {
+                    values[row][sampleIndex] = parseValue(molecularData.getValue());
                 }
-            });
-
-            CompletableFuture<CoExpression> future = asyncMethods.computeCoExpression(entry.getKey(), valuesA, valuesB, threshold);
-            returnFutures.add(future);
+            }
         }
 
-        return returnFutures.stream().map(CompletableFuture::join).filter(Objects::nonNull).collect(Collectors.toList());
+        return coExpressionCalculator.computeCoExpressions(queryValues, entityIds,
+            (row, target) -> System.arraycopy(values[row], 0, target, 0, target.length), threshold);
+    }
+
+    private double parseValue(String value) {
+        return NumberUtils.isCreatable(value) ? Double.parseDouble(value) : Double.NaN;
     }
 
 }
@@ -9,8 +9,10 @@ import org.cbioportal.service.exception.SampleNotFoundException;
 import org.cbioportal.service.exception.StudyNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 @Service
 public class CopyNumberSegmentServiceImpl implements CopyNumberSegmentService {
@@ -51,6 +53,18 @@ public class CopyNumberSegmentServiceImpl implements CopyNumberSegmentService {
         return copyNumberSegmentRepository.fetchCopyNumberSegments(studyIds, sampleIds, chromosome, projection);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public void streamCopyNumberSegments(List<String> studyIds,
+                                         List<String> sampleIds,
+                                         String chromosome,
+                                         String projection,
+                                         Consumer<CopyNumberSeg> consumer) {
+
+        copyNumberSegmentRepository.fetchCopyNumberSegmentsIterable(studyIds, sampleIds, chromosome, projection)
+            .forEach(consumer);
+    }
+
     @Override
     public BaseMeta fetchMetaCopyNumberSegments(List<String> studyIds, List<String> sampleIds, String chromsome) {
         
@@ -11,10 +11,16 @@ import org.springframework.stereotype.Service;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
 import java.util.stream.Collectors;
 
 @Service
 public class CustomDataServiceImpl implements CustomDataService {
+
+    // the requests block on the session service, a virtual thread per request does not hold a pool thread meanwhile
+    private static final Executor SESSION_SERVICE_EXECUTOR = Executors.newVirtualThreadPerTaskExecutor();
+
     @Autowired
     private SessionServiceRequestHandler sessionServiceRequestHandler;
     
@@ -41,7 +47,7 @@ public class CustomDataServiceImpl implements CustomDataService {
                     } catch (Exception e) {
                         return null;
                     }
-                })
+                }, SESSION_SERVICE_EXECUTOR)
             ));
 
         CompletableFuture.allOf(postFuturesMap.values().toArray(new CompletableFuture[postFuturesMap.size()])).join();
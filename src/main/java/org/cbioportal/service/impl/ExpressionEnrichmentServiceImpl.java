@@ -17,7 +17,7 @@ import org.cbioportal.model.Sample;
 import org.cbioportal.model.GenericAssayEnrichment;
 import org.cbioportal.model.GenomicEnrichment;
 import org.cbioportal.model.Gene;
-import org.cbioportal.model.GeneMolecularAlteration;
+import org.cbioportal.model.MolecularDataRows;
 import org.cbioportal.persistence.MolecularDataRepository;
 import org.cbioportal.service.ExpressionEnrichmentService;
 import org.cbioportal.service.GeneService;
@@ -64,10 +64,9 @@ public class ExpressionEnrichmentServiceImpl implements ExpressionEnrichmentServ
             MolecularAlterationType.PROTEIN_ARRAY_PROTEIN_LEVEL,
             MolecularAlterationType.PROTEIN_ARRAY_PHOSPHORYLATION);
         validateMolecularProfile(molecularProfile, validGenomicMolecularAlterationTypes);
-        Iterable<GeneMolecularAlteration> maItr = molecularDataRepository
-            .getGeneMolecularAlterationsIterableFast(molecularProfile.getStableId());
+        MolecularDataRows rows = molecularDataRepository.getMolecularDataRows(molecularProfile.getStableId());
         List<GenomicEnrichment> expressionEnrichments = expressionEnrichmentUtil.getEnrichments(molecularProfile,
-            molecularProfileCaseSets, enrichmentType, maItr);
+            molecularProfileCaseSets, enrichmentType, rows);
         List<Integer> entrezGeneIds = expressionEnrichments.stream().map(GenomicEnrichment::getEntrezGeneId)
             .collect(Collectors.toList());
         Map<Integer, List<Gene>> geneMapByEntrezId = geneService
@@ -94,8 +93,7 @@ public class ExpressionEnrichmentServiceImpl implements ExpressionEnrichmentServ
         throws MolecularProfileNotFoundException {
         MolecularProfile molecularProfile = molecularProfileService.getMolecularProfile(molecularProfileId);
         validateMolecularProfile(molecularProfile, Arrays.asList(MolecularAlterationType.GENERIC_ASSAY));
-        Iterable<GenericAssayMolecularAlteration> maItr = molecularDataRepository
-            .getGenericAssayMolecularAlterationsIterable(molecularProfile.getStableId(), null, "SUMMARY");
+        MolecularDataRows rows = molecularDataRepository.getMolecularDataRows(molecularProfile.getStableId());
         Map<String, List<MolecularProfileCaseIdentifier>> filteredMolecularProfileCaseSets;
         if (BooleanUtils.isTrue(molecularProfile.getPatientLevel())) {
             // Build sampleIdToPatientIdMap to quick find if a sample has shared patientId with other samples
@@ -120,7 +118,7 @@ public class ExpressionEnrichmentServiceImpl implements ExpressionEnrichmentServ
             filteredMolecularProfileCaseSets = molecularProfileCaseSets;
         }
         List<GenericAssayEnrichment> genericAssayEnrichments = expressionEnrichmentUtil.getEnrichments(molecularProfile,
-            filteredMolecularProfileCaseSets, enrichmentType, maItr);
+            filteredMolecularProfileCaseSets, enrichmentType, rows);
         List<String> getGenericAssayStableIds = genericAssayEnrichments.stream()
             .map(GenericAssayEnrichment::getStableId).collect(Collectors.toList());
         Map<String, GenericAssayMeta> genericAssayMetaByStableId = genericAssayService
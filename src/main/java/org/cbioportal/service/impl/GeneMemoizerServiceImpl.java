@@ -1,48 +1,158 @@
 package org.cbioportal.service.impl;
 
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.cbioportal.model.GeneAlias;
 import org.cbioportal.model.ReferenceGenomeGene;
+import org.cbioportal.persistence.GeneRepository;
 import org.cbioportal.service.GeneMemoizerService;
 import org.cbioportal.service.StaticDataTimestampService;
+import org.cbioportal.service.util.ReferenceGenomeGeneIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
+/**
+ * Keeps the genes of reference genomes and the gene aliases in immutable snapshots, which are read without locking
+ * and without checking the database. Every gene_memoizer.refresh_interval_seconds, a background thread drops the
+ * snapshots whose tables have been updated since they were read; invalidate() drops all of them at once.
+ */
 @Service
 public class GeneMemoizerServiceImpl implements GeneMemoizerService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(GeneMemoizerServiceImpl.class);
+
+    private static final List<String> TABLES = Arrays.asList("gene", "reference_genome_gene");
+    private static final List<String> ALIAS_TABLES = Arrays.asList("gene", "gene_alias");
+    private static final List<String> ALL_TABLES = Arrays.asList("gene", "reference_genome_gene", "gene_alias");
+
     @Autowired
     private StaticDataTimestampService timestampService;
-    
-    private static final List<String> TABLES = Arrays.asList("gene", "reference_genome_gene");
 
-    private static final Map<String, List<ReferenceGenomeGene>> memoization = new HashMap<>();
-    private static final Map<String, Date> expiry = new HashMap<>();
-    private static final Object lock = new Object();    
-    
+    @Autowired
+    private GeneRepository geneRepository;
+
+    @Value("${gene_memoizer.refresh_interval_seconds:60}")
+    private int refreshIntervalSeconds;
+
+    private final Map<String, ReferenceGenomeGeneIndex> memoization = new ConcurrentHashMap<>();
+    private volatile GeneAliasIndex geneAliasIndex;
+    private final Object aliasLoadLock = new Object();
+    private ScheduledExecutorService refresher;
+
+    @PostConstruct
+    public void init() {
+        if (refreshIntervalSeconds > 0) {
+            refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "gene-memoizer-refresher");
+                thread.setDaemon(true);
+                return thread;
+            });
+            refresher.scheduleWithFixedDelay(this::refresh, refreshIntervalSeconds, refreshIntervalSeconds,
+                TimeUnit.SECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (refresher != null) {
+            refresher.shutdownNow();
+        }
+    }
+
     @Override
     public List<ReferenceGenomeGene> fetchGenes(String genomeName) {
-        synchronized (lock) {
-            if (memoization.containsKey(genomeName) && allTablesUpToDate(expiry.get(genomeName))) {
-                return memoization.get(genomeName);
+        ReferenceGenomeGeneIndex geneIndex = memoization.get(genomeName);
+        return geneIndex == null ? null : geneIndex.getGenes();
+    }
+
+    @Override
+    public void cacheGenes(List<ReferenceGenomeGene> genes, String genomeName) {
+        memoization.put(genomeName, new ReferenceGenomeGeneIndex(genes, new Date()));
+    }
+
+    @Override
+    public ReferenceGenomeGeneIndex getGeneIndex(String genomeName) {
+        return memoization.get(genomeName);
+    }
+
+    @Override
+    public List<Integer> getEntrezGeneIdsByAlias(String alias) {
+        GeneAliasIndex aliasIndex = geneAliasIndex;
+        if (aliasIndex == null) {
+            synchronized (aliasLoadLock) {
+                aliasIndex = geneAliasIndex;
+                if (aliasIndex == null) {
+                    aliasIndex = new GeneAliasIndex(geneRepository.getAllAliases(), new Date());
+                    geneAliasIndex = aliasIndex;
+                }
+            }
+        }
+        return aliasIndex.entrezGeneIdsByAlias.getOrDefault(alias, Collections.emptyList());
+    }
+
+    @Override
+    public void invalidate() {
+        memoization.clear();
+        geneAliasIndex = null;
+    }
+
+    /**
+     * Drops the snapshots read before the last update of their tables. Called by the refresher thread.
+     */
+    void refresh() {
+        try {
+            GeneAliasIndex aliasIndex = geneAliasIndex;
+            if (memoization.isEmpty() && aliasIndex == null) {
+                return;
+            }
+            Map<String, Date> timestamps = timestampService.getTimestampsAsDates(ALL_TABLES);
+            for (Map.Entry<String, ReferenceGenomeGeneIndex> entry : memoization.entrySet()) {
+                if (!allTablesUpToDate(timestamps, TABLES, entry.getValue().getLoadedAt())) {
+                    // leaves a snapshot that has been replaced in the meantime
+                    memoization.remove(entry.getKey(), entry.getValue());
+                }
             }
+            if (aliasIndex != null && !allTablesUpToDate(timestamps, ALIAS_TABLES, aliasIndex.loadedAt)) {
+                synchronized (aliasLoadLock) {
+                    if (geneAliasIndex == aliasIndex) {
+                        geneAliasIndex = null;
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            LOG.warn("Could not check the gene tables for updates", e);
         }
-        
-        return null;
     }
-    
-    private boolean allTablesUpToDate(Date expiration) {
-        Map<String, Date> timestamps = timestampService.getTimestampsAsDates(TABLES);
-        return TABLES.stream()
+
+    private boolean allTablesUpToDate(Map<String, Date> timestamps, List<String> tables, Date expiration) {
+        return tables.stream()
             .map((table) -> timestamps.containsKey(table) && timestamps.get(table).before(expiration))
             .reduce((all, next) -> all && next)
             .orElse(false);
     }
-    
-    @Override
-    public void cacheGenes(List<ReferenceGenomeGene> genes, String genomeName) {
-        synchronized (lock) {
-            expiry.put(genomeName, new Date());
-            memoization.put(genomeName, genes);
+
+    private static final class GeneAliasIndex {
+
+        private final Map<String, List<Integer>> entrezGeneIdsByAlias;
+        private final Date loadedAt;
+
+        private GeneAliasIndex(List<GeneAlias> geneAliases, Date loadedAt) {
+            this.entrezGeneIdsByAlias = geneAliases.stream()
+                .filter(geneAlias -> geneAlias.getGeneAlias() != null)
+                .collect(Collectors.groupingBy(GeneAlias::getGeneAlias,
+                Collectors.mapping(GeneAlias::getEntrezGeneId,
+                    Collectors.collectingAndThen(Collectors.toList(), List::copyOf))));
+            this.loadedAt = loadedAt;
         }
     }
 }
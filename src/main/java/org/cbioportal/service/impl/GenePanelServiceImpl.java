@@ -10,6 +10,8 @@ import org.cbioportal.service.SampleListService;
 import org.cbioportal.service.exception.GenePanelNotFoundException;
 import org.cbioportal.service.exception.MolecularProfileNotFoundException;
 import org.cbioportal.service.exception.SampleListNotFoundException;
+import org.cbioportal.service.util.GenePanelDataSnapshot;
+import org.cbioportal.service.util.GenePanelDataSnapshotCache;
 import org.cbioportal.service.util.MolecularProfileUtil;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -30,12 +32,11 @@ public class GenePanelServiceImpl implements GenePanelService {
     private SampleListService sampleListService;
     @Autowired
     private MolecularProfileUtil molecularProfileUtil;
+    @Autowired
+    private GenePanelDataSnapshotCache genePanelDataSnapshotCache;
 
     private final String SEQUENCED_LIST_SUFFIX = "_sequenced";
 
-    private final Function<GenePanelData, String> SAMPLE_IDENTIFIER_GENERATOR = d -> d.getMolecularProfileId() + d.getSampleId();
-    private final Function<GenePanelData, String> PATIENT_IDENTIFIER_GENERATOR = d -> d.getMolecularProfileId() + d.getPatientId();
-
     @Override
     public List<GenePanel> getAllGenePanels(String projection, Integer pageSize, Integer pageNumber, String sortBy, 
                                             String direction) {
@@ -117,67 +118,112 @@ public class GenePanelServiceImpl implements GenePanelService {
     @Override
     public List<GenePanelData> fetchGenePanelDataByMolecularProfileIds(Set<String> molecularProfileIds) {
 
-        List<MolecularProfile> molecularProfiles = molecularProfileService
-            .getMolecularProfiles(molecularProfileIds, "SUMMARY");
-
-        Set<String> uniqueMolecularProfileIds = molecularProfiles
-            .stream()
-            .map(MolecularProfile::getStableId)
-            .collect(toSet());
-
-        Map<String, List<GenePanelData>> molecularProfileIdToGenePanelDataMap = uniqueMolecularProfileIds
-            .stream()
-            //query database with each profile id so data cached in a modular way for each profile 
-            .collect(Collectors.toMap(Function.identity(), profileId -> genePanelRepository
-                .fetchGenePanelDataByMolecularProfileId(profileId)));
-
-        Map<String,MolecularProfile> molecularProfileIdMap = molecularProfiles
-            .stream()
-            .collect(Collectors.toMap(MolecularProfile::getStableId, Function.identity()));
+        Map<String, GenePanelDataSnapshot> snapshots = getGenePanelDataSnapshots(molecularProfileIds);
 
         return molecularProfileIds
             .stream()
-            .flatMap(profileId -> {
-                List<GenePanelData> genePanelData = molecularProfileIdToGenePanelDataMap
-                    .getOrDefault(profileId, new ArrayList<>());
-                if (CollectionUtils.isNotEmpty(genePanelData)) {
-                    genePanelData = annotateDataFromSequencedSampleLists(genePanelData, molecularProfileIdMap.get(profileId));
-                }
-                return genePanelData.stream();
-            })
+            .filter(snapshots::containsKey)
+            .flatMap(profileId -> snapshots.get(profileId).getGenePanelData().stream())
             .collect(Collectors.toList());
     }
 
     @Override
     public List<GenePanelData> fetchGenePanelDataInMultipleMolecularProfiles(List<MolecularProfileCaseIdentifier> molecularProfileSampleIdentifiers) {
-        return getGenePanelData(molecularProfileSampleIdentifiers, SAMPLE_IDENTIFIER_GENERATOR);
+        return getGenePanelData(molecularProfileSampleIdentifiers, false);
     }
 
     @Override
     public List<GenePanelData> fetchGenePanelDataInMultipleMolecularProfilesByPatientIds(List<MolecularProfileCaseIdentifier> molecularProfilePatientIdentifiers) {
-        return getGenePanelData(molecularProfilePatientIdentifiers, PATIENT_IDENTIFIER_GENERATOR);
+        return getGenePanelData(molecularProfilePatientIdentifiers, true);
     }
 
     private List<GenePanelData> getGenePanelData(List<MolecularProfileCaseIdentifier> molecularProfileCaseIdentifiers,
-                                                 Function<GenePanelData, String> keyGenerator) {
+                                                 boolean byPatient) {
         Set<String> molecularProfileIds = molecularProfileCaseIdentifiers
             .stream()
             .map(MolecularProfileCaseIdentifier::getMolecularProfileId)
             .collect(toSet());
 
-        Map<String, Boolean> queriedMolecularProfileCaseIdentifierMap =
-            molecularProfileCaseIdentifiers
-                .stream()
-                .collect(Collectors
-                    .toMap(
-                        datum -> datum.getMolecularProfileId() + datum.getCaseId(),
-                        datum -> true));
+        Map<String, List<String>> caseIdsByMolecularProfile = molecularProfileCaseIdentifiers
+            .stream()
+            .collect(groupingBy(MolecularProfileCaseIdentifier::getMolecularProfileId,
+                mapping(MolecularProfileCaseIdentifier::getCaseId, toList())));
 
-        return fetchGenePanelDataByMolecularProfileIds(molecularProfileIds)
+        Map<String, GenePanelDataSnapshot> snapshots = getGenePanelDataSnapshots(molecularProfileIds);
+
+        // only the positions of the queried cases are read from the snapshot of each profile
+        return molecularProfileIds
             .stream()
-            .filter(datum -> queriedMolecularProfileCaseIdentifierMap.containsKey(keyGenerator.apply(datum)))
+            .filter(snapshots::containsKey)
+            .flatMap(profileId -> {
+                GenePanelDataSnapshot snapshot = snapshots.get(profileId);
+                List<String> caseIds = caseIdsByMolecularProfile.get(profileId);
+                return (byPatient ? snapshot.getGenePanelDataOfPatients(caseIds) :
+                    snapshot.getGenePanelDataOfSamples(caseIds)).stream();
+            })
             .collect(toList());
+    }
+
+    /**
+     * Returns the gene panel data snapshot of every existing molecular profile, building the snapshots that are not
+     * cached from the gene panel data of all samples of the profile.
+     */
+    private Map<String, GenePanelDataSnapshot> getGenePanelDataSnapshots(Set<String> molecularProfileIds) {
+
+        Map<String, GenePanelDataSnapshot> snapshots = new HashMap<>();
+        Set<String> missingMolecularProfileIds = new HashSet<>();
+        for (String molecularProfileId : molecularProfileIds) {
+            GenePanelDataSnapshot snapshot = genePanelDataSnapshotCache.getIfPresent(molecularProfileId);
+            if (snapshot != null) {
+                snapshots.put(molecularProfileId, snapshot);
+            } else {
+                missingMolecularProfileIds.add(molecularProfileId);
+            }
+        }
+        if (missingMolecularProfileIds.isEmpty()) {
+            return snapshots;
+        }
+
+        long buildGeneration = genePanelDataSnapshotCache.getGeneration();
+        List<MolecularProfile> molecularProfiles = molecularProfileService
+            .getMolecularProfiles(missingMolecularProfileIds, "SUMMARY");
+
+        Map<String, Set<String>> sequencedSampleIdsByStudy = new HashMap<>();
+        Map<String, GenePanelDataSnapshot> builtSnapshots = new HashMap<>();
+        for (MolecularProfile molecularProfile : molecularProfiles) {
+            String profileId = molecularProfile.getStableId();
+            if (builtSnapshots.containsKey(profileId)) {
+                continue;
+            }
+            //query database with each profile id so data cached in a modular way for each profile
+            List<GenePanelData> genePanelData = genePanelRepository.fetchGenePanelDataByMolecularProfileId(profileId);
+            Set<String> sequencedSampleIds = null;
+            if (CollectionUtils.isNotEmpty(genePanelData) && MolecularProfile.MolecularAlterationType.MUTATION_EXTENDED
+                .equals(molecularProfile.getMolecularAlterationType())) {
+                String studyId = molecularProfile.getCancerStudyIdentifier();
+                if (!sequencedSampleIdsByStudy.containsKey(studyId)) {
+                    sequencedSampleIdsByStudy.put(studyId, getSequencedSampleIds(studyId));
+                }
+                sequencedSampleIds = sequencedSampleIdsByStudy.get(studyId);
+            }
+            builtSnapshots.put(profileId, GenePanelDataSnapshot.build(profileId,
+                molecularProfile.getCancerStudyIdentifier(), genePanelData, sequencedSampleIds));
+        }
 
+        genePanelDataSnapshotCache.putAll(builtSnapshots, buildGeneration);
+        snapshots.putAll(builtSnapshots);
+        return snapshots;
+    }
+
+    /**
+     * @return the samples of the sequenced sample list of the study, or null if it has none
+     */
+    private Set<String> getSequencedSampleIds(String studyId) {
+        try {
+            return new HashSet<>(sampleListService.getSampleList(studyId + SEQUENCED_LIST_SUFFIX).getSampleIds());
+        } catch (SampleListNotFoundException ignored) {
+            return null;
+        }
     }
 
     /**
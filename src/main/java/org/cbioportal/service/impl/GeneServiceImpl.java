@@ -2,9 +2,9 @@ package org.cbioportal.service.impl;
 
 import jakarta.annotation.PostConstruct;
 import org.cbioportal.model.Gene;
-import org.cbioportal.model.GeneAlias;
 import org.cbioportal.model.meta.BaseMeta;
 import org.cbioportal.persistence.GeneRepository;
+import org.cbioportal.service.GeneMemoizerService;
 import org.cbioportal.service.GeneService;
 import org.cbioportal.service.exception.GeneNotFoundException;
 import org.cbioportal.service.exception.GeneWithMultipleEntrezIdsException;
@@ -13,9 +13,7 @@ import org.springframework.stereotype.Service;
 
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.stream.Collectors;
 import static java.util.stream.Collectors.*;
 
@@ -27,15 +25,13 @@ public class GeneServiceImpl implements GeneService {
     @Autowired
     private GeneRepository geneRepository;
 
-    private Map<Integer, List<String>> geneAliasMap = new HashMap<>();
+    @Autowired
+    private GeneMemoizerService geneMemoizerService;
 
     @PostConstruct
     public void init() {
         // query all genes so they would be cached
         getAllGenes(null, null, "SUMMARY", null, null, null, null);
-
-        geneAliasMap = geneRepository.getAllAliases().stream().collect(Collectors.groupingBy(
-            GeneAlias::getEntrezGeneId, Collectors.mapping(GeneAlias::getGeneAlias, Collectors.toList())));
     }
 
 	@Override
@@ -150,12 +146,8 @@ public class GeneServiceImpl implements GeneService {
 
         List<Gene> matchingGenes = new ArrayList<>();
 
-        List<String> matchingEntrezGeneIds = new ArrayList<>();
-        for (Map.Entry<Integer, List<String>> entry : geneAliasMap.entrySet()) {
-            if (entry.getValue().contains(keyword.toLowerCase())) {
-                matchingEntrezGeneIds.add(String.valueOf(entry.getKey()));
-            }
-        }
+        List<String> matchingEntrezGeneIds = geneMemoizerService.getEntrezGeneIdsByAlias(keyword.toLowerCase())
+            .stream().map(String::valueOf).collect(Collectors.toList());
         if (!matchingEntrezGeneIds.isEmpty()) {
             matchingGenes = fetchGenes(matchingEntrezGeneIds, ENTREZ_GENE_ID_GENE_ID_TYPE, "SUMMARY");
         }
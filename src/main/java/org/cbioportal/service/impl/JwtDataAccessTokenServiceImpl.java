@@ -34,7 +34,9 @@ package org.cbioportal.service.impl;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import io.jsonwebtoken.Claims;
 import org.cbioportal.model.DataAccessToken;
+import org.cbioportal.security.token.TokenAuthenticationCache;
 import org.cbioportal.service.DataAccessTokenService;
 import org.cbioportal.service.exception.InvalidDataAccessTokenException;
 import org.cbioportal.service.util.JwtUtils;
@@ -55,6 +57,9 @@ public class JwtDataAccessTokenServiceImpl implements DataAccessTokenService {
     @Autowired
     private JwtUtils jwtUtils;
 
+    @Autowired
+    private TokenAuthenticationCache tokenAuthenticationCache;
+
     private static final Logger LOG = LoggerFactory.getLogger(JwtDataAccessTokenServiceImpl.class);
 
     //TODO : we could add a persistence layer to store pairs of <username, revokeDate> ... then a user can revoke all thier tokens before a particular date and we would only need to store the most recent revoke date for that user.  But it would have to be persisted, or else a restart of the server would lose the memory of revocation
@@ -122,11 +127,19 @@ public class JwtDataAccessTokenServiceImpl implements DataAccessTokenService {
     @Override
     public Authentication createAuthenticationRequest(String token) {
 
-        if (!isValid(token)) {
-            LOG.error("invalid token = " + token);
-            throw new BadCredentialsException("Invalid access token");
+        // the signature of a token is only verified again once its cache entry has expired
+        TokenAuthenticationCache.CachedToken cachedToken = tokenAuthenticationCache.getIfPresent(token);
+        if (cachedToken == null) {
+            Claims claims;
+            try {
+                claims = jwtUtils.extractClaims(token);
+            } catch (InvalidDataAccessTokenException idate) {
+                LOG.error("invalid token = " + token + ", " + idate);
+                throw new BadCredentialsException("Invalid access token");
+            }
+            cachedToken = tokenAuthenticationCache.put(token, claims.getSubject(), claims.getExpiration());
         }
-        String userName = getUsername(token);
+        String userName = cachedToken.getUsername();
 
         // When DaoAuthenticationProvider does authentication on user returned by PortalUserDetailsService
         // which has password "unused", this password won't match, and then there is a BadCredentials exception thrown
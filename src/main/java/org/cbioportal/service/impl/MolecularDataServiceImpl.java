@@ -16,6 +16,7 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -132,6 +133,14 @@ public class MolecularDataServiceImpl implements MolecularDataService {
         return molecularDataRepository.getGeneMolecularAlterationsIterable(molecularProfileId, entrezGeneIds, projection);
     }
 
+    @Override
+    public MolecularDataRows getMolecularDataRows(String molecularProfileId)
+        throws MolecularProfileNotFoundException {
+
+        validateMolecularProfile(molecularProfileId);
+        return molecularDataRepository.getMolecularDataRows(molecularProfileId);
+    }
+
     @Override
     public Integer getNumberOfSamplesInMolecularProfile(String molecularProfileId) {
 
@@ -149,6 +158,16 @@ public class MolecularDataServiceImpl implements MolecularDataService {
             List<String> sampleIds, List<Integer> entrezGeneIds, String projection) {
 
         List<GeneMolecularData> molecularDataList = new ArrayList<>();
+        streamMolecularDataInMultipleMolecularProfiles(molecularProfileIds, sampleIds, entrezGeneIds, projection,
+            molecularDataList::add);
+        return molecularDataList;
+    }
+
+    @Override
+    public void streamMolecularDataInMultipleMolecularProfiles(List<String> molecularProfileIds,
+            List<String> sampleIds, List<Integer> entrezGeneIds, String projection,
+            Consumer<GeneMolecularData> consumer) {
+
         SortedSet<String> distinctMolecularProfileIds = new TreeSet<>(molecularProfileIds);
 
         Map<String, MolecularProfileSamples> commaSeparatedSampleIdsOfMolecularProfilesMap =  molecularDataRepository
@@ -220,13 +239,11 @@ public class MolecularDataServiceImpl implements MolecularDataService {
                             molecularData.setValue(null);
                         }
                         molecularData.setGene(molecularAlteration.getGene());
-                        molecularDataList.add(molecularData);
+                        consumer.accept(molecularData);
                     }
                 }
             }
         }
-
-        return molecularDataList;
     }
 
     @Override
@@ -1,23 +1,21 @@
 package org.cbioportal.service.impl;
 
-import org.apache.commons.lang3.math.NumberUtils;
-import org.apache.commons.math3.stat.ranking.NaNStrategy;
-import org.apache.commons.math3.stat.ranking.NaturalRanking;
-import org.apache.commons.math3.stat.ranking.TiesStrategy;
-import org.cbioportal.model.GeneMolecularData;
 import org.cbioportal.model.MolecularProfile;
 import org.cbioportal.model.MrnaPercentile;
 import org.cbioportal.service.MolecularDataService;
 import org.cbioportal.service.MolecularProfileService;
 import org.cbioportal.service.MrnaPercentileService;
 import org.cbioportal.service.exception.MolecularProfileNotFoundException;
+import org.cbioportal.service.util.MrnaPercentileIndex;
+import org.cbioportal.service.util.MrnaPercentileIndexCache;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
 
 @Service
 public class MrnaPercentileServiceImpl implements MrnaPercentileService {
@@ -26,43 +24,47 @@ public class MrnaPercentileServiceImpl implements MrnaPercentileService {
     private MolecularDataService molecularDataService;
     @Autowired
     private MolecularProfileService molecularProfileService;
-    
-    private NaturalRanking naturalRanking = new NaturalRanking(NaNStrategy.REMOVED, TiesStrategy.MAXIMUM);
+    @Autowired
+    private MrnaPercentileIndexCache mrnaPercentileIndexCache;
 
     @Override
     public List<MrnaPercentile> fetchMrnaPercentile(String molecularProfileId, String sampleId,
                                                     List<Integer> entrezGeneIds)
         throws MolecularProfileNotFoundException {
 
-        validateMolecularProfile(molecularProfileId);
+        return fetchMrnaPercentiles(molecularProfileId, Collections.singletonList(sampleId), entrezGeneIds);
+    }
+
+    @Override
+    public List<MrnaPercentile> fetchMrnaPercentiles(String molecularProfileId, List<String> sampleIds,
+                                                     List<Integer> entrezGeneIds)
+        throws MolecularProfileNotFoundException {
 
-        List<GeneMolecularData> allMolecularDataList = molecularDataService.fetchMolecularData(molecularProfileId, null, 
-            entrezGeneIds, "SUMMARY");
+        MolecularProfile molecularProfile = validateMolecularProfile(molecularProfileId);
+        String studyId = molecularProfile.getCancerStudyIdentifier();
 
-        List<GeneMolecularData> molecularDataList = allMolecularDataList.stream().filter(g -> g.getSampleId()
-            .equals(sampleId)).collect(Collectors.toList());
+        // the values of all samples are needed to rank the values of the requested ones
+        Map<Integer, MrnaPercentileIndex> indexes = mrnaPercentileIndexCache.get(molecularProfileId, studyId,
+            entrezGeneIds, missingEntrezGeneIds -> molecularDataService.fetchMolecularData(molecularProfileId, null,
+                missingEntrezGeneIds, "SUMMARY"));
 
         List<MrnaPercentile> mrnaPercentileList = new ArrayList<>();
-        for (GeneMolecularData molecularData : molecularDataList) {
-            if (NumberUtils.isNumber(molecularData.getValue())) {
+        for (String sampleId : sampleIds) {
+            for (Map.Entry<Integer, MrnaPercentileIndex> entry : indexes.entrySet()) {
+                MrnaPercentileIndex index = entry.getValue();
+                int position = index.indexOf(sampleId);
+                if (position < 0) {
+                    continue;
+                }
                 MrnaPercentile mrnaPercentile = new MrnaPercentile();
-                mrnaPercentile.setEntrezGeneId(molecularData.getEntrezGeneId());
+                mrnaPercentile.setEntrezGeneId(entry.getKey());
                 mrnaPercentile.setSampleId(sampleId);
-                mrnaPercentile.setPatientId(molecularData.getPatientId());
-                mrnaPercentile.setStudyId(molecularData.getStudyId());
+                mrnaPercentile.setPatientId(index.getPatientId(position));
+                mrnaPercentile.setStudyId(studyId);
                 mrnaPercentile.setMolecularProfileId(molecularProfileId);
-                mrnaPercentile.setzScore(new BigDecimal(molecularData.getValue()));
-
-                List<GeneMolecularData> molecularDataListOfGene = allMolecularDataList.stream().filter(g ->
-                    g.getEntrezGeneId().equals(molecularData.getEntrezGeneId()) && NumberUtils.isNumber(g.getValue()))
-                    .collect(Collectors.toList());
-
-                double[] values = molecularDataListOfGene.stream().mapToDouble(g -> Double.parseDouble(g.getValue()))
-                    .toArray();
-                double[] ranks = naturalRanking.rank(values);
-                double rank = ranks[molecularDataListOfGene.indexOf(molecularData)];
-                double percentile = (rank / ranks.length) * 100;
-                mrnaPercentile.setPercentile(BigDecimal.valueOf(percentile).setScale(2, BigDecimal.ROUND_HALF_UP));
+                mrnaPercentile.setzScore(new BigDecimal(index.getValue(position)));
+                mrnaPercentile.setPercentile(BigDecimal.valueOf(index.getPercentile(position))
+                    .setScale(2, BigDecimal.ROUND_HALF_UP));
                 mrnaPercentileList.add(mrnaPercentile);
             }
         }
@@ -70,7 +72,8 @@ public class MrnaPercentileServiceImpl implements MrnaPercentileService {
         return mrnaPercentileList;
     }
 
-    private void validateMolecularProfile(String molecularProfileId) throws MolecularProfileNotFoundException {
+    private MolecularProfile validateMolecularProfile(String molecularProfileId)
+        throws MolecularProfileNotFoundException {
         
         MolecularProfile molecularProfile = molecularProfileService.getMolecularProfile(molecularProfileId);
 
@@ -79,5 +82,6 @@ public class MrnaPercentileServiceImpl implements MrnaPercentileService {
 
             throw new MolecularProfileNotFoundException(molecularProfileId);
         }
+        return molecularProfile;
     }
 }
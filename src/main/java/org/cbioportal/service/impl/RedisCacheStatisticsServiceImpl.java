@@ -2,6 +2,7 @@ package org.cbioportal.service.impl;
 
 import org.cbioportal.persistence.util.CustomKeyGenerator;
 import org.cbioportal.persistence.util.CustomRedisCache;
+import org.cbioportal.persistence.util.CustomRedisCacheManager;
 import org.cbioportal.service.CacheStatisticsService;
 import org.cbioportal.service.exception.CacheNotFoundException;
 import org.cbioportal.utils.config.annotation.ConditionalOnProperty;
@@ -85,6 +86,20 @@ public class RedisCacheStatisticsServiceImpl implements CacheStatisticsService {
 
     @Override
     public String getCacheStatistics() {
+        checkIfCacheStatisticsEndpointEnabled();
+        if (cacheManager instanceof CustomRedisCacheManager) {
+            StringBuilder builder = new StringBuilder();
+            builder.append("\n\nCACHE_STATISTICS START\n\n");
+            for (String cacheName : cacheManager.getCacheNames()) {
+                Cache cache = cacheManager.getCache(cacheName);
+                if (cache instanceof CustomRedisCache) {
+                    builder.append(((CustomRedisCache) cache).getStatistics()).append("\n");
+                }
+            }
+            builder.append(((CustomRedisCacheManager) cacheManager).getCodecStatistics().getStatistics());
+            builder.append("\nCACHE_STATISTICS END\n");
+            return builder.toString();
+        }
         throw new UnsupportedOperationException("Requested API is not implemented yet");
     }
 }
@@ -3,17 +3,26 @@ package org.cbioportal.service.impl;
 
 import org.cbioportal.model.ReferenceGenomeGene;
 import org.cbioportal.persistence.ReferenceGenomeGeneRepository;
+import org.cbioportal.service.GeneMemoizerService;
 import org.cbioportal.service.ReferenceGenomeGeneService;
+import org.cbioportal.service.util.ReferenceGenomeGeneIndex;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class ReferenceGenomeGeneServiceImpl implements ReferenceGenomeGeneService {
     
     @Autowired
     private ReferenceGenomeGeneRepository referenceGenomeGeneRepository;
+
+    // lookups are answered from the memoized genes of a genome once they have been fetched
+    @Autowired
+    private GeneMemoizerService geneMemoizerService;
     
     @Override
     public List<ReferenceGenomeGene> fetchAllReferenceGenomeGenes(String genomeName) {
@@ -23,17 +32,28 @@ public class ReferenceGenomeGeneServiceImpl implements ReferenceGenomeGeneServic
 
     @Override
     public List<ReferenceGenomeGene> fetchGenesByGenomeName(List<Integer> geneIds, String genomeName) {
+        ReferenceGenomeGeneIndex geneIndex = geneMemoizerService.getGeneIndex(genomeName);
+        if (geneIndex != null) {
+            return lookUp(geneIds, id -> id == null ? null : geneIndex.getByEntrezGeneId(id));
+        }
         return referenceGenomeGeneRepository.getGenesByGenomeName(geneIds, genomeName);
     }
 
     @Override
     public List<ReferenceGenomeGene> fetchGenesByHugoGeneSymbolsAndGenomeName(List<String> geneIds, String genomeName) {
+        ReferenceGenomeGeneIndex geneIndex = geneMemoizerService.getGeneIndex(genomeName);
+        if (geneIndex != null) {
+            return lookUp(geneIds, geneIndex::getByHugoGeneSymbol);
+        }
         return referenceGenomeGeneRepository.getGenesByHugoGeneSymbolsAndGenomeName(geneIds, genomeName);
     }
     
     @Override
     public ReferenceGenomeGene getReferenceGenomeGene(Integer geneId, String genomeName) {
-
+        ReferenceGenomeGeneIndex geneIndex = geneMemoizerService.getGeneIndex(genomeName);
+        if (geneIndex != null && geneId != null) {
+            return geneIndex.getByEntrezGeneId(geneId);
+        }
         return referenceGenomeGeneRepository.getReferenceGenomeGene(geneId, genomeName);
     }
 
@@ -42,4 +62,13 @@ public class ReferenceGenomeGeneServiceImpl implements ReferenceGenomeGeneServic
 
         return referenceGenomeGeneRepository.getReferenceGenomeGeneByEntityId(entityId, genomeName);
     }
+
+    // like the IN clause of the queries, every gene is returned once and unknown ids are left out
+    private <T> List<ReferenceGenomeGene> lookUp(List<T> geneIds, Function<T, ReferenceGenomeGene> lookup) {
+        return geneIds.stream()
+            .map(lookup)
+            .filter(Objects::nonNull)
+            .distinct()
+            .collect(Collectors.toList());
+    }
 }
@@ -1,21 +1,24 @@
 package org.cbioportal.service.impl;
 
 import org.apache.commons.lang3.math.NumberUtils;
-import org.apache.commons.math3.analysis.function.Gaussian;
 import org.apache.commons.math3.stat.descriptive.rank.Percentile;
 import org.cbioportal.model.*;
 import org.cbioportal.service.ViolinPlotService;
+import org.cbioportal.service.util.GaussianKernelDensity;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
 import java.util.*;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 @Service
 public class ViolinPlotServiceImpl implements ViolinPlotService {
     // If a row has less than this many points, do not compute a
     //  violin, because it doesn't make sense.
     static final int SHOW_ONLY_POINTS_THRESHOLD = 7;
+    // curves of fewer categories are computed sequentially
+    static final int MIN_PARALLEL_CATEGORIES = 8;
     
     public ClinicalViolinPlotData getClinicalViolinPlotData(
         List<ClinicalData> sampleClinicalDataForViolinPlot,
@@ -68,17 +71,17 @@ public class ViolinPlotServiceImpl implements ViolinPlotService {
 
         // Calculate boxes, outliers, and data bounds
         Map<String, ClinicalViolinPlotBoxData> boxData = new HashMap<>();
-        Map<String, List<ClinicalData>> nonOutliers = new HashMap<>();
-        Map<String, List<ClinicalData>> outliers = new HashMap<>();
+        Map<String, CategoryValues> nonOutliers = new HashMap<>();
+        Map<String, CategoryValues> outliers = new HashMap<>();
         groupedDetailedData.forEach((category, data)->{
             Percentile percentile = new Percentile();
-            // fill double[] to pass into Percentile
+            // parse the values once, in the order of the data
             double[] values = new double[data.size()];
             double min = Double.POSITIVE_INFINITY;
             double max = Double.NEGATIVE_INFINITY;
             int valuesIndex = 0;
             for (ClinicalData d: data) {
-                Double value = useLogScale ? ViolinPlotServiceImpl.logScale(Double.parseDouble(d.getAttrValue())) : Double.parseDouble(d.getAttrValue());
+                double value = useLogScale ? ViolinPlotServiceImpl.logScale(Double.parseDouble(d.getAttrValue())) : Double.parseDouble(d.getAttrValue());
                 values[valuesIndex] = value;
                 min = Math.min(value, min);
                 max = Math.max(value, max);
@@ -97,12 +100,11 @@ public class ViolinPlotServiceImpl implements ViolinPlotService {
             double suspectedOutlierThresholdLower = q1 - SUSPECTED_OUTLIER_MULTIPLE * IQR;
             double suspectedOutlierThresholdUpper = q3 + SUSPECTED_OUTLIER_MULTIPLE * IQR;
 
-            List<ClinicalData> _outliers = new ArrayList<>();
-            List<ClinicalData> _nonOutliers = new ArrayList<>();
-            List<ClinicalData> detailedData = groupedDetailedData.get(category);
+            CategoryValues _outliers = new CategoryValues(data.size());
+            CategoryValues _nonOutliers = new CategoryValues(data.size());
             int numSuspectedOutliers = 0;
-            for (ClinicalData d: detailedData) {
-                Double value = useLogScale ? ViolinPlotServiceImpl.logScale(Double.parseDouble(d.getAttrValue())) : Double.parseDouble(d.getAttrValue());
+            for (int i = 0; i < values.length; i++) {
+                double value = values[i];
                 boolean isOutlier = false;
                 if (value <= suspectedOutlierThresholdLower) {
                     numSuspectedOutliers += 1;
@@ -116,9 +118,9 @@ public class ViolinPlotServiceImpl implements ViolinPlotService {
                     }
                 }
                 if (isOutlier) {
-                    _outliers.add(d);
+                    _outliers.add(data.get(i), value);
                 } else {
-                    _nonOutliers.add(d);
+                    _nonOutliers.add(data.get(i), value);
                 }
             }
 
@@ -147,63 +149,59 @@ public class ViolinPlotServiceImpl implements ViolinPlotService {
 
         // Create curves
         // By this point, we know the axis bounds
-        List<Double> curvePoints = new ArrayList<>();
-        Double stepSize = (result.getAxisEnd() - result.getAxisStart()) / (numCurvePoints.doubleValue()-1);
-        for (int i=0; i<numCurvePoints.intValue(); i++) {
-            curvePoints.add(result.getAxisStart() + i*stepSize);
-        }
+        double curveStart = result.getAxisStart();
+        double stepSize = (result.getAxisEnd() - result.getAxisStart()) / (numCurvePoints.doubleValue()-1);
         double sigma = sigmaMultiplier.doubleValue()*stepSize;
-        List<ClinicalViolinPlotRowData> rows = result.getRows();
-        nonOutliers.forEach((category, data)->{
+        List<String> categories = new ArrayList<>(nonOutliers.keySet());
+        ClinicalViolinPlotRowData[] rows = new ClinicalViolinPlotRowData[categories.size()];
+        IntStream indexes = IntStream.range(0, categories.size());
+        if (categories.size() >= MIN_PARALLEL_CATEGORIES) {
+            // the curves of the categories are independent
+            indexes = indexes.parallel();
+        }
+        indexes.forEach(index -> {
+            String category = categories.get(index);
+            CategoryValues data = nonOutliers.get(category);
+            CategoryValues categoryOutliers = outliers.get(category);
             ClinicalViolinPlotRowData row = new ClinicalViolinPlotRowData();
             row.setCategory(category);
-            row.setNumSamples(countFilteredSamples(samplesForSampleCountsIds, data, outliers.get(category)));
+            row.setNumSamples(countFilteredSamples(samplesForSampleCountsIds, data.data, categoryOutliers.data));
             row.setBoxData(boxData.get(category).limitWhiskers(result));
 
-            List<ClinicalData> _individualPoints = new ArrayList<>();
-            
-            if (data.size() + outliers.get(category).size() <= SHOW_ONLY_POINTS_THRESHOLD) {
+            List<ClinicalViolinPlotIndividualPoint> individualPoints = new ArrayList<>();
+            if (data.size() + categoryOutliers.size() <= SHOW_ONLY_POINTS_THRESHOLD) {
                 // show only individual points when data is small
                 row.setCurveData(new ArrayList<>());
-                _individualPoints.addAll(data);
-                _individualPoints.addAll(outliers.get(category));
+                addIndividualPoints(individualPoints, data);
+                addIndividualPoints(individualPoints, categoryOutliers);
             } else {
                 // build violin only based on non-outliers
-                List<Gaussian> gaussians = new ArrayList<>();
-                for (ClinicalData d : data) {
-                    Double value = useLogScale ? ViolinPlotServiceImpl.logScale(Double.parseDouble(d.getAttrValue())) : Double.parseDouble(d.getAttrValue());
-                    gaussians.add(new Gaussian(value, sigma));
-                }
-
-                row.setCurveData(
-                    curvePoints.stream().map(p -> {
-                        BigDecimal sum = new BigDecimal(0);
-                        for (Gaussian g : gaussians) {
-                            sum = sum.add(BigDecimal.valueOf(g.value(p)));
-                        }
-                        return sum.doubleValue();
-                    }).collect(Collectors.toList())
-                );
+                double[] curve = GaussianKernelDensity.evaluate(data.getValues(), curveStart, stepSize,
+                    numCurvePoints.intValue(), sigma);
+                row.setCurveData(Arrays.stream(curve).boxed().collect(Collectors.toList()));
 
                 // render outliers as individual points
-                _individualPoints = outliers.get(category);
-            }
-
-            List<ClinicalViolinPlotIndividualPoint> individualPoints = new ArrayList<>();
-            for (ClinicalData d: _individualPoints) {
-                ClinicalViolinPlotIndividualPoint p = new ClinicalViolinPlotIndividualPoint();
-                p.setSampleId(d.getSampleId());
-                p.setStudyId(d.getStudyId());
-                p.setValue(useLogScale ? ViolinPlotServiceImpl.logScale(Double.parseDouble(d.getAttrValue())) : Double.parseDouble(d.getAttrValue()));
-                individualPoints.add(p);
+                addIndividualPoints(individualPoints, categoryOutliers);
             }
             row.setIndividualPoints(individualPoints);
-            rows.add(row);
+            rows[index] = row;
         });
-        
-        // put everything into bins and then do one gaussian per bin, weighted by bin size
+        result.getRows().addAll(Arrays.asList(rows));
+
         return result;
     }
+
+    private static void addIndividualPoints(List<ClinicalViolinPlotIndividualPoint> individualPoints,
+                                            CategoryValues categoryValues) {
+        for (int i = 0; i < categoryValues.size(); i++) {
+            ClinicalData d = categoryValues.data.get(i);
+            ClinicalViolinPlotIndividualPoint p = new ClinicalViolinPlotIndividualPoint();
+            p.setSampleId(d.getSampleId());
+            p.setStudyId(d.getStudyId());
+            p.setValue(categoryValues.values[i]);
+            individualPoints.add(p);
+        }
+    }
     
     @SafeVarargs
     private static int countFilteredSamples(
@@ -220,4 +218,31 @@ public class ViolinPlotServiceImpl implements ViolinPlotService {
     private static double logScale(double val) {
         return Math.log(1+val);
     }
+
+    /**
+     * Numerical clinical data of a category with its parsed (and possibly log scaled) values.
+     */
+    private static final class CategoryValues {
+
+        private final List<ClinicalData> data;
+        private final double[] values;
+
+        private CategoryValues(int capacity) {
+            data = new ArrayList<>(capacity);
+            values = new double[capacity];
+        }
+
+        private void add(ClinicalData datum, double value) {
+            values[data.size()] = value;
+            data.add(datum);
+        }
+
+        private int size() {
+            return data.size();
+        }
+
+        private double[] getValues() {
+            return Arrays.copyOf(values, data.size());
+        }
+    }
 }
@@ -68,6 +68,10 @@ public class AlterationEnrichmentUtil<T extends AlterationCountBase> {
 
         Set<String> groups = mutationCountsbyEntrezGeneIdAndGroup.keySet();
 
+        // 2x2 tables of the genes that get a Fisher exact test, computed in one batch after all counts are collected
+        List<AlterationEnrichment> fisherExactTestEnrichments = new ArrayList<>();
+        List<int[]> fisherExactTestTables = new ArrayList<>();
+
         List<Gene> genes = geneService.fetchGenes(
             allGeneIds
                 .stream()
@@ -75,7 +79,7 @@ public class AlterationEnrichmentUtil<T extends AlterationCountBase> {
                 .collect(Collectors.toList()),
             "ENTREZ_GENE_ID",
             "SUMMARY");
-        return genes
+        List<AlterationEnrichment> alterationEnrichments = genes
             .stream()
             .filter(gene -> {
                 // filter genes where number of altered cases in all groups is 0
@@ -124,7 +128,6 @@ public class AlterationEnrichmentUtil<T extends AlterationCountBase> {
                 // calculate p-value only if more than one group have profile cases count
                 // greater than 0
                 if (filteredCounts.size() > 1 && invalidDataGroups == 0) {
-                    double pValue;
                     // if groups size is two do Fisher Exact test else do Chi-Square test
                     if (groups.size() == 2) {
 
@@ -132,9 +135,9 @@ public class AlterationEnrichmentUtil<T extends AlterationCountBase> {
                         int alteredOnlyInQueryGenesCount = counts.get(0).getProfiledCount()
                             - counts.get(0).getAlteredCount();
 
-                        pValue = fisherExactTestCalculator.getTwoTailedPValue(alteredInNoneCount,
-                            counts.get(1).getAlteredCount(), alteredOnlyInQueryGenesCount,
-                            counts.get(0).getAlteredCount());
+                        fisherExactTestEnrichments.add(alterationEnrichment);
+                        fisherExactTestTables.add(new int[]{alteredInNoneCount, counts.get(1).getAlteredCount(),
+                            alteredOnlyInQueryGenesCount, counts.get(0).getAlteredCount()});
                     } else {
 
                         long[][] array = counts.stream().map(count -> {
@@ -143,20 +146,28 @@ public class AlterationEnrichmentUtil<T extends AlterationCountBase> {
                         }).toArray(long[][]::new);
 
                         ChiSquareTest chiSquareTest = new ChiSquareTest();
-                        pValue = chiSquareTest.chiSquareTest(array);
+                        double pValue = chiSquareTest.chiSquareTest(array);
 
                         // set p-value to 1 when the cases in all groups are altered
                         if (Double.isNaN(pValue)) {
                             pValue = 1;
                         }
+                        alterationEnrichment.setpValue(BigDecimal.valueOf(pValue));
                     }
-                    alterationEnrichment.setpValue(BigDecimal.valueOf(pValue));
                 }
 
                 alterationEnrichment.setCounts(counts);
                 return alterationEnrichment;
             }).collect(Collectors.toList());
 
+        if (!fisherExactTestTables.isEmpty()) {
+            double[] pValues = fisherExactTestCalculator.getTwoTailedPValues(fisherExactTestTables.toArray(new int[0][]));
+            for (int i = 0; i < pValues.length; i++) {
+                fisherExactTestEnrichments.get(i).setpValue(BigDecimal.valueOf(pValues[i]));
+            }
+        }
+        return alterationEnrichments;
+
     }
     
     public long includeFrequencyForSamples(
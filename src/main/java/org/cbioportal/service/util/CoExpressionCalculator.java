@@ -0,0 +1,444 @@
+package org.cbioportal.service.util;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.commons.math3.distribution.TDistribution;
+import org.apache.commons.math3.util.FastMath;
+import org.cbioportal.model.CoExpression;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.Semaphore;
+import java.util.function.BiConsumer;
+
+/**
+ * Computes Spearman's rank correlation (and its p-value) of one query genetic entity against many other genetic
+ * entities measured in the same samples.
+ *
+ * The query values are ranked once. Rows are read in blocks into primitive arrays and correlated on a dedicated
+ * fork-join pool; rows that can only be read one after another (e.g. from a database cursor) are collected into
+ * blocks while they are read, with a bounded number of blocks waiting for the pool. Samples in which the query or
+ * the row value is NaN (not a number in the database) are left out of the correlation of that row; the query is only
+ * ranked again for rows with such missing values.
+ */
+@Component
+public class CoExpressionCalculator {
+
+    /**
+     * Copies the values of a row into target, one value per sample in the order of the query values.
+     */
+    @FunctionalInterface
+    public interface RowReader {
+        void readRow(int row, double[] target);
+    }
+
+    /**
+     * Reads all rows in order, calling the consumer with the genetic entity id and the values of every row (one
+     * value per sample in the order of the query values). The values array may be reused for the next row.
+     */
+    @FunctionalInterface
+    public interface RowSource {
+        void readRows(BiConsumer<String, double[]> consumer);
+    }
+
+    // maximum number of values of a block of streamed rows, so that a block of rows with many samples stays small
+    private static final int MAX_STREAMED_BLOCK_VALUES = 1 << 20;
+
+    @Value("${multithread.core_pool_size:#{T(java.lang.Runtime).getRuntime().availableProcessors()}}")
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+
+    // maximum number of co-expressions returned per query (strongest correlations first), 0 means no limit
+    @Value("${coexpression.max_results:0}")
+    private int maxResults = 0;
+
+    private int rowsPerBlock = 256;
+    private ForkJoinPool pool;
+
+    @PostConstruct
+    public void init() {
+        pool = new ForkJoinPool(Math.max(1, parallelism));
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (pool != null) {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * @param queryValues values of the query genetic entity, NaN when missing
+     * @param entityIds   genetic entity id of every row; rows with a null id (e.g. the query itself) are skipped
+     * @param rowReader   reads the values of a row
+     * @param threshold   co-expressions with an absolute correlation below this threshold are left out
+     * @return co-expressions in row order
+     */
+    public List<CoExpression> computeCoExpressions(double[] queryValues, String[] entityIds, RowReader rowReader,
+                                                   double threshold) {
+
+        QueryRanks queryRanks = new QueryRanks(queryValues);
+        BlockTask task = new BlockTask(queryRanks, entityIds, rowReader, threshold, 0, entityIds.length);
+        List<Correlation> correlations;
+        if (entityIds.length <= rowsPerBlock || pool == null) {
+            correlations = task.compute();
+        } else {
+            correlations = pool.invoke(task);
+        }
+
+        return toCoExpressions(correlations, entityIds);
+    }
+
+    /**
+     * Same as {@link #computeCoExpressions(double[], String[], RowReader, double)}, for rows that are read one after
+     * another. Only a few blocks of rows are held at any time.
+     *
+     * @return co-expressions in the order in which the rows were read
+     */
+    public List<CoExpression> computeCoExpressions(double[] queryValues, RowSource rowSource, double threshold) {
+
+        StreamedBlocks streamedBlocks = new StreamedBlocks(new QueryRanks(queryValues), threshold);
+        rowSource.readRows(streamedBlocks::add);
+        return streamedBlocks.finish();
+    }
+
+    private static List<CoExpression> toCoExpressions(List<Correlation> correlations, String[] entityIds) {
+        correlations.sort(Comparator.comparingInt(correlation -> correlation.row));
+        List<CoExpression> coExpressions = new ArrayList<>(correlations.size());
+        for (Correlation correlation : correlations) {
+            CoExpression coExpression = new CoExpression();
+            coExpression.setGeneticEntityId(entityIds[correlation.row]);
+            coExpression.setSpearmansCorrelation(BigDecimal.valueOf(correlation.spearmansCorrelation));
+            coExpression.setpValue(BigDecimal.valueOf(correlation.pValue));
+            coExpressions.add(coExpression);
+        }
+        return coExpressions;
+    }
+
+    /**
+     * Assigns 1-based ranks to the values at the given positions, ties get the average of their ranks. The values
+     * must not be NaN.
+     *
+     * @param keys scratch array of at least numberOfPositions elements
+     */
+    static void rank(double[] values, int[] positions, int numberOfPositions, long[] keys, double[] ranks) {
+
+        // Sort keys that hold the high bits of the (order preserving) value bits and the index of the value in the
+        // low bits. Values that only differ in the dropped low bits are put in order afterwards.
+        int indexBits = 32 - Integer.numberOfLeadingZeros(Math.max(1, numberOfPositions - 1));
+        long indexMask = (1L << indexBits) - 1;
+        for (int i = 0; i < numberOfPositions; i++) {
+            long bits = Double.doubleToRawLongBits(values[positions[i]]);
+            keys[i] = ((bits ^ ((bits >> 63) & Long.MAX_VALUE)) & ~indexMask) | i;
+        }
+        Arrays.sort(keys, 0, numberOfPositions);
+        for (int i = 1; i < numberOfPositions; i++) {
+            long key = keys[i];
+            double value = values[positions[(int) (key & indexMask)]];
+            int j = i - 1;
+            while (j >= 0 && ((keys[j] ^ key) & ~indexMask) == 0
+                && values[positions[(int) (keys[j] & indexMask)]] > value) {
+                keys[j + 1] = keys[j];
+                j--;
+            }
+            keys[j + 1] = key;
+        }
+
+        int first = 0;
+        while (first < numberOfPositions) {
+            double value = values[positions[(int) (keys[first] & indexMask)]];
+            int last = first;
+            while (last + 1 < numberOfPositions && values[positions[(int) (keys[last + 1] & indexMask)]] == value) {
+                last++;
+            }
+            double rank = (first + last + 2) / 2d;
+            for (int i = first; i <= last; i++) {
+                ranks[(int) (keys[i] & indexMask)] = rank;
+            }
+            first = last + 1;
+        }
+    }
+
+    private static double sumOfSquaredDeviations(double[] ranks, int length) {
+        double mean = (length + 1) / 2d;
+        double sum = 0;
+        for (int i = 0; i < length; i++) {
+            double deviation = ranks[i] - mean;
+            sum += deviation * deviation;
+        }
+        return sum;
+    }
+
+    /**
+     * @param block values of the rows from fromRow on, rows with a null entity id are skipped
+     */
+    private static List<Correlation> correlate(QueryRanks query, String[] entityIds, double[][] block, int fromRow,
+                                               double threshold) {
+
+        int numberOfSamples = query.values.length;
+        int toRow = fromRow + block.length;
+        int[] positions = new int[numberOfSamples];
+        long[] keys = new long[numberOfSamples];
+        double[] rowRanks = new double[numberOfSamples];
+        double[] queryRanks = new double[numberOfSamples];
+        TDistribution tDistribution = null;
+        List<Correlation> correlations = new ArrayList<>();
+
+        for (int row = fromRow; row < toRow; row++) {
+            if (entityIds[row] == null) {
+                continue;
+            }
+            double[] values = block[row - fromRow];
+
+            // positions where both the query and the row have a value
+            int length = 0;
+            for (int i = 0; i < query.numberOfPositions; i++) {
+                int position = query.positions[i];
+                if (!Double.isNaN(values[position])) {
+                    positions[length++] = position;
+                }
+            }
+            if (length <= 2) {
+                continue;
+            }
+
+            double[] currentQueryRanks = query.ranks;
+            double querySumOfSquaredDeviations = query.sumOfSquaredDeviations;
+            if (length < query.numberOfPositions) {
+                rank(query.values, positions, length, keys, queryRanks);
+                currentQueryRanks = queryRanks;
+                querySumOfSquaredDeviations = sumOfSquaredDeviations(queryRanks, length);
+            }
+            rank(values, positions, length, keys, rowRanks);
+
+            double mean = (length + 1) / 2d;
+            double sumOfProducts = 0;
+            double rowSumOfSquaredDeviations = 0;
+            for (int i = 0; i < length; i++) {
+                double rowDeviation = rowRanks[i] - mean;
+                sumOfProducts += rowDeviation * (currentQueryRanks[i] - mean);
+                rowSumOfSquaredDeviations += rowDeviation * rowDeviation;
+            }
+            double spearmansCorrelation = FastMath.signum(sumOfProducts) * FastMath.sqrt(
+                (sumOfProducts * sumOfProducts) / (rowSumOfSquaredDeviations * querySumOfSquaredDeviations));
+            if (Double.isNaN(spearmansCorrelation) || Math.abs(spearmansCorrelation) < threshold) {
+                continue;
+            }
+
+            int degreesOfFreedom = length - 2;
+            if (tDistribution == null || tDistribution.getDegreesOfFreedom() != degreesOfFreedom) {
+                tDistribution = new TDistribution(null, degreesOfFreedom);
+            }
+            double t = FastMath.abs(spearmansCorrelation * FastMath.sqrt(
+                degreesOfFreedom / (1 - spearmansCorrelation * spearmansCorrelation)));
+            double pValue = 2 * tDistribution.cumulativeProbability(-t);
+            correlations.add(new Correlation(row, spearmansCorrelation, pValue));
+        }
+        return correlations;
+    }
+
+    // keeps the maxResults strongest correlations
+    private List<Correlation> limit(List<Correlation> correlations) {
+        if (maxResults <= 0 || correlations.size() <= maxResults) {
+            return correlations;
+        }
+        PriorityQueue<Correlation> strongest = new PriorityQueue<>(maxResults + 1,
+            Comparator.comparingDouble(correlation -> Math.abs(correlation.spearmansCorrelation)));
+        for (Correlation correlation : correlations) {
+            strongest.add(correlation);
+            if (strongest.size() > maxResults) {
+                strongest.poll();
+            }
+        }
+        return new ArrayList<>(strongest);
+    }
+
+    private static final class QueryRanks {
+
+        private final double[] values;
+        private final int[] positions;
+        private final int numberOfPositions;
+        private final double[] ranks;
+        private final double sumOfSquaredDeviations;
+
+        QueryRanks(double[] values) {
+            this.values = values;
+            int[] validPositions = new int[values.length];
+            int count = 0;
+            for (int i = 0; i < values.length; i++) {
+                if (!Double.isNaN(values[i])) {
+                    validPositions[count++] = i;
+                }
+            }
+            positions = validPositions;
+            numberOfPositions = count;
+            ranks = new double[count];
+            rank(values, positions, count, new long[count], ranks);
+            sumOfSquaredDeviations = CoExpressionCalculator.sumOfSquaredDeviations(ranks, count);
+        }
+    }
+
+    private static final class Correlation {
+
+        private final int row;
+        private final double spearmansCorrelation;
+        private final double pValue;
+
+        Correlation(int row, double spearmansCorrelation, double pValue) {
+            this.row = row;
+            this.spearmansCorrelation = spearmansCorrelation;
+            this.pValue = pValue;
+        }
+    }
+
+    /**
+     * Collects streamed rows into blocks and correlates every full block on the pool. The reading thread waits while
+     * as many blocks as the pool has threads are being correlated.
+     */
+    private final class StreamedBlocks {
+
+        private final QueryRanks query;
+        private final double threshold;
+        private final int rowsPerStreamedBlock;
+        private final Semaphore pendingBlocks = new Semaphore(Math.max(1, parallelism));
+        private final List<ForkJoinTask<List<CoExpression>>> tasks = new ArrayList<>();
+        private final List<List<CoExpression>> results = new ArrayList<>();
+        private String[] entityIds;
+        private double[][] block;
+        private int numberOfRows = 0;
+
+        StreamedBlocks(QueryRanks query, double threshold) {
+            this.query = query;
+            this.threshold = threshold;
+            this.rowsPerStreamedBlock = Math.max(1,
+                Math.min(rowsPerBlock, MAX_STREAMED_BLOCK_VALUES / Math.max(1, query.values.length)));
+        }
+
+        void add(String entityId, double[] values) {
+            if (block == null) {
+                entityIds = new String[rowsPerStreamedBlock];
+                block = new double[rowsPerStreamedBlock][];
+            }
+            entityIds[numberOfRows] = entityId;
+            block[numberOfRows++] = values.clone();
+            if (numberOfRows == rowsPerStreamedBlock) {
+                submit();
+            }
+        }
+
+        List<CoExpression> finish() {
+            if (numberOfRows > 0) {
+                submit();
+            }
+            List<CoExpression> coExpressions = new ArrayList<>();
+            for (ForkJoinTask<List<CoExpression>> task : tasks) {
+                coExpressions.addAll(task.join());
+            }
+            for (List<CoExpression> result : results) {
+                coExpressions.addAll(result);
+            }
+            return limitCoExpressions(coExpressions);
+        }
+
+        private void submit() {
+            String[] blockEntityIds = Arrays.copyOf(entityIds, numberOfRows);
+            double[][] blockValues = Arrays.copyOf(block, numberOfRows);
+            entityIds = null;
+            block = null;
+            numberOfRows = 0;
+            if (pool == null) {
+                results.add(correlateBlock(blockEntityIds, blockValues));
+                return;
+            }
+            pendingBlocks.acquireUninterruptibly();
+            tasks.add(pool.submit(() -> {
+                try {
+                    return correlateBlock(blockEntityIds, blockValues);
+                } finally {
+                    pendingBlocks.release();
+                }
+            }));
+        }
+
+        private List<CoExpression> correlateBlock(String[] blockEntityIds, double[][] blockValues) {
+            return toCoExpressions(limit(correlate(query, blockEntityIds, blockValues, 0, threshold)),
+                blockEntityIds);
+        }
+
+        // keeps the maxResults strongest co-expressions, in the order in which they were read
+        private List<CoExpression> limitCoExpressions(List<CoExpression> coExpressions) {
+            if (maxResults <= 0 || coExpressions.size() <= maxResults) {
+                return coExpressions;
+            }
+            PriorityQueue<Integer> strongest = new PriorityQueue<>(maxResults + 1,
+                Comparator.comparing(index -> coExpressions.get(index).getSpearmansCorrelation().abs()));
+            for (int index = 0; index < coExpressions.size(); index++) {
+                strongest.add(index);
+                if (strongest.size() > maxResults) {
+                    strongest.poll();
+                }
+            }
+            List<Integer> indexes = new ArrayList<>(strongest);
+            indexes.sort(Comparator.naturalOrder());
+            List<CoExpression> limited = new ArrayList<>(indexes.size());
+            for (int index : indexes) {
+                limited.add(coExpressions.get(index));
+            }
+            return limited;
+        }
+    }
+
+    private final class BlockTask extends RecursiveTask<List<Correlation>> {
+
+        private final QueryRanks query;
+        private final String[] entityIds;
+        private final RowReader rowReader;
+        private final double threshold;
+        private final int fromRow;
+        private final int toRow;
+
+        BlockTask(QueryRanks query, String[] entityIds, RowReader rowReader, double threshold, int fromRow,
+                  int toRow) {
+            this.query = query;
+            this.entityIds = entityIds;
+            this.rowReader = rowReader;
+            this.threshold = threshold;
+            this.fromRow = fromRow;
+            this.toRow = toRow;
+        }
+
+        @Override
+        protected List<Correlation> compute() {
+            if (toRow - fromRow > rowsPerBlock) {
+                int middle = fromRow + (toRow - fromRow) / 2;
+                BlockTask left = new BlockTask(query, entityIds, rowReader, threshold, fromRow, middle);
+                BlockTask right = new BlockTask(query, entityIds, rowReader, threshold, middle, toRow);
+                left.fork();
+                List<Correlation> correlations = right.compute();
+                correlations.addAll(left.join());
+                return limit(correlations);
+            }
+            return limit(computeBlock());
+        }
+
+        private List<Correlation> computeBlock() {
+
+            int numberOfSamples = query.values.length;
+            double[][] block = new double[toRow - fromRow][numberOfSamples];
+            for (int row = fromRow; row < toRow; row++) {
+                if (entityIds[row] != null) {
+                    rowReader.readRow(row, block[row - fromRow]);
+                }
+            }
+            return correlate(query, entityIds, block, fromRow, threshold);
+        }
+    }
+}
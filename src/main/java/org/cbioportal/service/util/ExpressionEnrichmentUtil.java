@@ -9,6 +9,7 @@ import java.util.Set;
 import java.util.List;
 import java.util.Map.Entry;
 import java.util.function.Function;
+import java.util.function.IntUnaryOperator;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -17,17 +18,16 @@ import org.cbioportal.model.ExpressionEnrichment;
 import org.cbioportal.model.GenericAssayEnrichment;
 import org.cbioportal.model.GenericAssayBinaryEnrichment;
 import org.cbioportal.model.GenericAssayCategoricalEnrichment;
-import org.cbioportal.model.GenericAssayMolecularAlteration;
 import org.cbioportal.model.GenomicEnrichment;
 import org.cbioportal.model.GroupStatistics;
 import org.cbioportal.model.GenericAssayCountSummary;
 import org.cbioportal.model.MolecularAlteration;
+import org.cbioportal.model.MolecularDataRows;
 import org.cbioportal.model.MolecularProfile;
 import org.cbioportal.model.MolecularProfileCaseIdentifier;
 import org.cbioportal.model.MolecularProfileSamples;
 import org.cbioportal.model.Sample;
 import org.apache.commons.lang3.StringUtils;
-import org.apache.commons.lang3.math.NumberUtils;
 import org.apache.commons.math3.stat.StatUtils;
 import org.apache.commons.math3.stat.descriptive.DescriptiveStatistics;
 import org.apache.commons.math3.stat.inference.ChiSquareTest;
@@ -52,33 +52,42 @@ public class ExpressionEnrichmentUtil {
     private static final List<String> negTypeList = Arrays.asList("false", "no");
     private static final String ALTERED = "1";
     private static final String UNALTERED = "0";
-    public <T extends MolecularAlteration, S extends ExpressionEnrichment> List<S> getEnrichments(
+    public <S extends ExpressionEnrichment> List<S> getEnrichments(
         MolecularProfile molecularProfile,
         Map<String, List<MolecularProfileCaseIdentifier>> molecularProfileCaseSets, EnrichmentType enrichmentType,
-        Iterable<T> maItr) {
+        MolecularDataRows rows) {
         List<S> expressionEnrichments = new ArrayList<>();
+        if (rows == null) {
+            return expressionEnrichments;
+        }
 
         Map<String, List<Integer>> groupIndicesMap = getGroupIndicesMap(molecularProfileCaseSets, enrichmentType,
-            molecularProfile);
-        for (MolecularAlteration ma : maItr) {
+            molecularProfile, rows::getSampleIndex);
+        boolean isGenericAssay = MolecularProfile.MolecularAlterationType.GENERIC_ASSAY
+            .equals(molecularProfile.getMolecularAlterationType());
+        boolean isRnaSeq = molecularProfile.getStableId().contains(RNA_SEQ);
+        rows.forEachRow((stableId, rowValues) -> {
             List<GroupStatistics> groupsStatistics = new ArrayList<GroupStatistics>();
             // used for p-value calculation
             List<double[]> groupedValues = new ArrayList<double[]>();
 
             for (Entry<String, List<Integer>> group : groupIndicesMap.entrySet()) {
 
-                // get expression values to all the indices in the group
-                List<String> molecularDataValues = group.getValue().stream()
-                    .map(sampleIndex -> ma.getSplitValues()[sampleIndex])
-                    .filter(a -> NumberUtils.isNumber(a))
-                    .collect(Collectors.toList());
+                // get expression values to all the indices in the group, values which are not numbers are NaN
+                double[] values = new double[group.getValue().size()];
+                int size = 0;
+                for (int sampleIndex : group.getValue()) {
+                    double value = rowValues[sampleIndex];
+                    if (!Double.isNaN(value)) {
+                        values[size++] = isRnaSeq ? getRnaSeqValue(value) : value;
+                    }
+                }
 
                 // ignore group if there are less than 2 values
-                if (molecularDataValues.size() < 2) {
+                if (size < 2) {
                     continue;
                 }
-
-                double[] values = getAlterationValues(molecularDataValues, molecularProfile.getStableId());
+                values = Arrays.copyOf(values, size);
 
                 GroupStatistics groupStatistics = new GroupStatistics();
                 double alteredMean = StatUtils.mean(values);
@@ -100,23 +109,23 @@ public class ExpressionEnrichmentUtil {
             if (groupsStatistics.size() > 1) {
                 double pValue = calculatePValue(groupedValues);
                 if (Double.isNaN(pValue)) {
-                    continue;
+                    return;
                 }
                 S expressionEnrichment = null;
-                if (ma instanceof GenericAssayMolecularAlteration) {
+                if (isGenericAssay) {
                     GenericAssayEnrichment genericAssayEnrichment = new GenericAssayEnrichment();
-                    genericAssayEnrichment.setStableId(ma.getStableId());
+                    genericAssayEnrichment.setStableId(stableId);
                     expressionEnrichment = (S) genericAssayEnrichment;
                 } else {
                     GenomicEnrichment genomicEnrichment = new GenomicEnrichment();
-                    genomicEnrichment.setEntrezGeneId(Integer.valueOf(ma.getStableId()));
+                    genomicEnrichment.setEntrezGeneId(Integer.valueOf(stableId));
                     expressionEnrichment = (S) genomicEnrichment;
                 }
                 expressionEnrichment.setpValue(BigDecimal.valueOf(pValue));
                 expressionEnrichment.setGroupsStatistics(groupsStatistics);
                 expressionEnrichments.add(expressionEnrichment);
             }
-        }
+        });
         return expressionEnrichments;
     }
 
@@ -267,16 +276,17 @@ public class ExpressionEnrichmentUtil {
     private double[] getAlterationValues(List<String> molecularDataValues, String molecularProfileId) {
 
         if (molecularProfileId.contains(RNA_SEQ)) {
-            return molecularDataValues.stream().mapToDouble(d -> {
-                double datum = Double.parseDouble(d);
-                // reset to 0 if there are any negative values and then do log1p
-                return Math.log1p(datum < 0 ? 0 : datum) / LOG2;
-            }).toArray();
+            return molecularDataValues.stream().mapToDouble(d -> getRnaSeqValue(Double.parseDouble(d))).toArray();
         } else {
             return molecularDataValues.stream().mapToDouble(g -> Double.parseDouble(g)).toArray();
         }
     }
 
+    private double getRnaSeqValue(double datum) {
+        // reset to 0 if there are any negative values and then do log1p
+        return Math.log1p(datum < 0 ? 0 : datum) / LOG2;
+    }
+
     private long[][] getCategoricalValues(Map<String, Map<String, Integer>> groupCategoryStatistics) {
         // Determine the number of rows and columns
         int numRows = groupCategoryStatistics.size();
@@ -353,6 +363,18 @@ public class ExpressionEnrichmentUtil {
         Map<Integer, Integer> internalSampleIdToIndexMap = IntStream.range(0, internalSampleIds.size()).boxed()
             .collect(Collectors.toMap(internalSampleIds::get, Function.identity()));
 
+        return getGroupIndicesMap(molecularProfileCaseSets, enrichmentType, molecularProfile,
+            internalSampleId -> internalSampleIdToIndexMap.getOrDefault(internalSampleId, -1));
+    }
+
+    /**
+     * Same as above, with sampleIndexOf mapping an internal sample id to its position in
+     * genetic_profile_samples.ORDERED_SAMPLE_LIST, or to -1 when the sample is not profiled.
+     */
+    private Map<String, List<Integer>> getGroupIndicesMap(
+        Map<String, List<MolecularProfileCaseIdentifier>> molecularProfileCaseSets, EnrichmentType enrichmentType,
+        MolecularProfile molecularProfile, IntUnaryOperator sampleIndexOf) {
+
         Map<String, List<Integer>> selectedCaseIdToInternalIdsMap = getCaseIdToInternalIdsMap(molecularProfileCaseSets,
             enrichmentType, molecularProfile);
 
@@ -370,8 +392,9 @@ public class ExpressionEnrichmentUtil {
 
                         // only consider samples which are profiled for the give molecular profile id
                         sampleInternalIds.forEach(sampleInternalId -> {
-                            if (internalSampleIdToIndexMap.containsKey(sampleInternalId)) {
-                                sampleIndices.add(internalSampleIdToIndexMap.get(sampleInternalId));
+                            int sampleIndex = sampleIndexOf.applyAsInt(sampleInternalId);
+                            if (sampleIndex >= 0) {
+                                sampleIndices.add(sampleIndex);
                             }
                         });
                     }
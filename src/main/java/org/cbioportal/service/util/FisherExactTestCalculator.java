@@ -3,10 +3,42 @@ package org.cbioportal.service.util;
 import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.stream.IntStream;
 
 @Component
 public class FisherExactTestCalculator {
 
+    // below this number of tables the p-values of a batch are computed on the calling thread
+    private static final int MIN_PARALLEL_BATCH_SIZE = 256;
+
+    private static final Object LOG_FACTORIALS_LOCK = new Object();
+    // log(j!) for j = 0 .. length - 1, shared by all calculators and only ever replaced by a longer table
+    private static volatile double[] logFactorials = {0.0};
+
+    /**
+     * @return a table of log(j!) that holds at least the values for j = 0 .. n
+     */
+    static double[] getLogFactorials(int n) {
+
+        double[] f = logFactorials;
+        if (f.length > n) {
+            return f;
+        }
+        synchronized (LOG_FACTORIALS_LOCK) {
+            f = logFactorials;
+            if (f.length <= n) {
+                int length = f.length;
+                f = Arrays.copyOf(f, Math.max(n + 1, 2 * length));
+                for (int j = length; j < f.length; j++) {
+                    f[j] = f[j - 1] + Math.log(j);
+                }
+                logFactorials = f;
+            }
+            return f;
+        }
+    }
+
     private double getPValue(int a, int b, int c, int d, double[] f) {
         
         int n = a + b + c + d;
@@ -17,14 +49,8 @@ public class FisherExactTestCalculator {
     public double getCumulativePValue(int a, int b, int c, int d) {
         
         int min, i;
-        int n = a + b + c + d;
         double p = 0;
-        double[] f = new double[n + 1];
-        f[0] = 0.0;
-        
-        for (int j = 1; j <= n; j++) {
-            f[j] = f[j - 1] + Math.log(j);
-        }
+        double[] f = getLogFactorials(a + b + c + d);
 
         p += getPValue(a, b, c, d, f);
         if ((a * d) >= (b * c)) {
@@ -44,16 +70,36 @@ public class FisherExactTestCalculator {
     }
     
     public double getTwoTailedPValue(int a, int b, int c, int d) {
+        return getTwoTailedPValue(a, b, c, d, getLogFactorials(a + b + c + d));
+    }
 
-        int min, i;
-        int n = a + b + c + d;
-        double p = 0;
-        double[] f = new double[n + 1];
-        f[0] = 0.0;
+    /**
+     * Computes the two-tailed p-values of a batch of 2x2 tables, in parallel for large batches.
+     *
+     * @param tables one {a, b, c, d} array per table, in the argument order of {@link #getTwoTailedPValue}
+     * @return the p-value of every table, in the order of the tables
+     */
+    public double[] getTwoTailedPValues(int[][] tables) {
+
+        int maxN = 0;
+        for (int[] table : tables) {
+            maxN = Math.max(maxN, table[0] + table[1] + table[2] + table[3]);
+        }
+        double[] f = getLogFactorials(maxN);
 
-        for (int j = 1; j <= n; j++) {
-            f[j] = f[j - 1] + Math.log(j);
+        double[] pValues = new double[tables.length];
+        IntStream indexes = IntStream.range(0, tables.length);
+        if (tables.length >= MIN_PARALLEL_BATCH_SIZE) {
+            indexes = indexes.parallel();
         }
+        indexes.forEach(i -> pValues[i] = getTwoTailedPValue(tables[i][0], tables[i][1], tables[i][2], tables[i][3], f));
+        return pValues;
+    }
+
+    private double getTwoTailedPValue(int a, int b, int c, int d, double[] f) {
+
+        int min, i;
+        double p = 0;
 
         double baseP = getPValue(a, b, c, d, f);
 //         in order for a table under consideration to have its p-value included
@@ -0,0 +1,127 @@
+package org.cbioportal.service.util;
+
+import org.apache.commons.math3.util.Pair;
+import org.cbioportal.model.GenePanel;
+import org.cbioportal.model.GenePanelToGene;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The genes of a set of gene panels, with every panel numbered and every gene (by Entrez gene id and Hugo gene symbol,
+ * as in {@link ProfiledCasesCounter}) mapped to the numbers of the panels that contain it.
+ *
+ * An index is immutable, {@link #withGenePanels} returns a new index that also contains the given panels.
+ */
+public final class GenePanelCoverageIndex {
+
+    public static final GenePanelCoverageIndex EMPTY = new GenePanelCoverageIndex(
+        Collections.emptyList(), Collections.emptyList(), Collections.emptySet());
+
+    private static final int[] NO_PANELS = new int[0];
+
+    private final List<String> genePanelIds;
+    private final List<List<Pair<Integer, String>>> genesOfPanels;
+    // requested panels that do not exist, so that they are not fetched again
+    private final Set<String> unknownGenePanelIds;
+    private final Map<String, Integer> panelIndexes;
+    // ascending panel numbers of every gene
+    private final Map<Pair<Integer, String>, int[]> panelsOfGenes;
+
+    private GenePanelCoverageIndex(List<String> genePanelIds,
+                                   List<List<Pair<Integer, String>>> genesOfPanels,
+                                   Set<String> unknownGenePanelIds) {
+        this.genePanelIds = genePanelIds;
+        this.genesOfPanels = genesOfPanels;
+        this.unknownGenePanelIds = unknownGenePanelIds;
+
+        panelIndexes = new HashMap<>();
+        Map<Pair<Integer, String>, int[]> panelsOfGenes = new HashMap<>();
+        for (int panel = 0; panel < genePanelIds.size(); panel++) {
+            panelIndexes.put(genePanelIds.get(panel), panel);
+            for (Pair<Integer, String> gene : genesOfPanels.get(panel)) {
+                int[] panels = panelsOfGenes.getOrDefault(gene, NO_PANELS);
+                // a panel lists a gene only once, but do not count it twice if it does
+                if (panels.length == 0 || panels[panels.length - 1] != panel) {
+                    panels = Arrays.copyOf(panels, panels.length + 1);
+                    panels[panels.length - 1] = panel;
+                    panelsOfGenes.put(gene, panels);
+                }
+            }
+        }
+        this.panelsOfGenes = panelsOfGenes;
+    }
+
+    /**
+     * @param requestedGenePanelIds ids the gene panels were fetched for, those that were not found are remembered as
+     * unknown
+     * @param genePanels fetched gene panels with their genes, panels that are already indexed are ignored
+     */
+    public GenePanelCoverageIndex withGenePanels(Collection<String> requestedGenePanelIds,
+                                                 List<GenePanel> genePanels) {
+        List<String> newGenePanelIds = new ArrayList<>(genePanelIds);
+        List<List<Pair<Integer, String>>> newGenesOfPanels = new ArrayList<>(genesOfPanels);
+        Set<String> indexedGenePanelIds = new HashSet<>(genePanelIds);
+        for (GenePanel genePanel : genePanels) {
+            if (!indexedGenePanelIds.add(genePanel.getStableId())) {
+                continue;
+            }
+            List<Pair<Integer, String>> genes = new ArrayList<>();
+            if (genePanel.getGenes() != null) {
+                for (GenePanelToGene genePanelToGene : genePanel.getGenes()) {
+                    genes.add(new Pair<>(genePanelToGene.getEntrezGeneId(), genePanelToGene.getHugoGeneSymbol()));
+                }
+            }
+            newGenePanelIds.add(genePanel.getStableId());
+            newGenesOfPanels.add(Collections.unmodifiableList(genes));
+        }
+
+        Set<String> newUnknownGenePanelIds = new HashSet<>(unknownGenePanelIds);
+        for (String genePanelId : requestedGenePanelIds) {
+            if (!indexedGenePanelIds.contains(genePanelId)) {
+                newUnknownGenePanelIds.add(genePanelId);
+            }
+        }
+        return new GenePanelCoverageIndex(newGenePanelIds, newGenesOfPanels, newUnknownGenePanelIds);
+    }
+
+    /**
+     * @return whether the panel is indexed or known not to exist
+     */
+    public boolean contains(String genePanelId) {
+        return panelIndexes.containsKey(genePanelId) || unknownGenePanelIds.contains(genePanelId);
+    }
+
+    public int getPanelCount() {
+        return genePanelIds.size();
+    }
+
+    /**
+     * @return the number of the panel, or -1 if it is not indexed
+     */
+    public int getPanelIndex(String genePanelId) {
+        return panelIndexes.getOrDefault(genePanelId, -1);
+    }
+
+    public String getGenePanelId(int panel) {
+        return genePanelIds.get(panel);
+    }
+
+    public List<Pair<Integer, String>> getGenesOfPanel(int panel) {
+        return genesOfPanels.get(panel);
+    }
+
+    /**
+     * @return the ascending numbers of the panels that contain the gene, not to be modified
+     */
+    public int[] getPanelsOfGene(Integer entrezGeneId, String hugoGeneSymbol) {
+        return panelsOfGenes.getOrDefault(new Pair<>(entrezGeneId, hugoGeneSymbol), NO_PANELS);
+    }
+}
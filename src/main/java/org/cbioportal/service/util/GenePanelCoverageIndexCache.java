@@ -0,0 +1,114 @@
+package org.cbioportal.service.util;
+
+import org.cbioportal.model.GenePanel;
+import org.cbioportal.persistence.CacheEnabledConfig;
+import org.cbioportal.persistence.util.StudyScopedCache;
+import org.cbioportal.service.GenePanelService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps the {@link GenePanelCoverageIndex} of all gene panels. The index is built when the portal has started and
+ * dropped when caches are flushed (e.g. after a study import, which may add gene panels), after which panels are
+ * indexed again as they are requested. Unlike the caches based on AbstractStudyScopedCache, this is a single value
+ * that grows as panels are added, so it has its own eviction guard. When caching is disabled
+ * (persistence.cache_type), the requested panels are indexed for every request.
+ */
+@Component
+public class GenePanelCoverageIndexCache implements StudyScopedCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(GenePanelCoverageIndexCache.class);
+
+    @Autowired
+    private GenePanelService genePanelService;
+
+    @Autowired
+    private CacheEnabledConfig cacheEnabledConfig;
+
+    @Value("${persistence.gene_panel_coverage_index.enabled:true}")
+    private boolean indexEnabled;
+
+    private volatile GenePanelCoverageIndex index = GenePanelCoverageIndex.EMPTY;
+    // incremented on every eviction so that panels fetched before the eviction are not stored
+    private long generation = 0;
+
+    public boolean isRetaining() {
+        return indexEnabled && cacheEnabledConfig.isEnabled();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildIndex() {
+        if (!isRetaining()) {
+            return;
+        }
+        try {
+            List<String> genePanelIds = genePanelService.getAllGenePanels("ID", null, null, null, null)
+                .stream()
+                .map(GenePanel::getStableId)
+                .collect(Collectors.toList());
+            get(genePanelIds);
+            LOG.info("Indexed the genes of " + genePanelIds.size() + " gene panels");
+        } catch (RuntimeException e) {
+            // panels are indexed on request instead
+            LOG.warn("Could not index the genes of the gene panels", e);
+        }
+    }
+
+    /**
+     * Returns an index that contains at least the given panels (if they exist), fetching the panels that are not
+     * indexed yet.
+     */
+    public GenePanelCoverageIndex get(List<String> genePanelIds) {
+        boolean retaining = isRetaining();
+        GenePanelCoverageIndex current = retaining ? index : GenePanelCoverageIndex.EMPTY;
+        Set<String> missingGenePanelIds = new LinkedHashSet<>();
+        for (String genePanelId : genePanelIds) {
+            if (!current.contains(genePanelId)) {
+                missingGenePanelIds.add(genePanelId);
+            }
+        }
+        if (missingGenePanelIds.isEmpty()) {
+            return current;
+        }
+
+        long loadGeneration;
+        synchronized (this) {
+            loadGeneration = generation;
+        }
+        List<GenePanel> genePanels = genePanelService.fetchGenePanels(
+            List.copyOf(missingGenePanelIds), "DETAILED");
+        if (!retaining) {
+            return current.withGenePanels(missingGenePanelIds, genePanels);
+        }
+        synchronized (this) {
+            if (loadGeneration == generation) {
+                // other requests may have indexed other panels in the meantime
+                index = index.withGenePanels(missingGenePanelIds, genePanels);
+                return index;
+            }
+        }
+        return current.withGenePanels(missingGenePanelIds, genePanels);
+    }
+
+    @Override
+    public synchronized void evictStudy(String studyId) {
+        // gene panels are not specific to a study, but are imported with one
+        evictAll();
+    }
+
+    @Override
+    public synchronized void evictAll() {
+        generation++;
+        index = GenePanelCoverageIndex.EMPTY;
+    }
+}
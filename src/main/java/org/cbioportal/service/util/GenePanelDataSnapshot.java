@@ -0,0 +1,162 @@
+package org.cbioportal.service.util;
+
+import org.cbioportal.model.GenePanelData;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The gene panel data of all samples of a molecular profile: the gene panel of every sample (by its position in the
+ * gene panel data of the profile) as a number into the distinct gene panel ids, and whether it was profiled, with the
+ * sequenced sample list of mutation profiles already taken into account.
+ *
+ * Gene panel data of a set of samples or patients is created from the positions of these cases only, as new objects
+ * in the order of the gene panel data of the profile.
+ */
+public final class GenePanelDataSnapshot {
+
+    private static final int[] NO_POSITIONS = new int[0];
+
+    private final String molecularProfileId;
+    private final String studyId;
+    private final String[] sampleIds;
+    private final String[] patientIds;
+    private final String[] genePanelIds;
+    // number into genePanelIds by sample position, -1 for samples without gene panel
+    private final int[] samplePanels;
+    private final BitSet profiled;
+    private final Map<String, int[]> samplePositions;
+    private final Map<String, int[]> patientPositions;
+
+    private GenePanelDataSnapshot(String molecularProfileId,
+                                  String studyId,
+                                  String[] sampleIds,
+                                  String[] patientIds,
+                                  String[] genePanelIds,
+                                  int[] samplePanels,
+                                  BitSet profiled,
+                                  Map<String, int[]> samplePositions,
+                                  Map<String, int[]> patientPositions) {
+        this.molecularProfileId = molecularProfileId;
+        this.studyId = studyId;
+        this.sampleIds = sampleIds;
+        this.patientIds = patientIds;
+        this.genePanelIds = genePanelIds;
+        this.samplePanels = samplePanels;
+        this.profiled = profiled;
+        this.samplePositions = samplePositions;
+        this.patientPositions = patientPositions;
+    }
+
+    /**
+     * @param genePanelData gene panel data of all samples of the profile
+     * @param sequencedSampleIds samples of the sequenced sample list, which are profiled as well, or null
+     */
+    public static GenePanelDataSnapshot build(String molecularProfileId,
+                                              String studyId,
+                                              List<GenePanelData> genePanelData,
+                                              Set<String> sequencedSampleIds) {
+        int size = genePanelData.size();
+        String[] sampleIds = new String[size];
+        String[] patientIds = new String[size];
+        int[] samplePanels = new int[size];
+        BitSet profiled = new BitSet(size);
+        Map<String, Integer> genePanelNumbers = new HashMap<>();
+        Map<String, int[]> samplePositions = new HashMap<>();
+        Map<String, int[]> patientPositions = new HashMap<>();
+
+        for (int position = 0; position < size; position++) {
+            GenePanelData datum = genePanelData.get(position);
+            sampleIds[position] = datum.getSampleId();
+            patientIds[position] = datum.getPatientId();
+            samplePanels[position] = datum.getGenePanelId() == null ? -1 :
+                genePanelNumbers.computeIfAbsent(datum.getGenePanelId(), k -> genePanelNumbers.size());
+            if (datum.getProfiled() || (sequencedSampleIds != null &&
+                sequencedSampleIds.contains(datum.getSampleId()))) {
+                profiled.set(position);
+            }
+            addPosition(samplePositions, datum.getSampleId(), position);
+            addPosition(patientPositions, datum.getPatientId(), position);
+        }
+
+        String[] genePanelIds = new String[genePanelNumbers.size()];
+        genePanelNumbers.forEach((genePanelId, number) -> genePanelIds[number] = genePanelId);
+        return new GenePanelDataSnapshot(molecularProfileId, studyId, sampleIds, patientIds, genePanelIds,
+            samplePanels, profiled, samplePositions, patientPositions);
+    }
+
+    private static void addPosition(Map<String, int[]> positions, String caseId, int position) {
+        int[] casePositions = positions.getOrDefault(caseId, NO_POSITIONS);
+        casePositions = Arrays.copyOf(casePositions, casePositions.length + 1);
+        casePositions[casePositions.length - 1] = position;
+        positions.put(caseId, casePositions);
+    }
+
+    public String getMolecularProfileId() {
+        return molecularProfileId;
+    }
+
+    public String getStudyId() {
+        return studyId;
+    }
+
+    public int size() {
+        return sampleIds.length;
+    }
+
+    public List<GenePanelData> getGenePanelData() {
+        List<GenePanelData> genePanelData = new ArrayList<>(sampleIds.length);
+        for (int position = 0; position < sampleIds.length; position++) {
+            genePanelData.add(toGenePanelData(position));
+        }
+        return genePanelData;
+    }
+
+    public List<GenePanelData> getGenePanelDataOfSamples(Collection<String> sampleIds) {
+        return getGenePanelData(sampleIds, samplePositions);
+    }
+
+    public List<GenePanelData> getGenePanelDataOfPatients(Collection<String> patientIds) {
+        return getGenePanelData(patientIds, patientPositions);
+    }
+
+    private List<GenePanelData> getGenePanelData(Collection<String> caseIds, Map<String, int[]> positions) {
+        BitSet requestedPositions = new BitSet();
+        for (String caseId : caseIds) {
+            for (int position : positions.getOrDefault(caseId, NO_POSITIONS)) {
+                requestedPositions.set(position);
+            }
+        }
+        List<GenePanelData> genePanelData = new ArrayList<>(requestedPositions.cardinality());
+        for (int position = requestedPositions.nextSetBit(0); position >= 0;
+             position = requestedPositions.nextSetBit(position + 1)) {
+            genePanelData.add(toGenePanelData(position));
+        }
+        return genePanelData;
+    }
+
+    private GenePanelData toGenePanelData(int position) {
+        GenePanelData genePanelData = new GenePanelData();
+        genePanelData.setMolecularProfileId(molecularProfileId);
+        genePanelData.setSampleId(sampleIds[position]);
+        genePanelData.setPatientId(patientIds[position]);
+        genePanelData.setStudyId(studyId);
+        genePanelData.setGenePanelId(samplePanels[position] < 0 ? null : genePanelIds[samplePanels[position]]);
+        genePanelData.setProfiled(profiled.get(position));
+        return genePanelData;
+    }
+
+    /**
+     * @return rough number of bytes retained by the snapshot
+     */
+    long getWeight() {
+        // strings are shared with other objects in most cases, only references and map entries are counted
+        return 256L + 24L * sampleIds.length + 96L * (samplePositions.size() + patientPositions.size());
+    }
+}
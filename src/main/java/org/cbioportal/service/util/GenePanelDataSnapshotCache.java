@@ -0,0 +1,36 @@
+package org.cbioportal.service.util;
+
+import org.cbioportal.persistence.util.AbstractStudyScopedCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Size-bounded store of the {@link GenePanelDataSnapshot} of every molecular profile that gene panel data was
+ * requested for, by molecular profile stable id.
+ */
+@Component
+public class GenePanelDataSnapshotCache extends AbstractStudyScopedCache<String, GenePanelDataSnapshot> {
+
+    @Value("${persistence.gene_panel_data_snapshot_cache.max_mega_bytes:256}")
+    private long maxMegaBytes;
+
+    @Override
+    protected boolean isConfigured() {
+        return maxMegaBytes > 0;
+    }
+
+    @Override
+    protected boolean isOfStudy(String molecularProfileId, GenePanelDataSnapshot snapshot, String studyId) {
+        return studyId.equals(snapshot.getStudyId());
+    }
+
+    @Override
+    protected long getMaxMegaBytes() {
+        return maxMegaBytes;
+    }
+
+    @Override
+    protected long weigh(String molecularProfileId, GenePanelDataSnapshot snapshot) {
+        return snapshot.getWeight();
+    }
+}
@@ -0,0 +1,114 @@
+package org.cbioportal.service.util;
+
+import org.apache.commons.lang3.math.NumberUtils;
+import org.cbioportal.model.GeneMolecularData;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The numeric mRNA expression values of one gene in one molecular profile: sorted, so that the percentile of a value
+ * is a binary search, and by sample, so that the value of a sample is a binary search as well.
+ */
+public final class MrnaPercentileIndex {
+
+    // rough heap size of a sample in the index, used to bound the size of the cache
+    static final int BYTES_PER_SAMPLE = 96;
+
+    private final String studyId;
+    private final double[] sortedValues;
+    private final String[] sampleIds;
+    private final String[] patientIds;
+    private final String[] values;
+
+    private MrnaPercentileIndex(String studyId, double[] sortedValues, String[] sampleIds, String[] patientIds,
+                                String[] values) {
+        this.studyId = studyId;
+        this.sortedValues = sortedValues;
+        this.sampleIds = sampleIds;
+        this.patientIds = patientIds;
+        this.values = values;
+    }
+
+    /**
+     * @param molecularDataOfGene the data of every sample of the profile for the gene, non-numeric values are left
+     *                            out as the ranking leaves them out
+     * @param canonicalIds used to share sample and patient id strings between the indexes of a profile
+     */
+    public static MrnaPercentileIndex build(String studyId, List<GeneMolecularData> molecularDataOfGene,
+                                            Map<String, String> canonicalIds) {
+        GeneMolecularData[] numericData = molecularDataOfGene.stream()
+            .filter(molecularData -> NumberUtils.isNumber(molecularData.getValue()))
+            .sorted(Comparator.comparing(GeneMolecularData::getSampleId))
+            .toArray(GeneMolecularData[]::new);
+
+        int size = numericData.length;
+        double[] sortedValues = new double[size];
+        String[] sampleIds = new String[size];
+        String[] patientIds = new String[size];
+        String[] values = new String[size];
+        for (int i = 0; i < size; i++) {
+            GeneMolecularData molecularData = numericData[i];
+            sortedValues[i] = Double.parseDouble(molecularData.getValue());
+            sampleIds[i] = canonical(canonicalIds, molecularData.getSampleId());
+            patientIds[i] = canonical(canonicalIds, molecularData.getPatientId());
+            values[i] = molecularData.getValue();
+        }
+        Arrays.sort(sortedValues);
+        return new MrnaPercentileIndex(studyId, sortedValues, sampleIds, patientIds, values);
+    }
+
+    private static String canonical(Map<String, String> canonicalIds, String id) {
+        return id == null ? null : canonicalIds.computeIfAbsent(id, key -> key);
+    }
+
+    public String getStudyId() {
+        return studyId;
+    }
+
+    public int size() {
+        return sortedValues.length;
+    }
+
+    /**
+     * @return position of the sample in this index, or a negative number if the sample has no numeric value
+     */
+    public int indexOf(String sampleId) {
+        return Arrays.binarySearch(sampleIds, sampleId);
+    }
+
+    public String getPatientId(int index) {
+        return patientIds[index];
+    }
+
+    public String getValue(int index) {
+        return values[index];
+    }
+
+    /**
+     * Percentile of the value of the sample at the given position: the share of the values that are lower than or
+     * equal to it, i.e. its rank when ties get the maximum rank.
+     */
+    public double getPercentile(int index) {
+        double value = Double.parseDouble(values[index]);
+        // number of values <= value
+        int low = 0;
+        int high = sortedValues.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (sortedValues[middle] <= value) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        double rank = low;
+        return (rank / sortedValues.length) * 100;
+    }
+
+    int getWeight() {
+        return 64 + sortedValues.length * BYTES_PER_SAMPLE;
+    }
+}
@@ -0,0 +1,126 @@
+package org.cbioportal.service.util;
+
+import org.cbioportal.model.GeneMolecularData;
+import org.cbioportal.persistence.util.AbstractStudyScopedCache;
+import org.cbioportal.service.exception.MolecularProfileNotFoundException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Size-bounded store of the {@link MrnaPercentileIndex} of every gene that mRNA percentiles were requested for. The
+ * indexes of the genes that are not stored yet are built from a single fetch of their values.
+ */
+@Component
+public class MrnaPercentileIndexCache extends AbstractStudyScopedCache<MrnaPercentileIndexCache.Key,
+    MrnaPercentileIndex> {
+
+    @Value("${persistence.mrna_percentile_index_cache.max_mega_bytes:256}")
+    private long maxMegaBytes;
+
+    /**
+     * Returns the index of every gene, building the missing ones from the values returned by the loader.
+     *
+     * @param loader fetches the values of all samples of the profile for the given genes
+     */
+    public Map<Integer, MrnaPercentileIndex> get(String molecularProfileId, String studyId,
+                                                 List<Integer> entrezGeneIds,
+                                                 MolecularDataLoader loader)
+        throws MolecularProfileNotFoundException {
+
+        long loadGeneration = getGeneration();
+
+        Map<Integer, MrnaPercentileIndex> result = new LinkedHashMap<>();
+        List<Integer> missingEntrezGeneIds = new ArrayList<>();
+        for (Integer entrezGeneId : new LinkedHashSet<>(entrezGeneIds)) {
+            MrnaPercentileIndex index = getIfPresent(new Key(molecularProfileId, entrezGeneId));
+            // keeps the order of the requested genes, missing indexes are filled in below
+            result.put(entrezGeneId, index);
+            if (index == null) {
+                missingEntrezGeneIds.add(entrezGeneId);
+            }
+        }
+        if (missingEntrezGeneIds.isEmpty()) {
+            return result;
+        }
+
+        Map<Integer, List<GeneMolecularData>> molecularDataByGene = new HashMap<>();
+        for (GeneMolecularData molecularData : loader.load(missingEntrezGeneIds)) {
+            molecularDataByGene.computeIfAbsent(molecularData.getEntrezGeneId(), k -> new ArrayList<>())
+                .add(molecularData);
+        }
+        Map<String, String> canonicalIds = new HashMap<>();
+        Map<Key, MrnaPercentileIndex> built = new HashMap<>();
+        for (Integer entrezGeneId : missingEntrezGeneIds) {
+            // genes without values get an empty index, so they are not fetched again
+            MrnaPercentileIndex index = MrnaPercentileIndex.build(studyId,
+                molecularDataByGene.getOrDefault(entrezGeneId, Collections.emptyList()), canonicalIds);
+            result.put(entrezGeneId, index);
+            built.put(new Key(molecularProfileId, entrezGeneId), index);
+        }
+        putAll(built, loadGeneration);
+        return result;
+    }
+
+    @Override
+    protected boolean isConfigured() {
+        return maxMegaBytes > 0;
+    }
+
+    @Override
+    protected boolean isOfStudy(Key key, MrnaPercentileIndex index, String studyId) {
+        return studyId.equals(index.getStudyId());
+    }
+
+    @Override
+    protected long getMaxMegaBytes() {
+        return maxMegaBytes;
+    }
+
+    @Override
+    protected long weigh(Key key, MrnaPercentileIndex index) {
+        return index.getWeight();
+    }
+
+    @FunctionalInterface
+    public interface MolecularDataLoader {
+
+        List<GeneMolecularData> load(List<Integer> entrezGeneIds) throws MolecularProfileNotFoundException;
+    }
+
+    static final class Key {
+
+        private final String molecularProfileId;
+        private final int entrezGeneId;
+
+        private Key(String molecularProfileId, int entrezGeneId) {
+            this.molecularProfileId = molecularProfileId;
+            this.entrezGeneId = entrezGeneId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return entrezGeneId == key.entrezGeneId && molecularProfileId.equals(key.molecularProfileId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(molecularProfileId, entrezGeneId);
+        }
+    }
+}
@@ -4,15 +4,14 @@ import org.apache.commons.math3.util.Pair;
 import org.cbioportal.model.AlterationCountBase;
 import org.cbioportal.model.AlterationCountByGene;
 import org.cbioportal.model.AlterationCountByStructuralVariant;
-import org.cbioportal.model.GenePanel;
 import org.cbioportal.model.GenePanelData;
-import org.cbioportal.model.GenePanelToGene;
-import org.cbioportal.service.GenePanelService;
+import org.roaringbitmap.RoaringBitmap;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
-import java.util.Arrays;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -25,7 +24,7 @@ import java.util.stream.Collectors;
 public class ProfiledCasesCounter<T extends AlterationCountBase> {
 
     @Autowired
-    private GenePanelService genePanelService;
+    private GenePanelCoverageIndexCache genePanelCoverageIndexCache;
 
     Function<GenePanelData, String> sampleUniqueIdentifier = sample -> sample.getStudyId() + sample.getSampleId();
     Function<GenePanelData, String> patientUniqueIdentifier = sample -> sample.getStudyId() + sample.getPatientId();
@@ -41,94 +40,63 @@ public class ProfiledCasesCounter<T extends AlterationCountBase> {
 
         ProfiledCaseType profiledCaseType = (caseUniqueIdentifier == patientUniqueIdentifier) ?
             ProfiledCaseType.PATIENT : ProfiledCaseType.SAMPLE;
-        Map<String, Set<String>> casesWithDataInGenePanel = extractCasesWithDataInGenePanel(genePanelDataList, caseUniqueIdentifier);
-        List<GenePanel> genePanels = new ArrayList<>();
-        if (!casesWithDataInGenePanel.isEmpty()) {
-            genePanels = genePanelService.fetchGenePanels(new ArrayList<>(casesWithDataInGenePanel.keySet()), "DETAILED");
-        }
 
-        Map<Pair<Integer, String>, List<GenePanel>> geneToGenePanel = new HashMap<>();
-        for (GenePanel genePanel : genePanels) {
-            for (GenePanelToGene genePanelToGene : genePanel.getGenes()) {
-                // TODO I am not sure whether it is smart to include the HUGO gene suymbol in the key here.
-                // What if two panels have the same Entrez gene id with different Hugo gene symbols? If that situation
-                // can never occur, better not include the HUGO symbol in the key and only use entrez gene id. It confuses
-                // developers that may think it is an important key element.
-                Pair<Integer, String> key = new Pair<>(genePanelToGene.getEntrezGeneId(), genePanelToGene.getHugoGeneSymbol());
-                if (geneToGenePanel.containsKey(key)) {
-                    geneToGenePanel.get(key).add(genePanel);
-                } else {
-                    List<GenePanel> geneGenePanelList = new ArrayList<>();
-                    geneGenePanelList.add(genePanel);
-                    geneToGenePanel.put(key, geneGenePanelList);
+        // cases are numbered, there can be duplicate patient or sample ids so the identifier includes the study id
+        Map<String, Integer> caseIndexes = new HashMap<>();
+        Map<String, RoaringBitmap> casesWithDataInGenePanel = new HashMap<>();
+        RoaringBitmap profiledCases = new RoaringBitmap();
+        // a case with at least one profile with gene panel id is considered as a case with gene panel data
+        // so a case is considered without panel data only if none of the profiles has a gene panel id
+        RoaringBitmap casesWithPanelData = new RoaringBitmap();
+        for (GenePanelData genePanelDataRecord : genePanelDataList) {
+            int caseIndex = caseIndexes.computeIfAbsent(caseUniqueIdentifier.apply(genePanelDataRecord),
+                k -> caseIndexes.size());
+            String associatedGenePanel = genePanelDataRecord.getGenePanelId();
+            if (associatedGenePanel != null) {
+                casesWithDataInGenePanel.computeIfAbsent(associatedGenePanel, k -> new RoaringBitmap())
+                    .add(caseIndex);
+            }
+            if (genePanelDataRecord.getProfiled()) {
+                profiledCases.add(caseIndex);
+                if (associatedGenePanel != null) {
+                    casesWithPanelData.add(caseIndex);
                 }
             }
         }
+        RoaringBitmap casesWithoutPanelData = RoaringBitmap.andNot(profiledCases, casesWithPanelData);
 
-        List<GenePanelData> genePanelData = genePanelDataList
-            .stream()
-            .filter(GenePanelData::getProfiled)
-            .collect(Collectors.toList());
-
-        Set<String> profiledCases = genePanelData
-            .stream()
-            // there can be duplicate patient or sample id, append study id
-            .map(caseUniqueIdentifier)
-            .collect(Collectors.toSet());
-        int profiledCasesCount = profiledCases.size();
-
-        // here we look for cases where none of the profiles have gene panel ids
-        // a case with at least one profile with gene panel id is considered as a case with gene panel data
-        // so a case is considered without panel data only if none of the profiles has a gene panel id
-
-        // first identify cases with gene panel data
-        Set<String> casesWithPanelData = genePanelData
-            .stream()
-            .filter(g -> g.getGenePanelId() != null)
-            // there can be duplicate patient or sample id, append study id
-            .map(caseUniqueIdentifier)
-            .collect(Collectors.toSet());
-
-        // find all unique cases
-        Set<String> casesWithoutPanelData = genePanelData
-            .stream()
-            // there can be duplicate patient or sample id, append study id
-            .map(caseUniqueIdentifier)
-            .collect(Collectors.toSet());
-
-        // removing cases with panel data from all unique cases gives us the cases without panel data
-        casesWithoutPanelData.removeAll(casesWithPanelData);
+        GenePanelCoverageIndex genePanelCoverageIndex = GenePanelCoverageIndex.EMPTY;
+        if (!casesWithDataInGenePanel.isEmpty()) {
+            genePanelCoverageIndex = genePanelCoverageIndexCache.get(
+                new ArrayList<>(casesWithDataInGenePanel.keySet()));
+        }
+        // cases of the gene panels of this request by panel number, null for the other panels of the index
+        RoaringBitmap[] casesOfPanels = new RoaringBitmap[genePanelCoverageIndex.getPanelCount()];
+        for (Map.Entry<String, RoaringBitmap> entry : casesWithDataInGenePanel.entrySet()) {
+            int panel = genePanelCoverageIndex.getPanelIndex(entry.getKey());
+            if (panel >= 0) {
+                casesOfPanels[panel] = entry.getValue();
+            }
+        }
 
+        PanelCoverageCounter coverageCounter = new PanelCoverageCounter(genePanelCoverageIndex, casesOfPanels,
+            casesWithoutPanelData, profiledCaseType);
         for (T alterationCount : alterationCounts) {
-            Set<String> totalProfiledPatients = new HashSet<>();
-            Set<String> allMatchingGenePanelIds = new HashSet<>();
-            int totalProfiledSamples = 0;
+            BitSet panels = getGenePanelsForAlterationCount(alterationCount, coverageCounter);
             // different calculations depending on if gene is linked to gene panels
-            if (alterationIsCoveredByGenePanel(alterationCount, geneToGenePanel)) {
+            if (!panels.isEmpty()) {
                 // for every gene panel associated containing the gene, use the sum of unique cases
                 // as well as cases without panel data
-                for (GenePanel genePanel : getGenePanelsForAlterationCount(alterationCount, geneToGenePanel)) {
-                    allMatchingGenePanelIds.add(genePanel.getStableId());
-                    if (profiledCaseType == ProfiledCaseType.PATIENT) {
-                        totalProfiledPatients.addAll(casesWithDataInGenePanel.get(genePanel.getStableId()));
-                    } else {
-                        totalProfiledSamples += casesWithDataInGenePanel.get(genePanel.getStableId()).size();
-                    }
-                }
-                if (profiledCaseType == ProfiledCaseType.PATIENT) {
-                    totalProfiledPatients.addAll(casesWithoutPanelData);
-                    alterationCount.setNumberOfProfiledCases(totalProfiledPatients.size());
-                } else {
-                    totalProfiledSamples += casesWithoutPanelData.size();
-                    alterationCount.setNumberOfProfiledCases(totalProfiledSamples);
-                }
+                PanelCoverage panelCoverage = coverageCounter.count(panels);
+                alterationCount.setNumberOfProfiledCases(panelCoverage.numberOfProfiledCases());
+                alterationCount.setMatchingGenePanelIds(new HashSet<>(panelCoverage.matchingGenePanelIds()));
             } else {
                 // we use profiledCasesCount instead of casesWithoutPanelData to
                 // prevent a divide by zero error which can happen for targeted studies
                 // in which certain genes have events that are not captured by the panel.
-                alterationCount.setNumberOfProfiledCases(profiledCasesCount);
+                alterationCount.setNumberOfProfiledCases(profiledCases.getCardinality());
+                alterationCount.setMatchingGenePanelIds(new HashSet<>());
             }
-            alterationCount.setMatchingGenePanelIds(allMatchingGenePanelIds);
         }
 
         if (includeMissingAlterationsFromGenePanel) {
@@ -136,85 +104,112 @@ public class ProfiledCasesCounter<T extends AlterationCountBase> {
                 .flatMap(count -> Arrays.stream(count.getEntrezGeneIds()))
                 .collect(Collectors.toSet());
 
-            geneToGenePanel.entrySet().forEach(entry -> {
-                Integer entrezGeneId = entry.getKey().getFirst();
-                String hugoGeneSymbol = entry.getKey().getSecond();
-                // add alterationCount object where there are no alterations but have genePanel
-                // object
-                if (!genesWithAlteration.contains(entrezGeneId)) {
-                    AlterationCountByGene alterationCountByGene = new AlterationCountByGene();
-
-                    Set<String> totalProfiledPatients = new HashSet<>();
-                    Set<String> allMatchingGenePanelIds = new HashSet<>();
-                    int totalProfiledSamples = 0;
-                    for (GenePanel genePanel : geneToGenePanel.get(new Pair<>(entrezGeneId, hugoGeneSymbol))) {
-                        allMatchingGenePanelIds.add(genePanel.getStableId());
-                        if (profiledCaseType == ProfiledCaseType.PATIENT) {
-                            totalProfiledPatients.addAll(casesWithDataInGenePanel.get(genePanel.getStableId()));
-                        } else {
-                            totalProfiledSamples += casesWithDataInGenePanel.get(genePanel.getStableId()).size();
-                        }
-                    }
-                    if (profiledCaseType == ProfiledCaseType.PATIENT) {
-                        totalProfiledPatients.addAll(casesWithoutPanelData);
-                    } else {
-                        totalProfiledSamples += casesWithoutPanelData.size();
+            Set<Pair<Integer, String>> addedGenes = new HashSet<>();
+            for (int panel = 0; panel < casesOfPanels.length; panel++) {
+                if (casesOfPanels[panel] == null) {
+                    continue;
+                }
+                for (Pair<Integer, String> gene : genePanelCoverageIndex.getGenesOfPanel(panel)) {
+                    Integer entrezGeneId = gene.getFirst();
+                    String hugoGeneSymbol = gene.getSecond();
+                    // add alterationCount object where there are no alterations but have genePanel
+                    // object
+                    if (genesWithAlteration.contains(entrezGeneId) || !addedGenes.add(gene)) {
+                        continue;
                     }
+                    PanelCoverage panelCoverage = coverageCounter.count(
+                        coverageCounter.getGenePanels(entrezGeneId, hugoGeneSymbol));
 
+                    AlterationCountByGene alterationCountByGene = new AlterationCountByGene();
                     alterationCountByGene.setEntrezGeneId(entrezGeneId);
-                    alterationCountByGene.setMatchingGenePanelIds(allMatchingGenePanelIds);
-                    if (profiledCaseType == ProfiledCaseType.PATIENT) {
-                        alterationCountByGene.setNumberOfProfiledCases(totalProfiledPatients.size());
-                    } else {
-                        alterationCountByGene.setNumberOfProfiledCases(totalProfiledSamples);
-                    }
+                    alterationCountByGene.setMatchingGenePanelIds(
+                        new HashSet<>(panelCoverage.matchingGenePanelIds()));
+                    alterationCountByGene.setNumberOfProfiledCases(panelCoverage.numberOfProfiledCases());
                     alterationCountByGene.setNumberOfAlteredCases(0);
                     alterationCountByGene.setTotalCount(0);
                     alterationCountByGene.setHugoGeneSymbol(hugoGeneSymbol);
 
                     alterationCounts.add((T) alterationCountByGene);
                 }
-            });
-        }
-    }
-
-    private Map<String, Set<String>> extractCasesWithDataInGenePanel(
-        List<GenePanelData> genePanelDataList,
-        Function<GenePanelData, String> caseUniqueIdentifier) {
-
-        Map<String, Set<String>> casesWithDataInGenePanel = new HashMap<>();
-        // loop through all membership records -- ignore any where g.getGenePanelId == null
-        for (GenePanelData genePanelDataRecord : genePanelDataList) {
-            String associatedGenePanel = genePanelDataRecord.getGenePanelId();
-            if (associatedGenePanel != null) {
-                casesWithDataInGenePanel.putIfAbsent(associatedGenePanel, new HashSet<>());
-                Set<String> casesForThisGenePanel = casesWithDataInGenePanel.get(associatedGenePanel);
-                casesForThisGenePanel.add(caseUniqueIdentifier.apply(genePanelDataRecord));
             }
         }
-        return casesWithDataInGenePanel;
-    }
-
-    private boolean alterationIsCoveredByGenePanel(T alterationCount, Map<Pair<Integer, String>, List<GenePanel>> entrezIdToGenePanel) {
-        return !getGenePanelsForAlterationCount(alterationCount, entrezIdToGenePanel).isEmpty();
     }
 
-    private List<GenePanel> getGenePanelsForAlterationCount(T alterationCount, Map<Pair<Integer, String>, List<GenePanel>> entrezIdToGenePanel) {
+    private BitSet getGenePanelsForAlterationCount(T alterationCount, PanelCoverageCounter coverageCounter) {
         if (alterationCount instanceof AlterationCountByGene) {
             Integer entrezId = ((AlterationCountByGene) alterationCount).getEntrezGeneId();
             String hugoSymbol = ((AlterationCountByGene) alterationCount).getHugoGeneSymbol();
-            return entrezIdToGenePanel.getOrDefault(new Pair<>(entrezId, hugoSymbol), new ArrayList<>());
+            return coverageCounter.getGenePanels(entrezId, hugoSymbol);
         }
         if (alterationCount instanceof AlterationCountByStructuralVariant) {
             Integer gene1EntrezId = ((AlterationCountByStructuralVariant) alterationCount).getGene1EntrezGeneId();
             String gene1HugoSymbol = ((AlterationCountByStructuralVariant) alterationCount).getGene1HugoGeneSymbol();
             Integer gene2EntrezId = ((AlterationCountByStructuralVariant) alterationCount).getGene2EntrezGeneId();
             String gene2HugoSymbol = ((AlterationCountByStructuralVariant) alterationCount).getGene2HugoGeneSymbol();
-            List<GenePanel> panels = entrezIdToGenePanel.getOrDefault(new Pair<>(gene1EntrezId, gene2HugoSymbol), new ArrayList<>());
-            panels.addAll(entrezIdToGenePanel.getOrDefault(new Pair<>(gene2EntrezId, gene2HugoSymbol), new ArrayList<>()));
-            return panels.stream().distinct().collect(Collectors.toList());
+            BitSet panels = coverageCounter.getGenePanels(gene1EntrezId, gene2HugoSymbol);
+            panels.or(coverageCounter.getGenePanels(gene2EntrezId, gene2HugoSymbol));
+            return panels;
         }
         throw new IllegalArgumentException("At present only AlterationCountByGene or AlterationCountByStructuralVariant are " +
             "supported.");
     }
+
+    private record PanelCoverage(int numberOfProfiledCases, Set<String> matchingGenePanelIds) {
+    }
+
+    /**
+     * Counts the profiled cases of sets of gene panels of one request. Many genes are on the same panels, so every
+     * distinct set of panels is counted once.
+     */
+    private static final class PanelCoverageCounter {
+
+        private final GenePanelCoverageIndex genePanelCoverageIndex;
+        private final RoaringBitmap[] casesOfPanels;
+        private final RoaringBitmap casesWithoutPanelData;
+        private final ProfiledCaseType profiledCaseType;
+        private final Map<BitSet, PanelCoverage> coverages = new HashMap<>();
+
+        PanelCoverageCounter(GenePanelCoverageIndex genePanelCoverageIndex,
+                             RoaringBitmap[] casesOfPanels,
+                             RoaringBitmap casesWithoutPanelData,
+                             ProfiledCaseType profiledCaseType) {
+            this.genePanelCoverageIndex = genePanelCoverageIndex;
+            this.casesOfPanels = casesOfPanels;
+            this.casesWithoutPanelData = casesWithoutPanelData;
+            this.profiledCaseType = profiledCaseType;
+        }
+
+        /**
+         * @return the numbers of the panels of this request that contain the gene
+         */
+        BitSet getGenePanels(Integer entrezGeneId, String hugoGeneSymbol) {
+            BitSet panels = new BitSet();
+            for (int panel : genePanelCoverageIndex.getPanelsOfGene(entrezGeneId, hugoGeneSymbol)) {
+                if (casesOfPanels[panel] != null) {
+                    panels.set(panel);
+                }
+            }
+            return panels;
+        }
+
+        PanelCoverage count(BitSet panels) {
+            return coverages.computeIfAbsent(panels, this::countProfiledCases);
+        }
+
+        private PanelCoverage countProfiledCases(BitSet panels) {
+            Set<String> matchingGenePanelIds = new HashSet<>();
+            int totalProfiledSamples = casesWithoutPanelData.getCardinality();
+            RoaringBitmap totalProfiledPatients = casesWithoutPanelData.clone();
+            for (int panel = panels.nextSetBit(0); panel >= 0; panel = panels.nextSetBit(panel + 1)) {
+                matchingGenePanelIds.add(genePanelCoverageIndex.getGenePanelId(panel));
+                if (profiledCaseType == ProfiledCaseType.PATIENT) {
+                    totalProfiledPatients.or(casesOfPanels[panel]);
+                } else {
+                    totalProfiledSamples += casesOfPanels[panel].getCardinality();
+                }
+            }
+            return new PanelCoverage(profiledCaseType == ProfiledCaseType.PATIENT ?
+                totalProfiledPatients.getCardinality() : totalProfiledSamples, matchingGenePanelIds);
+        }
+    }
 }
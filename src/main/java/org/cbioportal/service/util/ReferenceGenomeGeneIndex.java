@@ -0,0 +1,72 @@
+package org.cbioportal.service.util;
+
+import org.cbioportal.model.ReferenceGenomeGene;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable snapshot of the genes of a reference genome with lookups by entrez gene id and hugo gene symbol. Entrez
+ * gene ids are kept in a sorted int array, so a lookup is a binary search without boxing.
+ */
+public final class ReferenceGenomeGeneIndex {
+
+    private final List<ReferenceGenomeGene> genes;
+    private final Date loadedAt;
+    private final int[] entrezGeneIds;
+    private final ReferenceGenomeGene[] genesByEntrezGeneId;
+    private final Map<String, ReferenceGenomeGene> genesByHugoGeneSymbol;
+
+    /**
+     * @param loadedAt when the genes were read, the index is stale once the gene tables are updated after that
+     */
+    public ReferenceGenomeGeneIndex(List<ReferenceGenomeGene> genes, Date loadedAt) {
+        this.genes = Collections.unmodifiableList(genes);
+        this.loadedAt = loadedAt;
+
+        ReferenceGenomeGene[] sortedGenes = genes.stream()
+            .filter(gene -> gene.getEntrezGeneId() != null)
+            .sorted((gene1, gene2) -> Integer.compare(gene1.getEntrezGeneId(), gene2.getEntrezGeneId()))
+            .toArray(ReferenceGenomeGene[]::new);
+        entrezGeneIds = new int[sortedGenes.length];
+        for (int i = 0; i < sortedGenes.length; i++) {
+            entrezGeneIds[i] = sortedGenes[i].getEntrezGeneId();
+        }
+        genesByEntrezGeneId = sortedGenes;
+
+        // symbols are compared case-insensitively by the database as well
+        genesByHugoGeneSymbol = new HashMap<>(genes.size() * 2);
+        for (ReferenceGenomeGene gene : genes) {
+            if (gene.getHugoGeneSymbol() != null) {
+                genesByHugoGeneSymbol.putIfAbsent(gene.getHugoGeneSymbol().toUpperCase(), gene);
+            }
+        }
+    }
+
+    public List<ReferenceGenomeGene> getGenes() {
+        return genes;
+    }
+
+    public Date getLoadedAt() {
+        return loadedAt;
+    }
+
+    /**
+     * @return the gene, or null if the genome has no gene with the entrez gene id
+     */
+    public ReferenceGenomeGene getByEntrezGeneId(int entrezGeneId) {
+        int index = Arrays.binarySearch(entrezGeneIds, entrezGeneId);
+        return index < 0 ? null : genesByEntrezGeneId[index];
+    }
+
+    /**
+     * @return the gene, or null if the genome has no gene with the hugo gene symbol
+     */
+    public ReferenceGenomeGene getByHugoGeneSymbol(String hugoGeneSymbol) {
+        return hugoGeneSymbol == null ? null : genesByHugoGeneSymbol.get(hugoGeneSymbol.toUpperCase());
+    }
+}
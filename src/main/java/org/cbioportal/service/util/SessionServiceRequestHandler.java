@@ -3,17 +3,35 @@ package org.cbioportal.service.util;
 import static org.cbioportal.utils.removeme.Session.*;
 
 
+import java.io.IOException;
 import java.nio.charset.Charset;
+import java.time.Duration;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.mongodb.BasicDBObject;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.apache.commons.codec.binary.Base64;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.cbioportal.utils.concurrency.ConcurrencyLimit;
+import org.cbioportal.utils.concurrency.ConcurrencyLimits;
 import org.cbioportal.web.parameter.VirtualStudy;
 import org.cbioportal.web.parameter.VirtualStudyData;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpEntity;
@@ -21,14 +39,27 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatusCode;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestTemplate;
 
+/**
+ * Sends the requests to the session service. All requests share one {@link RestTemplate} on a pool of keep-alive
+ * connections (session.service.http.*), so that a page that loads several sessions does not open a new connection,
+ * and do a new TLS handshake, for each of them.
+ *
+ * Virtual studies and custom data are kept for session.service.cache.ttl_seconds after they were read, so that e.g. a
+ * study view with several custom data charts reads each of them once. They are only changed by adding or removing
+ * users, which evicts them.
+ */
 @Component
 public class SessionServiceRequestHandler {
 
     private static final Logger LOG = LoggerFactory.getLogger(SessionServiceRequestHandler.class);
 
+    private static final Set<SessionType> CACHED_SESSION_TYPES = EnumSet.of(SessionType.virtual_study,
+        SessionType.custom_data);
+
     @Value("${session.service.url:}")
     private String sessionServiceURL;
 
@@ -38,6 +69,90 @@ public class SessionServiceRequestHandler {
     @Value("${session.service.password:}")
     private String sessionServicePassword;
 
+    @Value("${session.service.http.max_connections:20}")
+    private int maxConnections;
+
+    @Value("${session.service.http.connect_timeout_ms:5000}")
+    private int connectTimeoutMs;
+
+    @Value("${session.service.http.read_timeout_ms:30000}")
+    private int readTimeoutMs;
+
+    @Value("${session.service.cache.ttl_seconds:60}")
+    private int cacheTtlSeconds;
+
+    @Value("${session.service.cache.max_entries:1000}")
+    private int cacheMaxEntries;
+
+    @Autowired(required = false)
+    private ConcurrencyLimits concurrencyLimits;
+
+    private CloseableHttpClient httpClient;
+    private RestTemplate restTemplate;
+    // session data json by type and id, null when the cache is disabled
+    private Cache<String, String> sessionDataJsonCache;
+
+    @PostConstruct
+    public void init() {
+        httpClient = HttpClients.custom()
+            .setConnectionManager(PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxConnections)
+                .setMaxConnPerRoute(maxConnections)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                    .setConnectTimeout(connectTimeoutMs, TimeUnit.MILLISECONDS)
+                    .setSocketTimeout(readTimeoutMs, TimeUnit.MILLISECONDS)
+                    .build())
+                .build())
+            .setDefaultRequestConfig(RequestConfig.custom()
+                .setResponseTimeout(readTimeoutMs, TimeUnit.MILLISECONDS)
+                .build())
+            .evictExpiredConnections()
+            .evictIdleConnections(TimeValue.ofMinutes(1))
+            .build();
+        restTemplate = new RestTemplate(new HttpComponentsClientHttpRequestFactory(httpClient));
+        ConcurrencyLimit concurrencyLimit = concurrencyLimits == null ? ConcurrencyLimit.UNLIMITED :
+            concurrencyLimits.getSessionService();
+        if (concurrencyLimit.isLimited()) {
+            restTemplate.getInterceptors().add((request, body, execution) -> {
+                try {
+                    if (!concurrencyLimit.acquire()) {
+                        throw new IOException("Timed out waiting for a session service request, " +
+                            concurrencyLimit.getQueueLength() + " requests are waiting");
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while waiting for a session service request", e);
+                }
+                try {
+                    return execution.execute(request, body);
+                } finally {
+                    concurrencyLimit.release();
+                }
+            });
+        }
+
+        sessionDataJsonCache = cacheTtlSeconds > 0 && cacheMaxEntries > 0 ?
+            Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofSeconds(cacheTtlSeconds))
+                .maximumSize(cacheMaxEntries)
+                .<String, String>build() :
+            null;
+    }
+
+    @PreDestroy
+    public void close() throws Exception {
+        if (httpClient != null) {
+            httpClient.close();
+        }
+    }
+
+    /**
+     * @return the client for all requests to the session service
+     */
+    public RestTemplate getRestTemplate() {
+        return restTemplate;
+    }
+
     private Boolean isBasicAuthEnabled() {
         return isSessionServiceEnabled() && sessionServicePassword != null && !sessionServicePassword.equals("");
     }
@@ -63,7 +178,21 @@ public class SessionServiceRequestHandler {
 
     public String getSessionDataJson(SessionType type, String id) throws Exception {
 
-        RestTemplate restTemplate = new RestTemplate();
+        if (sessionDataJsonCache == null || !CACHED_SESSION_TYPES.contains(type)) {
+            return fetchSessionDataJson(type, id);
+        }
+        String key = type + "/" + id;
+        String sessionDataJson = sessionDataJsonCache.getIfPresent(key);
+        if (sessionDataJson == null) {
+            sessionDataJson = fetchSessionDataJson(type, id);
+            if (sessionDataJson != null) {
+                sessionDataJsonCache.put(key, sessionDataJson);
+            }
+        }
+        return sessionDataJson;
+    }
+
+    private String fetchSessionDataJson(SessionType type, String id) {
 
         // add basic authentication in header
         HttpEntity<String> headers = new HttpEntity<>(getHttpHeaders());
@@ -73,13 +202,22 @@ public class SessionServiceRequestHandler {
         return responseEntity.getBody();
     }
 
+    /**
+     * Drops the session from the cache, to be called when the session is updated.
+     */
+    public void evictSessionData(SessionType type, String id) {
+        if (sessionDataJsonCache != null) {
+            sessionDataJsonCache.invalidate(type + "/" + id);
+        }
+    }
+
     /**
      * Gets virtual study by id
      * @param id - id of the virtual study to read
      * @return virtual study
      */
     public VirtualStudy getVirtualStudyById(String id) {
-        ResponseEntity<VirtualStudy> responseEntity = new RestTemplate()
+        ResponseEntity<VirtualStudy> responseEntity = restTemplate
             .exchange(sessionServiceURL + "/virtual_study/" + id,
                 HttpMethod.GET,
                 new HttpEntity<>(getHttpHeaders()),
@@ -103,7 +241,7 @@ public class SessionServiceRequestHandler {
     public List<VirtualStudy> getVirtualStudiesAccessibleToUser(String username) {
         BasicDBObject basicDBObject = new BasicDBObject();
         basicDBObject.put("data.users", username);
-        ResponseEntity<List<VirtualStudy>> responseEntity = new RestTemplate().exchange(
+        ResponseEntity<List<VirtualStudy>> responseEntity = restTemplate.exchange(
             sessionServiceURL + "/virtual_study/query/fetch",
             HttpMethod.POST,
             new HttpEntity<>(basicDBObject.toString(), getHttpHeaders()),
@@ -119,7 +257,7 @@ public class SessionServiceRequestHandler {
      * @return virtual study object with id and the virtualStudyData
      */
     public VirtualStudy createVirtualStudy(VirtualStudyData virtualStudyData) {
-        ResponseEntity<VirtualStudy> responseEntity = new RestTemplate().exchange(
+        ResponseEntity<VirtualStudy> responseEntity = restTemplate.exchange(
             sessionServiceURL + "/virtual_study",
             HttpMethod.POST,
             new HttpEntity<>(virtualStudyData, getHttpHeaders()),
@@ -146,8 +284,9 @@ public class SessionServiceRequestHandler {
      * @param virtualStudy - virtual study to update
      */
     public void updateVirtualStudy(VirtualStudy virtualStudy) {
-        new RestTemplate()
+        restTemplate
             .put(sessionServiceURL + "/virtual_study/" + virtualStudy.getId(),
                 new HttpEntity<>(virtualStudy.getData(), getHttpHeaders()));
+        evictSessionData(SessionType.virtual_study, virtualStudy.getId());
     }
 }
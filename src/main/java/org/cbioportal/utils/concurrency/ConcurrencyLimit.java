@@ -0,0 +1,55 @@
+package org.cbioportal.utils.concurrency;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits the number of concurrent requests to a downstream resource (e.g. the database). Requests beyond the limit
+ * wait, in order, until a running request releases its permit or the timeout expires.
+ */
+public final class ConcurrencyLimit {
+
+    public static final ConcurrencyLimit UNLIMITED = new ConcurrencyLimit("unlimited", 0, 0);
+
+    private final String name;
+    private final Semaphore permits;
+    private final long timeoutMs;
+
+    /**
+     * @param maxConcurrentRequests 0 or less for no limit
+     * @param timeoutMs maximum time to wait for a permit
+     */
+    public ConcurrencyLimit(String name, int maxConcurrentRequests, long timeoutMs) {
+        this.name = name;
+        this.permits = maxConcurrentRequests > 0 ? new Semaphore(maxConcurrentRequests, true) : null;
+        this.timeoutMs = timeoutMs;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public boolean isLimited() {
+        return permits != null;
+    }
+
+    /**
+     * @return false if no permit became available within the timeout; a permit that was acquired must be released
+     */
+    public boolean acquire() throws InterruptedException {
+        return permits == null || permits.tryAcquire(timeoutMs, TimeUnit.MILLISECONDS);
+    }
+
+    public void release() {
+        if (permits != null) {
+            permits.release();
+        }
+    }
+
+    /**
+     * @return the number of requests that wait for a permit
+     */
+    public int getQueueLength() {
+        return permits == null ? 0 : permits.getQueueLength();
+    }
+}
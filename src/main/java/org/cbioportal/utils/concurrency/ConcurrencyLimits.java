@@ -0,0 +1,68 @@
+package org.cbioportal.utils.concurrency;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * The concurrency limits of the downstream resources of request handling.
+ *
+ * With a fixed pool of request threads, the size of the pool limits the number of requests that wait on the database,
+ * Redis or the session service at the same time. When requests run on virtual threads
+ * (multithread.virtual_threads.enabled) there is no such limit, so the requests to each resource are limited by a
+ * {@link ConcurrencyLimit} instead (multithread.limit.*). Without virtual threads all limits are
+ * {@link ConcurrencyLimit#UNLIMITED}. The carrier threads of the virtual threads are sized to the database limit, see
+ * {@link org.cbioportal.VirtualThreadSchedulerConfigurer}.
+ */
+@Component
+public class ConcurrencyLimits {
+
+    @Value("${multithread.virtual_threads.enabled:false}")
+    private boolean virtualThreadsEnabled;
+
+    @Value("${multithread.limit.database:${spring.datasource.hikari.maximum-pool-size:10}}")
+    private int databaseLimit;
+
+    @Value("${multithread.limit.redis:64}")
+    private int redisLimit;
+
+    @Value("${multithread.limit.session_service:${session.service.http.max_connections:20}}")
+    private int sessionServiceLimit;
+
+    @Value("${multithread.limit.timeout_ms:30000}")
+    private long timeoutMs;
+
+    private ConcurrencyLimit database = ConcurrencyLimit.UNLIMITED;
+    private ConcurrencyLimit redis = ConcurrencyLimit.UNLIMITED;
+    private ConcurrencyLimit sessionService = ConcurrencyLimit.UNLIMITED;
+
+    @PostConstruct
+    public void init() {
+        if (virtualThreadsEnabled) {
+            database = new ConcurrencyLimit("database", databaseLimit, timeoutMs);
+            redis = new ConcurrencyLimit("redis", redisLimit, timeoutMs);
+            sessionService = new ConcurrencyLimit("session service", sessionServiceLimit, timeoutMs);
+        }
+    }
+
+    /**
+     * @return the limit of open database connections
+     */
+    public ConcurrencyLimit getDatabase() {
+        return database;
+    }
+
+    /**
+     * @return the limit of concurrent reads from the Redis cache
+     */
+    public ConcurrencyLimit getRedis() {
+        return redis;
+    }
+
+    /**
+     * @return the limit of concurrent requests to the session service
+     */
+    public ConcurrencyLimit getSessionService() {
+        return sessionService;
+    }
+}
@@ -8,6 +8,7 @@ import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import org.cbioportal.security.token.TokenAuthenticationCache;
 import org.cbioportal.service.CacheStatisticsService;
 import org.cbioportal.service.exception.CacheNotFoundException;
 import org.cbioportal.utils.config.annotation.ConditionalOnProperty;
@@ -33,6 +34,9 @@ public class CacheStatsController {
     @Autowired
     public CacheStatisticsService cacheStatisticsService;
 
+    @Autowired(required = false)
+    private TokenAuthenticationCache tokenAuthenticationCache;
+
     @RequestMapping(value = "/api/{cache}/keysInCache", method = RequestMethod.GET, produces = MediaType.APPLICATION_JSON_VALUE)
     @Operation(description = "Get list of keys in cache")
     @ApiResponse(responseCode = "200", description = "OK",
@@ -62,4 +66,15 @@ public class CacheStatsController {
     public ResponseEntity<String> getCacheStatistics() throws CacheNotFoundException {
         return new ResponseEntity<>(cacheStatisticsService.getCacheStatistics(), HttpStatus.OK);
     }
+
+    @RequestMapping(value = "/api/dataAccessTokenCacheStatistics", method = RequestMethod.GET, produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(description = "Get hit and miss statistics of the token authentication cache")
+    @ApiResponse(responseCode = "200", description = "OK",
+        content = @Content(schema = @Schema(implementation = String.class)))
+    public ResponseEntity<String> getTokenAuthenticationCacheStatistics() {
+        if (tokenAuthenticationCache == null) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        return new ResponseEntity<>(tokenAuthenticationCache.getStatistics(), HttpStatus.OK);
+    }
 }
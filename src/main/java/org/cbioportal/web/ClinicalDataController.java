@@ -7,6 +7,7 @@ import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
@@ -27,6 +28,7 @@ import org.cbioportal.web.parameter.HeaderKeyConstants;
 import org.cbioportal.web.parameter.PagingConstants;
 import org.cbioportal.web.parameter.Projection;
 import org.cbioportal.web.parameter.sort.ClinicalDataSortBy;
+import org.cbioportal.web.util.StreamingJsonResponseWriter;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
@@ -42,6 +44,7 @@ import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
@@ -59,6 +62,9 @@ public class ClinicalDataController {
     @Autowired
     private ClinicalDataService clinicalDataService;
 
+    @Autowired
+    private StreamingJsonResponseWriter streamingJsonResponseWriter;
+
     @PreAuthorize("hasPermission(#studyId, 'CancerStudyId', T(org.cbioportal.utils.security.AccessLevel).READ)")
     @RequestMapping(value = "/studies/{studyId}/samples/{sampleId}/clinical-data", method = RequestMethod.GET,
         produces = MediaType.APPLICATION_JSON_VALUE)
@@ -227,7 +233,8 @@ public class ClinicalDataController {
         @Parameter(required = true, description = "List of patient or sample identifiers and attribute IDs")
         @Valid @RequestBody(required = false) ClinicalDataMultiStudyFilter clinicalDataMultiStudyFilter,
         @Parameter(description = "Level of detail of the response")
-        @RequestParam(defaultValue = "SUMMARY") Projection projection) {
+        @RequestParam(defaultValue = "SUMMARY") Projection projection,
+        HttpServletResponse response) throws IOException {
 
         List<String> studyIds = new ArrayList<>();
         List<String> ids = new ArrayList<>();
@@ -242,6 +249,11 @@ public class ClinicalDataController {
             responseHeaders.add(HeaderKeyConstants.TOTAL_COUNT, clinicalDataService.fetchMetaClinicalData(studyIds, ids,
                 interceptedClinicalDataMultiStudyFilter.getAttributeIds(), clinicalDataType.name()).getTotalCount().toString());
             return new ResponseEntity<>(responseHeaders, HttpStatus.OK);
+        } else if (streamingJsonResponseWriter.isEnabled()) {
+            streamingJsonResponseWriter.<ClinicalData>write(response, consumer -> clinicalDataService.streamClinicalData(
+                studyIds, ids, interceptedClinicalDataMultiStudyFilter.getAttributeIds(), clinicalDataType.name(),
+                projection.name(), consumer));
+            return null;
         } else {
             return new ResponseEntity<>(
                 clinicalDataService.fetchClinicalData(studyIds, ids, interceptedClinicalDataMultiStudyFilter.getAttributeIds(),
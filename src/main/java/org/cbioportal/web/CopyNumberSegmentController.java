@@ -7,6 +7,7 @@ import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.Size;
@@ -22,6 +23,7 @@ import org.cbioportal.web.parameter.PagingConstants;
 import org.cbioportal.web.parameter.Projection;
 import org.cbioportal.web.parameter.SampleIdentifier;
 import org.cbioportal.web.parameter.sort.CopyNumberSegmentSortBy;
+import org.cbioportal.web.util.StreamingJsonResponseWriter;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
@@ -37,6 +39,7 @@ import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
@@ -54,6 +57,9 @@ public class CopyNumberSegmentController {
     @Autowired
     private CopyNumberSegmentService copyNumberSegmentService;
 
+    @Autowired
+    private StreamingJsonResponseWriter streamingJsonResponseWriter;
+
     @PreAuthorize("hasPermission(#studyId, 'CancerStudyId', T(org.cbioportal.utils.security.AccessLevel).READ)")
     @RequestMapping(value = "/studies/{studyId}/samples/{sampleId}/copy-number-segments", method = RequestMethod.GET,
         produces = MediaType.APPLICATION_JSON_VALUE)
@@ -112,7 +118,8 @@ public class CopyNumberSegmentController {
         @Parameter(description = "Chromosome")
         @RequestParam(required = false) String chromosome,
         @Parameter(description = "Level of detail of the response")
-        @RequestParam(defaultValue = "SUMMARY") Projection projection) {
+        @RequestParam(defaultValue = "SUMMARY") Projection projection,
+        HttpServletResponse response) throws IOException {
 
         List<String> studyIds = new ArrayList<>();
         List<String> sampleIds = new ArrayList<>();
@@ -127,6 +134,10 @@ public class CopyNumberSegmentController {
             responseHeaders.add(HeaderKeyConstants.TOTAL_COUNT, copyNumberSegmentService
                 .fetchMetaCopyNumberSegments(studyIds, sampleIds, chromosome).getTotalCount().toString());
             return new ResponseEntity<>(responseHeaders, HttpStatus.OK);
+        } else if (streamingJsonResponseWriter.isEnabled()) {
+            streamingJsonResponseWriter.<CopyNumberSeg>write(response, consumer -> copyNumberSegmentService
+                .streamCopyNumberSegments(studyIds, sampleIds, chromosome, projection.name(), consumer));
+            return null;
         } else {
             return new ResponseEntity<>(
                 copyNumberSegmentService.fetchCopyNumberSegments(studyIds, sampleIds, chromosome, projection.name()),
@@ -7,6 +7,7 @@ import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.apache.commons.lang3.math.NumberUtils;
 import org.cbioportal.model.GeneMolecularData;
@@ -20,6 +21,7 @@ import org.cbioportal.web.parameter.MolecularDataFilter;
 import org.cbioportal.web.parameter.MolecularDataMultipleStudyFilter;
 import org.cbioportal.web.parameter.Projection;
 import org.cbioportal.web.parameter.SampleMolecularIdentifier;
+import org.cbioportal.web.util.StreamingJsonResponseWriter;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
@@ -35,6 +37,7 @@ import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -51,6 +54,9 @@ public class MolecularDataController {
     @Autowired
     private MolecularDataService molecularDataService;
 
+    @Autowired
+    private StreamingJsonResponseWriter streamingJsonResponseWriter;
+
     @PreAuthorize("hasPermission(#molecularProfileId, 'MolecularProfileId', T(org.cbioportal.utils.security.AccessLevel).READ)")
     @RequestMapping(value = "/molecular-profiles/{molecularProfileId}/molecular-data", method = RequestMethod.GET,
         produces = MediaType.APPLICATION_JSON_VALUE)
@@ -127,22 +133,37 @@ public class MolecularDataController {
             "Profile IDs and Entrez Gene IDs")
         @Valid @RequestBody(required = false) MolecularDataMultipleStudyFilter molecularDataMultipleStudyFilter,
         @Parameter(description = "Level of detail of the response")
-        @RequestParam(defaultValue = "SUMMARY") Projection projection) {
+        @RequestParam(defaultValue = "SUMMARY") Projection projection,
+        HttpServletResponse response) throws IOException {
 
-        List<NumericGeneMolecularData> result;
+        List<String> molecularProfileIds;
+        List<String> sampleIds;
         if (interceptedMolecularDataMultipleStudyFilter.getMolecularProfileIds() != null) {
-            result = filterNonNumberMolecularData(molecularDataService.getMolecularDataInMultipleMolecularProfiles(
-                interceptedMolecularDataMultipleStudyFilter.getMolecularProfileIds(), null,
-                interceptedMolecularDataMultipleStudyFilter.getEntrezGeneIds(), projection.name()));
+            molecularProfileIds = interceptedMolecularDataMultipleStudyFilter.getMolecularProfileIds();
+            sampleIds = null;
         } else {
 
-            List<String> molecularProfileIds = new ArrayList<>();
-            List<String> sampleIds = new ArrayList<>();
+            molecularProfileIds = new ArrayList<>();
+            sampleIds = new ArrayList<>();
             extractMolecularProfileAndSampleIds(interceptedMolecularDataMultipleStudyFilter, molecularProfileIds, sampleIds);
-            result = filterNonNumberMolecularData(molecularDataService.getMolecularDataInMultipleMolecularProfiles(molecularProfileIds,
-                sampleIds, interceptedMolecularDataMultipleStudyFilter.getEntrezGeneIds(), projection.name()));
         }
 
+        if (projection != Projection.META && streamingJsonResponseWriter.isEnabled()) {
+            streamingJsonResponseWriter.<NumericGeneMolecularData>write(response,
+                consumer -> molecularDataService.streamMolecularDataInMultipleMolecularProfiles(molecularProfileIds,
+                    sampleIds, interceptedMolecularDataMultipleStudyFilter.getEntrezGeneIds(), projection.name(),
+                    molecularData -> {
+                        NumericGeneMolecularData numericMolecularData = toNumericMolecularData(molecularData);
+                        if (numericMolecularData != null) {
+                            consumer.accept(numericMolecularData);
+                        }
+                    }));
+            return null;
+        }
+        List<NumericGeneMolecularData> result = filterNonNumberMolecularData(
+            molecularDataService.getMolecularDataInMultipleMolecularProfiles(molecularProfileIds, sampleIds,
+                interceptedMolecularDataMultipleStudyFilter.getEntrezGeneIds(), projection.name()));
+
         if (projection == Projection.META) {
             HttpHeaders responseHeaders = new HttpHeaders();
             responseHeaders.add(HeaderKeyConstants.TOTAL_COUNT, String.valueOf(result.size()));
@@ -167,20 +188,28 @@ public class MolecularDataController {
 
         List<NumericGeneMolecularData> result = new ArrayList<>();
         geneMolecularDataList.forEach(g -> {
-            String value = g.getValue();
-            if (NumberUtils.isNumber(value)) {
-                NumericGeneMolecularData data = new NumericGeneMolecularData();
-                data.setEntrezGeneId(g.getEntrezGeneId());
-                data.setGene(g.getGene());
-                data.setMolecularProfileId(g.getMolecularProfileId());
-                data.setPatientId(g.getPatientId());
-                data.setSampleId(g.getSampleId());
-                data.setStudyId(g.getStudyId());
-                data.setValue(new BigDecimal(g.getValue()));
+            NumericGeneMolecularData data = toNumericMolecularData(g);
+            if (data != null) {
                 result.add(data);
             }
         });
 
         return result;
     }
+
+    private NumericGeneMolecularData toNumericMolecularData(GeneMolecularData g) {
+
+        if (!NumberUtils.isNumber(g.getValue())) {
+            return null;
+        }
+        NumericGeneMolecularData data = new NumericGeneMolecularData();
+        data.setEntrezGeneId(g.getEntrezGeneId());
+        data.setGene(g.getGene());
+        data.setMolecularProfileId(g.getMolecularProfileId());
+        data.setPatientId(g.getPatientId());
+        data.setSampleId(g.getSampleId());
+        data.setStudyId(g.getStudyId());
+        data.setValue(new BigDecimal(g.getValue()));
+        return data;
+    }
 }
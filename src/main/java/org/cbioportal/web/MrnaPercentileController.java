@@ -42,20 +42,21 @@ public class MrnaPercentileController {
     @RequestMapping(value = "/molecular-profiles/{molecularProfileId}/mrna-percentile/fetch",
         method = RequestMethod.POST, consumes = MediaType.APPLICATION_JSON_VALUE,
         produces = MediaType.APPLICATION_JSON_VALUE)
-    @Operation(description = "Get mRNA expression percentiles for list of genes for a sample")
+    @Operation(description = "Get mRNA expression percentiles for list of genes for one or more samples")
     @ApiResponse(responseCode = "200", description = "OK",
         content = @Content(array = @ArraySchema(schema = @Schema(implementation = MrnaPercentile.class))))
     public ResponseEntity<List<MrnaPercentile>> fetchMrnaPercentile(
         @Parameter(required = true, description = "Molecular Profile ID e.g. acc_tcga_rna_seq_v2_mrna")
         @PathVariable String molecularProfileId,
-        @Parameter(required = true, description = "Sample ID e.g. TCGA-OR-A5J2-01")
-        @RequestParam String sampleId,
+        @Parameter(required = true, description = "Sample ID e.g. TCGA-OR-A5J2-01, can be repeated")
+        @Size(min = 1, max = PagingConstants.MAX_PAGE_SIZE)
+        @RequestParam List<String> sampleId,
         @Parameter(required = true, description = "List of Entrez Gene IDs")
         @Size(min = 1, max = PagingConstants.MAX_PAGE_SIZE)
         @RequestBody List<Integer> entrezGeneIds)
         throws MolecularProfileNotFoundException {
 
         return new ResponseEntity<>(
-            mrnaPercentileService.fetchMrnaPercentile(molecularProfileId, sampleId, entrezGeneIds), HttpStatus.OK);
+            mrnaPercentileService.fetchMrnaPercentiles(molecularProfileId, sampleId, entrezGeneIds), HttpStatus.OK);
     }
 }
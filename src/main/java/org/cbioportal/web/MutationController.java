@@ -7,6 +7,7 @@ import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
@@ -24,6 +25,7 @@ import org.cbioportal.web.parameter.PagingConstants;
 import org.cbioportal.web.parameter.Projection;
 import org.cbioportal.web.parameter.SampleMolecularIdentifier;
 import org.cbioportal.web.parameter.sort.MutationSortBy;
+import org.cbioportal.web.util.StreamingJsonResponseWriter;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
@@ -39,6 +41,7 @@ import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -54,6 +57,9 @@ public class MutationController {
     @Autowired
     private MutationService mutationService;
 
+    @Autowired
+    private StreamingJsonResponseWriter streamingJsonResponseWriter;
+
     @PreAuthorize("hasPermission(#molecularProfileId, 'MolecularProfileId', T(org.cbioportal.utils.security.AccessLevel).READ)")
     @RequestMapping(value = "/molecular-profiles/{molecularProfileId}/mutations", method = RequestMethod.GET,
         produces = MediaType.APPLICATION_JSON_VALUE)
@@ -177,7 +183,8 @@ public class MutationController {
         @Parameter(description = "Name of the property that the result list is sorted by")
         @RequestParam(required = false) MutationSortBy sortBy,
         @Parameter(description = "Direction of the sort")
-        @RequestParam(defaultValue = "ASC") Direction direction) {
+        @RequestParam(defaultValue = "ASC") Direction direction,
+        HttpServletResponse response) throws IOException {
 
         if (projection == Projection.META) {
             HttpHeaders responseHeaders = new HttpHeaders();
@@ -199,22 +206,30 @@ public class MutationController {
             responseHeaders.add(HeaderKeyConstants.SAMPLE_COUNT, mutationMeta.getSampleCount().toString());
             return new ResponseEntity<>(responseHeaders, HttpStatus.OK);
         } else {
-            List<Mutation> mutations;
+            List<String> molecularProfileIds;
+            List<String> sampleIds;
             if (interceptedMutationMultipleStudyFilter.getMolecularProfileIds() != null) {
-                mutations = mutationService.getMutationsInMultipleMolecularProfiles(
-                    interceptedMutationMultipleStudyFilter.getMolecularProfileIds(), null,
-                    interceptedMutationMultipleStudyFilter.getEntrezGeneIds(), projection.name(), pageSize, pageNumber,
-                    sortBy == null ? null : sortBy.getOriginalValue(), direction.name());
+                molecularProfileIds = interceptedMutationMultipleStudyFilter.getMolecularProfileIds();
+                sampleIds = null;
             } else {
 
-                List<String> molecularProfileIds = new ArrayList<>();
-                List<String> sampleIds = new ArrayList<>();
+                molecularProfileIds = new ArrayList<>();
+                sampleIds = new ArrayList<>();
                 extractMolecularProfileAndSampleIds(interceptedMutationMultipleStudyFilter, molecularProfileIds, sampleIds);
-                mutations = mutationService.getMutationsInMultipleMolecularProfiles(molecularProfileIds,
-                    sampleIds, interceptedMutationMultipleStudyFilter.getEntrezGeneIds(), projection.name(), pageSize,
-                    pageNumber, sortBy == null ? null : sortBy.getOriginalValue(), direction.name());
             }
 
+            if (streamingJsonResponseWriter.isEnabled()) {
+                streamingJsonResponseWriter.<Mutation>write(response,
+                    consumer -> mutationService.streamMutationsInMultipleMolecularProfiles(molecularProfileIds,
+                        sampleIds, interceptedMutationMultipleStudyFilter.getEntrezGeneIds(), projection.name(),
+                        pageSize, pageNumber, sortBy == null ? null : sortBy.getOriginalValue(), direction.name(),
+                        consumer));
+                return null;
+            }
+            List<Mutation> mutations = mutationService.getMutationsInMultipleMolecularProfiles(molecularProfileIds,
+                sampleIds, interceptedMutationMultipleStudyFilter.getEntrezGeneIds(), projection.name(), pageSize,
+                pageNumber, sortBy == null ? null : sortBy.getOriginalValue(), direction.name());
+
             return new ResponseEntity<>(mutations, HttpStatus.OK);
         }
     }
@@ -116,7 +116,7 @@ public class SessionServiceController {
 
     private PageSettings getRecentlyUpdatePageSettings(String query) {
 
-        RestTemplate restTemplate = new RestTemplate();
+        RestTemplate restTemplate = sessionServiceRequestHandler.getRestTemplate();
 
         HttpEntity<String> httpEntity = new HttpEntity<String>(query, sessionServiceRequestHandler.getHttpHeaders());
 
@@ -200,7 +200,7 @@ public class SessionServiceController {
             // using HashMap because converter is MappingJackson2HttpMessageConverter
             // (Jackson 2 is on classpath)
             // was String when default converter StringHttpMessageConverter was used
-            RestTemplate restTemplate = new RestTemplate();
+            RestTemplate restTemplate = sessionServiceRequestHandler.getRestTemplate();
             ResponseEntity<Session> resp = restTemplate.exchange(sessionServiceURL + type, HttpMethod.POST, httpEntity,
                     Session.class);
 
@@ -298,7 +298,7 @@ public class SessionServiceController {
                 BasicDBObject basicDBObject = new BasicDBObject();
                 basicDBObject.put("data.users", Pattern.compile(userName(), Pattern.CASE_INSENSITIVE));
 
-                RestTemplate restTemplate = new RestTemplate();
+                RestTemplate restTemplate = sessionServiceRequestHandler.getRestTemplate();
 
                 HttpEntity<String> httpEntity = new HttpEntity<>(basicDBObject.toString(), sessionServiceRequestHandler.getHttpHeaders());
                 
@@ -340,6 +340,8 @@ public class SessionServiceController {
                                      @PathVariable Operation operation, HttpServletResponse response) throws IOException {
 
         if (sessionServiceRequestHandler.isSessionServiceEnabled() && isAuthorized()) {
+            // the users are updated on the current session, not on the one that may be cached
+            sessionServiceRequestHandler.evictSessionData(type, id);
             HttpEntity<?> httpEntity;
             if (type.equals(Session.SessionType.custom_data)) {
                 String virtualStudyStr = sessionServiceObjectMapper.writeValueAsString(getSession(type, id).getBody());
@@ -367,8 +369,9 @@ public class SessionServiceController {
                 httpEntity = new HttpEntity<>(virtualStudyData, sessionServiceRequestHandler.getHttpHeaders());
             }
 
-            RestTemplate restTemplate = new RestTemplate();
+            RestTemplate restTemplate = sessionServiceRequestHandler.getRestTemplate();
             restTemplate.put(sessionServiceURL + type + "/" + id, httpEntity);
+            sessionServiceRequestHandler.evictSessionData(type, id);
 
             response.sendError(HttpStatus.OK.value());
         } else {
@@ -409,7 +412,7 @@ public class SessionServiceController {
 
             BasicDBObject queryDBObject = new BasicDBObject(QUERY_OPERATOR_AND, basicDBObjects);
 
-            RestTemplate restTemplate = new RestTemplate();
+            RestTemplate restTemplate = sessionServiceRequestHandler.getRestTemplate();
 
             HttpEntity<String> httpEntity = new HttpEntity<>(queryDBObject.toString(), sessionServiceRequestHandler.getHttpHeaders());
 
@@ -483,7 +486,7 @@ public class SessionServiceController {
                 body.setOwner(pageSettingsData.getOwner());
                 body.setOrigin(pageSettingsData.getOrigin());
 
-                RestTemplate restTemplate = new RestTemplate();
+                RestTemplate restTemplate = sessionServiceRequestHandler.getRestTemplate();
                 HttpEntity<Object> httpEntity = new HttpEntity<>(body, sessionServiceRequestHandler.getHttpHeaders());
                 
                 Session.SessionType type = pageSettings.getType() == null ? Session.SessionType.settings : pageSettings.getType();
@@ -542,7 +545,7 @@ public class SessionServiceController {
 
             BasicDBObject queryDBObject = new BasicDBObject(QUERY_OPERATOR_AND, basicDBObjects);
 
-            RestTemplate restTemplate = new RestTemplate();
+            RestTemplate restTemplate = sessionServiceRequestHandler.getRestTemplate();
 
             HttpEntity<String> httpEntity = new HttpEntity<>(queryDBObject.toString(),
                     sessionServiceRequestHandler.getHttpHeaders());
@@ -576,7 +579,7 @@ public class SessionServiceController {
             BasicDBObject basicDBObject = new BasicDBObject();
             basicDBObject.put("data.users", Pattern.compile(userName(), Pattern.CASE_INSENSITIVE));
 
-            RestTemplate restTemplate = new RestTemplate();
+            RestTemplate restTemplate = sessionServiceRequestHandler.getRestTemplate();
 
             HttpEntity<String> httpEntity = new HttpEntity<>(basicDBObject.toString(), sessionServiceRequestHandler.getHttpHeaders());
             
@@ -11,7 +11,6 @@ import jakarta.validation.Valid;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import org.apache.commons.collections4.CollectionUtils;
-import org.apache.commons.lang3.math.NumberUtils;
 import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.apache.commons.math3.stat.correlation.PearsonsCorrelation;
 import org.apache.commons.math3.stat.correlation.SpearmansCorrelation;
@@ -27,7 +26,6 @@ import org.cbioportal.model.ClinicalDataCountItem;
 import org.cbioportal.model.ClinicalEventTypeCount;
 import org.cbioportal.model.ClinicalViolinPlotData;
 import org.cbioportal.model.CopyNumberCountByGene;
-import org.cbioportal.model.DensityPlotBin;
 import org.cbioportal.model.DensityPlotData;
 import org.cbioportal.model.GenericAssayDataBin;
 import org.cbioportal.model.GenericAssayDataCountItem;
@@ -69,6 +67,8 @@ import org.cbioportal.web.parameter.SampleIdentifier;
 import org.cbioportal.web.parameter.StudyViewFilter;
 import org.cbioportal.web.util.ClinicalDataBinUtil;
 import org.cbioportal.web.util.ClinicalDataFetcher;
+import org.cbioportal.web.util.DensityPlotGrid;
+import org.cbioportal.web.util.PairedClinicalValues;
 import org.cbioportal.web.util.StudyViewFilterApplier;
 import org.cbioportal.web.util.StudyViewFilterUtil;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -95,6 +95,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.function.DoubleUnaryOperator;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -506,14 +507,6 @@ public class StudyViewController {
         return Math.log(1+val);
     }
     
-    private static double parseValueLog(ClinicalData c) {
-        return StudyViewController.logScale(Double.parseDouble(c.getAttrValue()));
-    }
-    
-    private static double parseValueLinear(ClinicalData c) {
-        return Double.parseDouble(c.getAttrValue());
-    }
-
     @PreAuthorize("hasPermission(#involvedCancerStudies, 'Collection<CancerStudyId>', T(org.cbioportal.utils.security.AccessLevel).READ)")
     @RequestMapping(value = "/clinical-data-density-plot/fetch", method = RequestMethod.POST,
         consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
@@ -570,155 +563,52 @@ public class StudyViewController {
         
         List<String> patientIds = new ArrayList<>();
         List<String> studyIdsOfPatients = new ArrayList<>();
-        Map<String, Map<String, List<Sample>>> patientToSamples = null;
-        
+        List<Sample> samples = null;
 
         if (CollectionUtils.isNotEmpty(patientAttributeIds)) {
-            List<Sample> samples = sampleService.fetchSamples(studyIds, sampleIds, Projection.DETAILED.name());
+            samples = sampleService.fetchSamples(studyIds, sampleIds, Projection.DETAILED.name());
             List<Patient> patients = patientService.getPatientsOfSamples(studyIds, sampleIds);
             patientIds = patients.stream().map(Patient::getStableId).toList();
             studyIdsOfPatients = patients.stream().map(Patient::getCancerStudyIdentifier).toList();
-            patientToSamples = samples.stream().collect(
-                Collectors.groupingBy(Sample::getPatientStableId, Collectors.groupingBy(Sample::getCancerStudyIdentifier))
-            );
         }
 
         List<ClinicalData> clinicalDataList = clinicalDataFetcher.fetchClinicalData(
             studyIds, sampleIds, patientIds, studyIdsOfPatients, sampleAttributeIds, patientAttributeIds, null
         );
-        
-        List<ClinicalData> sampleClinicalDataList;
-        // put all clinical data into sample form
-        if (CollectionUtils.isNotEmpty(patientAttributeIds)) {
-            sampleClinicalDataList = new ArrayList<>();
-            for (ClinicalData d: clinicalDataList) {
-                if (d.getSampleId() == null) {
-                    // null sample id means its a patient data, 
-                    //  we need to distribute the value to samples
-                    List<Sample> samplesForPatient = patientToSamples.get(
-                        d.getPatientId()
-                    ).get(d.getStudyId());
-                    if (samplesForPatient != null) {
-                        for (Sample s: samplesForPatient) {
-                            ClinicalData newData = new ClinicalData();
-                            newData.setAttrId(d.getAttrId());
-                            newData.setPatientId(d.getPatientId());
-                            newData.setStudyId(d.getStudyId());
-                            newData.setAttrValue(d.getAttrValue());
-                            newData.setSampleId(s.getStableId());
-                            sampleClinicalDataList.add(newData);
-                        }
-                    } else {
-                        // patient has no samples - this shouldn't happen and could affect the integrity
-                        //  of the data analysis
-                        return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
-                    }
-                } else {
-                    // if its a sample data, just add it to the list
-                    sampleClinicalDataList.add(d);
-                }
-            }
-        } else {
-            sampleClinicalDataList = clinicalDataList;
-        }
 
-        // clinicalDataMap is a map sampleId->studyId->data
-        Map<String, Map<String, List<ClinicalData>>> clinicalDataMap = sampleClinicalDataList.stream().collect(Collectors.groupingBy(ClinicalData::getSampleId, 
-                Collectors.groupingBy(ClinicalData::getStudyId)));
-        
-        List<ClinicalData> filteredClinicalDataList = new ArrayList<>();
-        clinicalDataMap.forEach((k, v) -> v.forEach((m, n) -> {
-            if (
-                // n.size() == 2 means we have clinical data for the sample for both of the queried attributes
-                n.size() == 2 && 
-                    // check if both of the sample data are numerical
-                    NumberUtils.isCreatable(n.get(0).getAttrValue()) && NumberUtils.isCreatable(n.get(1).getAttrValue())) {
-                filteredClinicalDataList.addAll(n);
-            }
-        }));
-        if (filteredClinicalDataList.isEmpty()) {
+        boolean useXLogScale = xAxisLogScale && StudyViewController.isLogScalePossibleForAttribute(xAxisAttributeId);
+        boolean useYLogScale = yAxisLogScale && StudyViewController.isLogScalePossibleForAttribute(yAxisAttributeId);
+
+        // samples with numerical data for both of the queried attributes, patient data is used for all of their samples
+        PairedClinicalValues pairedValues = PairedClinicalValues.pair(clinicalDataList, samples, xAxisAttributeId,
+            useXLogScale ? StudyViewController::logScale : DoubleUnaryOperator.identity(),
+            useYLogScale ? StudyViewController::logScale : DoubleUnaryOperator.identity());
+        if (pairedValues == null) {
+            // patient has no samples - this shouldn't happen and could affect the integrity
+            //  of the data analysis
+            return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+        if (pairedValues.size() == 0) {
             return new ResponseEntity<>(result, HttpStatus.OK);
         }
-        
-        Map<Boolean, List<ClinicalData>> partition = filteredClinicalDataList.stream().collect(
-            Collectors.partitioningBy(c -> c.getAttrId().equals(xAxisAttributeId)));
+        double[] xValues = pairedValues.getXValues();
+        double[] yValues = pairedValues.getYValues();
 
-        boolean useXLogScale = xAxisLogScale && StudyViewController.isLogScalePossibleForAttribute(xAxisAttributeId);
-        boolean useYLogScale = yAxisLogScale && StudyViewController.isLogScalePossibleForAttribute(yAxisAttributeId);
-        
-        double[] xValues = partition.get(true).stream().mapToDouble(
-            useXLogScale ? StudyViewController::parseValueLog : StudyViewController::parseValueLinear
-        ).toArray();
-        double[] yValues = partition.get(false).stream().mapToDouble(
-            useYLogScale ? StudyViewController::parseValueLog : StudyViewController::parseValueLinear
-        ).toArray();
-        double[] xValuesCopy = Arrays.copyOf(xValues, xValues.length);
-        double[] yValuesCopy = Arrays.copyOf(yValues, yValues.length);
-        Arrays.sort(xValuesCopy);
-        Arrays.sort(yValuesCopy);
-
-        double xAxisStartValue = xAxisStart == null ? xValuesCopy[0] :
+        double xAxisStartValue = xAxisStart == null ? Arrays.stream(xValues).min().getAsDouble() :
             (useXLogScale ? StudyViewController.logScale(xAxisStart.doubleValue()) : xAxisStart.doubleValue());
-        double xAxisEndValue = xAxisEnd == null ? xValuesCopy[xValuesCopy.length - 1] :
+        double xAxisEndValue = xAxisEnd == null ? Arrays.stream(xValues).max().getAsDouble() :
             (useXLogScale ? StudyViewController.logScale(xAxisEnd.doubleValue()) : xAxisEnd.doubleValue());
-        double yAxisStartValue = yAxisStart == null ? yValuesCopy[0] :
+        double yAxisStartValue = yAxisStart == null ? Arrays.stream(yValues).min().getAsDouble() :
             (useYLogScale ? StudyViewController.logScale(yAxisStart.doubleValue()) : yAxisStart.doubleValue());
-        double yAxisEndValue = yAxisEnd == null ? yValuesCopy[yValuesCopy.length - 1] :
+        double yAxisEndValue = yAxisEnd == null ? Arrays.stream(yValues).max().getAsDouble() :
             (useYLogScale ? StudyViewController.logScale(yAxisEnd.doubleValue()) : yAxisEnd.doubleValue());
-        double xAxisBinInterval = (xAxisEndValue - xAxisStartValue) / xAxisBinCount;
-        double yAxisBinInterval = (yAxisEndValue - yAxisStartValue) / yAxisBinCount;
-        List<DensityPlotBin> bins = result.getBins();
-        for (int i = 0; i < xAxisBinCount; i++) {
-            for (int j = 0; j < yAxisBinCount; j++) {
-                DensityPlotBin densityPlotBin = new DensityPlotBin();
-                densityPlotBin.setBinX(BigDecimal.valueOf(xAxisStartValue + (i * xAxisBinInterval)));
-                densityPlotBin.setBinY(BigDecimal.valueOf(yAxisStartValue + (j * yAxisBinInterval)));
-                densityPlotBin.setCount(0);
-                bins.add(densityPlotBin);
-            }
-        }
 
+        DensityPlotGrid grid = new DensityPlotGrid(xAxisStartValue, xAxisEndValue, xAxisBinCount,
+            yAxisStartValue, yAxisEndValue, yAxisBinCount);
         for (int i = 0; i < xValues.length; i++) {
-            double xValue = xValues[i];
-            double yValue = yValues[i];
-            int xBinIndex = (int) ((xValue - xAxisStartValue) / xAxisBinInterval);
-            int yBinIndex = (int) ((yValue - yAxisStartValue) / yAxisBinInterval);
-            int index = (int) (((xBinIndex - (xBinIndex == xAxisBinCount ? 1 : 0)) * yAxisBinCount) +
-                (yBinIndex - (yBinIndex == yAxisBinCount ? 1 : 0)));
-            DensityPlotBin densityPlotBin = bins.get(index);
-            densityPlotBin.setCount(densityPlotBin.getCount() + 1);
-            BigDecimal xValueBigDecimal = BigDecimal.valueOf(xValue);
-            BigDecimal yValueBigDecimal = BigDecimal.valueOf(yValue);
-            if (densityPlotBin.getMinX() != null) {
-                if (densityPlotBin.getMinX().compareTo(xValueBigDecimal) > 0) {
-                    densityPlotBin.setMinX(xValueBigDecimal);
-                }
-            } else {
-                densityPlotBin.setMinX(xValueBigDecimal);
-            }
-            if (densityPlotBin.getMaxX() != null) {
-                if (densityPlotBin.getMaxX().compareTo(xValueBigDecimal) < 0) {
-                    densityPlotBin.setMaxX(xValueBigDecimal);
-                }
-            } else {
-                densityPlotBin.setMaxX(xValueBigDecimal);
-            }
-            if (densityPlotBin.getMinY() != null) {
-                if (densityPlotBin.getMinY().compareTo(yValueBigDecimal) > 0) {
-                    densityPlotBin.setMinY(yValueBigDecimal);
-                }
-            } else {
-                densityPlotBin.setMinY(yValueBigDecimal);
-            }
-            if (densityPlotBin.getMaxY() != null) {
-                if (densityPlotBin.getMaxY().compareTo(yValueBigDecimal) < 0) {
-                    densityPlotBin.setMaxY(yValueBigDecimal);
-                }
-            } else {
-                densityPlotBin.setMaxY(yValueBigDecimal);
-            }
+            grid.add(xValues[i], yValues[i]);
         }
-        
+
         if (xValues.length > 1) {
             // need at least 2 entries in each to compute correlation
             result.setPearsonCorr(new PearsonsCorrelation().correlation(xValues, yValues));
@@ -728,9 +618,9 @@ public class StudyViewController {
             result.setSpearmanCorr(0.0);
             result.setPearsonCorr(0.0);
         }
-        
-        // filter out empty bins
-        result.setBins(result.getBins().stream().filter((bin)->(bin.getCount() > 0)).collect(Collectors.toList()));
+
+        // only the non-empty bins
+        result.setBins(grid.getNonEmptyBins());
 
         return new ResponseEntity<>(result, HttpStatus.OK);
     }
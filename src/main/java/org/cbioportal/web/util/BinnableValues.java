@@ -0,0 +1,143 @@
+package org.cbioportal.web.util;
+
+import com.google.common.collect.Range;
+import org.apache.commons.lang3.math.NumberUtils;
+import org.cbioportal.model.Binnable;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The values of a clinical attribute, parsed once for binning: numerical values (sorted), special values with an
+ * operator such as ">80" (by operator and as open ranges), non-numerical values and the number of NA values.
+ * Values are classified the same way as by the filter methods of {@link DataBinner}.
+ */
+public final class BinnableValues {
+
+    private static final String[] OPERATORS = {">=", ">", "<=", "<"};
+
+    private final SortedNumericalValues numericalValues;
+    private final Map<String, List<BigDecimal>> specialValuesByOperator;
+    private final Map<Range<BigDecimal>, Integer> specialRangeCounts;
+    private final List<String> nonNumericalValues;
+    private final Map<String, Integer> nonNumericalValueCounts;
+    private final int naCount;
+
+    private BinnableValues(SortedNumericalValues numericalValues,
+                           Map<String, List<BigDecimal>> specialValuesByOperator,
+                           Map<Range<BigDecimal>, Integer> specialRangeCounts,
+                           List<String> nonNumericalValues,
+                           int naCount) {
+        this.numericalValues = numericalValues;
+        this.specialValuesByOperator = specialValuesByOperator;
+        this.specialRangeCounts = specialRangeCounts;
+        this.nonNumericalValues = nonNumericalValues;
+        this.naCount = naCount;
+
+        // matches bins the same way as String.equalsIgnoreCase
+        nonNumericalValueCounts = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (String value : nonNumericalValues) {
+            nonNumericalValueCounts.merge(value, 1, Integer::sum);
+        }
+    }
+
+    public static BinnableValues parse(List<Binnable> clinicalData, DataBinHelper dataBinHelper) {
+        List<BigDecimal> numericalValues = new ArrayList<>(clinicalData.size());
+        Map<String, List<BigDecimal>> specialValuesByOperator = new HashMap<>();
+        for (String operator : OPERATORS) {
+            specialValuesByOperator.put(operator, new ArrayList<>());
+        }
+        Map<Range<BigDecimal>, Integer> specialRangeCounts = new LinkedHashMap<>();
+        List<String> nonNumericalValues = new ArrayList<>();
+        int naCount = 0;
+        // attribute values repeat a lot (e.g. ages), parse each distinct value once
+        Map<String, BigDecimal> parsedValues = new HashMap<>();
+
+        for (Binnable binnable : clinicalData) {
+            String value = binnable.getAttrValue();
+            if (NumberUtils.isCreatable(value)) {
+                numericalValues.add(parsedValues.computeIfAbsent(value, BigDecimal::new));
+                continue;
+            }
+            if (dataBinHelper.isNA(value)) {
+                naCount++;
+            }
+            String strippedValue = dataBinHelper.stripOperator(value);
+            if (NumberUtils.isCreatable(strippedValue)) {
+                String operator = dataBinHelper.extractOperator(value);
+                // values without an operator but with surrounding spaces are neither numerical nor special
+                if (!operator.isEmpty()) {
+                    BigDecimal specialValue = new BigDecimal(strippedValue);
+                    specialValuesByOperator.get(operator).add(specialValue);
+                    // only use "<" or ">" to make sure that we only generate open ranges
+                    specialRangeCounts.merge(dataBinHelper.calcRange(operator.substring(0, 1), specialValue), 1,
+                        Integer::sum);
+                }
+            } else if (!dataBinHelper.isNA(value)) {
+                nonNumericalValues.add(value);
+            }
+        }
+
+        return new BinnableValues(SortedNumericalValues.of(numericalValues), specialValuesByOperator,
+            specialRangeCounts, nonNumericalValues, naCount);
+    }
+
+    public SortedNumericalValues getNumericalValues() {
+        return numericalValues;
+    }
+
+    /**
+     * @param operator one of >=, >, <= and <
+     * @return the values of the special values with exactly this operator, e.g. 80 for ">80" if the operator is ">"
+     */
+    public List<BigDecimal> getSpecialValues(String operator) {
+        return specialValuesByOperator.getOrDefault(operator, Collections.emptyList());
+    }
+
+    /**
+     * @return the special values as open ranges, with the number of values of each range
+     */
+    public Map<Range<BigDecimal>, Integer> getSpecialRangeCounts() {
+        return specialRangeCounts;
+    }
+
+    /**
+     * @return non-numerical values other than NA, in the order of the clinical data
+     */
+    public List<String> getNonNumericalValues() {
+        return nonNumericalValues;
+    }
+
+    public int getNaCount() {
+        return naCount;
+    }
+
+    /**
+     * @return number of numerical values within the range plus the number of special values whose range it encloses
+     */
+    public int count(Range<BigDecimal> range) {
+        if (range == null) {
+            return 0;
+        }
+        int count = numericalValues.count(range);
+        for (Map.Entry<Range<BigDecimal>, Integer> entry : specialRangeCounts.entrySet()) {
+            if (range.encloses(entry.getKey())) {
+                count += entry.getValue();
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return number of non-numerical values equal to the special value of a bin, ignoring case
+     */
+    public int countNonNumerical(String specialValue) {
+        return specialValue == null ? 0 : nonNumericalValueCounts.getOrDefault(specialValue, 0);
+    }
+}
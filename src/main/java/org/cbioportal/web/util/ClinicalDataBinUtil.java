@@ -4,6 +4,7 @@ import org.cbioportal.model.Binnable;
 import org.cbioportal.model.ClinicalAttribute;
 import org.cbioportal.model.ClinicalData;
 import org.cbioportal.model.ClinicalDataBin;
+import org.cbioportal.model.DataBin;
 import org.cbioportal.service.AttributeByStudyService;
 import org.cbioportal.service.CustomDataService;
 import org.cbioportal.service.util.BinnableCustomDataValue;
@@ -39,6 +40,10 @@ public class ClinicalDataBinUtil {
     private CustomDataService customDataService;
     @Autowired
     private IdPopulator idPopulator;
+    @Autowired
+    private DataBinHelper dataBinHelper;
+    @Autowired
+    private ClinicalDataBinningModelCache clinicalDataBinningModelCache;
 
     public StudyViewFilter removeSelfFromFilter(ClinicalDataBinCountFilter dataBinCountFilter) {
         List<ClinicalDataBinFilter> attributes = dataBinCountFilter.getAttributes();
@@ -69,6 +74,9 @@ public class ClinicalDataBinUtil {
         boolean shouldRemoveSelfFromFilter
     ) {
         StudyViewFilter studyViewFilter = toStudyViewFilter(dataBinCountFilter, shouldRemoveSelfFromFilter);
+        if (dataBinMethod == DataBinMethod.STATIC && clinicalDataBinningModelCache.isRetaining()) {
+            return fetchStaticClinicalDataBinCounts(dataBinCountFilter.getAttributes(), studyViewFilter);
+        }
         List<SampleIdentifier> unfilteredSamples = filterByStudyAndSample(studyViewFilter);
         List<String> attributeIds = toAttributeIds(dataBinCountFilter.getAttributes());
         List<ClinicalAttribute> clinicalAttributes = fetchClinicalAttributes(attributeIds, unfilteredSamples);
@@ -87,6 +95,94 @@ public class ClinicalDataBinUtil {
         );
     }
 
+    /**
+     * Counts the filtered samples in the static bins of the unfiltered samples, using the stored binning model of
+     * every attribute. Clinical data is only fetched for the attributes without a stored model.
+     */
+    private List<ClinicalDataBin> fetchStaticClinicalDataBinCounts(
+        List<ClinicalDataBinFilter> attributes,
+        StudyViewFilter studyViewFilter
+    ) {
+        List<String> studyIds = studyViewFilter == null ? null : studyViewFilter.getStudyIds();
+        List<SampleIdentifier> sampleIdentifiers = studyViewFilter == null ? null : studyViewFilter.getSampleIdentifiers();
+        ClinicalDataBinningModelCache.Cohort cohort = clinicalDataBinningModelCache.toCohort(studyIds, sampleIdentifiers);
+        long generation = clinicalDataBinningModelCache.getGeneration();
+
+        List<ClinicalDataBinningModelCache.Key> keys = new ArrayList<>();
+        Map<ClinicalDataBinningModelCache.Key, ClinicalDataBinningModel> models = new HashMap<>();
+        Map<ClinicalDataBinningModelCache.Key, ClinicalDataBinFilter> missingAttributes = new LinkedHashMap<>();
+        for (ClinicalDataBinFilter attribute : attributes) {
+            ClinicalDataBinningModelCache.Key key = clinicalDataBinningModelCache.toKey(cohort, attribute);
+            keys.add(key);
+            ClinicalDataBinningModel model = clinicalDataBinningModelCache.getIfPresent(key);
+            if (model != null) {
+                models.put(key, model);
+            } else {
+                missingAttributes.put(key, attribute);
+            }
+        }
+
+        List<SampleIdentifier> unfilteredSamples = filterByStudyAndSample(studyViewFilter);
+        if (!missingAttributes.isEmpty()) {
+            Map<ClinicalDataBinningModelCache.Key, ClinicalDataBinningModel> builtModels =
+                buildBinningModels(missingAttributes, unfilteredSamples);
+            models.putAll(builtModels);
+            clinicalDataBinningModelCache.putAll(builtModels, generation);
+        }
+
+        // attributes of the request without clinical data, or without a type, do not get any bins
+        if (unfilteredSamples.isEmpty() || models.values().stream().noneMatch(ClinicalDataBinningModel::hasClinicalData)) {
+            return emptyList();
+        }
+
+        BinningIds filteredIds = idPopulator.populateIdLists(filterSampleIds(studyViewFilter, unfilteredSamples), null);
+        List<ClinicalDataBin> clinicalDataBins = new ArrayList<>();
+        for (int i = 0; i < attributes.size(); i++) {
+            ClinicalDataBinFilter attribute = attributes.get(i);
+            models.get(keys.get(i)).count(filteredIds, dataBinner).stream()
+                .map(dataBin -> studyViewFilterUtil.dataBinToClinicalDataBin(attribute, dataBin))
+                .forEach(clinicalDataBins::add);
+        }
+        return clinicalDataBins;
+    }
+
+    private Map<ClinicalDataBinningModelCache.Key, ClinicalDataBinningModel> buildBinningModels(
+        Map<ClinicalDataBinningModelCache.Key, ClinicalDataBinFilter> attributes,
+        List<SampleIdentifier> unfilteredSamples
+    ) {
+        List<String> attributeIds = toAttributeIds(new ArrayList<>(attributes.values()));
+        List<ClinicalAttribute> clinicalAttributes = fetchClinicalAttributes(attributeIds, unfilteredSamples);
+        BinningIds binningIds = idPopulator.populateIdLists(unfilteredSamples, clinicalAttributes);
+        Map<String, ClinicalDataType> attributeByDatatype = toAttributeDatatypeMap(binningIds);
+        BinningData<Binnable> unfilteredData = (BinningData<Binnable>) (BinningData<? extends Binnable>) fetchBinningData(binningIds);
+        Map<String, List<Binnable>> unfilteredClinicalDataByAttributeId = toClinicalDataByAttributeId(unfilteredData.getAllData());
+
+        // values of patient attributes and of conflicting patient attributes are kept by the patients of the samples
+        Set<String> attributeIdsFilteredByPatient = new HashSet<>(binningIds.getPatientAttributeIds());
+        attributeIdsFilteredByPatient.addAll(binningIds.getConflictingPatientAttributeIds());
+
+        Map<ClinicalDataBinningModelCache.Key, ClinicalDataBinningModel> models = new HashMap<>();
+        attributes.forEach((key, attribute) -> {
+            ClinicalDataType clinicalDataType = attributeByDatatype.get(attribute.getAttributeId());
+            List<Binnable> clinicalData = unfilteredClinicalDataByAttributeId.getOrDefault(attribute.getAttributeId(), emptyList());
+            List<DataBin> dataBins = emptyList();
+            if (clinicalDataType != null) {
+                List<String> unfilteredIds = clinicalDataType == ClinicalDataType.PATIENT
+                    ? binningIds.getUniquePatientKeys()
+                    : binningIds.getUniqueSampleKeys();
+                dataBins = dataBinner.calculateDataBins(attribute, clinicalDataType, clinicalData, unfilteredIds);
+            }
+            models.put(key, ClinicalDataBinningModel.build(
+                clinicalDataType,
+                attributeIdsFilteredByPatient.contains(attribute.getAttributeId()),
+                dataBins,
+                clinicalData,
+                dataBinHelper
+            ));
+        });
+        return models;
+    }
+
     public List<ClinicalDataBin> fetchCustomDataBinCounts(
         DataBinMethod dataBinMethod,
         ClinicalDataBinCountFilter dataBinCountFilter,
@@ -0,0 +1,294 @@
+package org.cbioportal.web.util;
+
+import com.google.common.collect.Range;
+import org.apache.commons.lang3.math.NumberUtils;
+import org.cbioportal.model.Binnable;
+import org.cbioportal.model.DataBin;
+import org.cbioportal.web.parameter.ClinicalDataType;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The static bins of a clinical attribute for the unfiltered samples of a study view, with the bin of every value, so
+ * that the bins of any subset of these samples are counted without fetching and parsing the clinical data again.
+ *
+ * Counts are the same as with {@link DataBinner#recalcBinCount} over the clinical data that
+ * {@link StudyViewFilterUtil#filterClinicalData} keeps for the filtered samples: values of sample attributes are kept
+ * by their sample, values of patient attributes and of conflicting patient attributes by their patient. If a value
+ * falls into more than one bin, the model keeps the values and recounts them with {@link DataBinner}.
+ */
+public final class ClinicalDataBinningModel {
+
+    private static final short NO_BIN = -1;
+    private static final short NA_VALUE = -2;
+
+    private final ClinicalDataType clinicalDataType;
+    private final boolean filteredByPatient;
+    private final List<DataBin> dataBins;
+    private final int naBinIndex;
+    // "study:case" keys of the samples or patients that keep a value, as in StudyViewFilterUtil
+    private final Map<String, Integer> memberIndexes;
+    // keys of the cases counted as NA when they have no value, as in DataBinner.countNAs
+    private final Map<String, Integer> caseIndexes;
+    private final int[] valueMembers;
+    private final int[] valueCases;
+    private final short[] valueBins;
+    // only kept when values can not be assigned to a single bin
+    private final List<Binnable> clinicalData;
+
+    private ClinicalDataBinningModel(ClinicalDataType clinicalDataType,
+                                     boolean filteredByPatient,
+                                     List<DataBin> dataBins,
+                                     int naBinIndex,
+                                     Map<String, Integer> memberIndexes,
+                                     Map<String, Integer> caseIndexes,
+                                     int[] valueMembers,
+                                     int[] valueCases,
+                                     short[] valueBins,
+                                     List<Binnable> clinicalData) {
+        this.clinicalDataType = clinicalDataType;
+        this.filteredByPatient = filteredByPatient;
+        this.dataBins = dataBins;
+        this.naBinIndex = naBinIndex;
+        this.memberIndexes = memberIndexes;
+        this.caseIndexes = caseIndexes;
+        this.valueMembers = valueMembers;
+        this.valueCases = valueCases;
+        this.valueBins = valueBins;
+        this.clinicalData = clinicalData;
+    }
+
+    /**
+     * @param clinicalDataType type of the attribute, as in the clinical data type map of {@link ClinicalDataBinUtil}
+     * @param filteredByPatient whether values are kept by their patient (patient and conflicting patient attributes)
+     * @param dataBins bins calculated for the unfiltered clinical data
+     * @param clinicalData unfiltered clinical data of the attribute
+     */
+    public static ClinicalDataBinningModel build(ClinicalDataType clinicalDataType,
+                                                 boolean filteredByPatient,
+                                                 List<DataBin> dataBins,
+                                                 List<Binnable> clinicalData,
+                                                 DataBinHelper dataBinHelper) {
+        int naBinIndex = -1;
+        boolean singleBins = dataBins.size() <= Short.MAX_VALUE;
+        List<Range<BigDecimal>> ranges = new ArrayList<>(dataBins.size());
+        for (int i = 0; i < dataBins.size(); i++) {
+            DataBin dataBin = dataBins.get(i);
+            ranges.add(dataBinHelper.calcRange(dataBin));
+            if ("NA".equalsIgnoreCase(dataBin.getSpecialValue())) {
+                // every NA bin gets the count of NA values, only one is expected
+                singleBins &= naBinIndex < 0;
+                naBinIndex = i;
+            }
+        }
+
+        Map<String, Integer> memberIndexes = new HashMap<>();
+        Map<String, Integer> caseIndexes = new HashMap<>();
+        int[] valueMembers = new int[clinicalData.size()];
+        int[] valueCases = new int[clinicalData.size()];
+        short[] valueBins = new short[clinicalData.size()];
+        // attribute values repeat a lot, find the bin of each distinct value once
+        Map<String, Short> binsOfValues = new HashMap<>();
+
+        for (int i = 0; i < clinicalData.size() && singleBins; i++) {
+            Binnable datum = clinicalData.get(i);
+            String caseId = filteredByPatient ? datum.getPatientId() : datum.getSampleId();
+            valueMembers[i] = memberIndexes.computeIfAbsent(memberKey(datum.getStudyId(), caseId),
+                k -> memberIndexes.size());
+            valueCases[i] = caseIndexes.computeIfAbsent(caseKey(datum, clinicalDataType), k -> caseIndexes.size());
+
+            Short bin = binsOfValues.get(datum.getAttrValue());
+            if (bin == null) {
+                bin = findBin(datum.getAttrValue(), dataBins, ranges, naBinIndex, dataBinHelper);
+                binsOfValues.put(datum.getAttrValue(), bin);
+            }
+            valueBins[i] = bin;
+            singleBins = bin != null;
+        }
+
+        if (!singleBins) {
+            return new ClinicalDataBinningModel(clinicalDataType, filteredByPatient, dataBins, naBinIndex,
+                Collections.emptyMap(), Collections.emptyMap(), null, null, null, new ArrayList<>(clinicalData));
+        }
+        return new ClinicalDataBinningModel(clinicalDataType, filteredByPatient, dataBins, naBinIndex,
+            memberIndexes, caseIndexes, valueMembers, valueCases, valueBins, null);
+    }
+
+    /**
+     * @return the bin of the value as counted by {@link DataBinner#recalcBinCount}, or null if it is counted in more
+     * than one bin
+     */
+    private static Short findBin(String value,
+                                 List<DataBin> dataBins,
+                                 List<Range<BigDecimal>> ranges,
+                                 int naBinIndex,
+                                 DataBinHelper dataBinHelper) {
+        Range<BigDecimal> valueRange = null;
+        BigDecimal numericalValue = null;
+        boolean nonNumerical = false;
+        if (NumberUtils.isCreatable(value)) {
+            numericalValue = new BigDecimal(value);
+        } else {
+            String strippedValue = dataBinHelper.stripOperator(value);
+            if (NumberUtils.isCreatable(strippedValue)) {
+                String operator = dataBinHelper.extractOperator(value);
+                if (!operator.isEmpty()) {
+                    valueRange = dataBinHelper.calcRange(operator.substring(0, 1), new BigDecimal(strippedValue));
+                }
+            } else {
+                nonNumerical = !dataBinHelper.isNA(value);
+            }
+        }
+
+        short bin = NO_BIN;
+        for (int i = 0; i < dataBins.size(); i++) {
+            if (i == naBinIndex) {
+                // the count of the NA bin is always replaced by the number of NA values and cases without a value
+                continue;
+            }
+            Range<BigDecimal> range = ranges.get(i);
+            boolean inBin;
+            if (range != null) {
+                inBin = (numericalValue != null && range.contains(numericalValue)) ||
+                    (valueRange != null && range.encloses(valueRange));
+            } else {
+                inBin = nonNumerical && value.equalsIgnoreCase(dataBins.get(i).getSpecialValue());
+            }
+            if (inBin) {
+                if (bin != NO_BIN) {
+                    return null;
+                }
+                bin = (short) i;
+            }
+        }
+
+        if (dataBinHelper.isNA(value)) {
+            return bin == NO_BIN ? NA_VALUE : null;
+        }
+        return bin;
+    }
+
+    private static String memberKey(String studyId, String caseId) {
+        return studyId + ":" + caseId;
+    }
+
+    private static String caseKey(Binnable datum, ClinicalDataType clinicalDataType) {
+        return datum.getStudyId() + (clinicalDataType == ClinicalDataType.PATIENT ? datum.getPatientId() :
+            datum.getSampleId());
+    }
+
+    public ClinicalDataType getClinicalDataType() {
+        return clinicalDataType;
+    }
+
+    /**
+     * @return whether the unfiltered samples have any clinical data for the attribute
+     */
+    public boolean hasClinicalData() {
+        return clinicalData != null ? !clinicalData.isEmpty() : valueBins.length > 0;
+    }
+
+    /**
+     * Counts the values of the filtered samples in the unfiltered bins.
+     *
+     * @param filteredIds ids of the filtered samples, which are a subset of the unfiltered samples
+     * @return new bins, the bins of the model are not changed
+     */
+    public List<DataBin> count(BinningIds filteredIds, DataBinner dataBinner) {
+        List<String> studyIds = filteredByPatient ? filteredIds.getStudyIdsOfPatients() : filteredIds.getStudyIds();
+        List<String> caseIds = filteredByPatient ? filteredIds.getPatientIds() : filteredIds.getSampleIds();
+        List<String> ids = clinicalDataType == ClinicalDataType.PATIENT ? filteredIds.getUniquePatientKeys() :
+            filteredIds.getUniqueSampleKeys();
+
+        if (clinicalData != null) {
+            Set<String> members = new HashSet<>();
+            for (int i = 0; i < caseIds.size(); i++) {
+                members.add(memberKey(studyIds.get(i), caseIds.get(i)));
+            }
+            List<Binnable> filteredClinicalData = new ArrayList<>();
+            for (Binnable datum : clinicalData) {
+                if (members.contains(memberKey(datum.getStudyId(),
+                    filteredByPatient ? datum.getPatientId() : datum.getSampleId()))) {
+                    filteredClinicalData.add(datum);
+                }
+            }
+            return dataBinner.recalcBinCount(copyDataBins(), clinicalDataType, filteredClinicalData, ids);
+        }
+
+        BitSet members = new BitSet(memberIndexes.size());
+        for (int i = 0; i < caseIds.size(); i++) {
+            Integer member = memberIndexes.get(memberKey(studyIds.get(i), caseIds.get(i)));
+            if (member != null) {
+                members.set(member);
+            }
+        }
+
+        int[] counts = new int[dataBins.size()];
+        int naCount = 0;
+        BitSet casesWithValues = new BitSet(caseIndexes.size());
+        for (int i = 0; i < valueBins.length; i++) {
+            if (members.get(valueMembers[i])) {
+                short bin = valueBins[i];
+                if (bin >= 0) {
+                    counts[bin]++;
+                } else if (bin == NA_VALUE) {
+                    naCount++;
+                }
+                casesWithValues.set(valueCases[i]);
+            }
+        }
+
+        if (naBinIndex >= 0) {
+            // cases without a value are counted once, as in DataBinner.countNAs
+            BitSet countedCases = new BitSet(caseIndexes.size());
+            Set<String> casesWithoutAnyValue = new HashSet<>();
+            for (String id : ids) {
+                Integer caseIndex = caseIndexes.get(id);
+                if (caseIndex == null) {
+                    casesWithoutAnyValue.add(id);
+                } else if (!casesWithValues.get(caseIndex) && !countedCases.get(caseIndex)) {
+                    countedCases.set(caseIndex);
+                    naCount++;
+                }
+            }
+            counts[naBinIndex] = naCount + casesWithoutAnyValue.size();
+        }
+
+        List<DataBin> filteredDataBins = copyDataBins();
+        for (int i = 0; i < filteredDataBins.size(); i++) {
+            filteredDataBins.get(i).setCount(counts[i]);
+        }
+        return filteredDataBins;
+    }
+
+    private List<DataBin> copyDataBins() {
+        List<DataBin> copies = new ArrayList<>(dataBins.size());
+        for (DataBin dataBin : dataBins) {
+            DataBin copy = new DataBin();
+            copy.setSpecialValue(dataBin.getSpecialValue());
+            copy.setStart(dataBin.getStart());
+            copy.setEnd(dataBin.getEnd());
+            copy.setCount(dataBin.getCount());
+            copies.add(copy);
+        }
+        return copies;
+    }
+
+    /**
+     * @return rough number of bytes retained by the model
+     */
+    long getWeight() {
+        if (clinicalData != null) {
+            return 256L + 256L * clinicalData.size();
+        }
+        return 256L + 10L * valueBins.length + 96L * (memberIndexes.size() + caseIndexes.size());
+    }
+}
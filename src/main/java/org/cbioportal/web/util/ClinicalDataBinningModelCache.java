@@ -0,0 +1,208 @@
+package org.cbioportal.web.util;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import org.cbioportal.persistence.util.AbstractStudyScopedCache;
+import org.cbioportal.web.parameter.BinsGeneratorConfig;
+import org.cbioportal.web.parameter.ClinicalDataBinFilter;
+import org.cbioportal.web.parameter.SampleIdentifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Size-bounded store of the {@link ClinicalDataBinningModel} of every clinical attribute that static bins were
+ * requested for, by the studies and samples of the study view and the bin settings of the attribute. The samples are
+ * only kept as a digest, computed once per request.
+ */
+@Component
+public class ClinicalDataBinningModelCache extends AbstractStudyScopedCache<ClinicalDataBinningModelCache.Key,
+    ClinicalDataBinningModel> {
+
+    @Value("${persistence.clinical_data_binning_model_cache.max_mega_bytes:256}")
+    private long maxMegaBytes;
+
+    /**
+     * @return the studies and samples of a study view, to be shared by the keys of all attributes of a request
+     */
+    public Cohort toCohort(List<String> studyIds, List<SampleIdentifier> sampleIdentifiers) {
+        return new Cohort(studyIds, sampleIdentifiers);
+    }
+
+    public Key toKey(Cohort cohort, ClinicalDataBinFilter attribute) {
+        return new Key(cohort, attribute);
+    }
+
+    @Override
+    protected boolean isConfigured() {
+        return maxMegaBytes > 0;
+    }
+
+    @Override
+    protected boolean isOfStudy(Key key, ClinicalDataBinningModel model, String studyId) {
+        return key.involvesStudy(studyId);
+    }
+
+    @Override
+    protected long getMaxMegaBytes() {
+        return maxMegaBytes;
+    }
+
+    @Override
+    protected long weigh(Key key, ClinicalDataBinningModel model) {
+        return key.getWeight() + model.getWeight();
+    }
+
+    /**
+     * Digest of the study ids and sample identifiers of a study view, so that the keys neither hold nor re-hash the
+     * sample identifiers. Only the ids of the studies involved are kept, to evict the keys of a study.
+     */
+    public static final class Cohort {
+
+        private final long digestHigh;
+        private final long digestLow;
+        private final Set<String> studyIds;
+
+        private Cohort(List<String> studyIds, List<SampleIdentifier> sampleIdentifiers) {
+            Hasher hasher = Hashing.murmur3_128().newHasher();
+            Set<String> involvedStudyIds = new HashSet<>();
+            if (studyIds != null) {
+                hasher.putInt(studyIds.size());
+                for (String studyId : studyIds) {
+                    putString(hasher, studyId);
+                    involvedStudyIds.add(studyId);
+                }
+            } else {
+                hasher.putInt(-1);
+            }
+            if (sampleIdentifiers != null) {
+                hasher.putInt(sampleIdentifiers.size());
+                for (SampleIdentifier sampleIdentifier : sampleIdentifiers) {
+                    putString(hasher, sampleIdentifier.getStudyId());
+                    putString(hasher, sampleIdentifier.getSampleId());
+                    if (sampleIdentifier.getStudyId() != null) {
+                        involvedStudyIds.add(sampleIdentifier.getStudyId());
+                    }
+                }
+            } else {
+                hasher.putInt(-1);
+            }
+            ByteBuffer digest = ByteBuffer.wrap(hasher.hash().asBytes());
+            this.digestHigh = digest.getLong();
+            this.digestLow = digest.getLong();
+            this.studyIds = Set.copyOf(involvedStudyIds);
+        }
+
+        private static void putString(Hasher hasher, String value) {
+            if (value == null) {
+                hasher.putInt(-1);
+            } else {
+                hasher.putInt(value.length()).putString(value, StandardCharsets.UTF_8);
+            }
+        }
+
+        private long getWeight() {
+            return 64L + studyIds.stream().mapToLong(studyId -> 64L + 2L * studyId.length()).sum();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Cohort)) {
+                return false;
+            }
+            Cohort cohort = (Cohort) o;
+            return digestHigh == cohort.digestHigh && digestLow == cohort.digestLow;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(digestHigh);
+        }
+    }
+
+    public static final class Key {
+
+        private final Cohort cohort;
+        private final String attributeId;
+        private final String binMethod;
+        private final List<BigDecimal> customBins;
+        private final BigDecimal start;
+        private final BigDecimal end;
+        private final Boolean disableLogScale;
+        private final BigDecimal binSize;
+        private final BigDecimal anchorValue;
+        private final int hashCode;
+
+        private Key(Cohort cohort, ClinicalDataBinFilter attribute) {
+            this.cohort = cohort;
+            this.attributeId = attribute.getAttributeId();
+            this.binMethod = attribute.getBinMethod() == null ? null : attribute.getBinMethod().name();
+            this.customBins = attribute.getCustomBins() == null ? null :
+                Collections.unmodifiableList(new ArrayList<>(attribute.getCustomBins()));
+            this.start = attribute.getStart();
+            this.end = attribute.getEnd();
+            this.disableLogScale = attribute.getDisableLogScale();
+            BinsGeneratorConfig binsGeneratorConfig = attribute.getBinsGeneratorConfig();
+            this.binSize = binsGeneratorConfig == null ? null : binsGeneratorConfig.getBinSize();
+            this.anchorValue = binsGeneratorConfig == null ? null : binsGeneratorConfig.getAnchorValue();
+            this.hashCode = Objects.hash(cohort, attributeId, binMethod, customBins, start, end, disableLogScale,
+                binSize, anchorValue);
+        }
+
+        private boolean involvesStudy(String studyId) {
+            return cohort.studyIds.contains(studyId);
+        }
+
+        /**
+         * @return approximate number of bytes held by the key, counting the cohort it shares with other keys as well
+         */
+        long getWeight() {
+            long weight = 128L + cohort.getWeight();
+            if (attributeId != null) {
+                weight += 64L + 2L * attributeId.length();
+            }
+            if (customBins != null) {
+                weight += 48L * customBins.size();
+            }
+            return weight;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return hashCode == key.hashCode &&
+                Objects.equals(cohort, key.cohort) &&
+                Objects.equals(attributeId, key.attributeId) &&
+                Objects.equals(binMethod, key.binMethod) &&
+                Objects.equals(customBins, key.customBins) &&
+                Objects.equals(start, key.start) &&
+                Objects.equals(end, key.end) &&
+                Objects.equals(disableLogScale, key.disableLogScale) &&
+                Objects.equals(binSize, key.binSize) &&
+                Objects.equals(anchorValue, key.anchorValue);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+}
@@ -286,17 +286,13 @@ public class DataBinHelper {
     }
 
     public void calcCounts(List<DataBin> dataBins, List<BigDecimal> values) {
-        Map<Range<BigDecimal>, DataBin> rangeMap = dataBins.stream().collect(Collectors.toMap(this::calcRange, b -> b));
-
-        // TODO complexity here is O(n x m), find a better way to do this
-        for (Range<BigDecimal> range : rangeMap.keySet()) {
-            for (BigDecimal value: values) {
-                // check if the value falls within the data bin range
-                if (range != null && range.contains(value)) {
-                    DataBin dataBin = rangeMap.get(range);
-                    dataBin.setCount(dataBin.getCount() + 1);
-                }
-            }
+        calcCounts(dataBins, SortedNumericalValues.of(values));
+    }
+
+    public void calcCounts(List<DataBin> dataBins, SortedNumericalValues values) {
+        for (DataBin dataBin : dataBins) {
+            // count the values that fall within the data bin range
+            dataBin.setCount(dataBin.getCount() + values.count(calcRange(dataBin)));
         }
     }
 
@@ -446,6 +442,59 @@ public class DataBinHelper {
         }
     }
     
+    /**
+     * Same as {@link #convertToDistinctBins(List, List, List)}, with the distinct values of a bin found by binary
+     * search in the sorted numerical values.
+     */
+    public List<DataBin> convertToDistinctBins(List<DataBin> dataBins, BinnableValues values) {
+        SortedNumericalValues numericalValues = values.getNumericalValues();
+        List<DataBin> distinctBins = new ArrayList<>();
+
+        for (DataBin bin: dataBins) {
+            Range<BigDecimal> range = calcRange(bin);
+            BigDecimal distinctValue = null;
+            boolean hasDistinctRanges = false;
+
+            if (range != null) {
+                int fromIndex = numericalValues.fromIndex(range);
+                int toIndex = numericalValues.toIndex(range);
+                if (fromIndex < toIndex) {
+                    distinctValue = numericalValues.get(fromIndex);
+                    // values are distinct as in a set, i.e. 5 and 5.0 are two values
+                    for (int i = fromIndex + 1; i < toIndex && distinctValue != null; i++) {
+                        if (!distinctValue.equals(numericalValues.get(i))) {
+                            distinctValue = null;
+                        }
+                    }
+                }
+                hasDistinctRanges = values.getSpecialRangeCounts().keySet().stream().anyMatch(range::encloses);
+            }
+
+            // if the bin contains only one distinct value and no range value then create a distinct bin
+            if (!hasDistinctRanges && distinctValue != null && this.areAllIntegers(Set.of(distinctValue))) {
+                DataBin distinctBin = new DataBin();
+                distinctBin.setCount(bin.getCount());
+                distinctBin.setStart(distinctValue);
+                distinctBin.setEnd(distinctValue);
+
+                distinctBins.add(distinctBin);
+            }
+            // else keep the bin as is
+            else {
+                distinctBins.add(bin);
+            }
+        }
+
+        // all bins except the outlier bins has to be distinct,
+        // otherwise return the original input bins (no conversion)
+        if (areAllDistinctExceptOutliers(distinctBins)) {
+            return distinctBins;
+        }
+        else {
+            return dataBins;
+        }
+    }
+
     public Boolean areAllDistinctExceptOutliers(List<DataBin> dataBins) {
         return dataBins
             .stream()
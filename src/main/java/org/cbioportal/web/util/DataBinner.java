@@ -49,38 +49,18 @@ public class DataBinner {
                                         ClinicalDataType clinicalDataType,
                                         List<Binnable> clinicalData,
                                         List<String> ids) {
-        List<BigDecimal> numericalValues = clinicalData == null ?
-            Collections.emptyList() : filterNumericalValues(clinicalData);
-        List<String> nonNumericalValues = clinicalData == null ?
-            Collections.emptyList() : filterNonNumericalValues(clinicalData);
-        List<Range<BigDecimal>> ranges = clinicalData == null ?
-            Collections.emptyList() : filterSpecialRanges(clinicalData);
+        // parse the values once, every bin is then counted with a binary search
+        BinnableValues values = BinnableValues.parse(
+            clinicalData == null ? Collections.emptyList() : clinicalData, dataBinHelper);
 
         for (DataBin dataBin : dataBins) {
-            // reset count
-            dataBin.setCount(0);
-
             // calculate range
             Range<BigDecimal> range = dataBinHelper.calcRange(dataBin);
 
             if (range != null) {
-                for (BigDecimal value : numericalValues) {
-                    if (range.contains(value)) {
-                        dataBin.setCount(dataBin.getCount() + 1);
-                    }
-                }
-
-                for (Range<BigDecimal> r : ranges) {
-                    if (range.encloses(r)) {
-                        dataBin.setCount(dataBin.getCount() + 1);
-                    }
-                }
+                dataBin.setCount(values.count(range));
             } else { // if no range then it means non numerical data bin
-                for (String value : nonNumericalValues) {
-                    if (value.equalsIgnoreCase(dataBin.getSpecialValue())) {
-                        dataBin.setCount(dataBin.getCount() + 1);
-                    }
-                }
+                dataBin.setCount(values.countNonNumerical(dataBin.getSpecialValue()));
             }
             if ("NA".equalsIgnoreCase(dataBin.getSpecialValue())) {
                 dataBin.setCount(countNAs(clinicalData, clinicalDataType, ids).intValue());
@@ -127,11 +107,13 @@ public class DataBinner {
             numericalOnly = true;
         }
 
-        DataBin upperOutlierBin = calcUpperOutlierBin(clinicalData);
-        DataBin lowerOutlierBin = calcLowerOutlierBin(clinicalData);
-        Collection<DataBin> numericalBins = calcNumericalClinicalDataBins(
+        BinnableValues values = BinnableValues.parse(clinicalData, dataBinHelper);
+
+        DataBin upperOutlierBin = calcUpperOutlierBin(values);
+        DataBin lowerOutlierBin = calcLowerOutlierBin(values);
+        Collection<DataBin> numericalBins = calcNumericalDataBins(
             dataBinFilter,
-            clinicalData,
+            values.getNumericalValues().asList(),
             dataBinFilter.getCustomBins(),
             dataBinFilter.getBinMethod(),
             dataBinFilter.getBinsGeneratorConfig(),
@@ -158,14 +140,12 @@ public class DataBinner {
 
         // in some cases every numerical bin actually contains only a single discrete value
         // convert interval bins to distinct (single value) bins in these cases
-        dataBins = dataBinHelper.convertToDistinctBins(
-            dataBins, filterNumericalValues(clinicalData), filterSpecialRanges(clinicalData)
-        );
+        dataBins = dataBinHelper.convertToDistinctBins(dataBins, values);
 
         if (!numericalOnly) {
             // add non numerical and NA data bins
 
-            dataBins.addAll(calcNonNumericalClinicalDataBins(clinicalData));
+            dataBins.addAll(calcNonNumericalDataBins(values.getNonNumericalValues()));
 
             DataBin naDataBin = calcNaDataBin(clinicalData, clinicalDataType, ids);
             if (!naDataBin.getCount().equals(0)) {
@@ -453,9 +433,17 @@ public class DataBinner {
     }
 
     public DataBin calcUpperOutlierBin(List<Binnable> clinicalData) {
-        DataBin dataBin = dataBinHelper.calcUpperOutlierBin(
+        return calcUpperOutlierBin(
             doubleValuesForSpecialOutliers(clinicalData, ">="),
             doubleValuesForSpecialOutliers(clinicalData, ">"));
+    }
+
+    public DataBin calcUpperOutlierBin(BinnableValues values) {
+        return calcUpperOutlierBin(values.getSpecialValues(">="), values.getSpecialValues(">"));
+    }
+
+    private DataBin calcUpperOutlierBin(List<BigDecimal> gteValues, List<BigDecimal> gtValues) {
+        DataBin dataBin = dataBinHelper.calcUpperOutlierBin(gteValues, gtValues);
 
         // for consistency always set operator to ">"
         dataBin.setSpecialValue(">");
@@ -464,9 +452,17 @@ public class DataBinner {
     }
 
     public DataBin calcLowerOutlierBin(List<Binnable> clinicalData) {
-        DataBin dataBin = dataBinHelper.calcLowerOutlierBin(
+        return calcLowerOutlierBin(
             doubleValuesForSpecialOutliers(clinicalData, "<="),
             doubleValuesForSpecialOutliers(clinicalData, "<"));
+    }
+
+    public DataBin calcLowerOutlierBin(BinnableValues values) {
+        return calcLowerOutlierBin(values.getSpecialValues("<="), values.getSpecialValues("<"));
+    }
+
+    private DataBin calcLowerOutlierBin(List<BigDecimal> lteValues, List<BigDecimal> ltValues) {
+        DataBin dataBin = dataBinHelper.calcLowerOutlierBin(lteValues, ltValues);
 
         // for consistency always set operator to "<="
         dataBin.setSpecialValue("<=");
@@ -543,23 +539,17 @@ public class DataBinner {
 
         // Calculate number of patients/samples without clinical data
 
-        Set<String> uniqueClinicalDataIds;
-
-        if (clinicalData != null) {
-            uniqueClinicalDataIds = clinicalData
-                .stream()
-                .filter(Objects::nonNull)
-                .map(datum -> computeUniqueCaseId(datum, clinicalDataType))
-                .collect(Collectors.toSet());
-        } else {
-            uniqueClinicalDataIds = Collections.emptySet();
-        }
-
         Set<String> uniqueInputIds = new HashSet<>(ids);
 
         // remove the ids with existing clinical data,
         // size of the difference (of two sets) is the count we need
-        uniqueInputIds.removeAll(uniqueClinicalDataIds);
+        if (clinicalData != null) {
+            for (Binnable datum : clinicalData) {
+                if (datum != null) {
+                    uniqueInputIds.remove(computeUniqueCaseId(datum, clinicalDataType));
+                }
+            }
+        }
         count += uniqueInputIds.size();
 
         return count;
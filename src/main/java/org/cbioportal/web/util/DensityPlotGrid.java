@@ -0,0 +1,113 @@
+package org.cbioportal.web.util;
+
+import org.cbioportal.model.DensityPlotBin;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Two-dimensional histogram of a density plot. Counts and the minimum and maximum values of every cell are kept in
+ * primitive arrays, cells are only converted to {@link DensityPlotBin}s when they are not empty.
+ *
+ * A value is in the cell of (value - start) / interval on each axis. Values equal to the end of an axis are in the
+ * last cell, values that are not in any cell of an axis are not counted.
+ */
+public final class DensityPlotGrid {
+
+    private final double xAxisStart;
+    private final double xAxisBinInterval;
+    private final int xAxisBinCount;
+    private final double yAxisStart;
+    private final double yAxisBinInterval;
+    private final int yAxisBinCount;
+
+    private final int[] counts;
+    private final double[] minX;
+    private final double[] maxX;
+    private final double[] minY;
+    private final double[] maxY;
+
+    public DensityPlotGrid(double xAxisStart, double xAxisEnd, int xAxisBinCount,
+                           double yAxisStart, double yAxisEnd, int yAxisBinCount) {
+        this.xAxisStart = xAxisStart;
+        this.xAxisBinInterval = (xAxisEnd - xAxisStart) / xAxisBinCount;
+        this.xAxisBinCount = xAxisBinCount;
+        this.yAxisStart = yAxisStart;
+        this.yAxisBinInterval = (yAxisEnd - yAxisStart) / yAxisBinCount;
+        this.yAxisBinCount = yAxisBinCount;
+
+        int cellCount = Math.multiplyExact(xAxisBinCount, yAxisBinCount);
+        counts = new int[cellCount];
+        minX = new double[cellCount];
+        maxX = new double[cellCount];
+        minY = new double[cellCount];
+        maxY = new double[cellCount];
+    }
+
+    /**
+     * @return whether the point is within the axes and was counted
+     */
+    public boolean add(double xValue, double yValue) {
+        int xBinIndex = binIndex(xValue, xAxisStart, xAxisBinInterval, xAxisBinCount);
+        int yBinIndex = binIndex(yValue, yAxisStart, yAxisBinInterval, yAxisBinCount);
+        if (xBinIndex < 0 || yBinIndex < 0) {
+            return false;
+        }
+
+        int cell = xBinIndex * yAxisBinCount + yBinIndex;
+        if (counts[cell]++ == 0) {
+            minX[cell] = xValue;
+            maxX[cell] = xValue;
+            minY[cell] = yValue;
+            maxY[cell] = yValue;
+        } else {
+            if (xValue < minX[cell]) {
+                minX[cell] = xValue;
+            }
+            if (xValue > maxX[cell]) {
+                maxX[cell] = xValue;
+            }
+            if (yValue < minY[cell]) {
+                minY[cell] = yValue;
+            }
+            if (yValue > maxY[cell]) {
+                maxY[cell] = yValue;
+            }
+        }
+        return true;
+    }
+
+    private static int binIndex(double value, double axisStart, double axisBinInterval, int axisBinCount) {
+        // truncated towards zero, as values less than one interval below the start have always been in the first bin
+        int binIndex = (int) ((value - axisStart) / axisBinInterval);
+        if (binIndex == axisBinCount) {
+            binIndex--;
+        }
+        return binIndex >= 0 && binIndex < axisBinCount ? binIndex : -1;
+    }
+
+    /**
+     * @return the bins of the cells with at least one value, by X and then by Y
+     */
+    public List<DensityPlotBin> getNonEmptyBins() {
+        List<DensityPlotBin> bins = new ArrayList<>();
+        for (int cell = 0; cell < counts.length; cell++) {
+            if (counts[cell] == 0) {
+                continue;
+            }
+            int xBinIndex = cell / yAxisBinCount;
+            int yBinIndex = cell % yAxisBinCount;
+            DensityPlotBin densityPlotBin = new DensityPlotBin();
+            densityPlotBin.setBinX(BigDecimal.valueOf(xAxisStart + (xBinIndex * xAxisBinInterval)));
+            densityPlotBin.setBinY(BigDecimal.valueOf(yAxisStart + (yBinIndex * yAxisBinInterval)));
+            densityPlotBin.setCount(counts[cell]);
+            densityPlotBin.setMinX(BigDecimal.valueOf(minX[cell]));
+            densityPlotBin.setMaxX(BigDecimal.valueOf(maxX[cell]));
+            densityPlotBin.setMinY(BigDecimal.valueOf(minY[cell]));
+            densityPlotBin.setMaxY(BigDecimal.valueOf(maxY[cell]));
+            bins.add(densityPlotBin);
+        }
+        return bins;
+    }
+}
@@ -33,6 +33,7 @@
 package org.cbioportal.web.util;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.cbioportal.model.AlterationFilter;
@@ -71,18 +72,27 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.servlet.HandlerInterceptor;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 public class InvolvedCancerStudyExtractorInterceptor implements HandlerInterceptor {
 
     private ObjectMapper objectMapper = new ObjectMapper();
+    // readers are reused, so that the deserializer of a filter type is looked up only once
+    private final Map<Class<?>, ObjectReader> objectReaders = new ConcurrentHashMap<>();
+    // extractors of the request attributes by request path, so that a request is dispatched with a single lookup
+    private final Map<String, Predicate<HttpServletRequest>> attributeExtractors = createAttributeExtractors();
 
     @Autowired
     private CacheMapUtil cacheMapUtil;
@@ -142,69 +152,64 @@ public class InvolvedCancerStudyExtractorInterceptor implements HandlerIntercept
         // reset this to  'String requestPathInfo = request.getPathInfo();'
         String requestPathInfo = request.getPathInfo() == null? request.getServletPath() : request.getPathInfo();
         requestPathInfo = requestPathInfo.replaceFirst("^/api", "");
-        if (requestPathInfo.equals(PATIENT_FETCH_PATH)) {
-            return extractAttributesFromPatientFilter(request);
-        } else if (requestPathInfo.equals(SAMPLE_FETCH_PATH)) {
-            return extractAttributesFromSampleFilter(request);
-        } else if (requestPathInfo.equals(MOLECULAR_PROFILE_FETCH_PATH)) {
-            return extractAttributesFromMolecularProfileFilter(request);
-        } else if (requestPathInfo.equals(CLINICAL_ATTRIBUTE_COUNT_FETCH_PATH)) {
-            return extractAttributesFromClinicalAttributeCountFilter(request);
-        } else if (requestPathInfo.equals(CLINICAL_DATA_FETCH_PATH)) {
-            return extractAttributesFromClinicalDataMultiStudyFilter(request);
-        } else if (requestPathInfo.equals(GENE_PANEL_DATA_FETCH_PATH)) {
-            return extractAttributesFromGenePanelDataMultipleStudyFilter(request);
-        } else if (requestPathInfo.equals(MOLECULAR_DATA_MULTIPLE_STUDY_FETCH_PATH)) {
-            return extractAttributesFromMolecularDataMultipleStudyFilter(request);
-        } else if (requestPathInfo.equals(MUTATION_MULTIPLE_STUDY_FETCH_PATH)) {
-            return extractAttributesFromMutationMultipleStudyFilter(request);
-        } else if (requestPathInfo.equals(COPY_NUMBER_SEG_FETCH_PATH)) {
-            return extractAttributesFromSampleIdentifiers(request);
-        } else if (Arrays.asList(STUDY_VIEW_CLINICAL_DATA_BIN_COUNTS_PATH, STUDY_VIEW_CUSTOM_DATA_BIN_COUNTS_PATH).contains(requestPathInfo)) {
-            return extractAttributesFromClinicalDataBinCountFilter(request);
-        } else if (requestPathInfo.equals(STUDY_VIEW_GENOMICL_DATA_BIN_COUNTS_PATH)) {
-            return extractAttributesFromGenomicDataBinCountFilter(request);
-        } else if (Arrays.asList(STUDY_VIEW_GENOMICL_DATA_COUNTS_PATH, STUDY_VIEW_MUTATION_DATA_COUNTS_PATH).contains(requestPathInfo)) {
-            return extractAttributesFromGenomicDataCountFilter(request);
-        } else if (requestPathInfo.equals(STUDY_VIEW_GENERIC_ASSAY_DATA_BIN_COUNTS_PATH)) {
-            return extractAttributesFromGenericAssayDataBinCountFilter(request);
-        } else if (requestPathInfo.equals(STUDY_VIEW_GENERIC_ASSAY_DATA_COUNTS_PATH)) {
-            return extractAttributesFromGenericAssayDataCountFilter(request);
-        } else if (Arrays.asList(STUDY_VIEW_CLINICAL_DATA_COUNTS_PATH, STUDY_VIEW_CUSTOM_DATA_COUNTS_PATH)
-                .contains(requestPathInfo)) {
-            return extractAttributesFromClinicalDataCountFilter(request);
-        } else if (Arrays.asList(STUDY_VIEW_CLINICAL_DATA_DENSITY_PATH, STUDY_VIEW_CLINICAL_DATA_VIOLIN_PATH, STUDY_VIEW_CNA_GENES, 
+        Predicate<HttpServletRequest> attributeExtractor = attributeExtractors.get(requestPathInfo);
+        return attributeExtractor == null || attributeExtractor.test(request);
+    }
+
+    private Map<String, Predicate<HttpServletRequest>> createAttributeExtractors() {
+        Map<String, Predicate<HttpServletRequest>> extractors = new HashMap<>();
+        extractors.put(PATIENT_FETCH_PATH, this::extractAttributesFromPatientFilter);
+        extractors.put(SAMPLE_FETCH_PATH, this::extractAttributesFromSampleFilter);
+        extractors.put(MOLECULAR_PROFILE_FETCH_PATH, this::extractAttributesFromMolecularProfileFilter);
+        extractors.put(CLINICAL_ATTRIBUTE_COUNT_FETCH_PATH, this::extractAttributesFromClinicalAttributeCountFilter);
+        extractors.put(CLINICAL_DATA_FETCH_PATH, this::extractAttributesFromClinicalDataMultiStudyFilter);
+        extractors.put(GENE_PANEL_DATA_FETCH_PATH, this::extractAttributesFromGenePanelDataMultipleStudyFilter);
+        extractors.put(MOLECULAR_DATA_MULTIPLE_STUDY_FETCH_PATH, this::extractAttributesFromMolecularDataMultipleStudyFilter);
+        extractors.put(MUTATION_MULTIPLE_STUDY_FETCH_PATH, this::extractAttributesFromMutationMultipleStudyFilter);
+        extractors.put(COPY_NUMBER_SEG_FETCH_PATH, this::extractAttributesFromSampleIdentifiers);
+        for (String path : Arrays.asList(STUDY_VIEW_CLINICAL_DATA_BIN_COUNTS_PATH, STUDY_VIEW_CUSTOM_DATA_BIN_COUNTS_PATH)) {
+            extractors.put(path, this::extractAttributesFromClinicalDataBinCountFilter);
+        }
+        extractors.put(STUDY_VIEW_GENOMICL_DATA_BIN_COUNTS_PATH, this::extractAttributesFromGenomicDataBinCountFilter);
+        for (String path : Arrays.asList(STUDY_VIEW_GENOMICL_DATA_COUNTS_PATH, STUDY_VIEW_MUTATION_DATA_COUNTS_PATH)) {
+            extractors.put(path, this::extractAttributesFromGenomicDataCountFilter);
+        }
+        extractors.put(STUDY_VIEW_GENERIC_ASSAY_DATA_BIN_COUNTS_PATH, this::extractAttributesFromGenericAssayDataBinCountFilter);
+        extractors.put(STUDY_VIEW_GENERIC_ASSAY_DATA_COUNTS_PATH, this::extractAttributesFromGenericAssayDataCountFilter);
+        for (String path : Arrays.asList(STUDY_VIEW_CLINICAL_DATA_COUNTS_PATH, STUDY_VIEW_CUSTOM_DATA_COUNTS_PATH)) {
+            extractors.put(path, this::extractAttributesFromClinicalDataCountFilter);
+        }
+        for (String path : Arrays.asList(STUDY_VIEW_CLINICAL_DATA_DENSITY_PATH, STUDY_VIEW_CLINICAL_DATA_VIOLIN_PATH, STUDY_VIEW_CNA_GENES,
                 STUDY_VIEW_FILTERED_SAMPLES, STUDY_VIEW_MUTATED_GENES, STUDY_VIEW_STRUCTURAL_VARIANT_GENES,
                 STUDY_VIEW_STRUCTURAL_VARIANT_COUNTS, STUDY_VIEW_SAMPLE_COUNTS, STUDY_VIEW_SAMPLE_LIST_COUNTS_PATH, STUDY_VIEW_CLINICAL_TABLE_DATA_FETCH_PATH,
-                TREATMENTS_PATIENT_PATH, TREATMENTS_SAMPLE_PATH, STUDY_VIEW_PROFILE_SAMPLE_COUNTS_PATH, CLINICAL_EVENT_TYPE_COUNT_FETCH_PATH
-        ).contains(requestPathInfo)) {
-            return extractAttributesFromStudyViewFilter(request);
-        } else if (requestPathInfo.equals(CLINICAL_DATA_ENRICHMENT_FETCH_PATH)) {
-            return extractAttributesFromGroupFilter(request);
-        } else if (requestPathInfo.equals(MUTATION_ENRICHMENT_FETCH_PATH) ||
-        		requestPathInfo.equals(COPY_NUMBER_ENRICHMENT_FETCH_PATH) ||
-        		requestPathInfo.equals(EXPRESSION_ENRICHMENT_FETCH_PATH) ||
-        		requestPathInfo.equals(GENERIC_ASSAY_ENRICHMENT_FETCH_PATH) ||
-                requestPathInfo.equals(GENERIC_ASSAY_CATEGORICAL_ENRICHMENT_FETCH_PATH) ||
-                requestPathInfo.equals(GENERIC_ASSAY_BINARY_ENRICHMENT_FETCH_PATH)) {
-            return extractAttributesFromMolecularProfileCasesGroups(request);
-        } else if (requestPathInfo.equals(ALTERATION_ENRICHMENT_FETCH_PATH)) {
-            return extractAttributesFromMolecularProfileCasesGroupsAndAlterationTypes(request);
-        } else if (requestPathInfo.equals(STRUCTURAL_VARIANT_FETCH_PATH)) {
-            return extractAttributesFromStructuralVariantFilter(request);
-        } else if (requestPathInfo.equals(GENERIC_ASSAY_DATA_MULTIPLE_STUDY_FETCH_PATH)) {
-            return extractAttributesFromGenericAssayDataMultipleStudyFilter(request);
-        } else if (requestPathInfo.equals(SURVIVAL_DATA_FETCH_PATH)) {
-            return extractCancerStudyIdsFromSurvivalRequest(request);
-        } else if (requestPathInfo.equals(CLINICAL_EVENT_META_FETCH_PATH)) {
-            return extractCancerStudyIdsFromClinicalEventAttributeRequest(request);
+                TREATMENTS_PATIENT_PATH, TREATMENTS_SAMPLE_PATH, STUDY_VIEW_PROFILE_SAMPLE_COUNTS_PATH, CLINICAL_EVENT_TYPE_COUNT_FETCH_PATH)) {
+            extractors.put(path, this::extractAttributesFromStudyViewFilter);
         }
-        return true;
+        extractors.put(CLINICAL_DATA_ENRICHMENT_FETCH_PATH, this::extractAttributesFromGroupFilter);
+        for (String path : Arrays.asList(MUTATION_ENRICHMENT_FETCH_PATH, COPY_NUMBER_ENRICHMENT_FETCH_PATH,
+                EXPRESSION_ENRICHMENT_FETCH_PATH, GENERIC_ASSAY_ENRICHMENT_FETCH_PATH,
+                GENERIC_ASSAY_CATEGORICAL_ENRICHMENT_FETCH_PATH, GENERIC_ASSAY_BINARY_ENRICHMENT_FETCH_PATH)) {
+            extractors.put(path, this::extractAttributesFromMolecularProfileCasesGroups);
+        }
+        extractors.put(ALTERATION_ENRICHMENT_FETCH_PATH, this::extractAttributesFromMolecularProfileCasesGroupsAndAlterationTypes);
+        extractors.put(STRUCTURAL_VARIANT_FETCH_PATH, this::extractAttributesFromStructuralVariantFilter);
+        extractors.put(GENERIC_ASSAY_DATA_MULTIPLE_STUDY_FETCH_PATH, this::extractAttributesFromGenericAssayDataMultipleStudyFilter);
+        extractors.put(SURVIVAL_DATA_FETCH_PATH, this::extractCancerStudyIdsFromSurvivalRequest);
+        extractors.put(CLINICAL_EVENT_META_FETCH_PATH, this::extractCancerStudyIdsFromClinicalEventAttributeRequest);
+        return extractors;
+    }
+
+    /**
+     * Reads the request body as the given type. The body is only read here: as the input stream is consumed, the
+     * &#64;RequestBody parameter of the handler resolves to null and the handler uses the request attribute instead.
+     */
+    private <T> T readBody(HttpServletRequest request, Class<T> type) throws IOException {
+        return objectReaders.computeIfAbsent(type, objectMapper::readerFor).readValue(request.getInputStream());
     }
 
     private boolean extractAttributesFromPatientFilter(HttpServletRequest request) {
         try {
-            PatientFilter patientFilter = objectMapper.readValue(request.getInputStream(), PatientFilter.class);
+            PatientFilter patientFilter = readBody(request, PatientFilter.class);
             LOG.debug("extracted patientFilter: {}", patientFilter);
             LOG.debug("setting interceptedPatientFilter to {}", patientFilter);
             request.setAttribute("interceptedPatientFilter", patientFilter);
@@ -235,7 +240,7 @@ public class InvolvedCancerStudyExtractorInterceptor implements HandlerIntercept
 
     private boolean extractAttributesFromSampleFilter(HttpServletRequest request) {
         try {
-            SampleFilter sampleFilter = objectMapper.readValue(request.getInputStream(), SampleFilter.class);
+            SampleFilter sampleFilter = readBody(request, SampleFilter.class);
             LOG.debug("extracted sampleFilter: {}", sampleFilter);
             LOG.debug("setting interceptedSampleFilter to {}", sampleFilter);
             request.setAttribute("interceptedSampleFilter", sampleFilter);
@@ -266,7 +271,7 @@ public class InvolvedCancerStudyExtractorInterceptor implements HandlerIntercept
 
     private boolean extractAttributesFromMolecularProfileFilter(HttpServletRequest request) {
         try {
-            MolecularProfileFilter molecularProfileFilter = objectMapper.readValue(request.getInputStream(), MolecularProfileFilter.class);
+            MolecularProfileFilter molecularProfileFilter = readBody(request, MolecularProfileFilter.class);
             LOG.debug("extracted molecularProfileFilter: {}", molecularProfileFilter);
             LOG.debug("setting interceptedMolecularProfileFilter to {}", molecularProfileFilter);
             request.setAttribute("interceptedMolecularProfileFilter", molecularProfileFilter);
@@ -295,7 +300,7 @@ public class InvolvedCancerStudyExtractorInterceptor implements HandlerIntercept
 
     private boolean extractAttributesFromClinicalAttributeCountFilter(HttpServletRequest request) {
         try {
-            ClinicalAttributeCountFilter clinicalAttributeCountFilter = objectMapper.readValue(request.getInputStream(), ClinicalAttributeCountFilter.class);
+            ClinicalAttributeCountFilter clinicalAttributeCountFilter = readBody(request, ClinicalAttributeCountFilter.class);
             LOG.debug("extracted clinicalAttributeCountFilter: {}", clinicalAttributeCountFilter);
             LOG.debug("setting interceptedClinicalAttributeCountFilter to {}", clinicalAttributeCountFilter);
             request.setAttribute("interceptedClinicalAttributeCountFilter", clinicalAttributeCountFilter);
@@ -324,7 +329,7 @@ public class InvolvedCancerStudyExtractorInterceptor implements HandlerIntercept
 
     private boolean extractAttributesFromClinicalDataMultiStudyFilter(HttpServletRequest request) {
         try {
-            ClinicalDataMultiStudyFilter clinicalDataMultiStudyFilter = objectMapper.readValue(request.getInputStream(), ClinicalDataMultiStudyFilter.class);
+            ClinicalDataMultiStudyFilter clinicalDataMultiStudyFilter = readBody(request, ClinicalDataMultiStudyFilter.class);
             LOG.debug("extracted clinicalDataMultiStudyFilter: {}", clinicalDataMultiStudyFilter);
             LOG.debug("setting interceptedClinicalDataMultiStudyFilter to {}", clinicalDataMultiStudyFilter);
             request.setAttribute("interceptedClinicalDataMultiStudyFilter", clinicalDataMultiStudyFilter);
@@ -351,7 +356,7 @@ public class InvolvedCancerStudyExtractorInterceptor implements HandlerIntercept
 
     private boolean extractAttributesFromGenePanelDataMultipleStudyFilter(HttpServletRequest request) {
         try {
-            GenePanelDataMultipleStudyFilter genePanelDataMultipleStudyFilter = objectMapper.readValue(request.getInputStream(), GenePanelDataMultipleStudyFilter.class);
+            GenePanelDataMultipleStudyFilter genePanelDataMultipleStudyFilter = readBody(request, GenePanelDataMultipleStudyFilter.class);
             LOG.debug("extracted genePanelDataMultipleStudyFilter: {}", genePanelDataMultipleStudyFilter);
             LOG.debug("setting interceptedGenePanelDataMultipleStudyFilter to {}", genePanelDataMultipleStudyFilter);
             request.setAttribute("interceptedGenePanelDataMultipleStudyFilter", genePanelDataMultipleStudyFilter);
@@ -379,7 +384,7 @@ public class InvolvedCancerStudyExtractorInterceptor implements HandlerIntercept
 
     private boolean extractAttributesFromMolecularDataMultipleStudyFilter(HttpServletRequest request) {
         try {
-            MolecularDataMultipleStudyFilter molecularDataMultipleStudyFilter = objectMapper.readValue(request.getInputStream(), MolecularDataMultipleStudyFilter.class);
+            MolecularDataMultipleStudyFilter molecularDataMultipleStudyFilter = readBody(request, MolecularDataMultipleStudyFilter.class);
             LOG.debug("extracted molecularDataMultipleStudyFilter: {}", molecularDataMultipleStudyFilter);
             LOG.debug("setting interceptedMolecularDataMultipleStudyFilter to {}", molecularDataMultipleStudyFilter);
             request.setAttribute("interceptedMolecularDataMultipleStudyFilter", molecularDataMultipleStudyFilter);
@@ -407,7 +412,7 @@ public class InvolvedCancerStudyExtractorInterceptor implements HandlerIntercept
 
     private boolean extractAttributesFromGenericAssayDataMultipleStudyFilter(HttpServletRequest request) {
         try {
-            GenericAssayDataMultipleStudyFilter genericAssayDataMultipleStudyFilter = objectMapper.readValue(request.getInputStream(), GenericAssayDataMultipleStudyFilter.class);
+            GenericAssayDataMultipleStudyFilter genericAssayDataMultipleStudyFilter = readBody(request, GenericAssayDataMultipleStudyFilter.class);
             LOG.debug("extracted genericAssayDataMultipleStudyFilter: {}", genericAssayDataMultipleStudyFilter);
             LOG.debug("setting interceptedGenericAssayDataMultipleStudyFilter to {}", genericAssayDataMultipleStudyFilter);
             request.setAttribute("interceptedGenericAssayDataMultipleStudyFilter", genericAssayDataMultipleStudyFilter);
@@ -435,7 +440,7 @@ public class InvolvedCancerStudyExtractorInterceptor implements HandlerIntercept
 
     private boolean extractAttributesFromMutationMultipleStudyFilter(HttpServletRequest request) {
         try {
-            MutationMultipleStudyFilter mutationMultipleStudyFilter = objectMapper.readValue(request.getInputStream(), MutationMultipleStudyFilter.class);
+            MutationMultipleStudyFilter mutationMultipleStudyFilter = readBody(request, MutationMultipleStudyFilter.class);
             LOG.debug("extracted mutationMultipleStudyFilter: {}", mutationMultipleStudyFilter);
             LOG.debug("setting interceptedMutationMultipleStudyFilter to {}", mutationMultipleStudyFilter);
             request.setAttribute("interceptedMutationMultipleStudyFilter", mutationMultipleStudyFilter);
@@ -463,7 +468,7 @@ public class InvolvedCancerStudyExtractorInterceptor implements HandlerIntercept
 
     private boolean extractAttributesFromSampleIdentifiers(HttpServletRequest request) {
         try {
-            List<SampleIdentifier> sampleIdentifiers = Arrays.asList(objectMapper.readValue(request.getInputStream(), SampleIdentifier[].class));
+            List<SampleIdentifier> sampleIdentifiers = Arrays.asList(readBody(request, SampleIdentifier[].class));
             LOG.debug("extracted sampleIdentifiers: {}", sampleIdentifiers);
             LOG.debug("setting interceptedSampleIdentifiers to {}", sampleIdentifiers);
             request.setAttribute("interceptedSampleIdentifiers", sampleIdentifiers);
@@ -481,8 +486,7 @@ public class InvolvedCancerStudyExtractorInterceptor implements HandlerIntercept
 
     private boolean extractAttributesFromClinicalDataBinCountFilter(HttpServletRequest request) {
         try {
-            ClinicalDataBinCountFilter clinicalDataBinCountFilter = objectMapper.readValue(request.getInputStream(),
-                    ClinicalDataBinCountFilter.class);
+            ClinicalDataBinCountFilter clinicalDataBinCountFilter = readBody(request, ClinicalDataBinCountFilter.class);
             LOG.debug("extracted clinicalDataBinCountFilter: {}", clinicalDataBinCountFilter);
             LOG.debug("setting interceptedClinicalDataBinCountFilter to {}", clinicalDataBinCountFilter);
             request.setAttribute("interceptedClinicalDataBinCountFilter", clinicalDataBinCountFilter);
@@ -501,8 +505,7 @@ public class InvolvedCancerStudyExtractorInterceptor implements HandlerIntercept
     
     private boolean extractAttributesFromGenomicDataBinCountFilter(HttpServletRequest request) {
         try {
-            GenomicDataBinCountFilter genomicDataBinCountFilter = objectMapper.readValue(request.getInputStream(),
-                    GenomicDataBinCountFilter.class);
+            GenomicDataBinCountFilter genomicDataBinCountFilter = readBody(request, GenomicDataBinCountFilter.class);
             LOG.debug("extracted genomicDataBinCountFilter: {}", genomicDataBinCountFilter);
             LOG.debug("setting interceptedGenomicDataBinCountFilter to {}", genomicDataBinCountFilter);
             request.setAttribute("interceptedGenomicDataBinCountFilter", genomicDataBinCountFilter);
@@ -521,8 +524,7 @@ public class InvolvedCancerStudyExtractorInterceptor implements HandlerIntercept
 
     private boolean extractAttributesFromGenomicDataCountFilter(HttpServletRequest request) {
         try {
-            GenomicDataCountFilter genomicDataCountFilter = objectMapper.readValue(request.getInputStream(),
-                GenomicDataCountFilter.class);
+            GenomicDataCountFilter genomicDataCountFilter = readBody(request, GenomicDataCountFilter.class);
             LOG.debug("extracted genomicDataCountFilter: {}", genomicDataCountFilter);
             LOG.debug("setting interceptedGenomicDataCountFilter to {}", genomicDataCountFilter);
             request.setAttribute("interceptedGenomicDataCountFilter", genomicDataCountFilter);
@@ -541,8 +543,7 @@ public class InvolvedCancerStudyExtractorInterceptor implements HandlerIntercept
 
     private boolean extractAttributesFromGenericAssayDataBinCountFilter(HttpServletRequest request) {
         try {
-            GenericAssayDataBinCountFilter genericAssayDataBinCountFilter = objectMapper
-                    .readValue(request.getInputStream(), GenericAssayDataBinCountFilter.class);
+            GenericAssayDataBinCountFilter genericAssayDataBinCountFilter = readBody(request, GenericAssayDataBinCountFilter.class);
             LOG.debug("extracted genericAssayDataBinCountFilter: {}", genericAssayDataBinCountFilter);
             LOG.debug("setting interceptedGenericAssayDataBinCountFilter to {}", genericAssayDataBinCountFilter);
             request.setAttribute("interceptedGenericAssayDataBinCountFilter", genericAssayDataBinCountFilter);
@@ -561,8 +562,7 @@ public class InvolvedCancerStudyExtractorInterceptor implements HandlerIntercept
 
     private boolean extractAttributesFromGenericAssayDataCountFilter(HttpServletRequest request) {
         try {
-            GenericAssayDataCountFilter genericAssayDataCountFilter = objectMapper
-                    .readValue(request.getInputStream(), GenericAssayDataCountFilter.class);
+            GenericAssayDataCountFilter genericAssayDataCountFilter = readBody(request, GenericAssayDataCountFilter.class);
             LOG.debug("extracted genericAssayDataCountFilter: {}", genericAssayDataCountFilter);
             LOG.debug("setting interceptedGenericAssayDataCountFilter to {}", genericAssayDataCountFilter);
             request.setAttribute("interceptedGenericAssayDataCountFilter", genericAssayDataCountFilter);
@@ -581,8 +581,7 @@ public class InvolvedCancerStudyExtractorInterceptor implements HandlerIntercept
 
     private boolean extractAttributesFromClinicalDataCountFilter(HttpServletRequest request) {
         try {
-            ClinicalDataCountFilter clinicalDataCountFilter = objectMapper.readValue(request.getInputStream(),
-                    ClinicalDataCountFilter.class);
+            ClinicalDataCountFilter clinicalDataCountFilter = readBody(request, ClinicalDataCountFilter.class);
             LOG.debug("extracted clinicalDataBinCountFilter: {}", clinicalDataCountFilter);
             LOG.debug("setting interceptedClinicalDataCountFilter to {}", clinicalDataCountFilter);
             request.setAttribute("interceptedClinicalDataCountFilter", clinicalDataCountFilter);
@@ -601,8 +600,7 @@ public class InvolvedCancerStudyExtractorInterceptor implements HandlerIntercept
 
     private boolean extractAttributesFromGroupFilter(HttpServletRequest request) {
         try {
-            GroupFilter groupFilter = objectMapper.readValue(request.getInputStream(),
-                    GroupFilter.class);
+            GroupFilter groupFilter = readBody(request, GroupFilter.class);
             LOG.debug("extracted groupFilter: {}", groupFilter);
             LOG.debug("setting interceptedGroupFilter to {}", groupFilter);
             request.setAttribute("interceptedGroupFilter", groupFilter);
@@ -622,7 +620,7 @@ public class InvolvedCancerStudyExtractorInterceptor implements HandlerIntercept
 
     private boolean extractAttributesFromStudyViewFilter(HttpServletRequest request) {
         try {
-            StudyViewFilter studyViewFilter = objectMapper.readValue(request.getInputStream(), StudyViewFilter.class);
+            StudyViewFilter studyViewFilter = readBody(request, StudyViewFilter.class);
             if (studyViewFilter.getAlterationFilter() == null) {
                 // For backwards compatibility an inactive filter is set
                 // when the AlterationFilter is not part of the request.
@@ -651,7 +649,7 @@ public class InvolvedCancerStudyExtractorInterceptor implements HandlerIntercept
     private boolean extractAttributesFromMolecularProfileCasesGroups(HttpServletRequest request) {
         try {
             List<MolecularProfileCasesGroupFilter> molecularProfileCasesGroupFilters = Arrays
-                    .asList(objectMapper.readValue(request.getInputStream(), MolecularProfileCasesGroupFilter[].class));
+                    .asList(readBody(request, MolecularProfileCasesGroupFilter[].class));
             LOG.debug("extracted molecularProfileCasesGroupFilters: {}", molecularProfileCasesGroupFilters);
             LOG.debug("setting interceptedMolecularProfileCasesGroupFilters to {}", molecularProfileCasesGroupFilters);
             request.setAttribute("interceptedMolecularProfileCasesGroupFilters", molecularProfileCasesGroupFilters);
@@ -670,7 +668,7 @@ public class InvolvedCancerStudyExtractorInterceptor implements HandlerIntercept
 
     private boolean extractAttributesFromMolecularProfileCasesGroupsAndAlterationTypes(HttpServletRequest request) {
         try {
-            MolecularProfileCasesGroupAndAlterationTypeFilter molecularProfileCasesAndAlterationTypesGroupFilters = objectMapper.readValue(request.getInputStream(), MolecularProfileCasesGroupAndAlterationTypeFilter.class);
+            MolecularProfileCasesGroupAndAlterationTypeFilter molecularProfileCasesAndAlterationTypesGroupFilters = readBody(request, MolecularProfileCasesGroupAndAlterationTypeFilter.class);
             List<MolecularProfileCasesGroupFilter> molecularProfileCasesGroupFilters = molecularProfileCasesAndAlterationTypesGroupFilters.getMolecularProfileCasesGroupFilter();
             LOG.debug("extracted molecularProfileCasesGroupFilters: {}", molecularProfileCasesGroupFilters);
             LOG.debug("setting interceptedMolecularProfileCasesGroupFilters to {}", molecularProfileCasesGroupFilters);
@@ -696,8 +694,7 @@ public class InvolvedCancerStudyExtractorInterceptor implements HandlerIntercept
 
     private boolean extractAttributesFromStructuralVariantFilter(HttpServletRequest request) {
         try {
-            StructuralVariantFilter structuralVariantFilter = objectMapper.readValue(request.getInputStream(),
-                    StructuralVariantFilter.class);
+            StructuralVariantFilter structuralVariantFilter = readBody(request, StructuralVariantFilter.class);
             LOG.debug("extracted structuralVariantFilter: {}", structuralVariantFilter);
             if (structuralVariantFilter.getStructuralVariantQueries() == null) {
                 // For backwards compatibility an empty set of queries is inferred
@@ -838,7 +835,7 @@ public class InvolvedCancerStudyExtractorInterceptor implements HandlerIntercept
 
     private boolean extractCancerStudyIdsFromSurvivalRequest(HttpServletRequest request) {
         try {
-            SurvivalRequest survivalRequest = objectMapper.readValue(request.getInputStream(), SurvivalRequest.class);
+            SurvivalRequest survivalRequest = readBody(request, SurvivalRequest.class);
             LOG.debug("extracted survivalRequest: {}", survivalRequest);
             LOG.debug("setting interceptedSurvivalRequest to {}", survivalRequest);
             request.setAttribute("interceptedSurvivalRequest", survivalRequest);
@@ -860,7 +857,7 @@ public class InvolvedCancerStudyExtractorInterceptor implements HandlerIntercept
 
     private boolean extractCancerStudyIdsFromClinicalEventAttributeRequest(HttpServletRequest request) {
         try {
-            ClinicalEventAttributeRequest clinicalEventAttributeRequest = objectMapper.readValue(request.getInputStream(), ClinicalEventAttributeRequest.class);
+            ClinicalEventAttributeRequest clinicalEventAttributeRequest = readBody(request, ClinicalEventAttributeRequest.class);
             LOG.debug("extracted clinicalEventAttributeRequest: {}", clinicalEventAttributeRequest);
             LOG.debug("setting interceptedClinicalEventAttributeRequest to {}", clinicalEventAttributeRequest);
             request.setAttribute("interceptedClinicalEventAttributeRequest", clinicalEventAttributeRequest);
@@ -0,0 +1,109 @@
+package org.cbioportal.web.util;
+
+import org.apache.commons.lang3.math.NumberUtils;
+import org.cbioportal.model.ClinicalData;
+import org.cbioportal.model.Sample;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * The numerical values of two clinical attributes of the samples that have a value for both, e.g. the X and Y values
+ * of a density plot. Values of patient attributes are used for every sample of the patient.
+ */
+public final class PairedClinicalValues {
+
+    private final double[] xValues;
+    private final double[] yValues;
+
+    private PairedClinicalValues(double[] xValues, double[] yValues) {
+        this.xValues = xValues;
+        this.yValues = yValues;
+    }
+
+    /**
+     * @param clinicalData sample and patient clinical data of both attributes, patient data has no sample id
+     * @param samples samples of the patients of the patient clinical data
+     * @param xScale applied to the values of the X attribute, e.g. a log scale
+     * @param yScale applied to the values of the Y attribute
+     * @return null if a patient of the clinical data has no sample
+     */
+    public static PairedClinicalValues pair(List<ClinicalData> clinicalData,
+                                            List<Sample> samples,
+                                            String xAttributeId,
+                                            DoubleUnaryOperator xScale,
+                                            DoubleUnaryOperator yScale) {
+        Map<String, List<String>> sampleIdsOfPatients = new HashMap<>();
+        if (samples != null) {
+            for (Sample sample : samples) {
+                sampleIdsOfPatients.computeIfAbsent(
+                    caseKey(sample.getCancerStudyIdentifier(), sample.getPatientStableId()), k -> new ArrayList<>())
+                    .add(sample.getStableId());
+            }
+        }
+
+        Map<String, Integer> sampleIndexes = new HashMap<>();
+        List<String> xRawValues = new ArrayList<>();
+        List<String> yRawValues = new ArrayList<>();
+        List<Integer> valueCounts = new ArrayList<>();
+        for (ClinicalData datum : clinicalData) {
+            List<String> sampleIds;
+            if (datum.getSampleId() == null) {
+                // patient data, the value is used for every sample of the patient
+                sampleIds = sampleIdsOfPatients.get(caseKey(datum.getStudyId(), datum.getPatientId()));
+                if (sampleIds == null) {
+                    return null;
+                }
+            } else {
+                sampleIds = List.of(datum.getSampleId());
+            }
+            boolean isX = datum.getAttrId().equals(xAttributeId);
+            for (String sampleId : sampleIds) {
+                int index = sampleIndexes.computeIfAbsent(caseKey(datum.getStudyId(), sampleId), k -> {
+                    xRawValues.add(null);
+                    yRawValues.add(null);
+                    valueCounts.add(0);
+                    return valueCounts.size() - 1;
+                });
+                (isX ? xRawValues : yRawValues).set(index, datum.getAttrValue());
+                valueCounts.set(index, valueCounts.get(index) + 1);
+            }
+        }
+
+        double[] xValues = new double[valueCounts.size()];
+        double[] yValues = new double[valueCounts.size()];
+        int size = 0;
+        for (int i = 0; i < valueCounts.size(); i++) {
+            String xRawValue = xRawValues.get(i);
+            String yRawValue = yRawValues.get(i);
+            // exactly one numerical value of each attribute
+            if (valueCounts.get(i) == 2 && xRawValue != null && yRawValue != null &&
+                NumberUtils.isCreatable(xRawValue) && NumberUtils.isCreatable(yRawValue)) {
+                xValues[size] = xScale.applyAsDouble(Double.parseDouble(xRawValue));
+                yValues[size] = yScale.applyAsDouble(Double.parseDouble(yRawValue));
+                size++;
+            }
+        }
+        return new PairedClinicalValues(Arrays.copyOf(xValues, size), Arrays.copyOf(yValues, size));
+    }
+
+    private static String caseKey(String studyId, String caseId) {
+        return studyId + ":" + caseId;
+    }
+
+    public int size() {
+        return xValues.length;
+    }
+
+    public double[] getXValues() {
+        return xValues;
+    }
+
+    public double[] getYValues() {
+        return yValues;
+    }
+}
@@ -7,8 +7,8 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.LoggerFactory;
 import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
-import org.springframework.web.util.ContentCachingRequestWrapper;
 import org.springframework.web.util.ContentCachingResponseWrapper;
 
 
@@ -21,6 +21,9 @@ import org.springframework.web.util.ContentCachingResponseWrapper;
 public class ResettableHttpServletRequestFilter implements Filter {
     private Logger LOG = LoggerFactory.getLogger(ResettableHttpServletRequestFilter.class);
 
+    @Autowired
+    private StreamingJsonResponseWriter streamingJsonResponseWriter;
+
     @Override
     public void init(FilterConfig aChain) throws ServletException {
         // do nothing
@@ -28,9 +31,15 @@ public class ResettableHttpServletRequestFilter implements Filter {
 
     @Override
     public void doFilter(ServletRequest request, ServletResponse response, FilterChain filterChain) throws IOException, ServletException {
-        ContentCachingRequestWrapper wrappedRequest = new ContentCachingRequestWrapper((HttpServletRequest) request);
+        // the request body is not cached: it is read once, by InvolvedCancerStudyExtractorInterceptor or as the
+        // @RequestBody of the handler, and a copy of large filter bodies would only add to the allocation per request
+        if (streamingJsonResponseWriter.isStreamingRequest((HttpServletRequest) request)) {
+            // the response is written while it is produced, buffering it would defeat that
+            filterChain.doFilter(request, response);
+            return;
+        }
         ContentCachingResponseWrapper wrappedResponse = new ContentCachingResponseWrapper((HttpServletResponse) response);
-        filterChain.doFilter(wrappedRequest, wrappedResponse);
+        filterChain.doFilter(request, wrappedResponse);
         wrappedResponse.copyBodyToResponse();
     }
 
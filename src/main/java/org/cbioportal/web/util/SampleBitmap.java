@@ -0,0 +1,64 @@
+package org.cbioportal.web.util;
+
+import org.roaringbitmap.RoaringBitmap;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Set of samples held as a bitmap over the positions of a {@link SampleIndex}. This is what gets cached for a study
+ * view filter: only the study ids, a fingerprint of the sample ids of every study and the (run-length compressed)
+ * bitmap are serialized, the sample ids themselves are looked up in the {@link SampleIndexCache} again.
+ */
+public class SampleBitmap implements Serializable {
+
+    private final String[] studyIds;
+    private final long[] studyFingerprints;
+    private final RoaringBitmap samples;
+    private transient SampleIndex sampleIndex;
+
+    public SampleBitmap(SampleIndex sampleIndex, RoaringBitmap samples) {
+        List<StudySampleIndex> studySampleIndexes = sampleIndex.getStudySampleIndexes();
+        studyIds = new String[studySampleIndexes.size()];
+        studyFingerprints = new long[studySampleIndexes.size()];
+        for (int i = 0; i < studySampleIndexes.size(); i++) {
+            studyIds[i] = studySampleIndexes.get(i).getStudyId();
+            studyFingerprints[i] = studySampleIndexes.get(i).getFingerprint();
+        }
+        samples.runOptimize();
+        this.samples = samples;
+        this.sampleIndex = sampleIndex;
+    }
+
+    public String[] getStudyIds() {
+        return studyIds;
+    }
+
+    public RoaringBitmap getSamples() {
+        return samples;
+    }
+
+    /**
+     * @return the index the bitmap was computed with, or null if this bitmap was deserialized
+     */
+    public SampleIndex getSampleIndex() {
+        return sampleIndex;
+    }
+
+    /**
+     * @return whether the positions of the given index are the ones this bitmap was computed with
+     */
+    public boolean isComputedWith(SampleIndex sampleIndex) {
+        List<StudySampleIndex> studySampleIndexes = sampleIndex.getStudySampleIndexes();
+        if (studySampleIndexes.size() != studyIds.length) {
+            return false;
+        }
+        for (int i = 0; i < studyIds.length; i++) {
+            if (!studyIds[i].equals(studySampleIndexes.get(i).getStudyId())
+                || studyFingerprints[i] != studySampleIndexes.get(i).getFingerprint()) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,132 @@
+package org.cbioportal.web.util;
+
+import org.cbioportal.model.Sample;
+import org.cbioportal.web.parameter.SampleIdentifier;
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Numbers the samples of several studies one after the other, so that a set of samples of these studies can be held
+ * in a compressed bitmap (one bit per sample) and intersected, merged or subtracted word by word.
+ */
+public class SampleIndex {
+
+    public static final SampleIndex EMPTY = new SampleIndex(new ArrayList<>());
+
+    private final List<StudySampleIndex> studySampleIndexes;
+    // position of the first sample of every study, followed by the total number of samples
+    private final int[] offsets;
+    private final Map<String, Integer> studyOrdinals = new HashMap<>();
+
+    public SampleIndex(List<StudySampleIndex> studySampleIndexes) {
+        this.studySampleIndexes = studySampleIndexes;
+        offsets = new int[studySampleIndexes.size() + 1];
+        for (int i = 0; i < studySampleIndexes.size(); i++) {
+            offsets[i + 1] = offsets[i] + studySampleIndexes.get(i).size();
+            studyOrdinals.put(studySampleIndexes.get(i).getStudyId(), i);
+        }
+    }
+
+    /**
+     * Builds an index of the given samples, grouped by study in the order in which the studies first appear.
+     */
+    public static SampleIndex of(List<Sample> samples) {
+        Map<String, List<String>> sampleIdsByStudyId = new LinkedHashMap<>();
+        for (Sample sample : samples) {
+            sampleIdsByStudyId.computeIfAbsent(sample.getCancerStudyIdentifier(), k -> new ArrayList<>())
+                .add(sample.getStableId());
+        }
+        List<StudySampleIndex> studySampleIndexes = new ArrayList<>(sampleIdsByStudyId.size());
+        sampleIdsByStudyId.forEach((studyId, sampleIds) -> studySampleIndexes.add(new StudySampleIndex(studyId, sampleIds)));
+        return new SampleIndex(studySampleIndexes);
+    }
+
+    public List<StudySampleIndex> getStudySampleIndexes() {
+        return studySampleIndexes;
+    }
+
+    public int size() {
+        return offsets[offsets.length - 1];
+    }
+
+    public RoaringBitmap getAllSamples() {
+        return RoaringBitmap.bitmapOfRange(0, size());
+    }
+
+    /**
+     * @return the position of the sample, or -1 if the sample is not part of this index
+     */
+    public int getPosition(String studyId, String sampleId) {
+        Integer studyOrdinal = studyOrdinals.get(studyId);
+        if (studyOrdinal == null) {
+            return -1;
+        }
+        int position = studySampleIndexes.get(studyOrdinal).getPosition(sampleId);
+        return position == -1 ? -1 : offsets[studyOrdinal] + position;
+    }
+
+    /**
+     * Sets the bit of the sample, samples that are not part of this index are ignored.
+     */
+    public void add(RoaringBitmap samples, String studyId, String sampleId) {
+        int position = getPosition(studyId, sampleId);
+        if (position != -1) {
+            samples.add(position);
+        }
+    }
+
+    public RoaringBitmap toBitmap(Collection<SampleIdentifier> sampleIdentifiers) {
+        RoaringBitmap samples = new RoaringBitmap();
+        for (SampleIdentifier sampleIdentifier : sampleIdentifiers) {
+            add(samples, sampleIdentifier.getStudyId(), sampleIdentifier.getSampleId());
+        }
+        return samples;
+    }
+
+    public List<SampleIdentifier> toSampleIdentifiers(RoaringBitmap samples) {
+        List<SampleIdentifier> sampleIdentifiers = new ArrayList<>(samples.getCardinality());
+        int studyOrdinal = 0;
+        PeekableIntIterator iterator = samples.getIntIterator();
+        while (iterator.hasNext()) {
+            int position = iterator.next();
+            while (position >= offsets[studyOrdinal + 1]) {
+                studyOrdinal++;
+            }
+            StudySampleIndex studySampleIndex = studySampleIndexes.get(studyOrdinal);
+            SampleIdentifier sampleIdentifier = new SampleIdentifier();
+            sampleIdentifier.setStudyId(studySampleIndex.getStudyId());
+            sampleIdentifier.setSampleId(studySampleIndex.getSampleId(position - offsets[studyOrdinal]));
+            sampleIdentifiers.add(sampleIdentifier);
+        }
+        return sampleIdentifiers;
+    }
+
+    /**
+     * @return the ids of the studies that have at least one of the given samples
+     */
+    public List<String> getStudyIds(RoaringBitmap samples) {
+        List<String> studyIds = new ArrayList<>();
+        for (int i = 0; i < studySampleIndexes.size(); i++) {
+            if (offsets[i] < offsets[i + 1] && samples.intersects(offsets[i], offsets[i + 1])) {
+                studyIds.add(studySampleIndexes.get(i).getStudyId());
+            }
+        }
+        return studyIds;
+    }
+
+    public Map<String, List<String>> getSampleIdsByStudyId(RoaringBitmap samples) {
+        Map<String, List<String>> sampleIdsByStudyId = new LinkedHashMap<>();
+        for (SampleIdentifier sampleIdentifier : toSampleIdentifiers(samples)) {
+            sampleIdsByStudyId.computeIfAbsent(sampleIdentifier.getStudyId(), k -> new ArrayList<>())
+                .add(sampleIdentifier.getSampleId());
+        }
+        return sampleIdsByStudyId;
+    }
+}
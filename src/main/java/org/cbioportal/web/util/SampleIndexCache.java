@@ -0,0 +1,99 @@
+package org.cbioportal.web.util;
+
+import org.cbioportal.model.Sample;
+import org.cbioportal.persistence.util.AbstractStudyScopedCache;
+import org.cbioportal.service.SampleService;
+import org.cbioportal.web.parameter.Projection;
+import org.cbioportal.web.parameter.SampleIdentifier;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps a {@link StudySampleIndex} of all samples of every study that was filtered on, so that filter results can be
+ * cached as {@link SampleBitmap}s and sample identifier filters do not need to query the database. When no index is
+ * retained, the samples are fetched for every request.
+ */
+@Component
+public class SampleIndexCache extends AbstractStudyScopedCache<String, StudySampleIndex> {
+
+    @Autowired
+    private SampleService sampleService;
+
+    /**
+     * Returns an index of all samples in the given studies. Studies without samples are left out.
+     */
+    public SampleIndex getSampleIndex(List<String> studyIds) {
+
+        if (!isRetaining()) {
+            return SampleIndex.of(fetchSamples(studyIds));
+        }
+
+        long loadGeneration = getGeneration();
+        List<String> distinctStudyIds = new ArrayList<>(new LinkedHashSet<>(studyIds));
+        Map<String, StudySampleIndex> studySampleIndexes = new HashMap<>();
+        List<String> missingStudyIds = new ArrayList<>();
+        for (String studyId : distinctStudyIds) {
+            StudySampleIndex studySampleIndex = getIfPresent(studyId);
+            if (studySampleIndex != null) {
+                studySampleIndexes.put(studyId, studySampleIndex);
+            } else {
+                missingStudyIds.add(studyId);
+            }
+        }
+
+        if (!missingStudyIds.isEmpty()) {
+            Map<String, StudySampleIndex> loaded = new HashMap<>();
+            SampleIndex.of(fetchSamples(missingStudyIds)).getStudySampleIndexes()
+                .forEach(studySampleIndex -> loaded.put(studySampleIndex.getStudyId(), studySampleIndex));
+            putAll(loaded, loadGeneration);
+            studySampleIndexes.putAll(loaded);
+        }
+
+        List<StudySampleIndex> indexes = new ArrayList<>(distinctStudyIds.size());
+        for (String studyId : distinctStudyIds) {
+            StudySampleIndex studySampleIndex = studySampleIndexes.get(studyId);
+            if (studySampleIndex != null) {
+                indexes.add(studySampleIndex);
+            }
+        }
+        return new SampleIndex(indexes);
+    }
+
+    /**
+     * @return the samples of the bitmap, or null if the index the bitmap was computed with is no longer available
+     */
+    public List<SampleIdentifier> getSampleIdentifiers(SampleBitmap sampleBitmap) {
+        SampleIndex sampleIndex = sampleBitmap.getSampleIndex();
+        if (sampleIndex == null) {
+            if (!isRetaining()) {
+                return null;
+            }
+            sampleIndex = getSampleIndex(Arrays.asList(sampleBitmap.getStudyIds()));
+            if (!sampleBitmap.isComputedWith(sampleIndex)) {
+                return null;
+            }
+        }
+        return sampleIndex.toSampleIdentifiers(sampleBitmap.getSamples());
+    }
+
+    @Override
+    protected boolean isConfigured() {
+        return true;
+    }
+
+    @Override
+    protected boolean isOfStudy(String studyId, StudySampleIndex studySampleIndex, String evictedStudyId) {
+        return studyId.equals(evictedStudyId);
+    }
+
+    private List<Sample> fetchSamples(List<String> studyIds) {
+        return sampleService.getAllSamplesInStudies(studyIds, Projection.ID.name(), null, null, null, null);
+    }
+}
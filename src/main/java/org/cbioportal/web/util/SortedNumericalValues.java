@@ -0,0 +1,191 @@
+package org.cbioportal.web.util;
+
+import com.google.common.collect.BoundType;
+import com.google.common.collect.Range;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Sorted numerical values of a chart, so that the values in a data bin are counted with two binary searches instead
+ * of a scan of all values. Searches run over a primitive copy of the values, and only values that are equal to a bin
+ * boundary as doubles are compared as BigDecimals, so counts are the same as with {@link Range#contains}.
+ */
+public final class SortedNumericalValues {
+
+    private final BigDecimal[] values;
+    private final double[] doubleValues;
+
+    private SortedNumericalValues(BigDecimal[] values) {
+        if (!isSorted(values)) {
+            sort(values);
+        }
+        this.values = values;
+        this.doubleValues = new double[values.length];
+        for (int i = 0; i < values.length; i++) {
+            doubleValues[i] = values[i].doubleValue();
+        }
+    }
+
+    public static SortedNumericalValues of(Collection<BigDecimal> values) {
+        return new SortedNumericalValues(values.toArray(new BigDecimal[0]));
+    }
+
+    private static boolean isSorted(BigDecimal[] values) {
+        for (int i = 1; i < values.length; i++) {
+            if (values[i - 1].compareTo(values[i]) > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Stable sort, as {@link Arrays#sort(Object[])}, that compares BigDecimals only once per distinct value: values
+     * of a chart repeat a lot, and comparing BigDecimals of different scales is slow.
+     */
+    private static void sort(BigDecimal[] values) {
+        Map<BigDecimal, Integer> distinctValueIndexes = new HashMap<>();
+        List<BigDecimal> distinctValues = new ArrayList<>();
+        int[] distinctValueOfValue = new int[values.length];
+        for (int i = 0; i < values.length; i++) {
+            Integer index = distinctValueIndexes.get(values[i]);
+            if (index == null) {
+                index = distinctValues.size();
+                distinctValueIndexes.put(values[i], index);
+                distinctValues.add(values[i]);
+            }
+            distinctValueOfValue[i] = index;
+        }
+        int[] counts = new int[distinctValues.size()];
+        for (int index : distinctValueOfValue) {
+            counts[index]++;
+        }
+
+        double[] doubleValues = distinctValues.stream().mapToDouble(BigDecimal::doubleValue).toArray();
+        Integer[] order = new Integer[distinctValues.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        // doubles are correctly rounded, so they are in the same order as the BigDecimals unless they are equal
+        Arrays.sort(order, (index1, index2) -> {
+            int comparison = Double.compare(doubleValues[index1], doubleValues[index2]);
+            return comparison != 0 ? comparison : distinctValues.get(index1).compareTo(distinctValues.get(index2));
+        });
+
+        BigDecimal[] sortedValues = new BigDecimal[values.length];
+        int position = 0;
+        for (int start = 0; start < order.length; ) {
+            // distinct values that are equal by compareTo (e.g. 5 and 5.0) stay in their original order
+            BigDecimal value = distinctValues.get(order[start]);
+            int end = start + 1;
+            while (end < order.length && value.compareTo(distinctValues.get(order[end])) == 0) {
+                end++;
+            }
+            if (end - start == 1) {
+                Arrays.fill(sortedValues, position, position + counts[order[start]], value);
+                position += counts[order[start]];
+            } else {
+                Set<Integer> equalValues = new HashSet<>(Arrays.asList(order).subList(start, end));
+                for (int i = 0; i < values.length; i++) {
+                    if (equalValues.contains(distinctValueOfValue[i])) {
+                        sortedValues[position++] = values[i];
+                    }
+                }
+            }
+            start = end;
+        }
+        System.arraycopy(sortedValues, 0, values, 0, values.length);
+    }
+
+    public int size() {
+        return values.length;
+    }
+
+    public BigDecimal get(int index) {
+        return values[index];
+    }
+
+    /**
+     * @return the values in ascending order
+     */
+    public List<BigDecimal> asList() {
+        return Arrays.asList(values);
+    }
+
+    /**
+     * @return number of values within the range, 0 for a null range
+     */
+    public int count(Range<BigDecimal> range) {
+        if (range == null) {
+            return 0;
+        }
+        return Math.max(0, toIndex(range) - fromIndex(range));
+    }
+
+    /**
+     * @return index of the first value within the range
+     */
+    public int fromIndex(Range<BigDecimal> range) {
+        if (!range.hasLowerBound()) {
+            return 0;
+        }
+        return range.lowerBoundType() == BoundType.CLOSED ? countLessThan(range.lowerEndpoint()) :
+            countAtMost(range.lowerEndpoint());
+    }
+
+    /**
+     * @return index after the last value within the range
+     */
+    public int toIndex(Range<BigDecimal> range) {
+        if (!range.hasUpperBound()) {
+            return values.length;
+        }
+        return range.upperBoundType() == BoundType.CLOSED ? countAtMost(range.upperEndpoint()) :
+            countLessThan(range.upperEndpoint());
+    }
+
+    private int countLessThan(BigDecimal bound) {
+        int index = countDoublesBelow(bound.doubleValue(), false);
+        // values that only differ from the bound beyond double precision
+        while (index > 0 && values[index - 1].compareTo(bound) >= 0) {
+            index--;
+        }
+        while (index < values.length && values[index].compareTo(bound) < 0) {
+            index++;
+        }
+        return index;
+    }
+
+    private int countAtMost(BigDecimal bound) {
+        int index = countDoublesBelow(bound.doubleValue(), true);
+        while (index > 0 && values[index - 1].compareTo(bound) > 0) {
+            index--;
+        }
+        while (index < values.length && values[index].compareTo(bound) <= 0) {
+            index++;
+        }
+        return index;
+    }
+
+    private int countDoublesBelow(double bound, boolean orEqual) {
+        int low = 0;
+        int high = doubleValues.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (doubleValues[middle] < bound || (orEqual && doubleValues[middle] == bound)) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+}
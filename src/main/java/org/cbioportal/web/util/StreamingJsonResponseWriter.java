@@ -0,0 +1,87 @@
+package org.cbioportal.web.util;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import static org.cbioportal.web.util.InvolvedCancerStudyExtractorInterceptor.CLINICAL_DATA_FETCH_PATH;
+import static org.cbioportal.web.util.InvolvedCancerStudyExtractorInterceptor.COPY_NUMBER_SEG_FETCH_PATH;
+import static org.cbioportal.web.util.InvolvedCancerStudyExtractorInterceptor.MOLECULAR_DATA_MULTIPLE_STUDY_FETCH_PATH;
+import static org.cbioportal.web.util.InvolvedCancerStudyExtractorInterceptor.MUTATION_MULTIPLE_STUDY_FETCH_PATH;
+
+/**
+ * Writes the result of a fetch endpoint to the response as a JSON array while the result is produced, so that
+ * neither the result list nor the serialized response has to be held in memory. Used by the endpoints that can
+ * return very large results (mutations, clinical data, molecular data and copy number segments of whole studies)
+ * when web.streaming_responses.enabled is set.
+ *
+ * As the response is committed with the first element, an error while producing the result can no longer be turned
+ * into an error response: the client receives a truncated array instead.
+ */
+@Component
+public class StreamingJsonResponseWriter {
+
+    private static final Set<String> STREAMING_PATHS = Set.of(CLINICAL_DATA_FETCH_PATH,
+        MOLECULAR_DATA_MULTIPLE_STUDY_FETCH_PATH, MUTATION_MULTIPLE_STUDY_FETCH_PATH, COPY_NUMBER_SEG_FETCH_PATH);
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${web.streaming_responses.enabled:false}")
+    private boolean enabled;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @return whether the request is for an endpoint which streams its response, in which case the response must not
+     * be buffered
+     */
+    public boolean isStreamingRequest(HttpServletRequest request) {
+        if (!enabled) {
+            return false;
+        }
+        String requestPathInfo = request.getPathInfo() == null ? request.getServletPath() : request.getPathInfo();
+        return requestPathInfo != null && STREAMING_PATHS.contains(requestPathInfo.replaceFirst("^/api", ""));
+    }
+
+    /**
+     * Writes every element the producer passes to its consumer as an element of a JSON array.
+     */
+    public <T> void write(HttpServletResponse response, Consumer<Consumer<T>> producer) throws IOException {
+
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        // flushing after every element would defeat the buffering of the generator
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(response.getOutputStream(),
+            JsonEncoding.UTF8)) {
+            generator.writeStartArray();
+            producer.accept(element -> {
+                try {
+                    writer.writeValue(generator, element);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            generator.writeEndArray();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package org.cbioportal.web.util;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Dense numbering of the samples of one study: every sample id gets a position from 0 to size - 1, in the order in
+ * which the samples were given.
+ */
+public class StudySampleIndex {
+
+    private final String studyId;
+    private final String[] sampleIds;
+    private final Map<String, Integer> positions;
+    private final long fingerprint;
+
+    public StudySampleIndex(String studyId, List<String> sampleIds) {
+        this.studyId = studyId;
+        List<String> distinctSampleIds = new ArrayList<>(sampleIds.size());
+        positions = new HashMap<>((int) (sampleIds.size() / 0.75f) + 1);
+        for (String sampleId : sampleIds) {
+            if (positions.putIfAbsent(sampleId, distinctSampleIds.size()) == null) {
+                distinctSampleIds.add(sampleId);
+            }
+        }
+        this.sampleIds = distinctSampleIds.toArray(new String[0]);
+        Hasher hasher = Hashing.murmur3_128().newHasher();
+        for (String sampleId : this.sampleIds) {
+            hasher.putString(sampleId, StandardCharsets.UTF_8).putByte((byte) 0);
+        }
+        fingerprint = hasher.hash().asLong();
+    }
+
+    public String getStudyId() {
+        return studyId;
+    }
+
+    public int size() {
+        return sampleIds.length;
+    }
+
+    /**
+     * @return hash of the ordered sample ids, which differs between indexes that number the samples differently
+     */
+    public long getFingerprint() {
+        return fingerprint;
+    }
+
+    public String getSampleId(int position) {
+        return sampleIds[position];
+    }
+
+    /**
+     * @return the position of the sample, or -1 if the sample is not part of this index
+     */
+    public int getPosition(String sampleId) {
+        Integer position = positions.get(sampleId);
+        return position == null ? -1 : position;
+    }
+}
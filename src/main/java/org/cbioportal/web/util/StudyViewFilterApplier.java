@@ -21,7 +21,6 @@ import org.cbioportal.model.MolecularProfile.MolecularAlterationType;
 import org.cbioportal.model.MolecularProfileCaseIdentifier;
 import org.cbioportal.model.Mutation;
 import org.cbioportal.model.MutationFilterOption;
-import org.cbioportal.model.Sample;
 import org.cbioportal.model.SampleList;
 import org.cbioportal.model.UniqueKeyBase;
 import org.cbioportal.service.ClinicalAttributeService;
@@ -58,6 +57,7 @@ import org.cbioportal.web.parameter.Projection;
 import org.cbioportal.web.parameter.SampleIdentifier;
 import org.cbioportal.web.parameter.StudyViewFilter;
 import org.cbioportal.web.util.appliers.StudyViewSubFilterApplier;
+import org.roaringbitmap.RoaringBitmap;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.context.ApplicationContext;
@@ -72,6 +72,7 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.function.Function;
+import java.util.function.UnaryOperator;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -122,6 +123,8 @@ public class StudyViewFilterApplier {
     private StructuralVariantService structuralVariantService;
     @Autowired
     private MolecularProfileUtil molecularProfileUtil;
+    @Autowired
+    private SampleIndexCache sampleIndexCache;
 
 
     private StudyViewFilterApplier getInstance() {
@@ -131,45 +134,53 @@ public class StudyViewFilterApplier {
         return instance;
     }
 
-    Function<Sample, SampleIdentifier> sampleToSampleIdentifier = new Function<Sample, SampleIdentifier>() {
-
-        public SampleIdentifier apply(Sample sample) {
-            return studyViewFilterUtil.buildSampleIdentifier(sample.getCancerStudyIdentifier(), sample.getStableId());
-        }
-    };
-
     public List<SampleIdentifier> apply(StudyViewFilter studyViewFilter) {
-        return this.getInstance().cachedApply(studyViewFilter);
+        List<SampleIdentifier> sampleIdentifiers = sampleIndexCache.getSampleIdentifiers(
+            this.getInstance().cachedApply(studyViewFilter));
+        // the sample index the cached bitmap was computed with is gone, e.g. after the study was reimported
+        return sampleIdentifiers != null ? sampleIdentifiers : this.apply(studyViewFilter, false);
     }
 
     @Cacheable(
         cacheResolver = "generalRepositoryCacheResolver",
         condition = "@cacheEnabledConfig.getEnabled()"
     )
-    public List<SampleIdentifier> cachedApply(StudyViewFilter studyViewFilter) {
-        return this.apply(studyViewFilter, false);
+    public SampleBitmap cachedApply(StudyViewFilter studyViewFilter) {
+        return this.filter(studyViewFilter, false);
     }
 
     public List<SampleIdentifier> apply(StudyViewFilter studyViewFilter, boolean negateFilters) {
+        SampleBitmap sampleBitmap = this.filter(studyViewFilter, negateFilters);
+        return sampleBitmap.getSampleIndex().toSampleIdentifiers(sampleBitmap.getSamples());
+    }
+
+    private SampleBitmap filter(StudyViewFilter studyViewFilter, boolean negateFilters) {
 
-        List<SampleIdentifier> sampleIdentifiers = new ArrayList<>();
         if (studyViewFilter == null) {
-            return sampleIdentifiers;
+            return new SampleBitmap(SampleIndex.EMPTY, new RoaringBitmap());
         }
 
-        if (studyViewFilter != null && studyViewFilter.getSampleIdentifiers() != null && !studyViewFilter.getSampleIdentifiers().isEmpty()) {
-            List<String> studyIds = new ArrayList<>();
-            List<String> sampleIds = new ArrayList<>();
-            studyViewFilterUtil.extractStudyAndSampleIds(studyViewFilter.getSampleIdentifiers(), studyIds, sampleIds);
-            sampleIdentifiers = sampleService.fetchSamples(studyIds, sampleIds, Projection.ID.name()).stream()
-                .map(sampleToSampleIdentifier).collect(Collectors.toList());
+        // every filter stage narrows the bitmap of the samples that passed so far
+        SampleIndex sampleIndex;
+        RoaringBitmap samples;
+        if (studyViewFilter.getSampleIdentifiers() != null && !studyViewFilter.getSampleIdentifiers().isEmpty()) {
+            if (sampleIndexCache.isRetaining()) {
+                sampleIndex = sampleIndexCache.getSampleIndex(studyViewFilter.getSampleIdentifiers().stream()
+                    .map(SampleIdentifier::getStudyId).distinct().collect(Collectors.toList()));
+                samples = sampleIndex.toBitmap(studyViewFilter.getSampleIdentifiers());
+            } else {
+                List<String> studyIds = new ArrayList<>();
+                List<String> sampleIds = new ArrayList<>();
+                studyViewFilterUtil.extractStudyAndSampleIds(studyViewFilter.getSampleIdentifiers(), studyIds, sampleIds);
+                sampleIndex = SampleIndex.of(sampleService.fetchSamples(studyIds, sampleIds, Projection.ID.name()));
+                samples = sampleIndex.getAllSamples();
+            }
         } else {
-            sampleIdentifiers = sampleService.getAllSamplesInStudies(studyViewFilter.getStudyIds(), Projection.ID.name(),
-                null, null, null, null).stream().map(sampleToSampleIdentifier).collect(Collectors.toList());
+            sampleIndex = sampleIndexCache.getSampleIndex(studyViewFilter.getStudyIds());
+            samples = sampleIndex.getAllSamples();
         }
 
-        List<String> studyIds = sampleIdentifiers.stream().map(SampleIdentifier::getStudyId).distinct()
-            .collect(Collectors.toList());
+        List<String> studyIds = sampleIndex.getStudyIds(samples);
 
         List<ClinicalDataFilter> clinicalDataEqualityFilters = new ArrayList<>();
         List<ClinicalDataFilter> clinicalDataIntervalFilters = new ArrayList<>();
@@ -200,16 +211,18 @@ public class StudyViewFilterApplier {
         }
 
         if (!CollectionUtils.isEmpty(clinicalDataEqualityFilters)) {
-            sampleIdentifiers = equalityFilterClinicalData(sampleIdentifiers, clinicalDataEqualityFilters, negateFilters);
+            samples = filter(sampleIndex, samples, sampleIdentifiers ->
+                equalityFilterClinicalData(sampleIdentifiers, clinicalDataEqualityFilters, negateFilters));
         }
 
         if (!CollectionUtils.isEmpty(clinicalDataIntervalFilters)) {
-            sampleIdentifiers = intervalFilterClinicalData(sampleIdentifiers, clinicalDataIntervalFilters, negateFilters);
+            samples = filter(sampleIndex, samples, sampleIdentifiers ->
+                intervalFilterClinicalData(sampleIdentifiers, clinicalDataIntervalFilters, negateFilters));
         }
 
         if (!CollectionUtils.isEmpty(studyViewFilter.getCustomDataFilters())) {
-            sampleIdentifiers = customDataFilterApplier.apply(sampleIdentifiers, studyViewFilter.getCustomDataFilters(),
-                negateFilters);
+            samples = filter(sampleIndex, samples, sampleIdentifiers ->
+                customDataFilterApplier.apply(sampleIdentifiers, studyViewFilter.getCustomDataFilters(), negateFilters));
         }
 
         List<MolecularProfile> molecularProfiles = null;
@@ -221,6 +234,7 @@ public class StudyViewFilterApplier {
 
             molecularProfiles = molecularProfileService.getMolecularProfilesInStudies(studyIds, "SUMMARY");
         }
+        List<MolecularProfile> studyMolecularProfiles = molecularProfiles;
 
         List<GenomicDataFilter> genomicDataEqualityFilters = new ArrayList<>();
         List<GenomicDataFilter> genomicDataIntervalFilters = new ArrayList<>();
@@ -247,17 +261,19 @@ public class StudyViewFilterApplier {
         }
 
         if (!CollectionUtils.isEmpty(genomicDataEqualityFilters)) {
-            sampleIdentifiers = equalityFilterExpressionData(sampleIdentifiers, molecularProfiles,
-                genomicDataEqualityFilters, negateFilters);
+            samples = filter(sampleIndex, samples, sampleIdentifiers -> equalityFilterExpressionData(
+                sampleIdentifiers, studyMolecularProfiles, genomicDataEqualityFilters, negateFilters));
         }
 
         if (!CollectionUtils.isEmpty(genomicDataIntervalFilters)) {
-            sampleIdentifiers = intervalFilterExpressionData(sampleIdentifiers, molecularProfiles,
-                genomicDataIntervalFilters, negateFilters);
+            samples = filter(sampleIndex, samples, sampleIdentifiers -> intervalFilterExpressionData(
+                sampleIdentifiers, studyMolecularProfiles, genomicDataIntervalFilters, negateFilters));
         }
 
-        sampleIdentifiers = intervalFilterExpressionData(sampleIdentifiers, molecularProfiles,
-            studyViewFilter.getGenericAssayDataFilters(), negateFilters);
+        if (!CollectionUtils.isEmpty(studyViewFilter.getGenericAssayDataFilters())) {
+            samples = filter(sampleIndex, samples, sampleIdentifiers -> intervalFilterExpressionData(
+                sampleIdentifiers, studyMolecularProfiles, studyViewFilter.getGenericAssayDataFilters(), negateFilters));
+        }
 
         if (!CollectionUtils.isEmpty(studyViewFilter.getGeneFilters())) {
             Map<String, MolecularProfile> molecularProfileMap = molecularProfiles.stream()
@@ -272,24 +288,25 @@ public class StudyViewFilterApplier {
             if ((mutatedGeneFilters.size() + structuralVariantGeneFilters.size() + cnaGeneFilters.size()) == studyViewFilter
                 .getGeneFilters().size()) {
                 if (!mutatedGeneFilters.isEmpty()) {
-                    sampleIdentifiers = filterMutatedGenes(mutatedGeneFilters, molecularProfileMap, sampleIdentifiers);
+                    samples = filter(sampleIndex, samples, sampleIdentifiers ->
+                        filterMutatedGenes(mutatedGeneFilters, molecularProfileMap, sampleIdentifiers));
                 }
                 if (!structuralVariantGeneFilters.isEmpty()) {
-                    sampleIdentifiers = filterStructuralVariantGenes(structuralVariantGeneFilters, molecularProfileMap,
-                        sampleIdentifiers);
+                    samples = filter(sampleIndex, samples, sampleIdentifiers ->
+                        filterStructuralVariantGenes(structuralVariantGeneFilters, molecularProfileMap, sampleIdentifiers));
                 }
                 if (!cnaGeneFilters.isEmpty()) {
-                    sampleIdentifiers = filterCNAGenes(cnaGeneFilters, molecularProfileMap, sampleIdentifiers);
+                    samples = filter(sampleIndex, samples, sampleIdentifiers ->
+                        filterCNAGenes(cnaGeneFilters, molecularProfileMap, sampleIdentifiers));
                 }
 
             } else {
-                return new ArrayList<>();
+                return new SampleBitmap(sampleIndex, new RoaringBitmap());
             }
         }
 
-        if (!CollectionUtils.isEmpty(studyViewFilter.getGenomicProfiles())) {
-            Map<String, List<SampleIdentifier>> groupStudySampleIdentifiers = sampleIdentifiers.stream()
-                .collect(Collectors.groupingBy(SampleIdentifier::getStudyId));
+        if (!CollectionUtils.isEmpty(studyViewFilter.getGenomicProfiles()) && !samples.isEmpty()) {
+            Map<String, List<String>> groupStudySampleIds = sampleIndex.getSampleIdsByStudyId(samples);
 
             Map<String, List<MolecularProfile>> molecularProfileSet = molecularProfileUtil
                 .categorizeMolecularProfilesByStableIdSuffixes(molecularProfiles);
@@ -299,11 +316,11 @@ public class StudyViewFilterApplier {
             studyViewFilter.getGenomicProfiles().stream().forEach(profileValues -> {
                 profileValues.stream().forEach(profileValue -> {
                     molecularProfileSet.getOrDefault(profileValue, new ArrayList<>()).stream().forEach(profile -> {
-                        groupStudySampleIdentifiers.getOrDefault(profile.getCancerStudyIdentifier(), new ArrayList<>())
-                            .forEach(sampleIdentifier -> {
+                        groupStudySampleIds.getOrDefault(profile.getCancerStudyIdentifier(), new ArrayList<>())
+                            .forEach(sampleId -> {
                                 MolecularProfileCaseIdentifier profileCaseIdentifier = new MolecularProfileCaseIdentifier();
                                 profileCaseIdentifier.setMolecularProfileId(profile.getStableId());
-                                profileCaseIdentifier.setCaseId(sampleIdentifier.getSampleId());
+                                profileCaseIdentifier.setCaseId(sampleId);
                                 molecularProfileSampleIdentifiers.add(profileCaseIdentifier);
                             });
                     });
@@ -319,36 +336,32 @@ public class StudyViewFilterApplier {
                         profileValue -> molecularProfileSet.getOrDefault(profileValue, new ArrayList<>()).stream())
                     .collect(Collectors.toMap(MolecularProfile::getStableId, Function.identity()));
 
-                Set<SampleIdentifier> filteredSampleIdentifiers = new HashSet<>();
+                RoaringBitmap profiledSamples = new RoaringBitmap();
                 genePanelData.forEach(datum -> {
                     if (datum.getProfiled() && profileMap.containsKey(datum.getMolecularProfileId())) {
-                        SampleIdentifier sampleIdentifier =
-                            studyViewFilterUtil.buildSampleIdentifier(datum.getStudyId(), datum.getSampleId());
-                        filteredSampleIdentifiers.add(sampleIdentifier);
+                        sampleIndex.add(profiledSamples, datum.getStudyId(), datum.getSampleId());
                     }
                 });
-                sampleIdentifiers.retainAll(filteredSampleIdentifiers);
+                samples.and(profiledSamples);
             }
         }
 
-        if (!CollectionUtils.isEmpty(studyViewFilter.getCaseLists())) {
+        if (!CollectionUtils.isEmpty(studyViewFilter.getCaseLists()) && !samples.isEmpty()) {
             List<SampleList> sampleLists = sampleListService.getAllSampleListsInStudies(studyIds,
                 Projection.DETAILED.name());
             Map<String, List<SampleList>> groupedSampleListByListType = studyViewFilterUtil
                 .categorizeSampleLists(sampleLists);
 
             for (List<String> sampleListTypes : studyViewFilter.getCaseLists()) {
-                List<SampleIdentifier> filteredSampleIdentifiers = sampleListTypes.stream()
-                    .flatMap(sampleListType -> groupedSampleListByListType
-                        .getOrDefault(sampleListType, new ArrayList<>()).stream().flatMap(sampleList -> {
-                            return sampleList.getSampleIds().stream().map(sampleId ->
-                                studyViewFilterUtil.buildSampleIdentifier(
-                                    sampleList.getCancerStudyIdentifier(),
-                                    sampleId));
-                        }))
-                    .toList();
-
-                sampleIdentifiers.retainAll(filteredSampleIdentifiers);
+                RoaringBitmap listedSamples = new RoaringBitmap();
+                for (String sampleListType : sampleListTypes) {
+                    for (SampleList sampleList : groupedSampleListByListType.getOrDefault(sampleListType, new ArrayList<>())) {
+                        for (String sampleId : sampleList.getSampleIds()) {
+                            sampleIndex.add(listedSamples, sampleList.getCancerStudyIdentifier(), sampleId);
+                        }
+                    }
+                }
+                samples.and(listedSamples);
             }
         }
 
@@ -368,26 +381,36 @@ public class StudyViewFilterApplier {
         }
 
         if (!CollectionUtils.isEmpty(mutationOptionDataFilters)) {
-            sampleIdentifiers = filterMutationData(sampleIdentifiers, molecularProfiles,
+            samples = filterMutationData(sampleIndex, samples, molecularProfiles,
                 mutationOptionDataFilters, negateFilters, clinicalDataEqualityFilterApplier);
         }
 
         if (!CollectionUtils.isEmpty(mutationTypeDataFilters)) {
-            sampleIdentifiers = filterMutationData(sampleIdentifiers, molecularProfiles,
+            samples = filterMutationData(sampleIndex, samples, molecularProfiles,
                 mutationTypeDataFilters, negateFilters, clinicalDataEqualityFilterApplier);
         }
 
-        return chainSubFilters(studyViewFilter, sampleIdentifiers);
-    }
-
-    private List<SampleIdentifier> chainSubFilters(StudyViewFilter studyViewFilter, List<SampleIdentifier> sampleIdentifiers) {
         for (StudyViewSubFilterApplier subFilterApplier : subFilterAppliers) {
-            if (!sampleIdentifiers.isEmpty() && subFilterApplier.shouldApplyFilter(studyViewFilter)) {
-                sampleIdentifiers = subFilterApplier.filter(sampleIdentifiers, studyViewFilter);
+            if (!samples.isEmpty() && subFilterApplier.shouldApplyFilter(studyViewFilter)) {
+                samples = filter(sampleIndex, samples, sampleIdentifiers ->
+                    subFilterApplier.filter(sampleIdentifiers, studyViewFilter));
             }
         }
 
-        return sampleIdentifiers;
+        return new SampleBitmap(sampleIndex, samples);
+    }
+
+    /**
+     * Runs a filter stage that works on sample identifiers and returns the bitmap of the samples it kept.
+     */
+    private RoaringBitmap filter(SampleIndex sampleIndex, RoaringBitmap samples,
+                                 UnaryOperator<List<SampleIdentifier>> filter) {
+        if (samples.isEmpty()) {
+            return samples;
+        }
+        RoaringBitmap filteredSamples = sampleIndex.toBitmap(filter.apply(sampleIndex.toSampleIdentifiers(samples)));
+        filteredSamples.and(samples);
+        return filteredSamples;
     }
 
     private List<SampleIdentifier> intervalFilterClinicalData(List<SampleIdentifier> sampleIdentifiers,
@@ -615,10 +638,11 @@ public class StudyViewFilterApplier {
         return sampleIdentifiers;
     }
 
-    private List<SampleIdentifier> filterMutationData(List<SampleIdentifier> sampleIdentifiers,
-                                                      List<MolecularProfile> molecularProfiles, List<MutationDataFilter> mutationDataFilters,
-                                                      boolean negateFilters, ClinicalDataFilterApplier clinicalDataFilterApplier) {
-        if (CollectionUtils.isNotEmpty(mutationDataFilters) && CollectionUtils.isNotEmpty(sampleIdentifiers)) {
+    private RoaringBitmap filterMutationData(SampleIndex sampleIndex, RoaringBitmap samples,
+                                             List<MolecularProfile> molecularProfiles, List<MutationDataFilter> mutationDataFilters,
+                                             boolean negateFilters, ClinicalDataFilterApplier clinicalDataFilterApplier) {
+        if (CollectionUtils.isNotEmpty(mutationDataFilters) && !samples.isEmpty()) {
+            List<SampleIdentifier> sampleIdentifiers = sampleIndex.toSampleIdentifiers(samples);
             List<ClinicalData> clinicalDatas =
                 fetchMutationDataAndTransformToClinicalDataList(sampleIdentifiers, molecularProfiles, mutationDataFilters);
 
@@ -630,7 +654,7 @@ public class StudyViewFilterApplier {
                 clinicalDataMap = ClinicalDataIntervalFilterApplier.buildClinicalDataMap(clinicalDatas);
             }
 
-            List<SampleIdentifier> newSampleIdentifiers = new ArrayList<>();
+            RoaringBitmap newSamples = null;
 
             // loop through each mutationDataFilter and filter data
             for (MutationDataFilter mutationDataFilter : mutationDataFilters) {
@@ -643,23 +667,23 @@ public class StudyViewFilterApplier {
                     List<ClinicalDataFilter> attributes = Collections.singletonList(clinicalDataFilter);
 
                     // union selection: filter all samples that have at least one value from a list of DataFilterValue, e.g. Missense_Mutation, In_Shift_Del, ...
-                    List<SampleIdentifier> filteredSampleIdentifiers = filterSampleIdentifiers(
+                    RoaringBitmap filteredSamples = sampleIndex.toBitmap(filterSampleIdentifiers(
                         sampleIdentifiers, attributes, clinicalDataMap, clinicalDataFilterApplier, negateFilters
-                    );
+                    ));
 
-                    if (newSampleIdentifiers.isEmpty()) {
-                        newSampleIdentifiers = filteredSampleIdentifiers;
+                    if (newSamples == null) {
+                        newSamples = filteredSamples;
                     } else {
                         // intersection selection: retain shared samples from each selection for all mutationDataFilter
-                        newSampleIdentifiers.retainAll(filteredSampleIdentifiers);
+                        newSamples.and(filteredSamples);
                     }
                 }
             }
 
-            return newSampleIdentifiers.stream().distinct().toList();
+            return newSamples == null ? new RoaringBitmap() : newSamples;
         }
 
-        return sampleIdentifiers;
+        return samples;
     }
 
     private void splitGeneFiltersByMolecularAlterationType(List<GeneFilter> genefilters,
@@ -0,0 +1,180 @@
+package org.cbioportal;
+
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.cbioportal.utils.concurrency.ConcurrencyLimit;
+import org.cbioportal.utils.concurrency.ConcurrencyLimits;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServer;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Compares the throughput of the embedded Tomcat with its default pool of platform threads and with virtual threads
+ * (multithread.virtual_threads.enabled, see {@link VirtualThreadConfig}), for requests that mostly wait on
+ * downstream resources: each request holds one of the connections of a pool of DATABASE_CONNECTIONS for a short query
+ * and then waits on a slow downstream service (e.g. the session service). As with MySQL Connector/J 8.0, a query waits
+ * inside a synchronized block and so pins its virtual thread to a carrier thread. The limits and the carrier threads
+ * are configured as in the portal, by {@link ConcurrencyLimits} and {@link VirtualThreadSchedulerConfigurer}.
+ *
+ * Not run by the unit tests; run with mvn test -P load-test.
+ */
+public class ExecutionModeLoadTest {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ExecutionModeLoadTest.class);
+
+    private static final int DATABASE_CONNECTIONS = 10;
+    private static final long QUERY_MILLIS = 2;
+    private static final long DOWNSTREAM_SERVICE_MILLIS = 50;
+    private static final int DOWNSTREAM_SERVICE_LIMIT = 500;
+    private static final int CLIENTS = 1000;
+    private static final int REQUESTS = 20000;
+
+    @BeforeClass
+    public static void configureCarrierThreads() {
+        // before the first virtual thread is created, as on startup of the portal
+        VirtualThreadSchedulerConfigurer.configureParallelism(DATABASE_CONNECTIONS);
+    }
+
+    @Test
+    public void compareExecutionModes() throws Exception {
+        double platformThreadThroughput = measureThroughput(false);
+        double virtualThreadThroughput = measureThroughput(true);
+
+        LOG.info(String.format("platform threads: %.0f requests/s, virtual threads: %.0f requests/s",
+            platformThreadThroughput, virtualThreadThroughput));
+        // the platform threads wait on the slow downstream service, the virtual threads only on the connection pool
+        Assert.assertTrue("virtual threads should outperform platform threads when requests mostly wait",
+            virtualThreadThroughput > platformThreadThroughput);
+    }
+
+    private double measureThroughput(boolean virtualThreads) throws Exception {
+        TomcatServletWebServerFactory factory = new TomcatServletWebServerFactory(0);
+        if (virtualThreads) {
+            factory.addProtocolHandlerCustomizers(new VirtualThreadConfig().virtualThreadProtocolHandlerCustomizer());
+        }
+        SimulatedRequestServlet servlet = new SimulatedRequestServlet(concurrencyLimits(virtualThreads));
+        WebServer webServer = factory.getWebServer(servletContext ->
+            servletContext.addServlet("simulatedRequest", servlet).addMapping("/"));
+        webServer.start();
+
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            HttpClient httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).executor(clients).build();
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + webServer.getPort() + "/"))
+                .build();
+            AtomicInteger remainingRequests = new AtomicInteger(REQUESTS);
+            AtomicInteger failedRequests = new AtomicInteger();
+
+            long start = System.nanoTime();
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < CLIENTS; i++) {
+                futures.add(clients.submit(() -> {
+                    while (remainingRequests.getAndDecrement() > 0) {
+                        try {
+                            if (httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() != 200) {
+                                failedRequests.incrementAndGet();
+                            }
+                        } catch (IOException e) {
+                            failedRequests.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            long elapsedNanos = System.nanoTime() - start;
+
+            Assert.assertEquals(0, failedRequests.get());
+            return REQUESTS / (elapsedNanos / 1e9);
+        } finally {
+            webServer.stop();
+        }
+    }
+
+    private ConcurrencyLimits concurrencyLimits(boolean virtualThreads) {
+        ConcurrencyLimits concurrencyLimits = new ConcurrencyLimits();
+        ReflectionTestUtils.setField(concurrencyLimits, "virtualThreadsEnabled", virtualThreads);
+        ReflectionTestUtils.setField(concurrencyLimits, "databaseLimit", DATABASE_CONNECTIONS);
+        ReflectionTestUtils.setField(concurrencyLimits, "sessionServiceLimit", DOWNSTREAM_SERVICE_LIMIT);
+        ReflectionTestUtils.setField(concurrencyLimits, "timeoutMs", 30000L);
+        concurrencyLimits.init();
+        return concurrencyLimits;
+    }
+
+    private static class SimulatedRequestServlet extends HttpServlet {
+
+        // the connection pool, waited on by requests that are not limited otherwise
+        private final BlockingQueue<Object> databaseConnections = new ArrayBlockingQueue<>(DATABASE_CONNECTIONS, true);
+        private final ConcurrencyLimit databaseLimit;
+        private final ConcurrencyLimit downstreamServiceLimit;
+
+        SimulatedRequestServlet(ConcurrencyLimits concurrencyLimits) {
+            for (int i = 0; i < DATABASE_CONNECTIONS; i++) {
+                databaseConnections.add(new Object());
+            }
+            this.databaseLimit = concurrencyLimits.getDatabase();
+            this.downstreamServiceLimit = concurrencyLimits.getSessionService();
+        }
+
+        @Override
+        protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+            try {
+                wait(databaseLimit, () -> {
+                    Object connection = databaseConnections.poll(30, TimeUnit.SECONDS);
+                    if (connection == null) {
+                        throw new IllegalStateException("Connection pool timeout");
+                    }
+                    try {
+                        // Connector/J 8.0 reads the result inside a synchronized block, which pins a virtual thread
+                        synchronized (connection) {
+                            Thread.sleep(QUERY_MILLIS);
+                        }
+                    } finally {
+                        databaseConnections.add(connection);
+                    }
+                });
+                wait(downstreamServiceLimit, () -> Thread.sleep(DOWNSTREAM_SERVICE_MILLIS));
+                response.setStatus(HttpServletResponse.SC_OK);
+            } catch (InterruptedException | RuntimeException e) {
+                response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            }
+        }
+
+        private void wait(ConcurrencyLimit concurrencyLimit, BlockingCall call) throws InterruptedException {
+            if (!concurrencyLimit.acquire()) {
+                throw new IllegalStateException("Timed out waiting for " + concurrencyLimit.getName());
+            }
+            try {
+                call.run();
+            } finally {
+                concurrencyLimit.release();
+            }
+        }
+    }
+
+    private interface BlockingCall {
+        void run() throws InterruptedException;
+    }
+}
@@ -0,0 +1,47 @@
+package org.cbioportal;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class VirtualThreadSchedulerConfigurerTest {
+
+    @After
+    public void tearDown() {
+        System.clearProperty(VirtualThreadSchedulerConfigurer.PARALLELISM_PROPERTY);
+    }
+
+    @Test
+    public void requiredParallelismLeavesCarrierThreadsForRequests() {
+        Assert.assertEquals(14, VirtualThreadSchedulerConfigurer.getRequiredParallelism(10, 4));
+    }
+
+    @Test
+    public void configureParallelism() {
+        VirtualThreadSchedulerConfigurer.configureParallelism(10);
+
+        Assert.assertEquals(String.valueOf(10 + Runtime.getRuntime().availableProcessors()),
+            System.getProperty(VirtualThreadSchedulerConfigurer.PARALLELISM_PROPERTY));
+    }
+
+    @Test
+    public void configureParallelismKeepsSufficientParallelism() {
+        System.setProperty(VirtualThreadSchedulerConfigurer.PARALLELISM_PROPERTY, "11");
+
+        VirtualThreadSchedulerConfigurer.configureParallelism(10);
+
+        Assert.assertEquals("11", System.getProperty(VirtualThreadSchedulerConfigurer.PARALLELISM_PROPERTY));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void configureParallelismRejectsInsufficientParallelism() {
+        System.setProperty(VirtualThreadSchedulerConfigurer.PARALLELISM_PROPERTY, "10");
+
+        VirtualThreadSchedulerConfigurer.configureParallelism(10);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void configureParallelismRejectsUnlimitedDatabase() {
+        VirtualThreadSchedulerConfigurer.configureParallelism(0);
+    }
+}
@@ -0,0 +1,34 @@
+package org.cbioportal.persistence.mybatis;
+
+import org.cbioportal.persistence.mybatis.util.AlterationCountIndexCache;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * Runs all alteration count tests with the index enabled, for profiles whose index would be larger than the limit of
+ * the cache. The counts are computed by the count queries, without building any index.
+ */
+@TestPropertySource(properties = "persistence.cache_type=ehcache-heap")
+public class AlterationMyBatisRepositoryIndexFallbackTest extends AlterationMyBatisRepositoryTest {
+
+    @SpyBean
+    private AlterationCountIndexCache alterationCountIndexCache;
+
+    @Before
+    public void setUpAlterationCountIndexCache() {
+        Mockito.doReturn(false).when(alterationCountIndexCache)
+            .fits(ArgumentMatchers.any(), ArgumentMatchers.any());
+    }
+
+    @After
+    public void tearDown() {
+        Assert.assertTrue(alterationCountIndexCache.isEnabled());
+        Mockito.verify(alterationCountIndexCache, Mockito.never())
+            .get(ArgumentMatchers.any(), ArgumentMatchers.any(), ArgumentMatchers.any());
+    }
+}
@@ -0,0 +1,28 @@
+package org.cbioportal.persistence.mybatis;
+
+import org.cbioportal.persistence.mybatis.util.AlterationCountIndexCache;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * Runs all alteration count tests against the in-memory alteration count index instead of the count queries.
+ */
+@TestPropertySource(properties = "persistence.cache_type=ehcache-heap")
+public class AlterationMyBatisRepositoryIndexTest extends AlterationMyBatisRepositoryTest {
+
+    @Autowired
+    private AlterationCountIndexCache alterationCountIndexCache;
+
+    @Test
+    public void alterationCountIndexIsEnabled() {
+        Assert.assertTrue(alterationCountIndexCache.isEnabled());
+    }
+
+    @After
+    public void tearDown() {
+        alterationCountIndexCache.evictAll();
+    }
+}
@@ -0,0 +1,21 @@
+package org.cbioportal.persistence.mybatis;
+
+import org.cbioportal.persistence.CacheEnabledConfig;
+import org.cbioportal.persistence.mybatis.config.MySqlTestConfig;
+import org.cbioportal.persistence.mybatis.util.AlterationCountIndexCache;
+import org.cbioportal.persistence.mybatis.util.IdListStaging;
+import org.cbioportal.persistence.mybatis.util.StudyCaseDictionaryCache;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * Runs all alteration count tests against MySQL with every case identifier list of more than one element staged.
+ * MySQL cannot refer to a temporary table more than once in a statement, which H2 allows, so the counts over the
+ * mutation, copy number and structural variant lists of one UNION ALL are only checked here.
+ */
+@SpringBootTest(classes = {AlterationMyBatisRepository.class, MolecularProfileMyBatisRepository.class,
+    AlterationCountIndexCache.class, CacheEnabledConfig.class, IdListStaging.class, StudyCaseDictionaryCache.class,
+    MySqlTestConfig.class})
+@TestPropertySource(properties = "persistence.id_list_staging.threshold=1")
+public class AlterationMyBatisRepositoryStagingIntegrationTest extends AlterationMyBatisRepositoryTest {
+}
@@ -0,0 +1,11 @@
+package org.cbioportal.persistence.mybatis;
+
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * Runs all alteration count tests with every case identifier list of more than one element selected from the staging
+ * tables instead of the IN predicates.
+ */
+@TestPropertySource(properties = "persistence.id_list_staging.threshold=1")
+public class AlterationMyBatisRepositoryStagingTest extends AlterationMyBatisRepositoryTest {
+}
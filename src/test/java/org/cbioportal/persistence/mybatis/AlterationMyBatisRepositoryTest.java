@@ -16,7 +16,11 @@ import org.cbioportal.model.MolecularProfileCaseIdentifier;
 import org.cbioportal.model.MutationEventType;
 import org.cbioportal.model.QueryElement;
 import org.cbioportal.model.util.Select;
+import org.cbioportal.persistence.CacheEnabledConfig;
 import org.cbioportal.persistence.mybatis.config.TestConfig;
+import org.cbioportal.persistence.mybatis.util.AlterationCountIndexCache;
+import org.cbioportal.persistence.mybatis.util.IdListStaging;
+import org.cbioportal.persistence.mybatis.util.StudyCaseDictionaryCache;
 import org.h2.tools.Server;
 import org.junit.Assert;
 import org.junit.Before;
@@ -27,7 +31,9 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 
 @RunWith(SpringJUnit4ClassRunner.class)
-@SpringBootTest(classes = {AlterationMyBatisRepository.class, MolecularProfileMyBatisRepository.class, TestConfig.class})
+@SpringBootTest(classes = {AlterationMyBatisRepository.class, MolecularProfileMyBatisRepository.class,
+    AlterationCountIndexCache.class, CacheEnabledConfig.class, IdListStaging.class, StudyCaseDictionaryCache.class,
+    TestConfig.class})
 public class AlterationMyBatisRepositoryTest {
 
     //    mutation and cna events in testSql.sql
@@ -0,0 +1,23 @@
+package org.cbioportal.persistence.mybatis;
+
+import org.cbioportal.persistence.mybatis.config.MySqlTestConfig;
+import org.cbioportal.persistence.mybatis.util.IdListStaging;
+import org.cbioportal.persistence.mybatis.util.PaginationCalculator;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * Runs all clinical data tests against MySQL with every case identifier list of more than one element staged, so that
+ * statements over both sample and patient lists are checked with MySQL's restrictions on temporary tables.
+ */
+@SpringBootTest(classes = {
+    ClinicalDataMyBatisRepository.class,
+    PatientMyBatisRepository.class,
+    ClinicalAttributeMyBatisRepository.class,
+    ClinicalAttributeMapper.class,
+    PaginationCalculator.class,
+    IdListStaging.class,
+    MySqlTestConfig.class})
+@TestPropertySource(properties = "persistence.id_list_staging.threshold=1")
+public class ClinicalDataMyBatisRepositoryStagingIntegrationTest extends ClinicalDataMyBatisRepositoryTest {
+}
@@ -12,6 +12,7 @@ import org.cbioportal.model.meta.BaseMeta;
 import org.cbioportal.persistence.ClinicalAttributeRepository;
 import org.cbioportal.persistence.PersistenceConstants;
 import org.cbioportal.persistence.mybatis.config.TestConfig;
+import org.cbioportal.persistence.mybatis.util.IdListStaging;
 import org.cbioportal.persistence.mybatis.util.PaginationCalculator;
 import org.junit.Assert;
 import org.junit.Before;
@@ -20,6 +21,7 @@ import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.transaction.annotation.Transactional;
 
 
 @RunWith(SpringJUnit4ClassRunner.class)
@@ -29,6 +31,7 @@ import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
     ClinicalAttributeMyBatisRepository.class, 
     ClinicalAttributeMapper.class,
     PaginationCalculator.class,
+    IdListStaging.class,
     TestConfig.class})
 public class ClinicalDataMyBatisRepositoryTest {
 
@@ -592,5 +595,19 @@ public class ClinicalDataMyBatisRepositoryTest {
         );
         Assert.assertEquals(0, result.size());
     }
-    
+
+    @Test
+    @Transactional(readOnly = true)
+    public void fetchClinicalDataIterable() {
+
+        List<ClinicalData> result = new ArrayList<>();
+        clinicalDataMyBatisRepository.fetchClinicalDataIterable(studyIds, sampleIds, null,
+            PersistenceConstants.SAMPLE_CLINICAL_DATA_TYPE, "SUMMARY").forEach(result::add);
+
+        Assert.assertEquals(8, result.size());
+        Optional<ClinicalData> clinicalDataOptional =
+            result.stream().filter(r -> r.getAttrId().equals("DAYS_TO_COLLECTION")).findAny();
+        Assert.assertTrue(clinicalDataOptional.isPresent());
+        Assert.assertEquals("276", clinicalDataOptional.get().getAttrValue());
+    }
 }
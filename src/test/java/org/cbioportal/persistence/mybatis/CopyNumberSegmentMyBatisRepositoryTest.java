@@ -6,15 +6,17 @@ import java.util.List;
 import org.cbioportal.model.CopyNumberSeg;
 import org.cbioportal.model.meta.BaseMeta;
 import org.cbioportal.persistence.mybatis.config.TestConfig;
+import org.cbioportal.persistence.mybatis.util.IdListStaging;
 import org.junit.Assert;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.transaction.annotation.Transactional;
 
 @RunWith(SpringJUnit4ClassRunner.class)
-@SpringBootTest(classes = {CopyNumberSegmentMyBatisRepository.class, TestConfig.class})
+@SpringBootTest(classes = {CopyNumberSegmentMyBatisRepository.class, IdListStaging.class, TestConfig.class})
 public class CopyNumberSegmentMyBatisRepositoryTest {
 
     @Autowired
@@ -243,4 +245,25 @@ public class CopyNumberSegmentMyBatisRepositoryTest {
         
         Assert.assertEquals(1, result2.size());
     }
+
+    @Test
+    @Transactional(readOnly = true)
+    public void fetchCopyNumberSegmentsIterable() throws Exception {
+
+        List<String> studyIds = new ArrayList<>();
+        studyIds.add("study_tcga_pub");
+        studyIds.add("acc_tcga");
+        List<String> sampleIds = new ArrayList<>();
+        sampleIds.add("TCGA-A1-A0SB-01");
+        sampleIds.add("TCGA-A1-B0SO-01");
+
+        List<CopyNumberSeg> result = new ArrayList<>();
+        copyNumberSegmentMyBatisRepository.fetchCopyNumberSegmentsIterable(studyIds, sampleIds, null, "SUMMARY")
+            .forEach(result::add);
+
+        Assert.assertEquals(3, result.size());
+        Assert.assertEquals("TCGA-A1-B0SO-01", result.get(0).getSampleStableId());
+        Assert.assertEquals("TCGA-A1-A0SB-01", result.get(1).getSampleStableId());
+        Assert.assertEquals("TCGA-A1-A0SB-01", result.get(2).getSampleStableId());
+    }
 }
@@ -1,29 +1,42 @@
 package org.cbioportal.persistence.mybatis;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import org.cbioportal.model.GeneMolecularAlteration;
 import org.cbioportal.model.GenesetMolecularAlteration;
+import org.cbioportal.model.MolecularDataMatrix;
+import org.cbioportal.model.MolecularDataRows;
 import org.cbioportal.model.MolecularProfileSamples;
+import org.cbioportal.persistence.CacheEnabledConfig;
 import org.cbioportal.persistence.mybatis.config.TestConfig;
+import org.cbioportal.persistence.mybatis.util.MolecularDataMatrixCache;
 import org.junit.Assert;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.transaction.annotation.Transactional;
 
 @RunWith(SpringJUnit4ClassRunner.class)
-@SpringBootTest(classes = {MolecularDataMyBatisRepository.class, TestConfig.class})
+@SpringBootTest(classes = {MolecularDataMyBatisRepository.class, MolecularDataMatrixCache.class,
+    CacheEnabledConfig.class, TestConfig.class})
 public class MolecularDataMyBatisRepositoryTest {
 
     @Autowired
     private MolecularDataMyBatisRepository molecularDataMyBatisRepository;
 
+    @Autowired
+    private CacheEnabledConfig cacheEnabledConfig;
+
+    @Autowired
+    private MolecularDataMatrixCache molecularDataMatrixCache;
+
     @Test
     public void getCommaSeparatedSampleIdsOfMolecularProfile() throws Exception {
 
@@ -91,6 +104,54 @@ public class MolecularDataMyBatisRepositoryTest {
         Assert.assertArrayEquals(expected2, molecularAlteration2.getSplitValues());
     }
 
+    @Test
+    public void getMolecularDataRows() throws Exception {
+
+        // caching is disabled in the test context, so the rows are streamed from the database
+        MolecularDataRows result = molecularDataMyBatisRepository.getMolecularDataRows("study_tcga_pub_gistic");
+
+        Assert.assertFalse(result instanceof MolecularDataMatrix);
+        getMolecularDataRowsCommonTest(result);
+        Assert.assertNull(molecularDataMyBatisRepository.getMolecularDataRows("invalid_profile"));
+    }
+
+    @Test
+    public void getMolecularDataRowsOfRetainedProfile() throws Exception {
+
+        ReflectionTestUtils.setField(cacheEnabledConfig, "enabled", true);
+        try {
+            MolecularDataRows result = molecularDataMyBatisRepository.getMolecularDataRows("study_tcga_pub_gistic");
+
+            Assert.assertTrue(result instanceof MolecularDataMatrix);
+            Assert.assertSame(result, molecularDataMyBatisRepository.getMolecularDataRows("study_tcga_pub_gistic"));
+            getMolecularDataRowsCommonTest(result);
+            MolecularDataMatrix matrix = (MolecularDataMatrix) result;
+            Assert.assertEquals(1.4146, matrix.getValue(matrix.getRowIndex("208"), 0), 0);
+            Assert.assertEquals(-1, matrix.getRowIndex("100"));
+        } finally {
+            molecularDataMatrixCache.evictAll();
+            ReflectionTestUtils.setField(cacheEnabledConfig, "enabled", false);
+        }
+    }
+
+    private void getMolecularDataRowsCommonTest(MolecularDataRows result) {
+
+        Assert.assertEquals(14, result.getNumberOfSamples());
+        Assert.assertEquals(1, result.getSampleIndex(2));
+        Assert.assertEquals(-1, result.getSampleIndex(15));
+        double[] values = new double[result.getNumberOfSamples()];
+        Assert.assertTrue(result.readRow("207", values));
+        Assert.assertEquals(-0.4674, values[0], 0);
+        Assert.assertEquals(-1.3157, values[13], 0);
+        Assert.assertFalse(result.readRow("100", values));
+        Assert.assertFalse(result.readRow("not_a_gene", values));
+
+        Map<String, Double> firstValues = new HashMap<>();
+        result.forEachRow((stableId, rowValues) -> firstValues.put(stableId, rowValues[0]));
+        Assert.assertEquals(-0.4674, firstValues.get("207"), 0);
+        Assert.assertEquals(1.4146, firstValues.get("208"), 0);
+    }
+
     @Test
     public void getGeneMolecularAlterationsInMultipleMolecularProfiles() throws Exception {
 
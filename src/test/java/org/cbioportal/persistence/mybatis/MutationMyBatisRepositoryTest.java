@@ -17,6 +17,7 @@ import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -586,4 +587,31 @@ public class MutationMyBatisRepositoryTest {
         Assert.assertEquals("mutations", result.getProfileType());
         Assert.assertEquals(2, result.getCounts().size());
     }
+
+    @Test
+    @Transactional(readOnly = true)
+    public void getMutationsInMultipleMolecularProfilesIterable() throws Exception {
+
+        List<String> molecularProfileIds = new ArrayList<>();
+        molecularProfileIds.add("acc_tcga_mutations");
+        molecularProfileIds.add("study_tcga_pub_mutations");
+
+        List<String> sampleIds = new ArrayList<>();
+        sampleIds.add("TCGA-A1-B0SO-01");
+        sampleIds.add("TCGA-A1-A0SH-01");
+
+        List<Mutation> expected = mutationMyBatisRepository.getMutationsInMultipleMolecularProfiles(molecularProfileIds,
+            sampleIds, null, "SUMMARY", null, null, null, null);
+        List<Mutation> result = new ArrayList<>();
+        mutationMyBatisRepository.getMutationsInMultipleMolecularProfilesIterable(molecularProfileIds, sampleIds, null,
+            "SUMMARY", null, null, null, null).forEach(result::add);
+
+        Assert.assertEquals(3, result.size());
+        for (int i = 0; i < expected.size(); i++) {
+            Assert.assertEquals(expected.get(i).getMolecularProfileId(), result.get(i).getMolecularProfileId());
+            Assert.assertEquals(expected.get(i).getSampleId(), result.get(i).getSampleId());
+            Assert.assertEquals(expected.get(i).getEntrezGeneId(), result.get(i).getEntrezGeneId());
+            Assert.assertEquals(expected.get(i).getProteinChange(), result.get(i).getProteinChange());
+        }
+    }
 }
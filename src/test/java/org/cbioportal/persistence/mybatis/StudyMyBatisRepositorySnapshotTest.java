@@ -0,0 +1,10 @@
+package org.cbioportal.persistence.mybatis;
+
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * Runs all study tests with the sample counts served from the study summary snapshot.
+ */
+@TestPropertySource(properties = "persistence.cache_type=ehcache-heap")
+public class StudyMyBatisRepositorySnapshotTest extends StudyMyBatisRepositoryTest {
+}
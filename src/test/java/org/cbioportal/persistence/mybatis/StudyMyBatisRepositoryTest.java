@@ -8,7 +8,9 @@ import org.cbioportal.model.CancerStudy;
 import org.cbioportal.model.CancerStudyTags;
 import org.cbioportal.model.TypeOfCancer;
 import org.cbioportal.model.meta.BaseMeta;
+import org.cbioportal.persistence.CacheEnabledConfig;
 import org.cbioportal.persistence.mybatis.config.TestConfig;
+import org.cbioportal.persistence.mybatis.util.StudySummarySnapshot;
 import org.junit.Assert;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -17,7 +19,8 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 
 @RunWith(SpringJUnit4ClassRunner.class)
-@SpringBootTest(classes = {StudyMyBatisRepository.class, TestConfig.class})
+@SpringBootTest(classes = {StudyMyBatisRepository.class, StudySummarySnapshot.class, CacheEnabledConfig.class,
+    TestConfig.class})
 public class StudyMyBatisRepositoryTest {
 
     @Autowired
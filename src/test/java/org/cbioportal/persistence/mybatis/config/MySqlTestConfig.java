@@ -0,0 +1,40 @@
+package org.cbioportal.persistence.mybatis.config;
+
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.BindMode;
+import org.testcontainers.containers.MySQLContainer;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Runs the mapper statements against MySQL instead of H2, for behavior that H2 does not reproduce (e.g. the
+ * restrictions on temporary tables). The container is loaded with the same test data as the H2 database.
+ */
+@TestConfiguration
+public class MySqlTestConfig extends TestConfig {
+
+    private static final String MYSQL_IMAGE_VERSION = "mysql:8.0";
+
+    static final MySQLContainer mysqlContainer;
+
+    static {
+        mysqlContainer = (MySQLContainer) new MySQLContainer(MYSQL_IMAGE_VERSION)
+            .withClasspathResourceMapping("cgds.sql", "/docker-entrypoint-initdb.d/a_schema.sql", BindMode.READ_ONLY)
+            .withClasspathResourceMapping("testSql.sql", "/docker-entrypoint-initdb.d/b_data.sql", BindMode.READ_ONLY)
+            .withStartupTimeout(Duration.ofMinutes(10));
+        mysqlContainer.start();
+    }
+
+    @Bean
+    @Override
+    public DataSource dataSource() {
+        return new DriverManagerDataSource(
+            String.format("%s?useSSL=false&allowPublicKeyRetrieval=true", mysqlContainer.getJdbcUrl()),
+            mysqlContainer.getUsername(),
+            mysqlContainer.getPassword()
+        );
+    }
+}
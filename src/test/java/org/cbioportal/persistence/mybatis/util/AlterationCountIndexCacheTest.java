@@ -0,0 +1,103 @@
+package org.cbioportal.persistence.mybatis.util;
+
+import org.cbioportal.model.AlterationCountEvent;
+import org.cbioportal.model.MolecularProfile;
+import org.cbioportal.persistence.CacheEnabledConfig;
+import org.cbioportal.persistence.mybatis.util.AlterationCountIndex.EventType;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@RunWith(MockitoJUnitRunner.class)
+public class AlterationCountIndexCacheTest {
+
+    @InjectMocks
+    private AlterationCountIndexCache alterationCountIndexCache;
+
+    @Mock
+    private CacheEnabledConfig cacheEnabledConfig;
+
+    private int loads = 0;
+
+    @Before
+    public void setUp() {
+        Mockito.when(cacheEnabledConfig.isEnabled()).thenReturn(true);
+        ReflectionTestUtils.setField(alterationCountIndexCache, "indexEnabled", true);
+        ReflectionTestUtils.setField(alterationCountIndexCache, "maxMegaBytes", 1L);
+    }
+
+    @Test
+    public void getRetainsIndexUntilEviction() {
+        AlterationCountIndex index = alterationCountIndexCache.get(molecularProfile(), EventType.MUTATION,
+            this::loadEvents);
+        Assert.assertSame(index, alterationCountIndexCache.get(molecularProfile(), EventType.MUTATION,
+            this::loadEvents));
+        Assert.assertEquals(1, loads);
+
+        alterationCountIndexCache.evictStudy("study_id");
+        alterationCountIndexCache.get(molecularProfile(), EventType.MUTATION, this::loadEvents);
+        Assert.assertEquals(2, loads);
+    }
+
+    @Test
+    public void weightGrowsWithEvents() {
+        AlterationCountIndex index = AlterationCountIndex.build(1, "study_id", EventType.MUTATION, loadEvents(1));
+        AlterationCountIndex emptyIndex = AlterationCountIndex.build(1, "study_id", EventType.MUTATION,
+            new ArrayList<>());
+
+        Assert.assertTrue(index.getWeight() > emptyIndex.getWeight());
+    }
+
+    @Test
+    public void fitsOnlyIndexesWithinLimit() {
+        Assert.assertTrue(alterationCountIndexCache.fits(molecularProfile(), molecularProfileId -> 1000));
+        Assert.assertFalse(alterationCountIndexCache.fits(molecularProfile(), molecularProfileId -> 1000000));
+
+        // a retained index is not counted again
+        alterationCountIndexCache.get(molecularProfile(), EventType.MUTATION, this::loadEvents);
+        Assert.assertTrue(alterationCountIndexCache.fits(molecularProfile(), molecularProfileId -> {
+            throw new AssertionError("counted events of a retained index");
+        }));
+
+        Mockito.when(cacheEnabledConfig.isEnabled()).thenReturn(false);
+        Assert.assertFalse(alterationCountIndexCache.fits(molecularProfile(), molecularProfileId -> 1000));
+    }
+
+    @Test
+    public void zeroSizeLimitDisablesIndex() {
+        ReflectionTestUtils.setField(alterationCountIndexCache, "maxMegaBytes", 0L);
+
+        Assert.assertFalse(alterationCountIndexCache.isEnabled());
+    }
+
+    private MolecularProfile molecularProfile() {
+        MolecularProfile molecularProfile = new MolecularProfile();
+        molecularProfile.setMolecularProfileId(1);
+        molecularProfile.setStableId("study_id_mutations");
+        molecularProfile.setCancerStudyIdentifier("study_id");
+        return molecularProfile;
+    }
+
+    private List<AlterationCountEvent> loadEvents(Integer molecularProfileId) {
+        loads++;
+        List<AlterationCountEvent> events = new ArrayList<>();
+        for (int sampleId = 1; sampleId <= 100; sampleId++) {
+            AlterationCountEvent event = new AlterationCountEvent();
+            event.setSampleId(sampleId);
+            event.setEntrezGeneId(sampleId % 10);
+            event.setHugoGeneSymbol("GENE" + sampleId % 10);
+            event.setMutationType("Missense_Mutation");
+            events.add(event);
+        }
+        return events;
+    }
+}
@@ -0,0 +1,118 @@
+package org.cbioportal.persistence.mybatis.util;
+
+import org.cbioportal.model.ClinicalData;
+import org.cbioportal.persistence.PersistenceConstants;
+import org.cbioportal.persistence.mybatis.ClinicalAttributeMyBatisRepository;
+import org.cbioportal.persistence.mybatis.ClinicalDataMyBatisRepository;
+import org.cbioportal.persistence.mybatis.PatientMyBatisRepository;
+import org.cbioportal.persistence.mybatis.config.TestConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Clinical data of a large number of samples of two studies in the test database, fetched with the (study id, sample
+ * id) row constructor predicate (threshold 0, staging disabled) and with the ids staged in the temporary table.
+ *
+ * Not run by the unit tests. Run the main method with the test classpath after mvn test-compile, which generates
+ * the benchmark code.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IdListStagingBenchmark {
+
+    private static final int FIRST_GENERATED_ID = 100000;
+    private static final List<String> ATTRIBUTE_IDS = Arrays.asList("SUBTYPE", "TUMOR_STAGE");
+
+    @Param({"10000"})
+    private int numberOfSamples;
+
+    @Param({"0", "2000"})
+    private int threshold;
+
+    private AnnotationConfigApplicationContext context;
+    private ClinicalDataMyBatisRepository clinicalDataRepository;
+    private final List<String> studyIds = new ArrayList<>();
+    private final List<String> sampleIds = new ArrayList<>();
+
+    @Setup
+    public void setUp() {
+        context = new AnnotationConfigApplicationContext(TestConfig.class, ClinicalDataMyBatisRepository.class,
+            PatientMyBatisRepository.class, ClinicalAttributeMyBatisRepository.class, IdListStaging.class);
+        ReflectionTestUtils.setField(context.getBean(IdListStaging.class), "threshold", threshold);
+        clinicalDataRepository = context.getBean(ClinicalDataMyBatisRepository.class);
+
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(context.getBean(DataSource.class));
+        List<Object[]> patients = new ArrayList<>();
+        List<Object[]> samples = new ArrayList<>();
+        List<Object[]> clinicalData = new ArrayList<>();
+        for (int i = 0; i < numberOfSamples; i++) {
+            int internalId = FIRST_GENERATED_ID + i;
+            int studyId = i % 2 + 1;
+            patients.add(new Object[]{internalId, "GENERATED-P" + i, studyId});
+            samples.add(new Object[]{internalId, "GENERATED-S" + i, "Primary Solid Tumor", internalId});
+            clinicalData.add(new Object[]{internalId, "SUBTYPE", "subtype_" + i % 7});
+            clinicalData.add(new Object[]{internalId, "TUMOR_STAGE", "stage_" + i % 4});
+            clinicalData.add(new Object[]{internalId, "OTHER_SAMPLE_ATTRIBUTE", "value_" + i % 13});
+            // two thirds of the samples are requested
+            if (i % 2 == 0 || i % 3 == 0) {
+                studyIds.add(studyId == 1 ? "study_tcga_pub" : "acc_tcga");
+                sampleIds.add("GENERATED-S" + i);
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO patient (INTERNAL_ID, STABLE_ID, CANCER_STUDY_ID) VALUES (?, ?, ?)",
+            patients);
+        jdbcTemplate.batchUpdate("INSERT INTO sample (INTERNAL_ID, STABLE_ID, SAMPLE_TYPE, PATIENT_ID) " +
+            "VALUES (?, ?, ?, ?)", samples);
+        jdbcTemplate.batchUpdate("INSERT INTO clinical_sample (INTERNAL_ID, ATTR_ID, ATTR_VALUE) VALUES (?, ?, ?)",
+            clinicalData);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<ClinicalData> fetchClinicalData() {
+        return clinicalDataRepository.fetchClinicalData(studyIds, sampleIds, ATTRIBUTE_IDS,
+            PersistenceConstants.SAMPLE_CLINICAL_DATA_TYPE, "SUMMARY");
+    }
+
+    @Benchmark
+    public Integer fetchMetaClinicalData() {
+        return clinicalDataRepository.fetchMetaClinicalData(studyIds, sampleIds, ATTRIBUTE_IDS,
+            PersistenceConstants.SAMPLE_CLINICAL_DATA_TYPE).getTotalCount();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(IdListStagingBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+}
@@ -0,0 +1,119 @@
+package org.cbioportal.persistence.mybatis.util;
+
+import org.cbioportal.model.MolecularDataMatrix;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class MolecularDataMatrixBuilderTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void parseInternalSampleIds() {
+        Assert.assertArrayEquals(new int[]{1, 2, 30}, MolecularDataMatrixBuilder.parseInternalSampleIds("1,2,30,"));
+        Assert.assertArrayEquals(new int[]{1, 2, 30}, MolecularDataMatrixBuilder.parseInternalSampleIds("1,2,30"));
+        Assert.assertArrayEquals(new int[0], MolecularDataMatrixBuilder.parseInternalSampleIds(""));
+    }
+
+    @Test
+    public void parseValue() {
+        String[] values = {"0", "-1", "2.5", "-0.4674", "1.4146", "3e2", "1.5E-3", "0.1", "123456789.123456789",
+            "12345678901234567890", "1e-320", "+7", ".5", "5."};
+        for (String value : values) {
+            Assert.assertEquals(value, Double.parseDouble(value),
+                MolecularDataMatrixBuilder.parseValue(value, 0, value.length()), 0);
+        }
+        String[] notANumber = {"", "NA", "NaN", "-", "1e", "1.2.3", "0x10", "1,2"};
+        for (String value : notANumber) {
+            Assert.assertTrue(value, Double.isNaN(MolecularDataMatrixBuilder.parseValue(value, 0, value.length())));
+        }
+    }
+
+    @Test
+    public void buildDiscreteMatrix() {
+        MolecularDataMatrix matrix = new MolecularDataMatrixBuilder("profile", "study", new int[]{5, 3, 9})
+            .addRow("207", "-2,0,2,")
+            .addRow("208", "1,NA,")
+            .build();
+
+        Assert.assertEquals(MolecularDataMatrix.BYTE_WIDTH, matrix.getValueWidth());
+        Assert.assertEquals(3, matrix.getNumberOfSamples());
+        Assert.assertEquals(2, matrix.getNumberOfRows());
+        Assert.assertEquals(1, matrix.getSampleIndex(3));
+        Assert.assertEquals(-1, matrix.getSampleIndex(4));
+        Assert.assertEquals(0, matrix.getRowIndex("207"));
+        Assert.assertEquals(-1, matrix.getRowIndex("209"));
+        Assert.assertEquals(-2, matrix.getValue(0, 0), 0);
+        Assert.assertEquals(2, matrix.getValue(0, 2), 0);
+        Assert.assertEquals(1, matrix.getValue(1, 0), 0);
+        Assert.assertTrue(Double.isNaN(matrix.getValue(1, 1)));
+        // missing trailing value
+        Assert.assertTrue(Double.isNaN(matrix.getValue(1, 2)));
+    }
+
+    @Test
+    public void buildWidensToLosslessWidth() {
+        MolecularDataMatrix floatMatrix = new MolecularDataMatrixBuilder("profile", "study", new int[]{1, 2})
+            .addRow("1", "1,2")
+            .addRow("2", "0.5,300")
+            .build();
+        Assert.assertEquals(MolecularDataMatrix.FLOAT_WIDTH, floatMatrix.getValueWidth());
+        Assert.assertEquals(1, floatMatrix.getValue(0, 0), 0);
+        Assert.assertEquals(300, floatMatrix.getValue(1, 1), 0);
+
+        MolecularDataMatrix doubleMatrix = new MolecularDataMatrixBuilder("profile", "study", new int[]{1, 2})
+            .addRow("1", "1,2")
+            .addRow("2", "0.1,NA")
+            .build();
+        Assert.assertEquals(MolecularDataMatrix.DOUBLE_WIDTH, doubleMatrix.getValueWidth());
+        Assert.assertEquals(0.1, doubleMatrix.getValue(1, 0), 0);
+        Assert.assertTrue(Double.isNaN(doubleMatrix.getValue(1, 1)));
+        Assert.assertEquals(2, doubleMatrix.getValue(0, 1), 0);
+    }
+
+    @Test
+    public void buildSpilledMatrix() throws Exception {
+        MolecularDataMatrix matrix = new MolecularDataMatrixBuilder("profile", "study", new int[]{1, 2, 3},
+            temporaryFolder.getRoot().toPath())
+            .addRow("1", "-0.4674,-0.6270,NA")
+            .build();
+
+        double[] values = new double[2];
+        matrix.getValues(0, new int[]{1, 0}, values);
+        Assert.assertArrayEquals(new double[]{-0.6270, -0.4674}, values, 0);
+        Assert.assertTrue(Double.isNaN(matrix.getValue(0, 2)));
+    }
+
+    @Test
+    public void buildMatrixOfSeveralBlocks() throws Exception {
+        // rows of 2^20 samples fill a block every 8 rows
+        int numberOfSamples = 1 << 20;
+        int[] internalSampleIds = new int[numberOfSamples];
+        for (int i = 0; i < numberOfSamples; i++) {
+            internalSampleIds[i] = i + 1;
+        }
+        String discreteRow = "1,".repeat(numberOfSamples);
+        String continuousRow = "0.5,".repeat(numberOfSamples);
+
+        MolecularDataMatrixBuilder builder = new MolecularDataMatrixBuilder("profile", "study", internalSampleIds,
+            temporaryFolder.getRoot().toPath());
+        for (int row = 0; row < 8; row++) {
+            builder.addRow(String.valueOf(row), discreteRow);
+        }
+        MolecularDataMatrix matrix = builder.addRow("8", continuousRow).build();
+
+        Assert.assertEquals(9, matrix.getNumberOfRows());
+        Assert.assertEquals(MolecularDataMatrix.FLOAT_WIDTH, matrix.getValueWidth());
+        // the first block keeps its narrower width
+        long sampleIndexSize = (long) numberOfSamples * Integer.BYTES * 3;
+        Assert.assertEquals(8L * numberOfSamples + 4L * numberOfSamples + sampleIndexSize, matrix.getSizeInBytes());
+        Assert.assertEquals(1, matrix.getValue(7, numberOfSamples - 1), 0);
+        Assert.assertEquals(0.5, matrix.getValue(8, 0), 0);
+        double[] values = new double[numberOfSamples];
+        Assert.assertTrue(matrix.readRow("8", values));
+        Assert.assertEquals(0.5, values[numberOfSamples - 1], 0);
+    }
+}
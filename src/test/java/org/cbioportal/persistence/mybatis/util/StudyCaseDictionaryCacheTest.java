@@ -0,0 +1,136 @@
+package org.cbioportal.persistence.mybatis.util;
+
+import org.cbioportal.model.MolecularProfile;
+import org.cbioportal.model.MolecularProfileCaseIdentifier;
+import org.cbioportal.model.Sample;
+import org.cbioportal.persistence.CacheEnabledConfig;
+import org.cbioportal.persistence.mybatis.MolecularProfileMapper;
+import org.cbioportal.persistence.mybatis.SampleMapper;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+@RunWith(MockitoJUnitRunner.class)
+public class StudyCaseDictionaryCacheTest {
+
+    private static final String STUDY_ID = "study_id";
+    private static final String MUTATION_PROFILE_ID = "study_id_mutations";
+    private static final String CNA_PROFILE_ID = "study_id_gistic";
+    private static final String UNKNOWN_PROFILE_ID = "unknown_profile_id";
+
+    @InjectMocks
+    private StudyCaseDictionaryCache studyCaseDictionaryCache;
+
+    @Mock
+    private MolecularProfileMapper molecularProfileMapper;
+    @Mock
+    private SampleMapper sampleMapper;
+    @Mock
+    private CacheEnabledConfig cacheEnabledConfig;
+
+    @Before
+    public void setUp() {
+        ReflectionTestUtils.setField(studyCaseDictionaryCache, "dictionaryEnabled", true);
+        ReflectionTestUtils.setField(studyCaseDictionaryCache, "maxMegaBytes", 1L);
+        Mockito.when(cacheEnabledConfig.isEnabled()).thenReturn(true);
+        Mockito.when(molecularProfileMapper.getMolecularProfiles(
+            new HashSet<>(Arrays.asList(MUTATION_PROFILE_ID, UNKNOWN_PROFILE_ID)), "SUMMARY"))
+            .thenReturn(Collections.singletonList(molecularProfile(1, MUTATION_PROFILE_ID)));
+        Mockito.when(molecularProfileMapper.getAllMolecularProfilesInStudies(Collections.singletonList(STUDY_ID),
+            "SUMMARY", null, null, null, null))
+            .thenReturn(Arrays.asList(molecularProfile(1, MUTATION_PROFILE_ID), molecularProfile(2, CNA_PROFILE_ID)));
+        Mockito.when(sampleMapper.getSamples(Collections.singletonList(STUDY_ID), null, null, null, "SUMMARY", null,
+            null, null, null))
+            .thenReturn(Arrays.asList(sample(11, "sample_1", 21, "patient_1"), sample(12, "sample_2", 21, "patient_1"),
+                sample(13, "sample_3", 22, "patient_2")));
+    }
+
+    @Test
+    public void getMolecularProfileCaseInternalIdentifiers() {
+        List<MolecularProfileCaseIdentifier> sampleIdentifiers =
+            studyCaseDictionaryCache.getMolecularProfileCaseInternalIdentifiers(Arrays.asList(
+                new MolecularProfileCaseIdentifier("sample_1", MUTATION_PROFILE_ID),
+                new MolecularProfileCaseIdentifier("unknown_sample", MUTATION_PROFILE_ID),
+                new MolecularProfileCaseIdentifier("sample_1", UNKNOWN_PROFILE_ID),
+                new MolecularProfileCaseIdentifier("sample_3", MUTATION_PROFILE_ID)), "SAMPLE_ID");
+
+        Assert.assertEquals(Arrays.asList(new MolecularProfileCaseIdentifier("11", "1"),
+            new MolecularProfileCaseIdentifier("13", "1")), sampleIdentifiers);
+
+        // the profiles of the loaded study are translated without a query
+        List<MolecularProfileCaseIdentifier> patientIdentifiers =
+            studyCaseDictionaryCache.getMolecularProfileCaseInternalIdentifiers(Arrays.asList(
+                new MolecularProfileCaseIdentifier("patient_1", CNA_PROFILE_ID),
+                new MolecularProfileCaseIdentifier("patient_2", MUTATION_PROFILE_ID)), "PATIENT_ID");
+
+        Assert.assertEquals(Arrays.asList(new MolecularProfileCaseIdentifier("21", "2"),
+            new MolecularProfileCaseIdentifier("22", "1")), patientIdentifiers);
+        Map<String, MolecularProfile> molecularProfiles =
+            studyCaseDictionaryCache.getMolecularProfiles(Arrays.asList(CNA_PROFILE_ID));
+        Assert.assertEquals(Integer.valueOf(2), molecularProfiles.get(CNA_PROFILE_ID).getMolecularProfileId());
+        Mockito.verify(sampleMapper, Mockito.times(1)).getSamples(Collections.singletonList(STUDY_ID), null, null,
+            null, "SUMMARY", null, null, null, null);
+    }
+
+    @Test
+    public void evictStudyReloadsDictionary() {
+        List<MolecularProfileCaseIdentifier> identifiers = Arrays.asList(
+            new MolecularProfileCaseIdentifier("sample_1", MUTATION_PROFILE_ID),
+            new MolecularProfileCaseIdentifier("sample_1", UNKNOWN_PROFILE_ID));
+
+        studyCaseDictionaryCache.getMolecularProfileCaseInternalIdentifiers(identifiers, "SAMPLE_ID");
+        studyCaseDictionaryCache.evictStudy("other_study_id");
+        studyCaseDictionaryCache.getMolecularProfileCaseInternalIdentifiers(identifiers, "SAMPLE_ID");
+        Mockito.verify(sampleMapper, Mockito.times(1)).getSamples(Collections.singletonList(STUDY_ID), null, null,
+            null, "SUMMARY", null, null, null, null);
+
+        studyCaseDictionaryCache.evictStudy(STUDY_ID);
+        List<MolecularProfileCaseIdentifier> result =
+            studyCaseDictionaryCache.getMolecularProfileCaseInternalIdentifiers(identifiers, "SAMPLE_ID");
+
+        Assert.assertEquals(Collections.singletonList(new MolecularProfileCaseIdentifier("11", "1")), result);
+        Mockito.verify(sampleMapper, Mockito.times(2)).getSamples(Collections.singletonList(STUDY_ID), null, null,
+            null, "SUMMARY", null, null, null, null);
+    }
+
+    @Test
+    public void weightGrowsWithSamples() {
+        StudyCaseDictionary dictionary = StudyCaseDictionary.build(STUDY_ID,
+            Collections.singletonList(molecularProfile(1, MUTATION_PROFILE_ID)),
+            Collections.singletonList(sample(11, "sample_1", 21, "patient_1")));
+        StudyCaseDictionary largerDictionary = StudyCaseDictionary.build(STUDY_ID,
+            Collections.singletonList(molecularProfile(1, MUTATION_PROFILE_ID)),
+            Arrays.asList(sample(11, "sample_1", 21, "patient_1"), sample(12, "sample_2", 22, "patient_2")));
+
+        Assert.assertTrue(largerDictionary.getWeight() > dictionary.getWeight());
+    }
+
+    private MolecularProfile molecularProfile(int internalId, String stableId) {
+        MolecularProfile molecularProfile = new MolecularProfile();
+        molecularProfile.setMolecularProfileId(internalId);
+        molecularProfile.setStableId(stableId);
+        molecularProfile.setCancerStudyIdentifier(STUDY_ID);
+        return molecularProfile;
+    }
+
+    private Sample sample(int internalId, String stableId, int patientInternalId, String patientStableId) {
+        Sample sample = new Sample();
+        sample.setInternalId(internalId);
+        sample.setStableId(stableId);
+        sample.setPatientId(patientInternalId);
+        sample.setPatientStableId(patientStableId);
+        return sample;
+    }
+}
@@ -0,0 +1,123 @@
+package org.cbioportal.persistence.mybatis.util;
+
+import org.cbioportal.model.CancerStudy;
+import org.cbioportal.persistence.CacheEnabledConfig;
+import org.cbioportal.persistence.mybatis.StudyMapper;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+@RunWith(MockitoJUnitRunner.class)
+public class StudySummarySnapshotTest {
+
+    private static final String STUDY_ID_1 = "study_id_1";
+    private static final String STUDY_ID_2 = "study_id_2";
+    private static final Date IMPORT_DATE = new Date(1000L);
+    private static final Date REIMPORT_DATE = new Date(2000L);
+
+    @InjectMocks
+    private StudySummarySnapshot studySummarySnapshot;
+
+    @Mock
+    private StudyMapper studyMapper;
+    @Mock
+    private CacheEnabledConfig cacheEnabledConfig;
+
+    @Before
+    public void setUp() {
+        ReflectionTestUtils.setField(studySummarySnapshot, "snapshotEnabled", true);
+        Mockito.when(cacheEnabledConfig.isEnabled()).thenReturn(true);
+        Mockito.when(studyMapper.getStudySummaries(Arrays.asList(STUDY_ID_1, STUDY_ID_2)))
+            .thenReturn(Arrays.asList(studySummary(STUDY_ID_1, IMPORT_DATE, 10), studySummary(STUDY_ID_2, IMPORT_DATE, 20)));
+    }
+
+    @Test
+    public void setSampleCounts() {
+        List<CancerStudy> summaryStudies = Arrays.asList(study(STUDY_ID_1, IMPORT_DATE), study(STUDY_ID_2, IMPORT_DATE));
+        studySummarySnapshot.setSampleCounts(summaryStudies, "SUMMARY");
+
+        Assert.assertEquals((Integer) 10, summaryStudies.get(0).getAllSampleCount());
+        Assert.assertNull(summaryStudies.get(0).getSequencedSampleCount());
+        Assert.assertEquals((Integer) 20, summaryStudies.get(1).getAllSampleCount());
+
+        // the counts of listed studies are set without a query
+        List<CancerStudy> detailedStudies = Arrays.asList(study(STUDY_ID_2, IMPORT_DATE));
+        studySummarySnapshot.setSampleCounts(detailedStudies, "DETAILED");
+
+        CancerStudy detailedStudy = detailedStudies.get(0);
+        Assert.assertEquals((Integer) 20, detailedStudy.getAllSampleCount());
+        Assert.assertEquals((Integer) 21, detailedStudy.getSequencedSampleCount());
+        Assert.assertEquals((Integer) 22, detailedStudy.getCnaSampleCount());
+        Assert.assertEquals((Integer) 23, detailedStudy.getTreatmentCount());
+        Assert.assertEquals((Integer) 24, detailedStudy.getStructuralVariantCount());
+        Mockito.verify(studyMapper, Mockito.times(1)).getStudySummaries(Mockito.anyList());
+    }
+
+    @Test
+    public void setSampleCountsIdProjection() {
+        List<CancerStudy> studies = Arrays.asList(study(STUDY_ID_1, null));
+        studySummarySnapshot.setSampleCounts(studies, "ID");
+
+        Assert.assertNull(studies.get(0).getAllSampleCount());
+        Mockito.verify(studyMapper, Mockito.never()).getStudySummaries(Mockito.anyList());
+    }
+
+    @Test
+    public void reimportedStudyIsReloaded() {
+        studySummarySnapshot.setSampleCounts(Arrays.asList(study(STUDY_ID_1, IMPORT_DATE),
+            study(STUDY_ID_2, IMPORT_DATE)), "SUMMARY");
+        Mockito.when(studyMapper.getStudySummaries(Collections.singletonList(STUDY_ID_2)))
+            .thenReturn(Collections.singletonList(studySummary(STUDY_ID_2, REIMPORT_DATE, 30)));
+
+        List<CancerStudy> studies = Arrays.asList(study(STUDY_ID_1, IMPORT_DATE), study(STUDY_ID_2, REIMPORT_DATE));
+        studySummarySnapshot.setSampleCounts(studies, "SUMMARY");
+
+        Assert.assertEquals((Integer) 10, studies.get(0).getAllSampleCount());
+        Assert.assertEquals((Integer) 30, studies.get(1).getAllSampleCount());
+        Mockito.verify(studyMapper).getStudySummaries(Collections.singletonList(STUDY_ID_2));
+    }
+
+    @Test
+    public void evictStudyReloadsSummary() {
+        studySummarySnapshot.setSampleCounts(Arrays.asList(study(STUDY_ID_1, IMPORT_DATE),
+            study(STUDY_ID_2, IMPORT_DATE)), "SUMMARY");
+        Mockito.when(studyMapper.getStudySummaries(Collections.singletonList(STUDY_ID_1)))
+            .thenReturn(Collections.singletonList(studySummary(STUDY_ID_1, IMPORT_DATE, 15)));
+
+        studySummarySnapshot.evictStudy(STUDY_ID_1);
+        List<CancerStudy> studies = Arrays.asList(study(STUDY_ID_1, IMPORT_DATE), study(STUDY_ID_2, IMPORT_DATE));
+        studySummarySnapshot.setSampleCounts(studies, "SUMMARY");
+
+        Assert.assertEquals((Integer) 15, studies.get(0).getAllSampleCount());
+        Assert.assertEquals((Integer) 20, studies.get(1).getAllSampleCount());
+        Mockito.verify(studyMapper).getStudySummaries(Collections.singletonList(STUDY_ID_1));
+    }
+
+    private CancerStudy study(String studyId, Date importDate) {
+        CancerStudy study = new CancerStudy();
+        study.setCancerStudyIdentifier(studyId);
+        study.setImportDate(importDate);
+        return study;
+    }
+
+    private CancerStudy studySummary(String studyId, Date importDate, int allSampleCount) {
+        CancerStudy studySummary = study(studyId, importDate);
+        studySummary.setAllSampleCount(allSampleCount);
+        studySummary.setSequencedSampleCount(allSampleCount + 1);
+        studySummary.setCnaSampleCount(allSampleCount + 2);
+        studySummary.setTreatmentCount(allSampleCount + 3);
+        studySummary.setStructuralVariantCount(allSampleCount + 4);
+        return studySummary;
+    }
+}
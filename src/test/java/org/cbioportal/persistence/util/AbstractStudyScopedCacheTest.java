@@ -0,0 +1,106 @@
+package org.cbioportal.persistence.util;
+
+import org.cbioportal.persistence.CacheEnabledConfig;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class AbstractStudyScopedCacheTest {
+
+    private CacheEnabledConfig cacheEnabledConfig;
+    private TestCache testCache;
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Before
+    public void setUp() {
+        cacheEnabledConfig = Mockito.mock(CacheEnabledConfig.class);
+        Mockito.when(cacheEnabledConfig.isEnabled()).thenReturn(true);
+        testCache = new TestCache();
+    }
+
+    @Test
+    public void getRetainsValuesOfEnabledCache() {
+        Assert.assertEquals("study_1:a", testCache.get("study_1:a", this::load));
+        Assert.assertEquals("study_1:a", testCache.get("study_1:a", this::load));
+        Assert.assertEquals(1, loads.get());
+
+        Mockito.when(cacheEnabledConfig.isEnabled()).thenReturn(false);
+        Assert.assertFalse(testCache.isRetaining());
+        Assert.assertNull(testCache.getIfPresent("study_1:a"));
+        testCache.get("study_1:a", this::load);
+        Assert.assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void evictStudy() {
+        testCache.get("study_1:a", this::load);
+        testCache.get("study_2:a", this::load);
+
+        testCache.evictStudy("study_1");
+
+        Assert.assertNull(testCache.getIfPresent("study_1:a"));
+        Assert.assertEquals("study_2:a", testCache.getIfPresent("study_2:a"));
+    }
+
+    @Test
+    public void putAllIgnoresValuesLoadedBeforeEviction() {
+        long generation = testCache.getGeneration();
+        testCache.evictAll();
+        testCache.putAll(Map.of("study_1:a", "stale"), generation);
+        Assert.assertNull(testCache.getIfPresent("study_1:a"));
+
+        testCache.putAll(Map.of("study_1:a", "fresh"), testCache.getGeneration());
+        Assert.assertEquals("fresh", testCache.getIfPresent("study_1:a"));
+    }
+
+    @Test
+    public void concurrentGetLoadsOnce() throws Exception {
+        CountDownLatch loaderStarted = new CountDownLatch(1);
+        CountDownLatch releaseLoader = new CountDownLatch(1);
+        CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> testCache.get("study_1:a", key -> {
+            loaderStarted.countDown();
+            try {
+                releaseLoader.await();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            return load(key);
+        }));
+        loaderStarted.await();
+        CompletableFuture<String> second = CompletableFuture.supplyAsync(() -> testCache.get("study_1:a", this::load));
+        releaseLoader.countDown();
+
+        Assert.assertEquals("study_1:a", first.get());
+        Assert.assertEquals("study_1:a", second.get());
+        Assert.assertEquals(1, loads.get());
+    }
+
+    private String load(String key) {
+        loads.incrementAndGet();
+        return key;
+    }
+
+    private class TestCache extends AbstractStudyScopedCache<String, String> {
+
+        TestCache() {
+            ReflectionTestUtils.setField(this, "cacheEnabledConfig", cacheEnabledConfig);
+        }
+
+        @Override
+        protected boolean isConfigured() {
+            return true;
+        }
+
+        @Override
+        protected boolean isOfStudy(String key, String value, String studyId) {
+            return key.startsWith(studyId + ":");
+        }
+    }
+}
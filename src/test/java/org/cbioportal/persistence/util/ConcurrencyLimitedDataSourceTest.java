@@ -0,0 +1,69 @@
+package org.cbioportal.persistence.util;
+
+import org.cbioportal.utils.concurrency.ConcurrencyLimit;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ConcurrencyLimitedDataSourceTest {
+
+    @Mock
+    private DataSource targetDataSource;
+    @Mock
+    private Connection targetConnection;
+
+    private ConcurrencyLimit concurrencyLimit;
+    private ConcurrencyLimitedDataSource dataSource;
+
+    @Before
+    public void setUp() throws Exception {
+        concurrencyLimit = new ConcurrencyLimit("database", 2, 10);
+        dataSource = new ConcurrencyLimitedDataSource(targetDataSource, concurrencyLimit);
+    }
+
+    @Test
+    public void getConnectionHoldsPermitUntilClose() throws Exception {
+        Mockito.when(targetDataSource.getConnection()).thenReturn(targetConnection);
+        Mockito.when(targetConnection.isClosed()).thenReturn(false);
+
+        Connection connection1 = dataSource.getConnection();
+        Connection connection2 = dataSource.getConnection();
+        Assert.assertFalse(connection1.isClosed());
+
+        // no permit left
+        Assert.assertThrows(SQLTransientConnectionException.class, () -> dataSource.getConnection());
+
+        connection1.close();
+        // closing again does not release a second permit
+        connection1.close();
+        Connection connection3 = dataSource.getConnection();
+        Assert.assertThrows(SQLTransientConnectionException.class, () -> dataSource.getConnection());
+
+        connection2.close();
+        connection3.close();
+        Mockito.verify(targetConnection, Mockito.times(4)).close();
+        Mockito.verify(targetDataSource, Mockito.times(3)).getConnection();
+    }
+
+    @Test
+    public void failedGetConnectionReleasesPermit() throws Exception {
+        Mockito.when(targetDataSource.getConnection()).thenThrow(new SQLException("pool exhausted"));
+
+        for (int i = 0; i < 3; i++) {
+            SQLException exception = Assert.assertThrows(SQLException.class, () -> dataSource.getConnection());
+            Assert.assertEquals("pool exhausted", exception.getMessage());
+        }
+        Assert.assertTrue(concurrencyLimit.acquire());
+        Assert.assertTrue(concurrencyLimit.acquire());
+    }
+}
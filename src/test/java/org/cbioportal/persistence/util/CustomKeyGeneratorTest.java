@@ -13,9 +13,13 @@ import org.mockito.junit.MockitoJUnitRunner;
 
 import java.lang.reflect.Method;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -53,15 +57,16 @@ public class CustomKeyGeneratorTest {
     public void testGenerateCacheSuccessNoParams() throws Exception {
         Method functionToPass = this.getClass().getMethod("testGenerateCacheSuccessNoParams");
         Object hello = customKeyGenerator.generate(this, functionToPass);
-        Assert.assertTrue(hello instanceof String);
-        Assert.assertEquals("CustomKeyGeneratorTest" + CustomKeyGenerator.CACHE_KEY_PARAM_DELIMITER + "testGenerateCacheSuccessNoParams" + CustomKeyGenerator.CACHE_KEY_PARAM_DELIMITER, (String) hello);
+        Assert.assertTrue(hello instanceof StudyTaggedCacheKey);
+        Assert.assertEquals("CustomKeyGeneratorTest" + CustomKeyGenerator.CACHE_KEY_PARAM_DELIMITER + "testGenerateCacheSuccessNoParams" + CustomKeyGenerator.CACHE_KEY_PARAM_DELIMITER, hello.toString());
+        Assert.assertTrue(((StudyTaggedCacheKey) hello).getStudyIds().isEmpty());
     }
     
     @Test
     public void testGenerateCacheSuccessWithParams() throws Exception {
         Method functionToPass = this.getClass().getMethod("testGenerateCacheSuccessNoParams");
         Object hello = customKeyGenerator.generate(this, functionToPass, "one", "two");
-        Assert.assertTrue(hello instanceof String);
+        Assert.assertTrue(hello instanceof StudyTaggedCacheKey);
         StringBuilder expected = new StringBuilder();
         expected.append("CustomKeyGeneratorTest");
         expected.append(CustomKeyGenerator.CACHE_KEY_PARAM_DELIMITER);
@@ -70,7 +75,7 @@ public class CustomKeyGeneratorTest {
         expected.append("\"one\"");
         expected.append(CustomKeyGenerator.CACHE_KEY_PARAM_DELIMITER);
         expected.append("\"two\"");
-        Assert.assertEquals(expected.toString(), (String) hello);
+        Assert.assertEquals(expected.toString(), hello.toString());
     }
     
     // Make sure that the study ids are extracted into the key name
@@ -91,7 +96,33 @@ public class CustomKeyGeneratorTest {
         }
         Object hello = customKeyGenerator.generate(this, functionToPass, "one", requestParams.toString());
         
-        Assert.assertTrue(hello instanceof String);
-        Assert.assertTrue(((String) hello).contains("test_study_1_test_study_2_22cc100378d5dc33c03fb0f39a61c692"));
+        Assert.assertTrue(hello instanceof StudyTaggedCacheKey);
+        Assert.assertTrue(hello.toString().contains("test_study_1_test_study_2_22cc100378d5dc33c03fb0f39a61c692"));
+        Assert.assertEquals(new HashSet<>(Arrays.asList(studyId1, studyId2)),
+            ((StudyTaggedCacheKey) hello).getStudyIds());
+    }
+
+    @Test
+    public void testGenerateTagsStudiesOfIds() throws Exception {
+        Method functionToPass = this.getClass().getMethod("testGenerateCacheSuccessNoParams");
+
+        StudyTaggedCacheKey key = (StudyTaggedCacheKey) customKeyGenerator.generate(this, functionToPass,
+            Arrays.asList(studyId2 + "_mutations", studyId2 + "_all"), "test_study_3", "SUMMARY");
+
+        Assert.assertEquals(Collections.singleton(studyId2), key.getStudyIds());
+    }
+
+    @Test
+    public void testGenerateReadsStudiesOnce() throws Exception {
+        Method functionToPass = this.getClass().getMethod("testGenerateCacheSuccessNoParams");
+
+        customKeyGenerator.generate(this, functionToPass, studyId1);
+        customKeyGenerator.generate(this, functionToPass, studyId2);
+        verify(studyRepository, times(1)).getAllStudies(any(), any(), any(), any(), any(), any());
+
+        // a new study may have been added
+        customKeyGenerator.evictStudy("test_study_3");
+        customKeyGenerator.generate(this, functionToPass, studyId1);
+        verify(studyRepository, times(2)).getAllStudies(any(), any(), any(), any(), any(), any());
     }
 }
\ No newline at end of file
@@ -3,15 +3,19 @@ package org.cbioportal.persistence.util;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Set;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.MockitoJUnitRunner;
 import org.redisson.api.RBucket;
 import org.redisson.api.RKeys;
+import org.redisson.api.RSet;
 import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.Codec;
 import org.springframework.cache.Cache;
 
 import java.util.concurrent.TimeUnit;
@@ -208,6 +212,45 @@ public class CustomRedisCacheTest {
         assertEquals("success", actual.get());
     }
     
+    @Test
+    public void shouldIndexStudyTaggedKeys() {
+        RBucket bucket = Mockito.mock(RBucket.class);
+        when(client.getBucket("subject:57_onions")).thenReturn(bucket);
+        RSet studyIndex = Mockito.mock(RSet.class);
+        when(client.getSet(eq("study-index:subject:study_1"), any(Codec.class))).thenReturn(studyIndex);
+        RSet anyStudyIndex = Mockito.mock(RSet.class);
+        when(client.getSet(eq("study-index:subject:*"), any(Codec.class))).thenReturn(anyStudyIndex);
+
+        CustomRedisCache subject = new CustomRedisCache("subject", client, 100);
+        subject.put(new StudyTaggedCacheKey("57_onions", Set.of("study_1")), "success");
+        subject.put(new StudyTaggedCacheKey("57_onions", Set.of()), "success");
+
+        verify(studyIndex, times(1)).addAsync("subject:57_onions");
+        verify(studyIndex, times(1)).expireAsync(100, TimeUnit.MINUTES);
+        verify(anyStudyIndex, times(1)).addAsync("subject:57_onions");
+    }
+
+    @Test
+    public void shouldEvictStudyFromIndex() {
+        RSet studyIndex = Mockito.mock(RSet.class);
+        when(client.getSet(eq("study-index:subject:study_1"), any(Codec.class))).thenReturn(studyIndex);
+        when(studyIndex.removeRandom(anyInt())).thenReturn(Set.of("subject:key_1", "subject:key_2"), Set.of());
+        RSet anyStudyIndex = Mockito.mock(RSet.class);
+        when(client.getSet(eq("study-index:subject:*"), any(Codec.class))).thenReturn(anyStudyIndex);
+        when(anyStudyIndex.removeRandom(anyInt())).thenReturn(Set.of("subject:key_3"), Set.of());
+        when(mockKeys.delete(any(String[].class))).thenReturn(1L);
+
+        CustomRedisCache subject = new CustomRedisCache("subject", client, 100);
+
+        assertTrue(subject.evictStudy("study_1"));
+        ArgumentCaptor<String[]> deletedKeys = ArgumentCaptor.forClass(String[].class);
+        verify(mockKeys, times(2)).delete(deletedKeys.capture());
+        assertEquals(Set.of("subject:key_1", "subject:key_2"), Set.of(deletedKeys.getAllValues().get(0)));
+        assertEquals(Set.of("subject:key_3"), Set.of(deletedKeys.getAllValues().get(1)));
+        // no scan of the keys
+        verify(mockKeys, never()).getKeysStream();
+    }
+
     @Test
     public void evictIfPresentNoStringPattern() {
         CustomRedisCache subject = new CustomRedisCache("subject", client, 100);
@@ -310,6 +353,34 @@ public class CustomRedisCacheTest {
         assertEquals(toRoundTrip, roundTripped);
     }
     
+    @Test
+    public void shouldRoundTripObjectWithCodec() {
+        String toRoundTrip = "The quick brown fox jumped over the lazy dog";
+        RedisCacheCodecStatistics statistics = new RedisCacheCodecStatistics(KryoLz4RedisCacheCodec.NAME);
+        CustomRedisCache subject = new CustomRedisCache("subject", client, -1, new KryoLz4RedisCacheCodec(),
+            statistics);
+
+        Object compressed = subject.toStoreValue(toRoundTrip);
+        String roundTripped = (String) subject.fromStoreValue(compressed);
+
+        assertEquals(toRoundTrip, roundTripped);
+        assertEquals(1, statistics.getEncodeCount());
+        assertEquals(1, statistics.getDecodeCount());
+        assertEquals(((byte[]) compressed).length, statistics.getMeanEncodedBytes(), 0.0);
+    }
+
+    @Test
+    public void shouldMissOnValueOfOtherCodec() {
+        RedisCacheCodecStatistics statistics = new RedisCacheCodecStatistics(KryoLz4RedisCacheCodec.NAME);
+        CustomRedisCache subject = new CustomRedisCache("subject", client, -1, new KryoLz4RedisCacheCodec(),
+            statistics);
+
+        Object roundTripped = subject.fromStoreValue(toStoreValue("success"));
+
+        assertNull(roundTripped);
+        assertEquals(1, statistics.getErrorCount());
+    }
+
     private Object toStoreValue(Object rawValue) {
         CustomRedisCache converter = new CustomRedisCache("", client, -1);
         return converter.toStoreValue(rawValue);
@@ -0,0 +1,101 @@
+package org.cbioportal.persistence.util;
+
+import org.cbioportal.model.Mutation;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class KryoLz4RedisCacheCodecTest {
+
+    private final KryoLz4RedisCacheCodec subject = new KryoLz4RedisCacheCodec();
+
+    @Test
+    public void shouldRoundTripModelObjects() throws IOException {
+        List<Mutation> mutations = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            Mutation mutation = new Mutation();
+            mutation.setMolecularProfileId("study_mutations");
+            mutation.setSampleId("sample_" + i);
+            mutation.setEntrezGeneId(i % 10);
+            mutation.setProteinChange("V600E");
+            mutations.add(mutation);
+        }
+
+        byte[] bytes = subject.encode(mutations);
+        List<Mutation> roundTripped = (List<Mutation>) subject.decode(bytes);
+
+        assertEquals(1000, roundTripped.size());
+        assertEquals("sample_999", roundTripped.get(999).getSampleId());
+        assertEquals((Integer) 9, roundTripped.get(999).getEntrezGeneId());
+        assertEquals("V600E", roundTripped.get(0).getProteinChange());
+        // LZ4 compresses less than GZIP, but not by much
+        assertTrue(bytes.length < new JavaGzipRedisCacheCodec().encode(mutations).length * 2);
+    }
+
+    @Test
+    public void shouldRoundTripUnmodifiableCollections() throws IOException {
+        List<String> list = Collections.unmodifiableList(new ArrayList<>(List.of("a", "b")));
+        Set<Integer> set = Collections.unmodifiableSet(new HashSet<>(Set.of(1, 2)));
+        Map<String, Integer> map = Collections.unmodifiableMap(new HashMap<>(Map.of("a", 1)));
+
+        assertEquals(list, subject.decode(subject.encode(list)));
+        assertEquals(set, subject.decode(subject.encode(set)));
+        assertEquals(map, subject.decode(subject.encode(map)));
+        assertEquals(List.of(1, 2, 3), subject.decode(subject.encode(List.of(1, 2, 3))));
+    }
+
+    @Test
+    public void shouldRoundTripLargeValue() throws IOException {
+        // larger than the pooled buffers
+        int[] value = new int[2 * 1024 * 1024];
+        for (int i = 0; i < value.length; i++) {
+            value[i] = i;
+        }
+
+        int[] roundTripped = (int[]) subject.decode(subject.encode(value));
+
+        assertArrayEquals(value, roundTripped);
+        assertEquals("value", subject.decode(subject.encode("value")));
+    }
+
+    @Test(expected = IOException.class)
+    public void shouldRejectValueOfOtherCodec() throws IOException {
+        subject.decode(new JavaGzipRedisCacheCodec().encode("value"));
+    }
+
+    @Test
+    public void shouldRoundTripHighlyCompressibleValue() throws IOException {
+        byte[] value = new byte[16 * 1024 * 1024];
+
+        assertArrayEquals(value, (byte[]) subject.decode(subject.encode(value)));
+    }
+
+    @Test
+    public void shouldRejectInvalidLength() throws IOException {
+        byte[] bytes = subject.encode("value");
+
+        // negative length
+        byte[] negativeLength = bytes.clone();
+        negativeLength[1] = (byte) 0x80;
+        assertThrows(IOException.class, () -> subject.decode(negativeLength));
+
+        // far more than the compressed block can hold
+        byte[] hugeLength = bytes.clone();
+        hugeLength[1] = (byte) 0x7F;
+        assertThrows(IOException.class, () -> subject.decode(hugeLength));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectUnknownCodecName() {
+        CustomRedisCachingProvider.createCodec("fst");
+    }
+}
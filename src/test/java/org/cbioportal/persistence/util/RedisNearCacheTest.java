@@ -0,0 +1,154 @@
+package org.cbioportal.persistence.util;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.redisson.api.RBucket;
+import org.redisson.api.RKeys;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.redisson.api.listener.MessageListener;
+import org.redisson.client.codec.Codec;
+
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class RedisNearCacheTest {
+
+    @Mock
+    private RedissonClient client;
+
+    @Mock
+    private RTopic topic;
+
+    private MessageListener<String> listener;
+
+    @Before
+    public void setUp() {
+        when(client.getTopic(eq("subject:near-cache-invalidations"), any(Codec.class))).thenReturn(topic);
+    }
+
+    @Test
+    public void shouldReadFromNearCacheAfterFirstLookup() {
+        RBucket bucket = mock(RBucket.class);
+        when(client.getBucket("subject:57_onions")).thenReturn(bucket);
+        CustomRedisCache subject = createCache(1024 * 1024);
+        when(bucket.get()).thenReturn(subject.toStoreValue("success"));
+
+        assertEquals("success", subject.lookup("57_onions"));
+        assertEquals("success", subject.lookup("57_onions"));
+        assertEquals("success", subject.get("57_onions", () -> "loaded"));
+
+        verify(bucket, times(1)).get();
+        assertTrue(subject.getStatistics().contains("Near cache hits: 2\n"));
+        assertTrue(subject.getStatistics().contains("Redis hits: 1\n"));
+    }
+
+    @Test
+    public void shouldReturnCopiesOfCachedValues() {
+        CustomRedisCache subject = createCache(1024 * 1024);
+        when(client.getBucket("subject:57_onions")).thenReturn(mock(RBucket.class));
+        subject.put("57_onions", new StringBuilder("success"));
+
+        StringBuilder value = (StringBuilder) subject.lookup("57_onions");
+        value.append(" modified");
+
+        assertEquals("success", subject.lookup("57_onions").toString());
+    }
+
+    @Test
+    public void shouldEvictLocallyAndPublish() {
+        RBucket bucket = mock(RBucket.class);
+        when(client.getBucket(anyString())).thenReturn(bucket);
+        RKeys keys = mock(RKeys.class);
+        when(client.getKeys()).thenReturn(keys);
+        when(keys.getKeysStream()).thenReturn(Stream.of("subject:study_1_key", "subject:study_2_key"));
+        when(keys.delete(any(String[].class))).thenReturn(1L);
+        CustomRedisCache subject = createCache(1024 * 1024);
+        subject.put("study_1_key", "one");
+        subject.put("study_2_key", "two");
+
+        assertTrue(subject.evictIfPresent(".*study_1.*"));
+
+        verify(topic).publish("evict:.*study_1.*");
+        // study_1 is read from Redis again, where it is gone
+        assertNull(subject.lookup("study_1_key"));
+        assertEquals("two", subject.lookup("study_2_key"));
+    }
+
+    @Test
+    public void shouldEvictOnMessageFromOtherPortal() {
+        RBucket bucket = mock(RBucket.class);
+        when(client.getBucket(anyString())).thenReturn(bucket);
+        CustomRedisCache subject = createCache(1024 * 1024);
+        subject.put("study_1_key", "one");
+        subject.put("study_2_key", "two");
+
+        listener.onMessage("subject:near-cache-invalidations", "evict:.*study_1.*");
+        assertNull(subject.lookup("study_1_key"));
+        assertEquals("two", subject.lookup("study_2_key"));
+
+        listener.onMessage("subject:near-cache-invalidations", "clear");
+        assertNull(subject.lookup("study_2_key"));
+    }
+
+    @Test
+    public void shouldNotAddValueReadBeforeInvalidation() {
+        RedisNearCache nearCache = new RedisNearCache("subject", client, 1024, 60);
+        long generation = nearCache.getGeneration();
+
+        nearCache.clear();
+        nearCache.put("subject:key", new byte[1], generation);
+
+        assertNull(nearCache.get("subject:key"));
+    }
+
+    @Test
+    public void shouldThrottleTtlRefreshOfNearCacheHits() {
+        RedisNearCache nearCache = new RedisNearCache("subject", client, 1024, 60);
+        nearCache.put("subject:key", new byte[1], nearCache.getGeneration());
+
+        // the value was just read from Redis with a fresh time to live
+        assertFalse(nearCache.isTtlRefreshDue("subject:key", TimeUnit.MINUTES.toNanos(15)));
+        assertTrue(nearCache.isTtlRefreshDue("subject:key", 0));
+        assertFalse(nearCache.isTtlRefreshDue("subject:other_key", 0));
+    }
+
+    @Test
+    public void shouldNotRefreshTtlOnEveryNearCacheHit() {
+        RBucket bucket = mock(RBucket.class);
+        when(client.getBucket("subject:57_onions")).thenReturn(bucket);
+        CustomRedisCache subject = createCache(1024 * 1024, 60);
+        when(bucket.get()).thenReturn(subject.toStoreValue("success"));
+
+        assertEquals("success", subject.lookup("57_onions"));
+        assertEquals("success", subject.lookup("57_onions"));
+
+        // extended after the read from Redis, the near cache hit is within a quarter of the time to live
+        verify(bucket, times(1)).expireAsync(60, TimeUnit.MINUTES);
+    }
+
+    private CustomRedisCache createCache(long nearCacheMaxBytes) {
+        return createCache(nearCacheMaxBytes, -1);
+    }
+
+    private CustomRedisCache createCache(long nearCacheMaxBytes, long ttlMinutes) {
+        ArgumentCaptor<MessageListener> captor = ArgumentCaptor.forClass(MessageListener.class);
+        CustomRedisCache cache = new CustomRedisCache("subject", client, ttlMinutes, new KryoLz4RedisCacheCodec(),
+            new RedisCacheCodecStatistics(KryoLz4RedisCacheCodec.NAME),
+            new RedisNearCache("subject", client, nearCacheMaxBytes, 60));
+        verify(topic, atLeastOnce()).addListener(eq(String.class), captor.capture());
+        listener = captor.getValue();
+        return cache;
+    }
+}
@@ -0,0 +1,69 @@
+package org.cbioportal.persistence.util;
+
+import org.junit.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class StudyIndexedCacheTest {
+
+    private final ConcurrentMapCache cache = new ConcurrentMapCache("cache");
+    private final StudyIndexedCache subject = new StudyIndexedCache(cache);
+
+    @Test
+    public void shouldEvictKeysOfStudyAndKeysWithoutStudy() {
+        StudyTaggedCacheKey study1Key = new StudyTaggedCacheKey("study1_key", Set.of("study1"));
+        StudyTaggedCacheKey study2Key = new StudyTaggedCacheKey("study2_key", Set.of("study2"));
+        StudyTaggedCacheKey bothStudiesKey = new StudyTaggedCacheKey("both_key", Set.of("study1", "study2"));
+        StudyTaggedCacheKey noStudyKey = new StudyTaggedCacheKey("all_studies_key", Set.of());
+        subject.put(study1Key, "1");
+        subject.put(study2Key, "2");
+        subject.put(bothStudiesKey, "1 and 2");
+        subject.put(noStudyKey, "all");
+        subject.put("untagged_key", "untagged");
+
+        subject.evictStudy("study1");
+
+        assertNull(subject.get(study1Key));
+        assertNull(subject.get(bothStudiesKey));
+        assertNull(subject.get(noStudyKey));
+        assertEquals("2", subject.get(study2Key).get());
+        assertEquals("untagged", subject.get("untagged_key").get());
+
+        // indexed again when loaded again
+        assertEquals("all again", subject.get(noStudyKey, () -> "all again"));
+        subject.evictStudy("study3");
+        assertNull(subject.get(noStudyKey));
+        assertEquals("2", subject.get(study2Key).get());
+    }
+
+    @Test
+    public void shouldClearIndex() {
+        StudyTaggedCacheKey study1Key = new StudyTaggedCacheKey("study1_key", Set.of("study1"));
+        subject.put(study1Key, "1");
+
+        subject.clear();
+        cache.put(study1Key, "not indexed");
+        subject.evictStudy("study1");
+
+        assertEquals("not indexed", subject.get(study1Key).get());
+    }
+
+    @Test
+    public void shouldPruneKeysNoLongerInCache() {
+        for (int i = 0; i < 15000; i++) {
+            StudyTaggedCacheKey key = new StudyTaggedCacheKey("key_" + i, Set.of("study1"));
+            subject.put(key, i);
+            // as if the cache dropped the value when full
+            cache.evict(key);
+        }
+        StudyTaggedCacheKey key = new StudyTaggedCacheKey("key", Set.of("study1"));
+        subject.put(key, "value");
+
+        subject.evictStudy("study1");
+
+        assertNull(subject.get(key));
+    }
+}
@@ -0,0 +1,127 @@
+package org.cbioportal.security;
+
+import org.cbioportal.model.CancerStudy;
+import org.cbioportal.persistence.cachemaputil.CacheMapUtil;
+import org.cbioportal.utils.security.AccessLevel;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.Authentication;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class CancerStudyPermissionEvaluatorTest {
+
+    private static final String COLLECTION_OF_CANCER_STUDY_IDS = "Collection<CancerStudyId>";
+    private static final String CANCER_STUDY_ID = "CancerStudyId";
+
+    @Mock
+    private CacheMapUtil cacheMapUtil;
+
+    private CancerStudyPermissionEvaluator cancerStudyPermissionEvaluator;
+    private Map<String, CancerStudy> cancerStudyMap;
+
+    @Before
+    public void setUp() {
+        cancerStudyPermissionEvaluator = new CancerStudyPermissionEvaluator("cbioportal", "true", "PUBLIC",
+            cacheMapUtil);
+        cancerStudyMap = new HashMap<>();
+        addCancerStudy("brca_tcga", "");
+        addCancerStudy("acc_tcga", "");
+        addCancerStudy("study_es_0", "PUBLIC");
+        addCancerStudy("lgg_ucsf", "GROUP_A;GROUP_B");
+        addCancerStudy("private_study", "");
+        when(cacheMapUtil.getCancerStudyMap()).thenAnswer(invocation -> cancerStudyMap);
+        when(cacheMapUtil.getGeneration()).thenReturn(1L);
+    }
+
+    @Test
+    public void hasAccessToCancerStudies() {
+
+        Authentication authentication = authentication("cbioportal:all_tcga", "ROLE_cbioportal:group_b",
+            "cbioportal:private_study", "other_portal:all");
+
+        Assert.assertTrue(hasAccessToCancerStudies(authentication, "brca_tcga", "acc_tcga", "study_es_0",
+            "lgg_ucsf", "private_study", "all"));
+        Assert.assertFalse(hasAccessToCancerStudies(authentication("cbioportal:all_tcga"), "brca_tcga",
+            "lgg_ucsf"));
+        Assert.assertFalse(hasAccessToCancerStudies(authentication, "brca_tcga", "unknown_study"));
+        Assert.assertTrue(cancerStudyPermissionEvaluator.hasPermission(authentication("cbioportal:all"),
+            "private_study", CANCER_STUDY_ID, AccessLevel.READ));
+        Assert.assertFalse(cancerStudyPermissionEvaluator.hasPermission(authentication("other_portal:all"),
+            "private_study", CANCER_STUDY_ID, AccessLevel.READ));
+        Assert.assertTrue(cancerStudyPermissionEvaluator.hasPermission(authentication(), new ArrayList<>(Arrays.asList(
+            "private_study", "brca_tcga")), COLLECTION_OF_CANCER_STUDY_IDS, AccessLevel.LIST));
+    }
+
+    @Test
+    public void compileStudyAccessOncePerGeneration() {
+
+        Authentication authentication = authentication("cbioportal:brca_tcga");
+
+        Assert.assertTrue(hasAccessToCancerStudies(authentication, "brca_tcga", "study_es_0"));
+        Assert.assertFalse(hasAccessToCancerStudies(authentication, "acc_tcga"));
+        // the study access is compiled from the first map and not rebuilt for the later checks
+        verify(cacheMapUtil, times(3)).getCancerStudyMap();
+
+        // the groups of a study change when the cache maps are rebuilt
+        cancerStudyMap = new HashMap<>(cancerStudyMap);
+        addCancerStudy("acc_tcga", "BRCA_TCGA");
+        Assert.assertFalse(hasAccessToCancerStudies(authentication, "acc_tcga"));
+        when(cacheMapUtil.getGeneration()).thenReturn(2L);
+        Assert.assertTrue(hasAccessToCancerStudies(authentication, "acc_tcga"));
+    }
+
+    @Test
+    public void compileStudyAccessOncePerAuthorities() {
+
+        // e.g. requests with a data access token, which are authenticated separately
+        Assert.assertTrue(hasAccessToCancerStudies(authentication("cbioportal:brca_tcga", "cbioportal:group_a"),
+            "brca_tcga"));
+        Assert.assertTrue(hasAccessToCancerStudies(authentication("ROLE_cbioportal:group_a", "cbioportal:brca_tcga"),
+            "lgg_ucsf"));
+        // compiled for the first authentication and reused for the second
+        verify(cacheMapUtil, times(3)).getCancerStudyMap();
+
+        Assert.assertFalse(hasAccessToCancerStudies(authentication("cbioportal:group_a"), "brca_tcga"));
+        verify(cacheMapUtil, times(5)).getCancerStudyMap();
+    }
+
+    @Test
+    public void hasAccessToCancerStudiesWithoutGeneration() {
+
+        when(cacheMapUtil.getGeneration()).thenReturn(-1L);
+        Authentication authentication = authentication("cbioportal:group_a");
+
+        Assert.assertTrue(hasAccessToCancerStudies(authentication, "lgg_ucsf", "study_es_0"));
+        Assert.assertFalse(hasAccessToCancerStudies(authentication, "lgg_ucsf", "brca_tcga"));
+    }
+
+    private boolean hasAccessToCancerStudies(Authentication authentication, String... cancerStudyIds) {
+        return cancerStudyPermissionEvaluator.hasPermission(authentication, new ArrayList<>(Arrays.asList(cancerStudyIds)),
+            COLLECTION_OF_CANCER_STUDY_IDS, AccessLevel.READ);
+    }
+
+    private Authentication authentication(String... authorities) {
+        return new TestingAuthenticationToken("user", null, authorities);
+    }
+
+    private void addCancerStudy(String cancerStudyId, String groups) {
+        CancerStudy cancerStudy = new CancerStudy();
+        cancerStudy.setCancerStudyIdentifier(cancerStudyId);
+        cancerStudy.setGroups(groups);
+        cancerStudyMap.put(cancerStudyId, cancerStudy);
+    }
+}
@@ -0,0 +1,118 @@
+package org.cbioportal.security.token;
+
+import org.cbioportal.model.UserAuthorities;
+import org.cbioportal.persistence.SecurityRepository;
+import org.cbioportal.security.token.uuid.UuidTokenAuthenticationProvider;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.Date;
+
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class TokenAuthenticationCacheTest {
+
+    private static final String TOKEN = "TOKEN";
+    private static final String OTHER_TOKEN = "OTHER_TOKEN";
+    private static final String USERNAME = "user@example.org";
+
+    @Mock
+    private SecurityRepository securityRepository;
+
+    private TokenAuthenticationCache tokenAuthenticationCache;
+
+    @Before
+    public void setUp() {
+        tokenAuthenticationCache = new TokenAuthenticationCache();
+        ReflectionTestUtils.setField(tokenAuthenticationCache, "ttlSeconds", 60);
+        ReflectionTestUtils.setField(tokenAuthenticationCache, "maxSize", 100);
+        tokenAuthenticationCache.init();
+    }
+
+    @Test
+    public void getIfPresent() {
+
+        Assert.assertNull(tokenAuthenticationCache.getIfPresent(TOKEN));
+        tokenAuthenticationCache.put(TOKEN, USERNAME, new Date(System.currentTimeMillis() + 100000));
+
+        Assert.assertEquals(USERNAME, tokenAuthenticationCache.getIfPresent(TOKEN).getUsername());
+        Assert.assertNull(tokenAuthenticationCache.getIfPresent(OTHER_TOKEN));
+        Assert.assertTrue(tokenAuthenticationCache.getStatistics().contains("1 hits, 2 misses"));
+    }
+
+    @Test
+    public void getIfPresentOfExpiredToken() {
+
+        tokenAuthenticationCache.put(TOKEN, USERNAME, new Date(System.currentTimeMillis() - 1000));
+        tokenAuthenticationCache.put(OTHER_TOKEN, USERNAME, null);
+
+        Assert.assertNull(tokenAuthenticationCache.getIfPresent(TOKEN));
+        Assert.assertNotNull(tokenAuthenticationCache.getIfPresent(OTHER_TOKEN));
+    }
+
+    @Test
+    public void invalidate() {
+
+        tokenAuthenticationCache.put(TOKEN, USERNAME, null);
+        tokenAuthenticationCache.put(OTHER_TOKEN, USERNAME, null);
+        tokenAuthenticationCache.put("THIRD_TOKEN", "other_user", null);
+
+        tokenAuthenticationCache.invalidate(TOKEN);
+        Assert.assertNull(tokenAuthenticationCache.getIfPresent(TOKEN));
+        Assert.assertNotNull(tokenAuthenticationCache.getIfPresent(OTHER_TOKEN));
+
+        tokenAuthenticationCache.invalidateUser(USERNAME);
+        Assert.assertNull(tokenAuthenticationCache.getIfPresent(OTHER_TOKEN));
+        Assert.assertNotNull(tokenAuthenticationCache.getIfPresent("THIRD_TOKEN"));
+    }
+
+    @Test
+    public void disabled() {
+
+        TokenAuthenticationCache disabledCache = new TokenAuthenticationCache();
+        disabledCache.init();
+
+        Assert.assertEquals(USERNAME, disabledCache.put(TOKEN, USERNAME, null).getUsername());
+        Assert.assertNull(disabledCache.getIfPresent(TOKEN));
+        Assert.assertFalse(disabledCache.isEnabled());
+    }
+
+    @Test
+    public void authenticateWithCachedAuthorities() {
+
+        UserAuthorities userAuthorities = new UserAuthorities();
+        userAuthorities.setEmail(USERNAME);
+        userAuthorities.setAuthorities(Arrays.asList("cbioportal:study_1", "cbioportal:study_2"));
+        when(securityRepository.getPortalUserAuthorities(USERNAME)).thenReturn(userAuthorities);
+        UuidTokenAuthenticationProvider provider = new UuidTokenAuthenticationProvider(securityRepository);
+        TokenAuthenticationCache.CachedToken cachedToken = tokenAuthenticationCache.put(TOKEN, USERNAME, null);
+
+        Authentication first = provider.authenticate(authenticationRequest(cachedToken));
+        Authentication second = provider.authenticate(authenticationRequest(tokenAuthenticationCache.getIfPresent(TOKEN)));
+
+        verify(securityRepository, times(1)).getPortalUserAuthorities(USERNAME);
+        Assert.assertEquals(USERNAME, second.getPrincipal());
+        Assert.assertEquals(AuthorityUtils.authorityListToSet(first.getAuthorities()),
+            AuthorityUtils.authorityListToSet(second.getAuthorities()));
+        Assert.assertEquals(2, second.getAuthorities().size());
+    }
+
+    private Authentication authenticationRequest(TokenAuthenticationCache.CachedToken cachedToken) {
+        UsernamePasswordAuthenticationToken authenticationRequest =
+            new UsernamePasswordAuthenticationToken(cachedToken.getUsername(), "does not match unused");
+        authenticationRequest.setDetails(cachedToken);
+        return authenticationRequest;
+    }
+}
@@ -1,9 +1,9 @@
 package org.cbioportal.service.impl;
 
-import org.cbioportal.model.CancerStudy;
-import org.cbioportal.persistence.StudyRepository;
 import org.cbioportal.persistence.cachemaputil.StaticRefCacheMapUtil;
 import org.cbioportal.persistence.util.CacheUtils;
+import org.cbioportal.persistence.util.StudyScopedCache;
+import org.cbioportal.service.GeneMemoizerService;
 import org.cbioportal.service.exception.CacheOperationException;
 import org.junit.Before;
 import org.junit.Test;
@@ -16,7 +16,6 @@ import org.springframework.cache.CacheManager;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import java.util.Arrays;
-import java.util.List;
 
 import static org.mockito.Mockito.*;
 
@@ -34,22 +33,16 @@ public class CacheServiceImplTest {
     
     @Mock
     private CacheUtils cacheUtils;
+
+    @Mock
+    private GeneMemoizerService geneMemoizerService;
     
     private Cache mockCache;
     private String clearAllKeysRegex = ".*";
 
-    @Mock
-    private StudyRepository studyRepository;
-    
     @Before
     public void init() {
         when(cacheManager.getCacheNames()).thenReturn(Arrays.asList("name_1", "name_2"));
-        CancerStudy cancerStudy1 = mock(CancerStudy.class);
-        when(cancerStudy1.getCancerStudyIdentifier()).thenReturn("study1");
-        CancerStudy cancerStudy2 = mock(CancerStudy.class);
-        when(cancerStudy2.getCancerStudyIdentifier()).thenReturn("study2");
-        List<CancerStudy> studies = Arrays.asList(cancerStudy1, cancerStudy2);
-        when(studyRepository.getAllStudies(nullable(String.class), nullable(String.class), nullable(Integer.class), nullable(Integer.class), nullable(String.class), nullable(String.class))).thenReturn(studies);
     }
 
     @Test
@@ -57,6 +50,7 @@ public class CacheServiceImplTest {
         cachingService.clearCaches(true);
         verify(cacheUtils, times(2)).evictByPattern(anyString(), eq(clearAllKeysRegex));
         verify(cacheMapUtil, times(1)).initializeCacheMemory();
+        verify(geneMemoizerService, times(1)).invalidate();
     }
 
     @Test
@@ -83,35 +77,43 @@ public class CacheServiceImplTest {
 
     @Test
     public void evictCacheForStudySuccess() throws Exception {
-        List<String> studiesInPortal = Arrays.asList("study1", "study2");
         cachingService.clearCachesForStudy("study3", true);
-        verify(cacheUtils, times(2)).evictByPattern(anyString(), eq("^(?=.*study3).*|^(?!.*study3)(?!.*study1)(?!.*study2).*"));
+        verify(cacheUtils, times(1)).evictStudy("name_1", "study3");
+        verify(cacheUtils, times(1)).evictStudy("name_2", "study3");
+        verify(cacheUtils, never()).evictByPattern(anyString(), anyString());
         verify(cacheMapUtil, times(1)).initializeCacheMemory();
     }
 
     @Test
     public void evictCacheForStudyNullManager() throws Exception {
         ReflectionTestUtils.setField(cachingService, "cacheManager", null);
-        List<String> studiesInPortal = Arrays.asList("study1", "study2");
         cachingService.clearCachesForStudy("study3", true);
-        verify(cacheUtils, never()).evictByPattern(anyString(), anyString());
+        verify(cacheUtils, never()).evictStudy(anyString(), anyString());
         verify(cacheMapUtil, times(1)).initializeCacheMemory();
         ReflectionTestUtils.setField(cachingService, "cacheManager", cacheManager);
     }
 
     @Test
     public void evictCacheForStudySkipSpringManagedCache() throws Exception {
-        List<String> studiesInPortal = Arrays.asList("study1", "study2");
         cachingService.clearCachesForStudy("study3", false);
-        verify(cacheUtils, never()).evictByPattern(anyString(), anyString());
+        verify(cacheUtils, never()).evictStudy(anyString(), anyString());
         verify(cacheMapUtil, times(1)).initializeCacheMemory();
     }
 
     @Test(expected = CacheOperationException.class)
     public void evictCacheForStudyThrowsException() throws Exception {
-        List<String> studiesInPortal = Arrays.asList("study1", "study2");
-        doThrow(RuntimeException.class).when(cacheUtils).evictByPattern(anyString(), anyString());
+        doThrow(RuntimeException.class).when(cacheUtils).evictStudy(anyString(), anyString());
         cachingService.clearCachesForStudy("study3", true);
     }
+
+    @Test
+    public void evictStudyScopedCaches() throws Exception {
+        StudyScopedCache studyScopedCache = mock(StudyScopedCache.class);
+        ReflectionTestUtils.setField(cachingService, "studyScopedCaches", Arrays.asList(studyScopedCache));
+        cachingService.clearCachesForStudy("study3", false);
+        verify(studyScopedCache, times(1)).evictStudy("study3");
+        cachingService.clearCaches(false);
+        verify(studyScopedCache, times(1)).evictAll();
+    }
     
 }
\ No newline at end of file
@@ -6,27 +6,31 @@ import org.cbioportal.model.Gene;
 import org.cbioportal.model.Geneset;
 import org.cbioportal.model.GeneMolecularData;
 import org.cbioportal.model.GenesetMolecularData;
+import org.cbioportal.model.MolecularDataMatrix;
 import org.cbioportal.model.MolecularProfile;
+import org.cbioportal.model.Sample;
 import org.cbioportal.persistence.SampleListRepository;
+import org.cbioportal.persistence.mybatis.util.MolecularDataMatrixBuilder;
 import org.cbioportal.service.GeneService;
 import org.cbioportal.service.GenesetService;
 import org.cbioportal.service.MolecularDataService;
 import org.cbioportal.service.GenesetDataService;
 import org.cbioportal.service.MolecularProfileService;
-import org.cbioportal.service.util.CoExpressionAsyncMethods;
+import org.cbioportal.service.SampleService;
+import org.cbioportal.service.util.CoExpressionCalculator;
 import org.junit.Assert;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.mockito.junit.MockitoJUnitRunner;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.concurrent.CompletableFuture;
 
 @RunWith(MockitoJUnitRunner.Silent.class)
 public class CoExpressionServiceImplTest extends BaseServiceImplTest {
@@ -36,8 +40,8 @@ public class CoExpressionServiceImplTest extends BaseServiceImplTest {
     @InjectMocks
     private CoExpressionServiceImpl coExpressionService;
     
-    @Mock
-    private CoExpressionAsyncMethods asyncMethods;
+    @Spy
+    private CoExpressionCalculator coExpressionCalculator;
     @Mock
     private MolecularDataService molecularDataService;
     @Mock 
@@ -50,6 +54,8 @@ public class CoExpressionServiceImplTest extends BaseServiceImplTest {
     private MolecularProfileService molecularProfileService;
     @Mock
     private SampleListRepository sampleListRepository;
+    @Mock
+    private SampleService sampleService;
     
     @Test
     public void getGeneCorrelationForQueriedGene() throws Exception {
@@ -78,16 +84,6 @@ public class CoExpressionServiceImplTest extends BaseServiceImplTest {
         Mockito.when(molecularProfileService.getMolecularProfile(MOLECULAR_PROFILE_ID_B))
             .thenReturn(geneMolecularProfile);
 
-        List<List<String>> allValuesA = createAllValuesA();
-        List<String> valuesB = createValuesB();
-        List<CompletableFuture<CoExpression>> coExpressions = createCoExpressions();
-
-        Mockito.when(asyncMethods.computeCoExpression("2", allValuesA.get(0), valuesB, THRESHOLD))
-            .thenReturn(coExpressions.get(0));
-        Mockito.when(asyncMethods.computeCoExpression("3", allValuesA.get(1), valuesB, THRESHOLD))
-            .thenReturn(coExpressions.get(1));
-        Mockito.when(asyncMethods.computeCoExpression("4", allValuesA.get(2), valuesB, THRESHOLD))
-            .thenReturn(CompletableFuture.supplyAsync(() -> null));
 
         List<CoExpression> result = coExpressionService.getCoExpressions("1", EntityType.GENE, 
         SAMPLE_LIST_ID, MOLECULAR_PROFILE_ID_A, MOLECULAR_PROFILE_ID_B, THRESHOLD);
@@ -130,16 +126,6 @@ public class CoExpressionServiceImplTest extends BaseServiceImplTest {
         Mockito.when(molecularProfileService.getMolecularProfile(MOLECULAR_PROFILE_ID_B))
             .thenReturn(geneMolecularProfile);
 
-        List<List<String>> allValuesA = createAllValuesA();
-        List<String> valuesB = createValuesB();
-        List<CompletableFuture<CoExpression>> coExpressions = createCoExpressions();
-
-        Mockito.when(asyncMethods.computeCoExpression("2", allValuesA.get(0), valuesB, THRESHOLD))
-            .thenReturn(coExpressions.get(0));
-        Mockito.when(asyncMethods.computeCoExpression("3", allValuesA.get(1), valuesB, THRESHOLD))
-            .thenReturn(coExpressions.get(1));
-        Mockito.when(asyncMethods.computeCoExpression("4", allValuesA.get(2), valuesB, THRESHOLD))
-            .thenReturn(CompletableFuture.supplyAsync(() -> null));
 
         List<CoExpression> result = coExpressionService.fetchCoExpressions("1", EntityType.GENE,
             Arrays.asList(SAMPLE_ID1, SAMPLE_ID2), MOLECULAR_PROFILE_ID_A, MOLECULAR_PROFILE_ID_B, THRESHOLD);
@@ -182,16 +168,6 @@ public class CoExpressionServiceImplTest extends BaseServiceImplTest {
         Mockito.when(molecularProfileService.getMolecularProfile("profile_id_gsva_scores_b"))
             .thenReturn(genesetMolecularProfile);
 
-        List<List<String>> allValuesA = createAllValuesA();
-        List<String> valuesB = createValuesB();
-        List<CompletableFuture<CoExpression>> coExpressions = createCoExpressions();
-
-        Mockito.when(asyncMethods.computeCoExpression("BIOCARTA_ASBCELL_PATHWAY", allValuesA.get(0), valuesB, THRESHOLD))
-            .thenReturn(coExpressions.get(2));
-        Mockito.when(asyncMethods.computeCoExpression("KEGG_DNA_REPLICATION", allValuesA.get(1), valuesB, THRESHOLD))
-            .thenReturn(coExpressions.get(3));
-        Mockito.when(asyncMethods.computeCoExpression("REACTOME_DIGESTION_OF_DIETARY_CARBOHYDRATE", allValuesA.get(2), valuesB, THRESHOLD))
-            .thenReturn(CompletableFuture.supplyAsync(() -> null));
 
         List<CoExpression> result = coExpressionService.getCoExpressions("GENESET_ID_TEST", EntityType.GENESET, 
         SAMPLE_LIST_ID, "profile_id_gsva_scores_a", "profile_id_gsva_scores_b", THRESHOLD);
@@ -237,16 +213,6 @@ public class CoExpressionServiceImplTest extends BaseServiceImplTest {
         Mockito.when(genesetDataService.fetchGenesetData("profile_id_gsva_scores_b", Arrays.asList(SAMPLE_ID1, SAMPLE_ID2), 
             null)).thenReturn(molecularDataList);
 
-        List<List<String>> allValuesA = createAllValuesA();
-        List<String> valuesB = createValuesB();
-        List<CompletableFuture<CoExpression>> coExpressions = createCoExpressions();
-
-        Mockito.when(asyncMethods.computeCoExpression("BIOCARTA_ASBCELL_PATHWAY", allValuesA.get(0), valuesB, THRESHOLD))
-            .thenReturn(coExpressions.get(2));
-        Mockito.when(asyncMethods.computeCoExpression("KEGG_DNA_REPLICATION", allValuesA.get(1), valuesB, THRESHOLD))
-            .thenReturn(coExpressions.get(3));
-        Mockito.when(asyncMethods.computeCoExpression("REACTOME_DIGESTION_OF_DIETARY_CARBOHYDRATE", allValuesA.get(2), valuesB, THRESHOLD))
-            .thenReturn(CompletableFuture.supplyAsync(() -> null));
 
         List<CoExpression> result = coExpressionService.fetchCoExpressions("GENESET_ID_TEST", EntityType.GENESET,
             Arrays.asList(SAMPLE_ID1, SAMPLE_ID2), "profile_id_gsva_scores_a", "profile_id_gsva_scores_b", THRESHOLD);
@@ -429,47 +395,45 @@ public class CoExpressionServiceImplTest extends BaseServiceImplTest {
         return genesets;
     }
 
-    private List<List<String>> createAllValuesA() {
-        List<List<String>> allValuesA = new ArrayList<>();
-        List<String> valuesA1 = new ArrayList<>();
-        valuesA1.add("2"); valuesA1.add("3"); valuesA1.add("2");
-        allValuesA.add(valuesA1);
-        List<String> valuesA2 = new ArrayList<>();
-        valuesA2.add("1.1"); valuesA2.add("5"); valuesA2.add("3");
-        allValuesA.add(valuesA2);
-        List<String> valuesA3 = new ArrayList<>();
-        valuesA3.add("1"); valuesA3.add("4"); valuesA3.add("0");
-        allValuesA.add(valuesA3);
-        return allValuesA;
-    }
+    @Test
+    public void fetchGeneCoExpressionsInSameProfile() throws Exception {
 
-    private List<String> createValuesB() {
-        return new ArrayList<>(Arrays.asList("2.1", "3", "3"));
-    }
+        MolecularDataMatrix matrix = new MolecularDataMatrixBuilder(MOLECULAR_PROFILE_ID, STUDY_ID, new int[]{7, 1, 2, 3})
+            .addRow("1", "9,2.1,3,3")
+            .addRow("2", "9,2,3,2")
+            .addRow("3", "9,1.1,5,3")
+            .addRow("4", "9,1,4,0")
+            .build();
+        Mockito.when(molecularDataService.getMolecularDataRows(MOLECULAR_PROFILE_ID)).thenReturn(matrix);
+
+        MolecularProfile geneMolecularProfile = createGeneMolecularProfile();
+        geneMolecularProfile.setCancerStudyIdentifier(STUDY_ID);
+        Mockito.when(molecularProfileService.getMolecularProfile(MOLECULAR_PROFILE_ID))
+            .thenReturn(geneMolecularProfile);
 
-    private List<CompletableFuture<CoExpression>> createCoExpressions() {
-        List<CompletableFuture<CoExpression>> coExpressions = new ArrayList<>();
-        CoExpression coExpression1 = new CoExpression();
-        coExpression1.setGeneticEntityId("2");
-        coExpression1.setSpearmansCorrelation(new BigDecimal("0.5"));
-        coExpression1.setpValue(new BigDecimal("0.6666666666666667"));
-        coExpressions.add(CompletableFuture.supplyAsync(() -> coExpression1));
-        CoExpression coExpression2 = new CoExpression();
-        coExpression2.setGeneticEntityId("3");
-        coExpression2.setSpearmansCorrelation(new BigDecimal("0.8660254037844386"));
-        coExpression2.setpValue(new BigDecimal("0.3333333333333333"));
-        coExpressions.add(CompletableFuture.supplyAsync(() -> coExpression2));
-        CoExpression coExpression3 = new CoExpression();
-        coExpression3.setGeneticEntityId("BIOCARTA_ASBCELL_PATHWAY");
-        coExpression3.setSpearmansCorrelation(new BigDecimal("0.5"));
-        coExpression3.setpValue(new BigDecimal("0.6666666666666667"));
-        coExpressions.add(CompletableFuture.supplyAsync(() -> coExpression3));
-        CoExpression coExpression4 = new CoExpression();
-        coExpression4.setGeneticEntityId("KEGG_DNA_REPLICATION");
-        coExpression4.setSpearmansCorrelation(new BigDecimal("0.8660254037844386"));
-        coExpression4.setpValue(new BigDecimal("0.3333333333333333"));
-        coExpressions.add(CompletableFuture.supplyAsync(() -> coExpression4));
-        return coExpressions;
+        List<String> sampleIds = Arrays.asList(SAMPLE_ID1, SAMPLE_ID2, SAMPLE_ID3);
+        List<Sample> samples = new ArrayList<>();
+        for (int i = 0; i < sampleIds.size(); i++) {
+            Sample sample = new Sample();
+            sample.setStableId(sampleIds.get(i));
+            sample.setInternalId(i + 1);
+            samples.add(sample);
+        }
+        Mockito.when(sampleService.fetchSamples(Arrays.asList(STUDY_ID, STUDY_ID, STUDY_ID), sampleIds, "ID"))
+            .thenReturn(samples);
+
+        List<CoExpression> result = coExpressionService.fetchCoExpressions(MOLECULAR_PROFILE_ID, sampleIds, "1",
+            EntityType.GENE, THRESHOLD);
+
+        Assert.assertEquals(2, result.size());
+        CoExpression coExpression1 = result.get(0);
+        Assert.assertEquals("2", coExpression1.getGeneticEntityId());
+        Assert.assertEquals(new BigDecimal("0.5"), coExpression1.getSpearmansCorrelation());
+        Assert.assertEquals(new BigDecimal("0.6666666666666667"), coExpression1.getpValue());
+        CoExpression coExpression2 = result.get(1);
+        Assert.assertEquals("3", coExpression2.getGeneticEntityId());
+        Assert.assertEquals(new BigDecimal("0.8660254037844386"), coExpression2.getSpearmansCorrelation());
+        Assert.assertEquals(new BigDecimal("0.3333333333333333"), coExpression2.getpValue());
     }
 
     private MolecularProfile createGeneMolecularProfile() {
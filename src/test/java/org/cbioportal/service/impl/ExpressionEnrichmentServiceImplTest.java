@@ -5,6 +5,7 @@ import java.util.*;
 import org.cbioportal.model.*;
 import org.cbioportal.model.meta.GenericAssayMeta;
 import org.cbioportal.persistence.MolecularDataRepository;
+import org.cbioportal.persistence.mybatis.util.MolecularDataMatrixBuilder;
 import org.cbioportal.service.GeneService;
 import org.cbioportal.service.GenericAssayService;
 import org.cbioportal.service.MolecularProfileService;
@@ -42,7 +43,6 @@ public class ExpressionEnrichmentServiceImplTest extends BaseServiceImplTest {
 
     CancerStudy cancerStudy = new CancerStudy();
     MolecularProfile geneMolecularProfile = new MolecularProfile();
-    MolecularProfileSamples molecularProfileSamples = new MolecularProfileSamples();
     List<Sample> samples = new ArrayList<>();
     Map<String, List<MolecularProfileCaseIdentifier>> molecularProfileCaseSets = new HashMap<>();
     Map<String, List<MolecularProfileCaseIdentifier>> molecularProfilePatientLevelCaseSets = new HashMap<>();
@@ -59,9 +59,6 @@ public class ExpressionEnrichmentServiceImplTest extends BaseServiceImplTest {
 
         geneMolecularProfile.setCancerStudy(cancerStudy);
 
-        molecularProfileSamples.setMolecularProfileId(MOLECULAR_PROFILE_ID);
-        molecularProfileSamples.setCommaSeparatedSampleIds("1,2,3,4");
-
         Sample sample1 = new Sample();
         sample1.setStableId(SAMPLE_ID1);
         sample1.setInternalId(1);
@@ -127,9 +124,6 @@ public class ExpressionEnrichmentServiceImplTest extends BaseServiceImplTest {
         Mockito.when(molecularProfileService.getMolecularProfile(MOLECULAR_PROFILE_ID))
                 .thenReturn(geneMolecularProfile);
 
-        Mockito.when(molecularDataRepository.getCommaSeparatedSampleIdsOfMolecularProfile(MOLECULAR_PROFILE_ID))
-                .thenReturn(molecularProfileSamples);
-
         Mockito.when(sampleService.fetchSamples(Arrays.asList(STUDY_ID, STUDY_ID, STUDY_ID, STUDY_ID),
                 Arrays.asList(SAMPLE_ID3, SAMPLE_ID4, SAMPLE_ID1, SAMPLE_ID2), "ID")).thenReturn(samples);
     }
@@ -138,18 +132,11 @@ public class ExpressionEnrichmentServiceImplTest extends BaseServiceImplTest {
     public void getGenomicEnrichments() throws Exception {
         geneMolecularProfile.setMolecularAlterationType(MolecularProfile.MolecularAlterationType.MRNA_EXPRESSION);
 
-        List<GeneMolecularAlteration> molecularDataList = new ArrayList<GeneMolecularAlteration>();
-        GeneMolecularAlteration geneMolecularAlteration1 = new GeneMolecularAlteration();
-        geneMolecularAlteration1.setEntrezGeneId(ENTREZ_GENE_ID_2);
-        geneMolecularAlteration1.setValues("2,3,2.1,3");
-        molecularDataList.add(geneMolecularAlteration1);
-
-        GeneMolecularAlteration geneMolecularAlteration2 = new GeneMolecularAlteration();
-        geneMolecularAlteration2.setEntrezGeneId(ENTREZ_GENE_ID_3);
-        geneMolecularAlteration2.setValues("1.1,5,2.3,3");
-        molecularDataList.add(geneMolecularAlteration2);
-        Mockito.when(molecularDataRepository.getGeneMolecularAlterationsIterableFast(MOLECULAR_PROFILE_ID))
-                .thenReturn(molecularDataList);
+        MolecularDataMatrix matrix = new MolecularDataMatrixBuilder(MOLECULAR_PROFILE_ID, STUDY_ID, new int[]{1, 2, 3, 4})
+                .addRow(ENTREZ_GENE_ID_2.toString(), "2,3,2.1,3")
+                .addRow(ENTREZ_GENE_ID_3.toString(), "1.1,5,2.3,3")
+                .build();
+        Mockito.when(molecularDataRepository.getMolecularDataRows(MOLECULAR_PROFILE_ID)).thenReturn(matrix);
 
         List<Gene> expectedGeneList = new ArrayList<>();
         Gene gene1 = new Gene();
@@ -210,18 +197,11 @@ public class ExpressionEnrichmentServiceImplTest extends BaseServiceImplTest {
     public void getGenericAssayNumericalEnrichments() throws Exception {
         geneMolecularProfile.setMolecularAlterationType(MolecularProfile.MolecularAlterationType.GENERIC_ASSAY);
 
-        List<GenericAssayMolecularAlteration> molecularDataList = new ArrayList<GenericAssayMolecularAlteration>();
-        GenericAssayMolecularAlteration genericAssayMolecularAlteration1 = new GenericAssayMolecularAlteration();
-        genericAssayMolecularAlteration1.setGenericAssayStableId(HUGO_GENE_SYMBOL_1);
-        genericAssayMolecularAlteration1.setValues("2,3,2.1,3");
-        molecularDataList.add(genericAssayMolecularAlteration1);
-
-        GenericAssayMolecularAlteration genericAssayMolecularAlteration2 = new GenericAssayMolecularAlteration();
-        genericAssayMolecularAlteration2.setGenericAssayStableId(HUGO_GENE_SYMBOL_2);
-        genericAssayMolecularAlteration2.setValues("1.1,5,2.3,3");
-        molecularDataList.add(genericAssayMolecularAlteration2);
-        Mockito.when(molecularDataRepository.getGenericAssayMolecularAlterationsIterable(MOLECULAR_PROFILE_ID, null,
-                "SUMMARY")).thenReturn(molecularDataList);
+        MolecularDataMatrix matrix = new MolecularDataMatrixBuilder(MOLECULAR_PROFILE_ID, STUDY_ID, new int[]{1, 2, 3, 4})
+                .addRow(HUGO_GENE_SYMBOL_1, "2,3,2.1,3")
+                .addRow(HUGO_GENE_SYMBOL_2, "1.1,5,2.3,3")
+                .build();
+        Mockito.when(molecularDataRepository.getMolecularDataRows(MOLECULAR_PROFILE_ID)).thenReturn(matrix);
 
         Mockito.when(genericAssayService.getGenericAssayMetaByStableIdsAndMolecularIds(
                 Arrays.asList(HUGO_GENE_SYMBOL_1, HUGO_GENE_SYMBOL_2),
@@ -272,18 +252,11 @@ public class ExpressionEnrichmentServiceImplTest extends BaseServiceImplTest {
         geneMolecularProfile.setMolecularAlterationType(MolecularProfile.MolecularAlterationType.GENERIC_ASSAY);
         geneMolecularProfile.setPatientLevel(true);
 
-        List<GenericAssayMolecularAlteration> molecularDataList = new ArrayList<GenericAssayMolecularAlteration>();
-        GenericAssayMolecularAlteration genericAssayMolecularAlteration1 = new GenericAssayMolecularAlteration();
-        genericAssayMolecularAlteration1.setGenericAssayStableId(HUGO_GENE_SYMBOL_1);
-        genericAssayMolecularAlteration1.setValues("2,3,2.1,3,3,3");
-        molecularDataList.add(genericAssayMolecularAlteration1);
-
-        GenericAssayMolecularAlteration genericAssayMolecularAlteration2 = new GenericAssayMolecularAlteration();
-        genericAssayMolecularAlteration2.setGenericAssayStableId(HUGO_GENE_SYMBOL_2);
-        genericAssayMolecularAlteration2.setValues("1.1,5,2.3,3,3");
-        molecularDataList.add(genericAssayMolecularAlteration2);
-        Mockito.when(molecularDataRepository.getGenericAssayMolecularAlterationsIterable(MOLECULAR_PROFILE_ID, null,
-                "SUMMARY")).thenReturn(molecularDataList);
+        MolecularDataMatrix matrix = new MolecularDataMatrixBuilder(MOLECULAR_PROFILE_ID, STUDY_ID, new int[]{1, 2, 3, 4})
+                .addRow(HUGO_GENE_SYMBOL_1, "2,3,2.1,3,3,3")
+                .addRow(HUGO_GENE_SYMBOL_2, "1.1,5,2.3,3,3")
+                .build();
+        Mockito.when(molecularDataRepository.getMolecularDataRows(MOLECULAR_PROFILE_ID)).thenReturn(matrix);
 
         Mockito.when(genericAssayService.getGenericAssayMetaByStableIdsAndMolecularIds(
                 Arrays.asList(HUGO_GENE_SYMBOL_1, HUGO_GENE_SYMBOL_2),
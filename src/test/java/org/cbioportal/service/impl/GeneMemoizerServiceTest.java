@@ -1,7 +1,10 @@
 package org.cbioportal.service.impl;
 
+import org.cbioportal.model.GeneAlias;
 import org.cbioportal.model.ReferenceGenomeGene;
+import org.cbioportal.persistence.GeneRepository;
 import org.cbioportal.service.StaticDataTimestampService;
+import org.cbioportal.service.util.ReferenceGenomeGeneIndex;
 import org.junit.Assert;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -11,6 +14,7 @@ import org.mockito.Mockito;
 import org.mockito.junit.MockitoJUnitRunner;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
@@ -20,36 +24,49 @@ public class GeneMemoizerServiceTest {
     @Mock
     private StaticDataTimestampService timestampService;
 
+    @Mock
+    private GeneRepository geneRepository;
+
     @InjectMocks
     private GeneMemoizerServiceImpl geneMemoizerService;
 
     private static final String GENOME = "hg19";
     private static final List<ReferenceGenomeGene> GENES = Arrays.asList(
-        gene("BRAF"),
-        gene("NRAS"),
-        gene("KRAS"),
-        gene("SUGT1P4-STRA6LP-CCDC180")
+        gene("BRAF", 673),
+        gene("NRAS", 4893),
+        gene("KRAS", 3845),
+        gene("SUGT1P4-STRA6LP-CCDC180", 100302401)
     );
     
-    private static ReferenceGenomeGene gene(String name) {
+    private static ReferenceGenomeGene gene(String name, int entrezGeneId) {
         ReferenceGenomeGene referenceGenomeGene = new ReferenceGenomeGene();
         referenceGenomeGene.setHugoGeneSymbol(name);
+        referenceGenomeGene.setEntrezGeneId(entrezGeneId);
         return referenceGenomeGene;
     }
     
     @Test
     public void shouldReturnNullWhenUncached() throws Exception {
-        initializeTimestamps(new Date(), new Date());
-
         List<ReferenceGenomeGene> actual = geneMemoizerService.fetchGenes("hg19");
         
         Assert.assertEquals(null, actual);
     }
 
+    @Test
+    public void shouldReturnCachedWithoutCheckingTimestamps() throws Exception {
+        geneMemoizerService.cacheGenes(GENES, GENOME);
+
+        List<ReferenceGenomeGene> actual = geneMemoizerService.fetchGenes("hg19");
+
+        Assert.assertEquals(GENES, actual);
+        Mockito.verifyNoInteractions(timestampService);
+    }
+
     @Test
     public void shouldReturnCachedWhenNeitherExpired() throws Exception {
         initializeTimestamps(new Date(0L), new Date(0L));
         geneMemoizerService.cacheGenes(GENES, GENOME);
+        geneMemoizerService.refresh();
         
         List<ReferenceGenomeGene> actual = geneMemoizerService.fetchGenes("hg19");
 
@@ -60,6 +77,7 @@ public class GeneMemoizerServiceTest {
     public void shouldReturnNullWhenGeneExpired() throws Exception {
         initializeTimestamps(new Date(Long.MAX_VALUE), new Date(0L));
         geneMemoizerService.cacheGenes(GENES, GENOME);
+        geneMemoizerService.refresh();
 
         List<ReferenceGenomeGene> actual = geneMemoizerService.fetchGenes("hg19");
 
@@ -70,12 +88,54 @@ public class GeneMemoizerServiceTest {
     public void shouldReturnNullWhenGenomeExpired() throws Exception {
         initializeTimestamps(new Date(0L), new Date(Long.MAX_VALUE));
         geneMemoizerService.cacheGenes(GENES, GENOME);
+        geneMemoizerService.refresh();
 
         List<ReferenceGenomeGene> actual = geneMemoizerService.fetchGenes("hg19");
 
         Assert.assertEquals(null, actual);
     }
 
+    @Test
+    public void shouldReturnNullWhenInvalidated() throws Exception {
+        geneMemoizerService.cacheGenes(GENES, GENOME);
+        geneMemoizerService.invalidate();
+
+        Assert.assertNull(geneMemoizerService.fetchGenes("hg19"));
+        Assert.assertNull(geneMemoizerService.getGeneIndex("hg19"));
+    }
+
+    @Test
+    public void getGeneIndex() throws Exception {
+        geneMemoizerService.cacheGenes(GENES, GENOME);
+
+        ReferenceGenomeGeneIndex geneIndex = geneMemoizerService.getGeneIndex(GENOME);
+
+        Assert.assertEquals("KRAS", geneIndex.getByEntrezGeneId(3845).getHugoGeneSymbol());
+        Assert.assertEquals(100302401, geneIndex.getByHugoGeneSymbol("sugt1p4-stra6lp-ccdc180")
+            .getEntrezGeneId().intValue());
+        Assert.assertNull(geneIndex.getByEntrezGeneId(1));
+        Assert.assertNull(geneIndex.getByHugoGeneSymbol("TP53"));
+        Assert.assertNull(geneMemoizerService.getGeneIndex("hg38"));
+    }
+
+    @Test
+    public void getEntrezGeneIdsByAlias() throws Exception {
+        Mockito.when(geneRepository.getAllAliases()).thenReturn(Arrays.asList(
+            alias(673, "b-raf1"), alias(3845, "ki-ras"), alias(4893, "ki-ras")));
+
+        Assert.assertEquals(Arrays.asList(3845, 4893), geneMemoizerService.getEntrezGeneIdsByAlias("ki-ras"));
+        Assert.assertEquals(Collections.emptyList(), geneMemoizerService.getEntrezGeneIdsByAlias("p53"));
+        // the aliases are read once
+        Mockito.verify(geneRepository, Mockito.times(1)).getAllAliases();
+    }
+
+    private GeneAlias alias(int entrezGeneId, String alias) {
+        GeneAlias geneAlias = new GeneAlias();
+        geneAlias.setEntrezGeneId(entrezGeneId);
+        geneAlias.setGeneAlias(alias);
+        return geneAlias;
+    }
+
     private void initializeTimestamps(Date gene, Date referenceGenomeGene) {
         HashMap<String, Date> timestamps = new HashMap<>();
         timestamps.put("gene", gene);
@@ -83,4 +143,4 @@ public class GeneMemoizerServiceTest {
         Mockito.when(timestampService.getTimestampsAsDates(Mockito.anyList()))
             .thenReturn(timestamps);
     }
-}
\ No newline at end of file
+}
@@ -5,9 +5,12 @@ import java.util.stream.Collectors;
 
 import org.cbioportal.model.*;
 import org.cbioportal.model.meta.BaseMeta;
+import org.cbioportal.persistence.CacheEnabledConfig;
 import org.cbioportal.persistence.GenePanelRepository;
 import org.cbioportal.service.MolecularProfileService;
+import org.cbioportal.service.SampleListService;
 import org.cbioportal.service.exception.GenePanelNotFoundException;
+import org.cbioportal.service.util.GenePanelDataSnapshotCache;
 import org.cbioportal.service.util.MolecularProfileUtil;
 import org.junit.Assert;
 import org.junit.Test;
@@ -17,6 +20,7 @@ import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.Spy;
 import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.test.util.ReflectionTestUtils;
 
 @RunWith(MockitoJUnitRunner.Silent.class)
 public class GenePanelServiceImplTest extends BaseServiceImplTest {
@@ -31,6 +35,13 @@ public class GenePanelServiceImplTest extends BaseServiceImplTest {
     @Spy
     @InjectMocks
     private MolecularProfileUtil molecularProfileUtil;
+    @Mock
+    private SampleListService sampleListService;
+    @Mock
+    private CacheEnabledConfig cacheEnabledConfig;
+    @Spy
+    @InjectMocks
+    private GenePanelDataSnapshotCache genePanelDataSnapshotCache;
     
     @Test
     public void getAllGenePanelsSummaryProjection() throws Exception {
@@ -290,4 +301,73 @@ public class GenePanelServiceImplTest extends BaseServiceImplTest {
         Assert.assertEquals(STUDY_ID, resultGenePanelData2.getStudyId());
         Assert.assertEquals(true, resultGenePanelData2.getProfiled());
     }
+
+    @Test
+    public void fetchGenePanelDataByPatientIdsFromSnapshot() throws Exception {
+
+        Mockito.when(cacheEnabledConfig.isEnabled()).thenReturn(true);
+        ReflectionTestUtils.setField(genePanelDataSnapshotCache, "maxMegaBytes", 1L);
+
+        List<GenePanelData> genePanelDataList = new ArrayList<>();
+        genePanelDataList.add(genePanelData(SAMPLE_ID1, PATIENT_ID_1, GENE_PANEL_ID, false));
+        genePanelDataList.add(genePanelData(SAMPLE_ID2, PATIENT_ID_2, null, false));
+        genePanelDataList.add(genePanelData(SAMPLE_ID3, PATIENT_ID_1, GENE_PANEL_ID, true));
+
+        MolecularProfile molecularProfile = new MolecularProfile();
+        molecularProfile.setStableId(MOLECULAR_PROFILE_ID);
+        molecularProfile.setCancerStudyIdentifier(STUDY_ID);
+        molecularProfile.setMolecularAlterationType(MolecularProfile.MolecularAlterationType.MUTATION_EXTENDED);
+        SampleList sampleList = new SampleList();
+        sampleList.setSampleIds(Arrays.asList(SAMPLE_ID1));
+
+        Mockito.when(molecularProfileService
+            .getMolecularProfiles(Collections.singleton(MOLECULAR_PROFILE_ID), "SUMMARY"))
+            .thenReturn(Arrays.asList(molecularProfile));
+        Mockito.when(genePanelRepository.fetchGenePanelDataByMolecularProfileId(MOLECULAR_PROFILE_ID))
+            .thenReturn(genePanelDataList);
+        Mockito.when(sampleListService.getSampleList(STUDY_ID + "_sequenced")).thenReturn(sampleList);
+
+        List<GenePanelData> result = genePanelService.fetchGenePanelDataInMultipleMolecularProfilesByPatientIds(
+            Arrays.asList(new MolecularProfileCaseIdentifier(PATIENT_ID_1, MOLECULAR_PROFILE_ID)));
+
+        Assert.assertEquals(2, result.size());
+        Assert.assertEquals(SAMPLE_ID1, result.get(0).getSampleId());
+        Assert.assertEquals(GENE_PANEL_ID, result.get(0).getGenePanelId());
+        Assert.assertEquals(STUDY_ID, result.get(0).getStudyId());
+        // profiled by the sequenced sample list
+        Assert.assertEquals(true, result.get(0).getProfiled());
+        Assert.assertEquals(SAMPLE_ID3, result.get(1).getSampleId());
+        Assert.assertEquals(true, result.get(1).getProfiled());
+        // the data of the repository is not changed
+        Assert.assertEquals(false, genePanelDataList.get(0).getProfiled());
+
+        result = genePanelService.fetchGenePanelDataInMultipleMolecularProfiles(Arrays.asList(
+            new MolecularProfileCaseIdentifier(SAMPLE_ID2, MOLECULAR_PROFILE_ID),
+            new MolecularProfileCaseIdentifier(SAMPLE_ID4, MOLECULAR_PROFILE_ID)));
+
+        Assert.assertEquals(1, result.size());
+        Assert.assertEquals(SAMPLE_ID2, result.get(0).getSampleId());
+        Assert.assertEquals(PATIENT_ID_2, result.get(0).getPatientId());
+        Assert.assertNull(result.get(0).getGenePanelId());
+        Assert.assertEquals(false, result.get(0).getProfiled());
+        Mockito.verify(genePanelRepository).fetchGenePanelDataByMolecularProfileId(MOLECULAR_PROFILE_ID);
+        Mockito.verify(sampleListService).getSampleList(STUDY_ID + "_sequenced");
+
+        genePanelDataSnapshotCache.evictStudy(STUDY_ID);
+        genePanelService.fetchGenePanelDataByMolecularProfileIds(Collections.singleton(MOLECULAR_PROFILE_ID));
+
+        Mockito.verify(genePanelRepository, Mockito.times(2))
+            .fetchGenePanelDataByMolecularProfileId(MOLECULAR_PROFILE_ID);
+    }
+
+    private GenePanelData genePanelData(String sampleId, String patientId, String genePanelId, boolean profiled) {
+        GenePanelData genePanelData = new GenePanelData();
+        genePanelData.setGenePanelId(genePanelId);
+        genePanelData.setMolecularProfileId(MOLECULAR_PROFILE_ID);
+        genePanelData.setSampleId(sampleId);
+        genePanelData.setPatientId(patientId);
+        genePanelData.setStudyId(STUDY_ID);
+        genePanelData.setProfiled(profiled);
+        return genePanelData;
+    }
 }
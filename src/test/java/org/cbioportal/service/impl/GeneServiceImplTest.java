@@ -3,6 +3,7 @@ package org.cbioportal.service.impl;
 import org.cbioportal.model.Gene;
 import org.cbioportal.model.meta.BaseMeta;
 import org.cbioportal.persistence.GeneRepository;
+import org.cbioportal.service.GeneMemoizerService;
 import org.cbioportal.service.exception.GeneNotFoundException;
 import org.cbioportal.service.util.ChromosomeCalculator;
 import org.junit.Assert;
@@ -27,6 +28,8 @@ public class GeneServiceImplTest extends BaseServiceImplTest {
     private GeneRepository geneRepository;
     @Mock
     private ChromosomeCalculator chromosomeCalculator;
+    @Mock
+    private GeneMemoizerService geneMemoizerService;
 
     @Test
     public void getAllGenes() throws Exception {
@@ -4,17 +4,23 @@ import org.cbioportal.model.GeneMolecularData;
 import org.cbioportal.model.MolecularProfile;
 import org.cbioportal.model.MrnaPercentile;
 import org.cbioportal.service.MolecularDataService;
+import org.cbioportal.persistence.CacheEnabledConfig;
 import org.cbioportal.service.MolecularProfileService;
+import org.cbioportal.service.util.MrnaPercentileIndexCache;
 import org.junit.Assert;
+import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -27,6 +33,13 @@ public class MrnaPercentileServiceImplTest extends BaseServiceImplTest {
     private MolecularDataService molecularDataService;
     @Mock
     private MolecularProfileService molecularProfileService;
+    @Spy
+    private MrnaPercentileIndexCache mrnaPercentileIndexCache = new MrnaPercentileIndexCache();
+
+    @Before
+    public void setUp() {
+        ReflectionTestUtils.setField(mrnaPercentileIndexCache, "cacheEnabledConfig", new CacheEnabledConfig());
+    }
 
     @Test
     public void fetchMrnaPercentile() throws Exception {
@@ -97,4 +110,40 @@ public class MrnaPercentileServiceImplTest extends BaseServiceImplTest {
         Assert.assertEquals(new BigDecimal("0.1456"), mrnaPercentile2.getzScore());
         Assert.assertEquals(new BigDecimal("100.00"), mrnaPercentile2.getPercentile());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void fetchMrnaPercentiles() throws Exception {
+
+        MolecularProfile molecularProfile = new MolecularProfile();
+        molecularProfile.setCancerStudyIdentifier(STUDY_ID);
+        molecularProfile.setMolecularAlterationType(MolecularProfile.MolecularAlterationType.MRNA_EXPRESSION);
+        Mockito.when(molecularProfileService.getMolecularProfile(MOLECULAR_PROFILE_ID)).thenReturn(molecularProfile);
+
+        Mockito.when(molecularDataService.fetchMolecularData(MOLECULAR_PROFILE_ID, null,
+            Arrays.asList(ENTREZ_GENE_ID_1), "SUMMARY")).thenReturn(Arrays.asList(
+                molecularData(SAMPLE_ID1, "1.5"), molecularData("sample_id_2", "-1"),
+                molecularData("sample_id_3", "1.50"), molecularData("sample_id_4", "NaN")));
+
+        List<MrnaPercentile> result = mrnaPercentileService.fetchMrnaPercentiles(MOLECULAR_PROFILE_ID,
+            Arrays.asList("sample_id_3", "sample_id_4", "sample_id_2"), Arrays.asList(ENTREZ_GENE_ID_1,
+                ENTREZ_GENE_ID_1));
+
+        Assert.assertEquals(2, result.size());
+        Assert.assertEquals("sample_id_3", result.get(0).getSampleId());
+        Assert.assertEquals(STUDY_ID, result.get(0).getStudyId());
+        Assert.assertEquals(new BigDecimal("1.50"), result.get(0).getzScore());
+        // ties are ranked with the highest rank
+        Assert.assertEquals(new BigDecimal("100.00"), result.get(0).getPercentile());
+        Assert.assertEquals("sample_id_2", result.get(1).getSampleId());
+        Assert.assertEquals(new BigDecimal("33.33"), result.get(1).getPercentile());
+    }
+
+    private GeneMolecularData molecularData(String sampleId, String value) {
+        GeneMolecularData molecularData = new GeneMolecularData();
+        molecularData.setMolecularProfileId(MOLECULAR_PROFILE_ID);
+        molecularData.setEntrezGeneId(ENTREZ_GENE_ID_1);
+        molecularData.setSampleId(sampleId);
+        molecularData.setValue(value);
+        return molecularData;
+    }
+}
@@ -5,7 +5,9 @@ import org.cbioportal.model.ReferenceGenome;
 import org.cbioportal.model.ReferenceGenomeGene;
 import org.cbioportal.model.meta.BaseMeta;
 import org.cbioportal.persistence.ReferenceGenomeGeneRepository;
+import org.cbioportal.service.GeneMemoizerService;
 import org.cbioportal.service.exception.GeneNotFoundException;
+import org.cbioportal.service.util.ReferenceGenomeGeneIndex;
 import org.junit.Assert;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -16,6 +18,7 @@ import org.mockito.junit.MockitoJUnitRunner;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Date;
 import java.util.List;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -27,6 +30,9 @@ public class ReferenceGenomeGeneServiceImplTest extends BaseServiceImplTest {
     @Mock
     private ReferenceGenomeGeneRepository geneRepository;
 
+    @Mock
+    private GeneMemoizerService geneMemoizerService;
+
     @Test
     public void getAllGenesByGenomeName() throws Exception {
 
@@ -101,4 +107,25 @@ public class ReferenceGenomeGeneServiceImplTest extends BaseServiceImplTest {
         Assert.assertEquals(expectedGene, result);
     }
     
+    @Test
+    public void getGenesFromMemoizedGenome() throws Exception {
+
+        ReferenceGenomeGene gene1 = new ReferenceGenomeGene();
+        gene1.setEntrezGeneId(ENTREZ_GENE_ID_1);
+        gene1.setHugoGeneSymbol("HUGO1");
+        ReferenceGenomeGene gene2 = new ReferenceGenomeGene();
+        gene2.setEntrezGeneId(ENTREZ_GENE_ID_2);
+        gene2.setHugoGeneSymbol("HUGO2");
+        Mockito.when(geneMemoizerService.getGeneIndex(ReferenceGenome.HOMO_SAPIENS_DEFAULT_GENOME_NAME))
+            .thenReturn(new ReferenceGenomeGeneIndex(Arrays.asList(gene1, gene2), new Date()));
+
+        Assert.assertEquals(gene2, geneService.getReferenceGenomeGene(ENTREZ_GENE_ID_2,
+            ReferenceGenome.HOMO_SAPIENS_DEFAULT_GENOME_NAME));
+        Assert.assertEquals(Arrays.asList(gene2, gene1), geneService.fetchGenesByGenomeName(
+            Arrays.asList(ENTREZ_GENE_ID_2, 999999, ENTREZ_GENE_ID_1, ENTREZ_GENE_ID_2),
+            ReferenceGenome.HOMO_SAPIENS_DEFAULT_GENOME_NAME));
+        Assert.assertEquals(Arrays.asList(gene1), geneService.fetchGenesByHugoGeneSymbolsAndGenomeName(
+            Arrays.asList("hugo1", "HUGO3"), ReferenceGenome.HOMO_SAPIENS_DEFAULT_GENOME_NAME));
+        Mockito.verifyNoInteractions(geneRepository);
+    }
 }
@@ -59,6 +59,7 @@ import org.mockito.stubbing.Answer;
 import org.mockito.invocation.InvocationOnMock;
 import org.cbioportal.model.DataAccessToken;
 import org.cbioportal.persistence.DataAccessTokenRepository;
+import org.cbioportal.security.token.TokenAuthenticationCache;
 
 @TestConfiguration
 public class UuidDataAccessTokenServiceImplTestConfiguration {
@@ -86,6 +87,11 @@ public class UuidDataAccessTokenServiceImplTestConfiguration {
         return new UuidDataAccessTokenServiceImpl();
     }
 
+    @Bean
+    public TokenAuthenticationCache tokenAuthenticationCache() {
+        return new TokenAuthenticationCache();
+    }
+
     @Bean
     public DataAccessTokenRepository dataAccessTokenRepository() {
         Answer<Void> dataAccessTokenRepositoryCreateTokenAnswer = new Answer<Void>() {
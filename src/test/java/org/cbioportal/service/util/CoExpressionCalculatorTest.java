@@ -0,0 +1,194 @@
+package org.cbioportal.service.util;
+
+import org.apache.commons.math3.stat.correlation.SpearmansCorrelation;
+import org.cbioportal.model.CoExpression;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Random;
+
+@RunWith(MockitoJUnitRunner.class)
+public class CoExpressionCalculatorTest {
+
+    private static final double THRESHOLD = 0.3;
+
+    @InjectMocks
+    private CoExpressionCalculator coExpressionCalculator;
+
+    @Test
+    public void computeGeneCoExpressions() throws Exception {
+
+        double[][] allValuesA = createAllValuesA();
+        List<CoExpression> result = coExpressionCalculator.computeCoExpressions(createValuesB(),
+            new String[]{"2", "3", "4"}, (row, target) -> System.arraycopy(allValuesA[row], 0, target, 0, 3),
+            THRESHOLD);
+
+        Assert.assertEquals(2, result.size());
+        CoExpression coExpression1 = result.get(0);
+        Assert.assertEquals("2", coExpression1.getGeneticEntityId());
+        Assert.assertEquals(new BigDecimal("0.5"), coExpression1.getSpearmansCorrelation());
+        Assert.assertEquals(new BigDecimal("0.6666666666666667"), coExpression1.getpValue());
+        CoExpression coExpression2 = result.get(1);
+        Assert.assertEquals("3", coExpression2.getGeneticEntityId());
+        Assert.assertEquals(new BigDecimal("0.8660254037844386"), coExpression2.getSpearmansCorrelation());
+        Assert.assertEquals(new BigDecimal("0.3333333333333333"), coExpression2.getpValue());
+    }
+
+    @Test
+    public void computeGenesetCoExpressions() throws Exception {
+
+        double[][] allValuesA = createAllValuesA();
+        String[] entityIds = {"BIOCARTA_ASBCELL_PATHWAY", "KEGG_DNA_REPLICATION",
+            "REACTOME_DIGESTION_OF_DIETARY_CARBOHYDRATE", "GENESET_ID_TEST"};
+        List<CoExpression> result = coExpressionCalculator.computeCoExpressions(createValuesB(),
+            new String[]{entityIds[0], entityIds[1], entityIds[2], null},
+            (row, target) -> System.arraycopy(allValuesA[row], 0, target, 0, 3), THRESHOLD);
+
+        Assert.assertEquals(2, result.size());
+        CoExpression coExpression1 = result.get(0);
+        Assert.assertEquals("BIOCARTA_ASBCELL_PATHWAY", coExpression1.getGeneticEntityId());
+        Assert.assertEquals(new BigDecimal("0.5"), coExpression1.getSpearmansCorrelation());
+        Assert.assertEquals(new BigDecimal("0.6666666666666667"), coExpression1.getpValue());
+        CoExpression coExpression2 = result.get(1);
+        Assert.assertEquals("KEGG_DNA_REPLICATION", coExpression2.getGeneticEntityId());
+        Assert.assertEquals(new BigDecimal("0.8660254037844386"), coExpression2.getSpearmansCorrelation());
+        Assert.assertEquals(new BigDecimal("0.3333333333333333"), coExpression2.getpValue());
+    }
+
+    @Test
+    public void computeCoExpressionsWithMissingValues() throws Exception {
+
+        double[][] allValuesA = {{2, 3, Double.NaN, 2}, {1, Double.NaN, Double.NaN, 0}};
+        List<CoExpression> result = coExpressionCalculator.computeCoExpressions(new double[]{2.1, 3, 5, 3},
+            new String[]{"2", "3"}, (row, target) -> System.arraycopy(allValuesA[row], 0, target, 0, 4), THRESHOLD);
+
+        // the second row has less than 3 values left after missing values are skipped
+        Assert.assertEquals(1, result.size());
+        CoExpression coExpression1 = result.get(0);
+        Assert.assertEquals("2", coExpression1.getGeneticEntityId());
+        Assert.assertEquals(new BigDecimal("0.5"), coExpression1.getSpearmansCorrelation());
+        Assert.assertEquals(new BigDecimal("0.6666666666666667"), coExpression1.getpValue());
+    }
+
+    @Test
+    public void computeCoExpressionsInParallel() throws Exception {
+
+        ReflectionTestUtils.setField(coExpressionCalculator, "rowsPerBlock", 16);
+        ReflectionTestUtils.setField(coExpressionCalculator, "parallelism", 4);
+        coExpressionCalculator.init();
+
+        Random random = new Random(42);
+        int numberOfSamples = 50;
+        double[] queryValues = new double[numberOfSamples];
+        for (int i = 0; i < numberOfSamples; i++) {
+            queryValues[i] = random.nextInt(10);
+        }
+        double[][] allValuesA = new double[200][numberOfSamples];
+        String[] entityIds = new String[allValuesA.length];
+        for (int row = 0; row < allValuesA.length; row++) {
+            entityIds[row] = String.valueOf(row);
+            for (int i = 0; i < numberOfSamples; i++) {
+                allValuesA[row][i] = queryValues[i] * (row % 5) + random.nextGaussian() * 5;
+            }
+        }
+
+        List<CoExpression> result = coExpressionCalculator.computeCoExpressions(queryValues, entityIds,
+            (row, target) -> System.arraycopy(allValuesA[row], 0, target, 0, numberOfSamples), 0);
+        coExpressionCalculator.destroy();
+
+        Assert.assertEquals(allValuesA.length, result.size());
+        for (int row = 0; row < allValuesA.length; row++) {
+            CoExpression coExpression = result.get(row);
+            Assert.assertEquals(entityIds[row], coExpression.getGeneticEntityId());
+            double expected = new SpearmansCorrelation().correlation(allValuesA[row], queryValues);
+            Assert.assertEquals(expected, coExpression.getSpearmansCorrelation().doubleValue(), 1e-12);
+        }
+    }
+
+    @Test
+    public void computeStreamedCoExpressionsInParallel() throws Exception {
+
+        ReflectionTestUtils.setField(coExpressionCalculator, "rowsPerBlock", 16);
+        ReflectionTestUtils.setField(coExpressionCalculator, "parallelism", 4);
+        coExpressionCalculator.init();
+
+        Random random = new Random(42);
+        int numberOfSamples = 50;
+        double[] queryValues = new double[numberOfSamples];
+        for (int i = 0; i < numberOfSamples; i++) {
+            queryValues[i] = random.nextInt(10);
+        }
+        double[][] allValuesA = new double[200][numberOfSamples];
+        String[] entityIds = new String[allValuesA.length];
+        for (int row = 0; row < allValuesA.length; row++) {
+            entityIds[row] = String.valueOf(row);
+            for (int i = 0; i < numberOfSamples; i++) {
+                allValuesA[row][i] = queryValues[i] * (row % 5) + random.nextGaussian() * 5;
+            }
+        }
+
+        List<CoExpression> expected = coExpressionCalculator.computeCoExpressions(queryValues, entityIds,
+            (row, target) -> System.arraycopy(allValuesA[row], 0, target, 0, numberOfSamples), THRESHOLD);
+        // the rows are read into a reused array, as they are when streamed from the database
+        double[] rowValues = new double[numberOfSamples];
+        List<CoExpression> result = coExpressionCalculator.computeCoExpressions(queryValues, consumer -> {
+            for (int row = 0; row < allValuesA.length; row++) {
+                System.arraycopy(allValuesA[row], 0, rowValues, 0, numberOfSamples);
+                consumer.accept(entityIds[row], rowValues);
+            }
+        }, THRESHOLD);
+        coExpressionCalculator.destroy();
+
+        Assert.assertEquals(expected.size(), result.size());
+        for (int i = 0; i < expected.size(); i++) {
+            Assert.assertEquals(expected.get(i).getGeneticEntityId(), result.get(i).getGeneticEntityId());
+            Assert.assertEquals(expected.get(i).getSpearmansCorrelation(), result.get(i).getSpearmansCorrelation());
+            Assert.assertEquals(expected.get(i).getpValue(), result.get(i).getpValue());
+        }
+    }
+
+    @Test
+    public void computeStrongestStreamedCoExpressions() throws Exception {
+
+        ReflectionTestUtils.setField(coExpressionCalculator, "maxResults", 1);
+
+        double[][] allValuesA = createAllValuesA();
+        String[] entityIds = {"2", "3", "4"};
+        List<CoExpression> result = coExpressionCalculator.computeCoExpressions(createValuesB(), consumer -> {
+            for (int row = 0; row < allValuesA.length; row++) {
+                consumer.accept(entityIds[row], allValuesA[row]);
+            }
+        }, THRESHOLD);
+
+        Assert.assertEquals(1, result.size());
+        Assert.assertEquals("3", result.get(0).getGeneticEntityId());
+    }
+
+    @Test
+    public void computeStrongestCoExpressions() throws Exception {
+
+        ReflectionTestUtils.setField(coExpressionCalculator, "maxResults", 1);
+
+        double[][] allValuesA = createAllValuesA();
+        List<CoExpression> result = coExpressionCalculator.computeCoExpressions(createValuesB(),
+            new String[]{"2", "3", "4"}, (row, target) -> System.arraycopy(allValuesA[row], 0, target, 0, 3),
+            THRESHOLD);
+
+        Assert.assertEquals(1, result.size());
+        Assert.assertEquals("3", result.get(0).getGeneticEntityId());
+    }
+
+    private double[][] createAllValuesA() {
+        return new double[][]{{2, 3, 2}, {1.1, 5, 3}, {1, 4, 0}};
+    }
+
+    private double[] createValuesB() {
+        return new double[]{2.1, 3, 3};
+    }
+}
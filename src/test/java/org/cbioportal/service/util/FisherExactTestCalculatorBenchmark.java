@@ -0,0 +1,125 @@
+package org.cbioportal.service.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fisher exact tests of an alteration enrichment between two groups: one 2x2 table per gene. Compares the former
+ * implementation, which filled a log-factorial table for every test, with the shared table, one test at a time and
+ * as a (parallel) batch.
+ *
+ * Not run by the unit tests. Run the main method with the test classpath after mvn test-compile, which generates
+ * the benchmark code.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FisherExactTestCalculatorBenchmark {
+
+    @Param({"20000"})
+    private int numberOfGenes;
+
+    @Param({"1000", "10000"})
+    private int numberOfSamples;
+
+    private final FisherExactTestCalculator fisherExactTestCalculator = new FisherExactTestCalculator();
+    private int[][] tables;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        int group1Size = numberOfSamples / 2;
+        int group2Size = numberOfSamples - group1Size;
+        tables = new int[numberOfGenes][];
+        for (int i = 0; i < numberOfGenes; i++) {
+            // most genes are altered in a few percent of the samples
+            int altered1 = (int) (group1Size * Math.abs(random.nextGaussian()) * 0.02);
+            int altered2 = (int) (group2Size * Math.abs(random.nextGaussian()) * 0.02);
+            altered1 = Math.min(altered1, group1Size);
+            altered2 = Math.min(altered2, group2Size);
+            tables[i] = new int[]{group2Size - altered2, altered2, group1Size - altered1, altered1};
+        }
+    }
+
+    @Benchmark
+    public void perTestLogFactorials(Blackhole blackhole) {
+        for (int[] table : tables) {
+            blackhole.consume(getTwoTailedPValueWithOwnLogFactorials(table[0], table[1], table[2], table[3]));
+        }
+    }
+
+    @Benchmark
+    public void sharedLogFactorials(Blackhole blackhole) {
+        for (int[] table : tables) {
+            blackhole.consume(fisherExactTestCalculator.getTwoTailedPValue(table[0], table[1], table[2], table[3]));
+        }
+    }
+
+    @Benchmark
+    public double[] batch() {
+        return fisherExactTestCalculator.getTwoTailedPValues(tables);
+    }
+
+    // the implementation before the log-factorial table was shared
+    private static double getTwoTailedPValueWithOwnLogFactorials(int a, int b, int c, int d) {
+
+        int n = a + b + c + d;
+        double[] f = new double[n + 1];
+        for (int j = 1; j <= n; j++) {
+            f[j] = f[j - 1] + Math.log(j);
+        }
+
+        double baseP = getPValue(a, b, c, d, f);
+        double p = baseP;
+        int initialA = a, initialB = b, initialC = c, initialD = d;
+        int min = Math.min(c, b);
+        for (int i = 0; i < min; i++) {
+            double tempP = getPValue(++a, --b, --c, ++d, f);
+            if (tempP <= baseP) {
+                p += tempP;
+            }
+        }
+        a = initialA;
+        b = initialB;
+        c = initialC;
+        d = initialD;
+        min = Math.min(a, d);
+        for (int i = 0; i < min; i++) {
+            double tempP = getPValue(--a, ++b, ++c, --d, f);
+            if (tempP <= baseP) {
+                p += tempP;
+            }
+        }
+        return p;
+    }
+
+    private static double getPValue(int a, int b, int c, int d, double[] f) {
+        int n = a + b + c + d;
+        return Math.exp((f[a + b] + f[c + d] + f[a + c] + f[b + d]) - (f[a] + f[b] + f[c] + f[d] + f[n]));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(FisherExactTestCalculatorBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+}
@@ -0,0 +1,62 @@
+package org.cbioportal.service.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+public class FisherExactTestCalculatorTest {
+
+    private final FisherExactTestCalculator fisherExactTestCalculator = new FisherExactTestCalculator();
+
+    @Test
+    public void getTwoTailedPValue() {
+
+        // R: fisher.test(matrix(c(1, 9, 11, 3), nrow = 2))$p.value
+        Assert.assertEquals(0.002759456, fisherExactTestCalculator.getTwoTailedPValue(1, 9, 11, 3), 1e-9);
+        Assert.assertEquals(1.0, fisherExactTestCalculator.getTwoTailedPValue(1, 1, 1, 1), 1e-9);
+    }
+
+    @Test
+    public void getCumulativePValue() {
+
+        // R: fisher.test(matrix(c(1, 9, 11, 3), nrow = 2), alternative = "less")$p.value
+        Assert.assertEquals(0.001379728, fisherExactTestCalculator.getCumulativePValue(1, 9, 11, 3), 1e-9);
+    }
+
+    @Test
+    public void getLogFactorials() {
+
+        double[] logFactorials = FisherExactTestCalculator.getLogFactorials(10000);
+
+        Assert.assertTrue(logFactorials.length > 10000);
+        Assert.assertEquals(0.0, logFactorials[0], 0.0);
+        Assert.assertEquals(Math.log(120), logFactorials[5], 1e-12);
+        Assert.assertSame(logFactorials, FisherExactTestCalculator.getLogFactorials(100));
+    }
+
+    @Test
+    public void getTwoTailedPValues() {
+
+        // large enough to be computed in parallel
+        Random random = new Random(1);
+        int[][] tables = new int[1000][];
+        for (int i = 0; i < tables.length; i++) {
+            tables[i] = new int[]{random.nextInt(500), random.nextInt(50), random.nextInt(500), random.nextInt(50)};
+        }
+
+        double[] result = fisherExactTestCalculator.getTwoTailedPValues(tables);
+
+        Assert.assertEquals(tables.length, result.length);
+        for (int i = 0; i < tables.length; i++) {
+            Assert.assertEquals(fisherExactTestCalculator.getTwoTailedPValue(tables[i][0], tables[i][1], tables[i][2],
+                tables[i][3]), result[i], 0.0);
+        }
+    }
+
+    @Test
+    public void getTwoTailedPValuesOfNoTables() {
+
+        Assert.assertEquals(0, fisherExactTestCalculator.getTwoTailedPValues(new int[0][]).length);
+    }
+}
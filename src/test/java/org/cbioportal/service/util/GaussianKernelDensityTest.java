@@ -0,0 +1,49 @@
+package org.cbioportal.service.util;
+
+import org.apache.commons.math3.analysis.function.Gaussian;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+public class GaussianKernelDensityTest {
+
+    @Test
+    public void evaluateFewValuesDirectly() {
+        double[] values = {0.1, 0.5, 0.2};
+
+        double[] curve = GaussianKernelDensity.evaluate(values, 0, 0.1, 11, 0.1);
+
+        Assert.assertEquals(11, curve.length);
+        Assert.assertEquals(exactSum(values, 0.5, 0.1), curve[5], 0.0);
+    }
+
+    @Test
+    public void evaluateManyValuesWithinErrorBound() {
+        Random random = new Random(42);
+        double[] values = new double[20000];
+        for (int i = 0; i < values.length; i++) {
+            // some values beyond the axis as well
+            values[i] = random.nextBoolean() ? random.nextGaussian() * 0.2 + 0.3 : random.nextDouble() * 1.4 - 0.2;
+        }
+
+        for (double sigmaMultiplier : new double[]{0.5, 1, 3}) {
+            double step = 1.0 / 99;
+            double sigma = sigmaMultiplier * step;
+            double[] curve = GaussianKernelDensity.evaluate(values, 0, step, 100, sigma);
+
+            double bound = values.length * new Gaussian(0, sigma).value(0) / 2048;
+            for (int i = 0; i < curve.length; i++) {
+                Assert.assertEquals(exactSum(values, i * step, sigma), curve[i], bound);
+            }
+        }
+    }
+
+    private double exactSum(double[] values, double point, double sigma) {
+        double sum = 0;
+        for (double value : values) {
+            sum += new Gaussian(value, sigma).value(point);
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,103 @@
+package org.cbioportal.service.util;
+
+import org.cbioportal.model.GenePanel;
+import org.cbioportal.model.GenePanelToGene;
+import org.cbioportal.persistence.CacheEnabledConfig;
+import org.cbioportal.service.GenePanelService;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+@RunWith(MockitoJUnitRunner.class)
+public class GenePanelCoverageIndexCacheTest {
+
+    private static final String GENE_PANEL_ID_1 = "gene_panel_id_1";
+    private static final String GENE_PANEL_ID_2 = "gene_panel_id_2";
+    private static final String UNKNOWN_GENE_PANEL_ID = "unknown_gene_panel_id";
+
+    @InjectMocks
+    private GenePanelCoverageIndexCache genePanelCoverageIndexCache;
+
+    @Mock
+    private GenePanelService genePanelService;
+    @Mock
+    private CacheEnabledConfig cacheEnabledConfig;
+
+    @Test
+    public void getWithoutCaching() {
+        Mockito.when(cacheEnabledConfig.isEnabled()).thenReturn(false);
+        ReflectionTestUtils.setField(genePanelCoverageIndexCache, "indexEnabled", true);
+        Mockito.when(genePanelService.fetchGenePanels(Arrays.asList(GENE_PANEL_ID_1), "DETAILED"))
+            .thenReturn(Arrays.asList(genePanel(GENE_PANEL_ID_1, 1, 2)));
+
+        genePanelCoverageIndexCache.buildIndex();
+        genePanelCoverageIndexCache.get(Arrays.asList(GENE_PANEL_ID_1));
+        GenePanelCoverageIndex index = genePanelCoverageIndexCache.get(Arrays.asList(GENE_PANEL_ID_1));
+
+        Assert.assertEquals(1, index.getPanelCount());
+        Mockito.verify(genePanelService, Mockito.never()).getAllGenePanels("ID", null, null, null, null);
+        Mockito.verify(genePanelService, Mockito.times(2))
+            .fetchGenePanels(Arrays.asList(GENE_PANEL_ID_1), "DETAILED");
+    }
+
+    @Test
+    public void getFetchesMissingPanelsUntilEviction() {
+        Mockito.when(cacheEnabledConfig.isEnabled()).thenReturn(true);
+        ReflectionTestUtils.setField(genePanelCoverageIndexCache, "indexEnabled", true);
+        Mockito.when(genePanelService.getAllGenePanels("ID", null, null, null, null))
+            .thenReturn(Arrays.asList(genePanel(GENE_PANEL_ID_1)));
+        Mockito.when(genePanelService.fetchGenePanels(Arrays.asList(GENE_PANEL_ID_1), "DETAILED"))
+            .thenReturn(Arrays.asList(genePanel(GENE_PANEL_ID_1, 1, 2)));
+        Mockito.when(genePanelService.fetchGenePanels(Arrays.asList(GENE_PANEL_ID_2, UNKNOWN_GENE_PANEL_ID),
+            "DETAILED")).thenReturn(Arrays.asList(genePanel(GENE_PANEL_ID_2, 2, 3)));
+
+        genePanelCoverageIndexCache.buildIndex();
+        genePanelCoverageIndexCache.get(Arrays.asList(GENE_PANEL_ID_2, UNKNOWN_GENE_PANEL_ID, GENE_PANEL_ID_1));
+        GenePanelCoverageIndex index = genePanelCoverageIndexCache.get(
+            Arrays.asList(GENE_PANEL_ID_1, GENE_PANEL_ID_2, UNKNOWN_GENE_PANEL_ID));
+
+        Assert.assertEquals(2, index.getPanelCount());
+        Assert.assertEquals(-1, index.getPanelIndex(UNKNOWN_GENE_PANEL_ID));
+        int panel1 = index.getPanelIndex(GENE_PANEL_ID_1);
+        int panel2 = index.getPanelIndex(GENE_PANEL_ID_2);
+        Assert.assertArrayEquals(new int[] {panel1}, index.getPanelsOfGene(1, "GENE1"));
+        Assert.assertArrayEquals(new int[] {panel1, panel2}, index.getPanelsOfGene(2, "GENE2"));
+        Assert.assertArrayEquals(new int[0], index.getPanelsOfGene(2, "OTHER_SYMBOL"));
+        Assert.assertEquals(GENE_PANEL_ID_2, index.getGenePanelId(panel2));
+        Assert.assertEquals(2, index.getGenesOfPanel(panel2).size());
+        Mockito.verify(genePanelService).fetchGenePanels(Arrays.asList(GENE_PANEL_ID_1), "DETAILED");
+        Mockito.verify(genePanelService).fetchGenePanels(Arrays.asList(GENE_PANEL_ID_2, UNKNOWN_GENE_PANEL_ID),
+            "DETAILED");
+
+        genePanelCoverageIndexCache.evictStudy("study_id");
+        index = genePanelCoverageIndexCache.get(Arrays.asList(GENE_PANEL_ID_1));
+
+        Assert.assertEquals(1, index.getPanelCount());
+        Mockito.verify(genePanelService, Mockito.times(2))
+            .fetchGenePanels(Arrays.asList(GENE_PANEL_ID_1), "DETAILED");
+    }
+
+    private GenePanel genePanel(String genePanelId, int... entrezGeneIds) {
+        GenePanel genePanel = new GenePanel();
+        genePanel.setStableId(genePanelId);
+        List<GenePanelToGene> genes = new ArrayList<>();
+        for (int entrezGeneId : entrezGeneIds) {
+            GenePanelToGene genePanelToGene = new GenePanelToGene();
+            genePanelToGene.setGenePanelId(genePanelId);
+            genePanelToGene.setEntrezGeneId(entrezGeneId);
+            genePanelToGene.setHugoGeneSymbol("GENE" + entrezGeneId);
+            genes.add(genePanelToGene);
+        }
+        genePanel.setGenes(genes);
+        return genePanel;
+    }
+}
@@ -0,0 +1,105 @@
+package org.cbioportal.service.util;
+
+import org.cbioportal.model.GeneMolecularData;
+import org.cbioportal.persistence.CacheEnabledConfig;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+@RunWith(MockitoJUnitRunner.class)
+public class MrnaPercentileIndexCacheTest {
+
+    private static final String MOLECULAR_PROFILE_ID = "study_id_mrna";
+    private static final String STUDY_ID = "study_id";
+
+    @InjectMocks
+    private MrnaPercentileIndexCache mrnaPercentileIndexCache;
+
+    @Mock
+    private CacheEnabledConfig cacheEnabledConfig;
+
+    private final List<List<Integer>> loads = new ArrayList<>();
+
+    @Test
+    public void getWithoutCaching() throws Exception {
+        Mockito.when(cacheEnabledConfig.isEnabled()).thenReturn(false);
+
+        mrnaPercentileIndexCache.get(MOLECULAR_PROFILE_ID, STUDY_ID, Arrays.asList(1, 2), this::load);
+        mrnaPercentileIndexCache.get(MOLECULAR_PROFILE_ID, STUDY_ID, Arrays.asList(1, 2), this::load);
+
+        Assert.assertEquals(Arrays.asList(Arrays.asList(1, 2), Arrays.asList(1, 2)), loads);
+    }
+
+    @Test
+    public void getLoadsMissingGenesUntilEviction() throws Exception {
+        Mockito.when(cacheEnabledConfig.isEnabled()).thenReturn(true);
+        ReflectionTestUtils.setField(mrnaPercentileIndexCache, "maxMegaBytes", 1L);
+
+        mrnaPercentileIndexCache.get(MOLECULAR_PROFILE_ID, STUDY_ID, Arrays.asList(1, 3), this::load);
+        Map<Integer, MrnaPercentileIndex> indexes = mrnaPercentileIndexCache.get(MOLECULAR_PROFILE_ID, STUDY_ID,
+            Arrays.asList(2, 1, 3), this::load);
+
+        Assert.assertEquals(Arrays.asList(2, 1, 3), new ArrayList<>(indexes.keySet()));
+        Assert.assertEquals(2, indexes.get(1).size());
+        // no values for gene 3, its empty index is kept as well
+        Assert.assertEquals(0, indexes.get(3).size());
+        Assert.assertEquals(Arrays.asList(Arrays.asList(1, 3), Arrays.asList(2)), loads);
+
+        mrnaPercentileIndexCache.evictStudy("other_study_id");
+        mrnaPercentileIndexCache.get(MOLECULAR_PROFILE_ID, STUDY_ID, Arrays.asList(1), this::load);
+        Assert.assertEquals(2, loads.size());
+
+        mrnaPercentileIndexCache.evictStudy(STUDY_ID);
+        mrnaPercentileIndexCache.get(MOLECULAR_PROFILE_ID, STUDY_ID, Arrays.asList(1), this::load);
+        Assert.assertEquals(Arrays.asList(1), loads.get(2));
+    }
+
+    @Test
+    public void getPercentile() throws Exception {
+        Mockito.when(cacheEnabledConfig.isEnabled()).thenReturn(false);
+
+        MrnaPercentileIndex index = mrnaPercentileIndexCache.get(MOLECULAR_PROFILE_ID, STUDY_ID, Arrays.asList(1),
+            entrezGeneIds -> Arrays.asList(
+                molecularData(1, "sample_4", "2"), molecularData(1, "sample_2", "0.5"),
+                molecularData(1, "sample_1", "NA"), molecularData(1, "sample_3", "0.50"))).get(1);
+
+        Assert.assertEquals(3, index.size());
+        Assert.assertTrue(index.indexOf("sample_1") < 0);
+        int position = index.indexOf("sample_3");
+        Assert.assertEquals("0.50", index.getValue(position));
+        Assert.assertEquals("patient_sample_3", index.getPatientId(position));
+        Assert.assertEquals(200.0 / 3, index.getPercentile(position), 1e-9);
+        Assert.assertEquals(100.0, index.getPercentile(index.indexOf("sample_4")), 0.0);
+    }
+
+    private List<GeneMolecularData> load(List<Integer> entrezGeneIds) {
+        loads.add(new ArrayList<>(entrezGeneIds));
+        List<GeneMolecularData> molecularDataList = new ArrayList<>();
+        for (Integer entrezGeneId : entrezGeneIds) {
+            if (entrezGeneId != 3) {
+                molecularDataList.add(molecularData(entrezGeneId, "sample_1", "1.0"));
+                molecularDataList.add(molecularData(entrezGeneId, "sample_2", "-1.0"));
+            }
+        }
+        return molecularDataList;
+    }
+
+    private GeneMolecularData molecularData(int entrezGeneId, String sampleId, String value) {
+        GeneMolecularData molecularData = new GeneMolecularData();
+        molecularData.setEntrezGeneId(entrezGeneId);
+        molecularData.setSampleId(sampleId);
+        molecularData.setPatientId("patient_" + sampleId);
+        molecularData.setValue(value);
+        return molecularData;
+    }
+}
@@ -8,15 +8,18 @@ import org.cbioportal.model.AlterationCountByGene;
 import org.cbioportal.model.GenePanel;
 import org.cbioportal.model.GenePanelData;
 import org.cbioportal.model.GenePanelToGene;
+import org.cbioportal.persistence.CacheEnabledConfig;
 import org.cbioportal.service.GenePanelService;
 import org.cbioportal.service.SampleListService;
 import org.junit.Assert;
+import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.test.util.ReflectionTestUtils;
 
 @RunWith(MockitoJUnitRunner.class)
 public class ProfiledCasesCounterTest {
@@ -41,6 +44,16 @@ public class ProfiledCasesCounterTest {
     private SampleListService sampleListService;
     @Mock
     private GenePanelService genePanelService;
+    @Mock
+    private CacheEnabledConfig cacheEnabledConfig;
+    @InjectMocks
+    private GenePanelCoverageIndexCache genePanelCoverageIndexCache;
+
+    @Before
+    public void setUp() {
+        ReflectionTestUtils.setField(profiledSamplesCounter, "genePanelCoverageIndexCache",
+            genePanelCoverageIndexCache);
+    }
 
     @Test
     public void calculate() throws Exception {
@@ -0,0 +1,94 @@
+package org.cbioportal.service.util;
+
+import org.cbioportal.utils.removeme.Session.SessionType;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.client.ExpectedCount;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.test.web.client.match.MockRestRequestMatchers;
+import org.springframework.test.web.client.response.MockRestResponseCreators;
+
+public class SessionServiceRequestHandlerTest {
+
+    private static final String SESSION_SERVICE_URL = "http://localhost/session_service/api/sessions/portal/";
+    private static final String CUSTOM_DATA_JSON = "{\"id\":\"custom_data_id\",\"data\":{}}";
+    private static final String SETTINGS_JSON = "{\"id\":\"settings_id\",\"data\":{}}";
+
+    private SessionServiceRequestHandler sessionServiceRequestHandler;
+    private MockRestServiceServer sessionService;
+
+    @Before
+    public void setUp() {
+        sessionServiceRequestHandler = new SessionServiceRequestHandler();
+        ReflectionTestUtils.setField(sessionServiceRequestHandler, "sessionServiceURL", SESSION_SERVICE_URL);
+        ReflectionTestUtils.setField(sessionServiceRequestHandler, "maxConnections", 20);
+        ReflectionTestUtils.setField(sessionServiceRequestHandler, "connectTimeoutMs", 5000);
+        ReflectionTestUtils.setField(sessionServiceRequestHandler, "readTimeoutMs", 30000);
+        ReflectionTestUtils.setField(sessionServiceRequestHandler, "cacheTtlSeconds", 60);
+        ReflectionTestUtils.setField(sessionServiceRequestHandler, "cacheMaxEntries", 1000);
+        sessionServiceRequestHandler.init();
+        sessionService = MockRestServiceServer.bindTo(sessionServiceRequestHandler.getRestTemplate()).build();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        sessionServiceRequestHandler.close();
+    }
+
+    @Test
+    public void getSessionDataJsonCachesCustomData() throws Exception {
+        sessionService.expect(ExpectedCount.once(),
+                MockRestRequestMatchers.requestTo(SESSION_SERVICE_URL + "custom_data/custom_data_id"))
+            .andExpect(MockRestRequestMatchers.method(HttpMethod.GET))
+            .andRespond(MockRestResponseCreators.withSuccess(CUSTOM_DATA_JSON, MediaType.APPLICATION_JSON));
+
+        Assert.assertEquals(CUSTOM_DATA_JSON,
+            sessionServiceRequestHandler.getSessionDataJson(SessionType.custom_data, "custom_data_id"));
+        Assert.assertEquals(CUSTOM_DATA_JSON,
+            sessionServiceRequestHandler.getSessionDataJson(SessionType.custom_data, "custom_data_id"));
+        sessionService.verify();
+    }
+
+    @Test
+    public void getSessionDataJsonDoesNotCacheSettings() throws Exception {
+        sessionService.expect(ExpectedCount.twice(),
+                MockRestRequestMatchers.requestTo(SESSION_SERVICE_URL + "settings/settings_id"))
+            .andRespond(MockRestResponseCreators.withSuccess(SETTINGS_JSON, MediaType.APPLICATION_JSON));
+
+        sessionServiceRequestHandler.getSessionDataJson(SessionType.settings, "settings_id");
+        sessionServiceRequestHandler.getSessionDataJson(SessionType.settings, "settings_id");
+        sessionService.verify();
+    }
+
+    @Test
+    public void evictSessionData() throws Exception {
+        sessionService.expect(ExpectedCount.twice(),
+                MockRestRequestMatchers.requestTo(SESSION_SERVICE_URL + "custom_data/custom_data_id"))
+            .andRespond(MockRestResponseCreators.withSuccess(CUSTOM_DATA_JSON, MediaType.APPLICATION_JSON));
+
+        sessionServiceRequestHandler.getSessionDataJson(SessionType.custom_data, "custom_data_id");
+        sessionServiceRequestHandler.evictSessionData(SessionType.custom_data, "custom_data_id");
+        sessionServiceRequestHandler.getSessionDataJson(SessionType.custom_data, "custom_data_id");
+        sessionService.verify();
+    }
+
+    @Test
+    public void getSessionDataJsonWithoutCache() throws Exception {
+        sessionServiceRequestHandler.close();
+        ReflectionTestUtils.setField(sessionServiceRequestHandler, "cacheTtlSeconds", 0);
+        sessionServiceRequestHandler.init();
+        sessionService = MockRestServiceServer.bindTo(sessionServiceRequestHandler.getRestTemplate()).build();
+        sessionService.expect(ExpectedCount.twice(),
+                MockRestRequestMatchers.requestTo(SESSION_SERVICE_URL + "custom_data/custom_data_id"))
+            .andRespond(MockRestResponseCreators.withSuccess(CUSTOM_DATA_JSON, MediaType.APPLICATION_JSON));
+
+        sessionServiceRequestHandler.getSessionDataJson(SessionType.custom_data, "custom_data_id");
+        sessionServiceRequestHandler.getSessionDataJson(SessionType.custom_data, "custom_data_id");
+        sessionService.verify();
+    }
+}
@@ -0,0 +1,22 @@
+package org.cbioportal.utils.concurrency;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class ConcurrencyLimitsTest {
+
+    @Test
+    public void limitsOnlyApplyWithVirtualThreads() {
+        ConcurrencyLimits concurrencyLimits = new ConcurrencyLimits();
+        ReflectionTestUtils.setField(concurrencyLimits, "databaseLimit", 10);
+        ReflectionTestUtils.setField(concurrencyLimits, "redisLimit", 0);
+        concurrencyLimits.init();
+        Assert.assertFalse(concurrencyLimits.getDatabase().isLimited());
+
+        ReflectionTestUtils.setField(concurrencyLimits, "virtualThreadsEnabled", true);
+        concurrencyLimits.init();
+        Assert.assertTrue(concurrencyLimits.getDatabase().isLimited());
+        Assert.assertFalse(concurrencyLimits.getRedis().isLimited());
+    }
+}
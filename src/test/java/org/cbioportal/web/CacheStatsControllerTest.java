@@ -1,5 +1,6 @@
 package org.cbioportal.web;
 
+import org.cbioportal.security.token.TokenAuthenticationCache;
 import org.cbioportal.service.CacheStatisticsService;
 import org.cbioportal.service.exception.CacheNotFoundException;
 import org.cbioportal.web.config.TestConfig;
@@ -41,6 +42,9 @@ public class CacheStatsControllerTest {
     @MockBean
     public CacheStatisticsService cacheStatisticsService;
 
+    @MockBean
+    public TokenAuthenticationCache tokenAuthenticationCache;
+
     @Before
     public void setUp() throws Exception {
         Mockito.when(cacheStatisticsService.getKeyCountsPerClass(Mockito.anyString())).thenAnswer(new Answer<List<String>>() {
@@ -99,4 +103,14 @@ public class CacheStatsControllerTest {
             .andExpect(MockMvcResultMatchers.status().isNotFound());
     }
 
+    @Test
+    @WithMockUser
+    public void testGetTokenAuthenticationCacheStatistics() throws Exception {
+        Mockito.when(tokenAuthenticationCache.getStatistics()).thenReturn("Token authentication cache: disabled");
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/dataAccessTokenCacheStatistics")
+            .accept(MediaType.APPLICATION_JSON))
+            .andExpect(MockMvcResultMatchers.status().isOk())
+            .andExpect(MockMvcResultMatchers.content().string("Token authentication cache: disabled"));
+    }
 }
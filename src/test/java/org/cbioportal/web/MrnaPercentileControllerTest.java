@@ -6,6 +6,7 @@ import static org.springframework.security.test.web.servlet.request.SecurityMock
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import org.cbioportal.model.MrnaPercentile;
 import org.cbioportal.service.MrnaPercentileService;
@@ -67,8 +68,8 @@ public class MrnaPercentileControllerTest {
         mrnaPercentile2.setPercentile(TEST_PERCENTILE_2);
         mrnaPercentileList.add(mrnaPercentile2);
 
-        Mockito.when(mrnaPercentileService.fetchMrnaPercentile(Mockito.anyString(), Mockito.anyString(),
-            Mockito.anyList())).thenReturn(mrnaPercentileList);
+        Mockito.when(mrnaPercentileService.fetchMrnaPercentiles(Mockito.anyString(),
+            Mockito.eq(Collections.singletonList(TEST_SAMPLE_STABLE_ID)), Mockito.anyList())).thenReturn(mrnaPercentileList);
 
         List<Integer> entrezGeneIds = new ArrayList<>();
         entrezGeneIds.add(TEST_ENTREZ_GENE_ID_1);
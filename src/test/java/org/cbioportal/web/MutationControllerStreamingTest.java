@@ -0,0 +1,98 @@
+package org.cbioportal.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.cbioportal.model.Mutation;
+import org.cbioportal.service.MutationService;
+import org.cbioportal.web.config.TestConfig;
+import org.cbioportal.web.parameter.MutationMultipleStudyFilter;
+import org.cbioportal.web.parameter.SampleMolecularIdentifier;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@WebMvcTest
+@ContextConfiguration(classes = {MutationController.class, TestConfig.class})
+@TestPropertySource(properties = "web.streaming_responses.enabled=true")
+public class MutationControllerStreamingTest {
+
+    private static final String TEST_MOLECULAR_PROFILE_STABLE_ID_1 = "test_molecular_profile_stable_id_1";
+    private static final String TEST_SAMPLE_STABLE_ID_1 = "test_sample_stable_id_1";
+    private static final String TEST_SAMPLE_STABLE_ID_2 = "test_sample_stable_id_2";
+
+    @MockBean
+    private MutationService mutationService;
+
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    @WithMockUser
+    public void fetchMutationsInMultipleMolecularProfiles() throws Exception {
+
+        Mockito.doAnswer(invocation -> {
+            Consumer<Mutation> consumer = invocation.getArgument(8);
+            consumer.accept(mutation(TEST_SAMPLE_STABLE_ID_1));
+            consumer.accept(mutation(TEST_SAMPLE_STABLE_ID_2));
+            return null;
+        }).when(mutationService).streamMutationsInMultipleMolecularProfiles(
+            ArgumentMatchers.eq(Arrays.asList(TEST_MOLECULAR_PROFILE_STABLE_ID_1, TEST_MOLECULAR_PROFILE_STABLE_ID_1)),
+            ArgumentMatchers.eq(Arrays.asList(TEST_SAMPLE_STABLE_ID_1, TEST_SAMPLE_STABLE_ID_2)), ArgumentMatchers.any(),
+            ArgumentMatchers.eq("SUMMARY"), ArgumentMatchers.any(), ArgumentMatchers.any(), ArgumentMatchers.any(),
+            ArgumentMatchers.eq("ASC"), ArgumentMatchers.any());
+
+        MutationMultipleStudyFilter mutationMultipleStudyFilter = new MutationMultipleStudyFilter();
+        mutationMultipleStudyFilter.setSampleMolecularIdentifiers(Arrays.asList(
+            sampleMolecularIdentifier(TEST_SAMPLE_STABLE_ID_1), sampleMolecularIdentifier(TEST_SAMPLE_STABLE_ID_2)));
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/mutations/fetch").with(csrf())
+            .accept(MediaType.APPLICATION_JSON)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(mutationMultipleStudyFilter)))
+            .andExpect(MockMvcResultMatchers.status().isOk())
+            .andExpect(MockMvcResultMatchers.content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+            .andExpect(MockMvcResultMatchers.jsonPath("$", Matchers.hasSize(2)))
+            .andExpect(MockMvcResultMatchers.jsonPath("$[0].molecularProfileId")
+                .value(TEST_MOLECULAR_PROFILE_STABLE_ID_1))
+            .andExpect(MockMvcResultMatchers.jsonPath("$[0].sampleId").value(TEST_SAMPLE_STABLE_ID_1))
+            .andExpect(MockMvcResultMatchers.jsonPath("$[1].sampleId").value(TEST_SAMPLE_STABLE_ID_2));
+
+        Mockito.verify(mutationService, Mockito.never()).getMutationsInMultipleMolecularProfiles(Mockito.any(),
+            Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any());
+    }
+
+    private SampleMolecularIdentifier sampleMolecularIdentifier(String sampleId) {
+        SampleMolecularIdentifier sampleMolecularIdentifier = new SampleMolecularIdentifier();
+        sampleMolecularIdentifier.setMolecularProfileId(TEST_MOLECULAR_PROFILE_STABLE_ID_1);
+        sampleMolecularIdentifier.setSampleId(sampleId);
+        return sampleMolecularIdentifier;
+    }
+
+    private Mutation mutation(String sampleId) {
+        Mutation mutation = new Mutation();
+        mutation.setMolecularProfileId(TEST_MOLECULAR_PROFILE_STABLE_ID_1);
+        mutation.setSampleId(sampleId);
+        mutation.setEntrezGeneId(1);
+        return mutation;
+    }
+}
@@ -3,6 +3,7 @@ package org.cbioportal.web.config;
 import org.cbioportal.persistence.cachemaputil.CacheMapUtil;
 import org.cbioportal.web.error.GlobalExceptionHandler;
 import org.cbioportal.web.util.InvolvedCancerStudyExtractorInterceptor;
+import org.cbioportal.web.util.StreamingJsonResponseWriter;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.boot.test.mock.mockito.MockBean;
@@ -43,6 +44,12 @@ public class TestConfig {
         return new CustomObjectMapper();
     }
 
+    // -- stream large responses
+    @Bean
+    public StreamingJsonResponseWriter streamingJsonResponseWriter() {
+        return new StreamingJsonResponseWriter();
+    }
+
     // -- handle exceptions
     @Bean
     public GlobalExceptionHandler globalExceptionHandler() {
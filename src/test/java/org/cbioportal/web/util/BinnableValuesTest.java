@@ -0,0 +1,73 @@
+package org.cbioportal.web.util;
+
+import com.google.common.collect.Range;
+import org.cbioportal.model.Binnable;
+import org.cbioportal.model.ClinicalData;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class BinnableValuesTest {
+
+    private final DataBinHelper dataBinHelper = new DataBinHelper();
+
+    @Test
+    public void parse() {
+        BinnableValues values = BinnableValues.parse(clinicalData(
+            "3", "1.5", ">=80", ">90", "<10", "NA", "n/a", "Unknown", "unknown", " 5", ">= 5", "1e2"), dataBinHelper);
+
+        Assert.assertEquals(Arrays.asList(new BigDecimal("1.5"), new BigDecimal("3"), new BigDecimal("1e2")),
+            values.getNumericalValues().asList());
+        Assert.assertEquals(Arrays.asList(new BigDecimal("80")), values.getSpecialValues(">="));
+        Assert.assertEquals(Arrays.asList(new BigDecimal("90")), values.getSpecialValues(">"));
+        Assert.assertEquals(Arrays.asList(new BigDecimal("10")), values.getSpecialValues("<"));
+        Assert.assertTrue(values.getSpecialValues("<=").isEmpty());
+        Assert.assertEquals(Arrays.asList("Unknown", "unknown", ">= 5"), values.getNonNumericalValues());
+        Assert.assertEquals(2, values.getNaCount());
+        Assert.assertEquals(2, values.countNonNumerical("UNKNOWN"));
+        Assert.assertEquals(0, values.countNonNumerical(null));
+    }
+
+    @Test
+    public void count() {
+        BinnableValues values = BinnableValues.parse(clinicalData(
+            "1", "2", "2.0", "3", "4", ">4", ">=5", "<1"), dataBinHelper);
+
+        Assert.assertEquals(3, values.count(Range.closed(new BigDecimal("2"), new BigDecimal("3"))));
+        Assert.assertEquals(1, values.count(Range.openClosed(new BigDecimal("2"), new BigDecimal("3"))));
+        Assert.assertEquals(2, values.count(Range.closedOpen(new BigDecimal("2.00"), new BigDecimal("3"))));
+        // the special values are counted by the open ranges that enclose them
+        Assert.assertEquals(3, values.count(Range.greaterThan(new BigDecimal("3"))));
+        Assert.assertEquals(1, values.count(Range.lessThan(new BigDecimal("1"))));
+        Assert.assertEquals(2, values.count(Range.atMost(new BigDecimal("1"))));
+        Assert.assertEquals(0, values.count(null));
+    }
+
+    @Test
+    public void countValuesBeyondDoublePrecision() {
+        SortedNumericalValues values = SortedNumericalValues.of(Arrays.asList(
+            new BigDecimal("0.30000000000000000001"), new BigDecimal("0.3"), new BigDecimal("0.29999999999999999999"),
+            new BigDecimal("0.1")));
+
+        Assert.assertEquals(1, values.count(Range.singleton(new BigDecimal("0.3"))));
+        Assert.assertEquals(2, values.count(Range.lessThan(new BigDecimal("0.3"))));
+        Assert.assertEquals(3, values.count(Range.atMost(new BigDecimal("0.3"))));
+        Assert.assertEquals(2, values.count(Range.atLeast(new BigDecimal("0.3"))));
+        Assert.assertEquals(1, values.count(Range.greaterThan(new BigDecimal("0.3"))));
+    }
+
+    private List<Binnable> clinicalData(String... attributeValues) {
+        List<Binnable> clinicalDataList = new ArrayList<>();
+        for (int i = 0; i < attributeValues.length; i++) {
+            ClinicalData clinicalData = new ClinicalData();
+            clinicalData.setSampleId("sample_" + i);
+            clinicalData.setAttrValue(attributeValues[i]);
+            clinicalDataList.add(clinicalData);
+        }
+        return clinicalDataList;
+    }
+}
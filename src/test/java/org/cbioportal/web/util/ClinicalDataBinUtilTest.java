@@ -8,6 +8,7 @@ import org.cbioportal.model.ClinicalAttribute;
 import org.cbioportal.model.ClinicalData;
 import org.cbioportal.model.ClinicalDataBin;
 import org.cbioportal.model.Patient;
+import org.cbioportal.persistence.CacheEnabledConfig;
 import org.cbioportal.service.ClinicalAttributeService;
 import org.cbioportal.service.PatientService;
 import org.cbioportal.service.impl.CustomDataServiceImpl;
@@ -30,6 +31,7 @@ import org.mockito.Spy;
 import org.mockito.junit.MockitoJUnitRunner;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.Resource;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.util.ResourceUtils;
 
 import java.io.IOException;
@@ -93,6 +95,11 @@ public class ClinicalDataBinUtilTest {
     private LogScaleDataBinner logScaleDataBinner;
     @Spy
     private DataBinHelper dataBinHelper;
+    @Spy
+    @InjectMocks
+    private ClinicalDataBinningModelCache clinicalDataBinningModelCache;
+    @Mock
+    private CacheEnabledConfig cacheEnabledConfig;
     private final String testDataAttributeId = "test";
     private final ObjectMapper customDatasetMapper = new ObjectMapper()
         .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
@@ -288,6 +295,45 @@ public class ClinicalDataBinUtilTest {
             .calculateDynamicDataBins(any(), any(), any(), any(), any());
     }    
     
+    @Test
+    public void fetchClinicalDataBinCountsFromBinningModels() {
+        mockUnfilteredQuery();
+        mockFilteredQuery();
+        List<String> unfilteredBins = toStrings(
+            clinicalDataBinUtil.fetchClinicalDataBinCounts(DataBinMethod.STATIC, mockBaseFilter()));
+        List<String> filteredBins = toStrings(
+            clinicalDataBinUtil.fetchClinicalDataBinCounts(DataBinMethod.STATIC, mockQueryFilter()));
+
+        when(cacheEnabledConfig.isEnabled()).thenReturn(true);
+        ReflectionTestUtils.setField(clinicalDataBinningModelCache, "maxMegaBytes", 1L);
+
+        assertEquals(filteredBins, toStrings(
+            clinicalDataBinUtil.fetchClinicalDataBinCounts(DataBinMethod.STATIC, mockQueryFilter())));
+        assertEquals(unfilteredBins, toStrings(
+            clinicalDataBinUtil.fetchClinicalDataBinCounts(DataBinMethod.STATIC, mockBaseFilter())));
+        assertEquals(filteredBins, toStrings(
+            clinicalDataBinUtil.fetchClinicalDataBinCounts(DataBinMethod.STATIC, mockQueryFilter())));
+
+        // the clinical data is fetched once for the binning models, and not filtered in memory
+        verify(clinicalDataFetcher, times(3))
+            .fetchClinicalDataForSamples(any(), any(), any());
+        verify(studyViewFilterUtil, times(1))
+            .filterClinicalData(any(), any(), any(), any(), any(), any(), any(), any(), any(), any());
+
+        clinicalDataBinningModelCache.evictStudy(STUDY_ID);
+        assertEquals(filteredBins, toStrings(
+            clinicalDataBinUtil.fetchClinicalDataBinCounts(DataBinMethod.STATIC, mockQueryFilter())));
+        verify(clinicalDataFetcher, times(4))
+            .fetchClinicalDataForSamples(any(), any(), any());
+    }
+
+    private List<String> toStrings(List<ClinicalDataBin> dataBins) {
+        return dataBins.stream()
+            .map(bin -> bin.getAttributeId() + " " + bin.getSpecialValue() + " " + bin.getStart() + " " + bin.getEnd()
+                + " " + bin.getCount())
+            .collect(Collectors.toList());
+    }
+
     @Test
     public void fetchCustomDataBinCountsWithStaticBinningMethod() throws Exception {
         String customDataset = getFileContents("classpath:custom-dataset.json");
@@ -0,0 +1,93 @@
+package org.cbioportal.web.util;
+
+import org.cbioportal.persistence.CacheEnabledConfig;
+import org.cbioportal.web.parameter.ClinicalDataBinFilter;
+import org.cbioportal.web.parameter.SampleIdentifier;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ClinicalDataBinningModelCacheTest {
+
+    @InjectMocks
+    private ClinicalDataBinningModelCache clinicalDataBinningModelCache;
+
+    @Mock
+    private CacheEnabledConfig cacheEnabledConfig;
+
+    @Mock
+    private ClinicalDataBinningModel model;
+
+    @Before
+    public void setUp() {
+        Mockito.when(cacheEnabledConfig.isEnabled()).thenReturn(true);
+        ReflectionTestUtils.setField(clinicalDataBinningModelCache, "maxMegaBytes", 1L);
+    }
+
+    @Test
+    public void keysOfEqualRequestsAreEqual() {
+        ClinicalDataBinningModelCache.Key key = toKey(Arrays.asList(sampleIdentifier("study_1", "sample_1"),
+            sampleIdentifier("study_1", "sample_2")), "AGE");
+        ClinicalDataBinningModelCache.Key sameKey = toKey(Arrays.asList(sampleIdentifier("study_1", "sample_1"),
+            sampleIdentifier("study_1", "sample_2")), "AGE");
+
+        Assert.assertEquals(key, sameKey);
+        Assert.assertEquals(key.hashCode(), sameKey.hashCode());
+        Assert.assertNotEquals(key, toKey(Arrays.asList(sampleIdentifier("study_1", "sample_2"),
+            sampleIdentifier("study_1", "sample_1")), "AGE"));
+        Assert.assertNotEquals(key, toKey(Arrays.asList(sampleIdentifier("study_1", "sample_1"),
+            sampleIdentifier("study_1", "sample_2")), "MUTATION_COUNT"));
+        // the study and sample ids are not run together
+        Assert.assertNotEquals(toKey(Arrays.asList(sampleIdentifier("study_1", "sample_1")), "AGE"),
+            toKey(Arrays.asList(sampleIdentifier("study_1sample", "_1")), "AGE"));
+    }
+
+    @Test
+    public void evictStudyOfSampleIdentifiers() {
+        ClinicalDataBinningModelCache.Key key = toKey(Arrays.asList(sampleIdentifier("study_1", "sample_1"),
+            sampleIdentifier("study_2", "sample_1")), "AGE");
+        clinicalDataBinningModelCache.put(key, model, clinicalDataBinningModelCache.getGeneration());
+
+        clinicalDataBinningModelCache.evictStudy("study_3");
+        Assert.assertSame(model, clinicalDataBinningModelCache.getIfPresent(key));
+
+        clinicalDataBinningModelCache.evictStudy("study_2");
+        Assert.assertNull(clinicalDataBinningModelCache.getIfPresent(key));
+    }
+
+    @Test
+    public void keyWeightGrowsWithStudies() {
+        List<SampleIdentifier> sampleIdentifiers = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            sampleIdentifiers.add(sampleIdentifier("study_" + i, "sample_1"));
+        }
+
+        Assert.assertTrue(toKey(sampleIdentifiers, "AGE").getWeight() >
+            toKey(Arrays.asList(sampleIdentifier("study_1", "sample_1")), "AGE").getWeight());
+    }
+
+    private ClinicalDataBinningModelCache.Key toKey(List<SampleIdentifier> sampleIdentifiers, String attributeId) {
+        ClinicalDataBinFilter attribute = new ClinicalDataBinFilter();
+        attribute.setAttributeId(attributeId);
+        return clinicalDataBinningModelCache.toKey(clinicalDataBinningModelCache.toCohort(null, sampleIdentifiers),
+            attribute);
+    }
+
+    private SampleIdentifier sampleIdentifier(String studyId, String sampleId) {
+        SampleIdentifier sampleIdentifier = new SampleIdentifier();
+        sampleIdentifier.setStudyId(studyId);
+        sampleIdentifier.setSampleId(sampleId);
+        return sampleIdentifier;
+    }
+}
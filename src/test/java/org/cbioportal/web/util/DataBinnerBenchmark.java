@@ -0,0 +1,164 @@
+package org.cbioportal.web.util;
+
+import com.google.common.collect.Range;
+import org.cbioportal.model.Binnable;
+import org.cbioportal.model.ClinicalData;
+import org.cbioportal.model.DataBin;
+import org.cbioportal.web.parameter.ClinicalDataBinFilter;
+import org.cbioportal.web.parameter.ClinicalDataType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Binning of a numerical clinical attribute with some special and non-numerical values: the bins of all values and
+ * their counts for a filtered subset. Compares the former recount, which checked every value against every bin, with
+ * the binary search over the values parsed once.
+ *
+ * Not run by the unit tests. Run the main method with the test classpath after mvn test-compile, which generates
+ * the benchmark code.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DataBinnerBenchmark {
+
+    @Param({"100000"})
+    private int numberOfValues;
+
+    private final DataBinner dataBinner = new DataBinner();
+    private final DataBinHelper dataBinHelper = new DataBinHelper();
+    private final ClinicalDataBinFilter dataBinFilter = new ClinicalDataBinFilter();
+    private List<Binnable> unfilteredClinicalData;
+    private List<Binnable> filteredClinicalData;
+    private List<String> unfilteredIds;
+    private List<String> filteredIds;
+    private List<DataBin> dataBins;
+
+    @Setup
+    public void setUp() {
+        LinearDataBinner linearDataBinner = new LinearDataBinner();
+        ReflectionTestUtils.setField(linearDataBinner, "dataBinHelper", dataBinHelper);
+        LogScaleDataBinner logScaleDataBinner = new LogScaleDataBinner();
+        ReflectionTestUtils.setField(logScaleDataBinner, "dataBinHelper", dataBinHelper);
+        ScientificSmallDataBinner scientificSmallDataBinner = new ScientificSmallDataBinner();
+        ReflectionTestUtils.setField(scientificSmallDataBinner, "dataBinHelper", dataBinHelper);
+        DiscreteDataBinner discreteDataBinner = new DiscreteDataBinner();
+        ReflectionTestUtils.setField(discreteDataBinner, "dataBinHelper", dataBinHelper);
+        ReflectionTestUtils.setField(dataBinner, "dataBinHelper", dataBinHelper);
+        ReflectionTestUtils.setField(dataBinner, "linearDataBinner", linearDataBinner);
+        ReflectionTestUtils.setField(dataBinner, "logScaleDataBinner", logScaleDataBinner);
+        ReflectionTestUtils.setField(dataBinner, "scientificSmallDataBinner", scientificSmallDataBinner);
+        ReflectionTestUtils.setField(dataBinner, "discreteDataBinner", discreteDataBinner);
+        dataBinFilter.setAttributeId("AGE");
+
+        Random random = new Random(42);
+        unfilteredClinicalData = new ArrayList<>();
+        filteredClinicalData = new ArrayList<>();
+        unfilteredIds = new ArrayList<>();
+        filteredIds = new ArrayList<>();
+        for (int i = 0; i < numberOfValues; i++) {
+            String value;
+            double draw = random.nextDouble();
+            if (draw < 0.01) {
+                value = ">89";
+            } else if (draw < 0.02) {
+                value = "<18";
+            } else if (draw < 0.05) {
+                value = "NA";
+            } else if (draw < 0.06) {
+                value = "Unknown";
+            } else {
+                value = String.valueOf(Math.round((60 + random.nextGaussian() * 12) * 10) / 10.0);
+            }
+            ClinicalData clinicalData = new ClinicalData();
+            clinicalData.setStudyId("study_id");
+            clinicalData.setSampleId("sample_" + i);
+            clinicalData.setPatientId("patient_" + i);
+            clinicalData.setAttrId("AGE");
+            clinicalData.setAttrValue(value);
+            unfilteredClinicalData.add(clinicalData);
+            unfilteredIds.add("study_idsample_" + i);
+            if (i % 3 == 0) {
+                filteredClinicalData.add(clinicalData);
+                filteredIds.add("study_idsample_" + i);
+            }
+        }
+        dataBins = dataBinner.calculateDataBins(dataBinFilter, ClinicalDataType.SAMPLE, unfilteredClinicalData,
+            unfilteredIds);
+    }
+
+    @Benchmark
+    public List<DataBin> calculateDataBins() {
+        return dataBinner.calculateDataBins(dataBinFilter, ClinicalDataType.SAMPLE, unfilteredClinicalData,
+            unfilteredIds);
+    }
+
+    @Benchmark
+    public List<DataBin> recalcBinCount() {
+        return dataBinner.recalcBinCount(dataBins, ClinicalDataType.SAMPLE, filteredClinicalData, filteredIds);
+    }
+
+    @Benchmark
+    public List<DataBin> recalcBinCountPerBinScan() {
+        // the implementation before the values were parsed once and searched
+        List<BigDecimal> numericalValues = dataBinner.filterNumericalValues(filteredClinicalData);
+        List<String> nonNumericalValues = dataBinner.filterNonNumericalValues(filteredClinicalData);
+        List<Range<BigDecimal>> ranges = dataBinner.filterSpecialRanges(filteredClinicalData);
+
+        for (DataBin dataBin : dataBins) {
+            dataBin.setCount(0);
+            Range<BigDecimal> range = dataBinHelper.calcRange(dataBin);
+            if (range != null) {
+                for (BigDecimal value : numericalValues) {
+                    if (range.contains(value)) {
+                        dataBin.setCount(dataBin.getCount() + 1);
+                    }
+                }
+                for (Range<BigDecimal> r : ranges) {
+                    if (range.encloses(r)) {
+                        dataBin.setCount(dataBin.getCount() + 1);
+                    }
+                }
+            } else {
+                for (String value : nonNumericalValues) {
+                    if (value.equalsIgnoreCase(dataBin.getSpecialValue())) {
+                        dataBin.setCount(dataBin.getCount() + 1);
+                    }
+                }
+            }
+            if ("NA".equalsIgnoreCase(dataBin.getSpecialValue())) {
+                dataBin.setCount(dataBinner.countNAs(filteredClinicalData, ClinicalDataType.SAMPLE, filteredIds)
+                    .intValue());
+            }
+        }
+        return dataBins;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(DataBinnerBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+}
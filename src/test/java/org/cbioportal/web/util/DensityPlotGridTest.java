@@ -0,0 +1,56 @@
+package org.cbioportal.web.util;
+
+import org.cbioportal.model.DensityPlotBin;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+public class DensityPlotGridTest {
+
+    @Test
+    public void getNonEmptyBins() {
+        DensityPlotGrid grid = new DensityPlotGrid(0, 10, 2, 0, 4, 4);
+
+        Assert.assertTrue(grid.add(1, 0.5));
+        Assert.assertTrue(grid.add(3, 0.2));
+        // values equal to the end of an axis are in the last bin
+        Assert.assertTrue(grid.add(10, 4));
+        Assert.assertTrue(grid.add(6, 3.5));
+        Assert.assertFalse(grid.add(16, 1));
+        Assert.assertFalse(grid.add(-6, 1));
+
+        List<DensityPlotBin> bins = grid.getNonEmptyBins();
+        Assert.assertEquals(2, bins.size());
+
+        DensityPlotBin first = bins.get(0);
+        Assert.assertEquals(BigDecimal.valueOf(0.0), first.getBinX());
+        Assert.assertEquals(BigDecimal.valueOf(0.0), first.getBinY());
+        Assert.assertEquals(2, first.getCount().intValue());
+        Assert.assertEquals(BigDecimal.valueOf(1.0), first.getMinX());
+        Assert.assertEquals(BigDecimal.valueOf(3.0), first.getMaxX());
+        Assert.assertEquals(BigDecimal.valueOf(0.2), first.getMinY());
+        Assert.assertEquals(BigDecimal.valueOf(0.5), first.getMaxY());
+
+        DensityPlotBin last = bins.get(1);
+        Assert.assertEquals(BigDecimal.valueOf(5.0), last.getBinX());
+        Assert.assertEquals(BigDecimal.valueOf(3.0), last.getBinY());
+        Assert.assertEquals(2, last.getCount().intValue());
+        Assert.assertEquals(BigDecimal.valueOf(6.0), last.getMinX());
+        Assert.assertEquals(BigDecimal.valueOf(10.0), last.getMaxX());
+    }
+
+    @Test
+    public void getNonEmptyBinsOfSingleValue() {
+        DensityPlotGrid grid = new DensityPlotGrid(2, 2, 50, 1, 1, 50);
+
+        grid.add(2, 1);
+        grid.add(2, 1);
+
+        List<DensityPlotBin> bins = grid.getNonEmptyBins();
+        Assert.assertEquals(1, bins.size());
+        Assert.assertEquals(2, bins.get(0).getCount().intValue());
+        Assert.assertEquals(BigDecimal.valueOf(2.0), bins.get(0).getBinX());
+    }
+}
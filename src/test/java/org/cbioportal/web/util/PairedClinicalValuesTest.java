@@ -0,0 +1,60 @@
+package org.cbioportal.web.util;
+
+import org.cbioportal.model.ClinicalData;
+import org.cbioportal.model.Sample;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.DoubleUnaryOperator;
+
+public class PairedClinicalValuesTest {
+
+    @Test
+    public void pairSampleAndPatientValues() {
+        List<ClinicalData> clinicalData = Arrays.asList(
+            clinicalData("sample_1", "patient_1", "MUTATION_COUNT", "3"),
+            clinicalData("sample_2", "patient_1", "MUTATION_COUNT", "7"),
+            clinicalData("sample_3", "patient_2", "MUTATION_COUNT", "1"),
+            clinicalData("sample_4", "patient_3", "MUTATION_COUNT", "NA"),
+            clinicalData(null, "patient_1", "AGE", "50"),
+            clinicalData(null, "patient_3", "AGE", "60"));
+        List<Sample> samples = Arrays.asList(sample("sample_1", "patient_1"), sample("sample_2", "patient_1"),
+            sample("sample_3", "patient_2"), sample("sample_4", "patient_3"));
+
+        PairedClinicalValues values = PairedClinicalValues.pair(clinicalData, samples, "MUTATION_COUNT",
+            x -> Math.log(1 + x), DoubleUnaryOperator.identity());
+
+        // sample_3 has no age and the mutation count of sample_4 is not numerical
+        Assert.assertEquals(2, values.size());
+        Assert.assertArrayEquals(new double[]{Math.log(4), Math.log(8)}, values.getXValues(), 1e-12);
+        Assert.assertArrayEquals(new double[]{50, 50}, values.getYValues(), 0.0);
+    }
+
+    @Test
+    public void pairPatientWithoutSamples() {
+        List<ClinicalData> clinicalData = Arrays.asList(clinicalData(null, "patient_1", "AGE", "50"));
+
+        Assert.assertNull(PairedClinicalValues.pair(clinicalData, null, "MUTATION_COUNT",
+            DoubleUnaryOperator.identity(), DoubleUnaryOperator.identity()));
+    }
+
+    private ClinicalData clinicalData(String sampleId, String patientId, String attributeId, String value) {
+        ClinicalData clinicalData = new ClinicalData();
+        clinicalData.setStudyId("study_id");
+        clinicalData.setSampleId(sampleId);
+        clinicalData.setPatientId(patientId);
+        clinicalData.setAttrId(attributeId);
+        clinicalData.setAttrValue(value);
+        return clinicalData;
+    }
+
+    private Sample sample(String sampleId, String patientId) {
+        Sample sample = new Sample();
+        sample.setStableId(sampleId);
+        sample.setPatientStableId(patientId);
+        sample.setCancerStudyIdentifier("study_id");
+        return sample;
+    }
+}
@@ -0,0 +1,125 @@
+package org.cbioportal.web.util;
+
+import org.cbioportal.model.Sample;
+import org.cbioportal.persistence.CacheEnabledConfig;
+import org.cbioportal.service.SampleService;
+import org.cbioportal.web.parameter.SampleIdentifier;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
+import java.util.List;
+
+@RunWith(MockitoJUnitRunner.class)
+public class SampleIndexCacheTest {
+
+    private static final String STUDY_ID = "study_id";
+
+    @InjectMocks
+    private SampleIndexCache sampleIndexCache;
+
+    @Mock
+    private SampleService sampleService;
+    @Mock
+    private CacheEnabledConfig cacheEnabledConfig;
+
+    @Test
+    public void getSampleIndexWithoutCaching() {
+        Mockito.when(cacheEnabledConfig.isEnabled()).thenReturn(false);
+        Mockito.when(sampleService.getAllSamplesInStudies(Arrays.asList(STUDY_ID), "ID", null, null, null, null))
+            .thenReturn(Arrays.asList(sample("sample_1"), sample("sample_2")));
+
+        sampleIndexCache.getSampleIndex(Arrays.asList(STUDY_ID));
+        SampleIndex sampleIndex = sampleIndexCache.getSampleIndex(Arrays.asList(STUDY_ID));
+
+        Assert.assertEquals(2, sampleIndex.size());
+        Mockito.verify(sampleService, Mockito.times(2))
+            .getAllSamplesInStudies(Arrays.asList(STUDY_ID), "ID", null, null, null, null);
+    }
+
+    @Test
+    public void getSampleIndexRetainsUntilEviction() {
+        Mockito.when(cacheEnabledConfig.isEnabled()).thenReturn(true);
+        Mockito.when(sampleService.getAllSamplesInStudies(Arrays.asList(STUDY_ID), "ID", null, null, null, null))
+            .thenReturn(Arrays.asList(sample("sample_1"), sample("sample_2")));
+
+        sampleIndexCache.getSampleIndex(Arrays.asList(STUDY_ID));
+        SampleIndex sampleIndex = sampleIndexCache.getSampleIndex(Arrays.asList(STUDY_ID, STUDY_ID));
+        Assert.assertEquals(1, sampleIndex.getStudySampleIndexes().size());
+        Mockito.verify(sampleService, Mockito.times(1))
+            .getAllSamplesInStudies(Arrays.asList(STUDY_ID), "ID", null, null, null, null);
+
+        sampleIndexCache.evictStudy(STUDY_ID);
+        sampleIndexCache.getSampleIndex(Arrays.asList(STUDY_ID));
+        Mockito.verify(sampleService, Mockito.times(2))
+            .getAllSamplesInStudies(Arrays.asList(STUDY_ID), "ID", null, null, null, null);
+    }
+
+    @Test
+    public void getSampleIdentifiersOfDeserializedBitmap() throws Exception {
+        Mockito.when(cacheEnabledConfig.isEnabled()).thenReturn(true);
+        Mockito.when(sampleService.getAllSamplesInStudies(Arrays.asList(STUDY_ID), "ID", null, null, null, null))
+            .thenReturn(Arrays.asList(sample("sample_1"), sample("sample_2"), sample("sample_3")));
+
+        SampleIndex sampleIndex = sampleIndexCache.getSampleIndex(Arrays.asList(STUDY_ID));
+        SampleBitmap sampleBitmap = deserialize(serialize(new SampleBitmap(sampleIndex, RoaringBitmap.bitmapOf(0, 2))));
+
+        List<SampleIdentifier> sampleIdentifiers = sampleIndexCache.getSampleIdentifiers(sampleBitmap);
+        Assert.assertEquals(2, sampleIdentifiers.size());
+        Assert.assertEquals("sample_1", sampleIdentifiers.get(0).getSampleId());
+        Assert.assertEquals("sample_3", sampleIdentifiers.get(1).getSampleId());
+
+        // the study got a sample more after the bitmap was computed
+        Mockito.when(sampleService.getAllSamplesInStudies(Arrays.asList(STUDY_ID), "ID", null, null, null, null))
+            .thenReturn(Arrays.asList(sample("sample_1"), sample("sample_2"), sample("sample_3"), sample("sample_4")));
+        sampleIndexCache.evictAll();
+        Assert.assertNull(sampleIndexCache.getSampleIdentifiers(sampleBitmap));
+    }
+
+    @Test
+    public void getSampleIdentifiersOfBitmapComputedBeforeReimport() throws Exception {
+        Mockito.when(cacheEnabledConfig.isEnabled()).thenReturn(true);
+        Mockito.when(sampleService.getAllSamplesInStudies(Arrays.asList(STUDY_ID), "ID", null, null, null, null))
+            .thenReturn(Arrays.asList(sample("sample_1"), sample("sample_2"), sample("sample_3")));
+
+        SampleIndex sampleIndex = sampleIndexCache.getSampleIndex(Arrays.asList(STUDY_ID));
+        SampleBitmap sampleBitmap = deserialize(serialize(new SampleBitmap(sampleIndex, RoaringBitmap.bitmapOf(0, 2))));
+
+        // the study was reimported with as many samples, but a different one at position 2
+        Mockito.when(sampleService.getAllSamplesInStudies(Arrays.asList(STUDY_ID), "ID", null, null, null, null))
+            .thenReturn(Arrays.asList(sample("sample_1"), sample("sample_2"), sample("sample_4")));
+        sampleIndexCache.evictAll();
+        Assert.assertNull(sampleIndexCache.getSampleIdentifiers(sampleBitmap));
+    }
+
+    private byte[] serialize(SampleBitmap sampleBitmap) throws Exception {
+        ByteArrayOutputStream byteOut = new ByteArrayOutputStream();
+        try (ObjectOutputStream objectOut = new ObjectOutputStream(byteOut)) {
+            objectOut.writeObject(sampleBitmap);
+        }
+        return byteOut.toByteArray();
+    }
+
+    private SampleBitmap deserialize(byte[] bytes) throws Exception {
+        try (ObjectInputStream objectIn = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            return (SampleBitmap) objectIn.readObject();
+        }
+    }
+
+    private Sample sample(String sampleId) {
+        Sample sample = new Sample();
+        sample.setCancerStudyIdentifier(STUDY_ID);
+        sample.setStableId(sampleId);
+        return sample;
+    }
+}
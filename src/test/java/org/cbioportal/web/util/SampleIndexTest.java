@@ -0,0 +1,72 @@
+package org.cbioportal.web.util;
+
+import org.cbioportal.model.Sample;
+import org.cbioportal.web.parameter.SampleIdentifier;
+import org.junit.Assert;
+import org.junit.Test;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+public class SampleIndexTest {
+
+    @Test
+    public void positionsAreDensePerStudy() {
+        SampleIndex sampleIndex = SampleIndex.of(Arrays.asList(
+            sample("study_1", "sample_1"), sample("study_2", "sample_1"), sample("study_1", "sample_2"),
+            sample("study_2", "sample_2"), sample("study_2", "sample_3")));
+
+        Assert.assertEquals(5, sampleIndex.size());
+        Assert.assertEquals(0, sampleIndex.getPosition("study_1", "sample_1"));
+        Assert.assertEquals(1, sampleIndex.getPosition("study_1", "sample_2"));
+        Assert.assertEquals(2, sampleIndex.getPosition("study_2", "sample_1"));
+        Assert.assertEquals(4, sampleIndex.getPosition("study_2", "sample_3"));
+        Assert.assertEquals(-1, sampleIndex.getPosition("study_1", "sample_3"));
+        Assert.assertEquals(-1, sampleIndex.getPosition("study_3", "sample_1"));
+    }
+
+    @Test
+    public void convertBetweenBitmapsAndSampleIdentifiers() {
+        SampleIndex sampleIndex = SampleIndex.of(Arrays.asList(
+            sample("study_1", "sample_1"), sample("study_1", "sample_2"), sample("study_2", "sample_1"),
+            sample("study_2", "sample_2")));
+
+        RoaringBitmap samples = sampleIndex.toBitmap(Arrays.asList(sampleIdentifier("study_2", "sample_2"),
+            sampleIdentifier("study_1", "sample_1"), sampleIdentifier("study_3", "sample_1")));
+        Assert.assertEquals(RoaringBitmap.bitmapOf(0, 3), samples);
+
+        List<SampleIdentifier> sampleIdentifiers = sampleIndex.toSampleIdentifiers(samples);
+        Assert.assertEquals(Arrays.asList(sampleIdentifier("study_1", "sample_1"),
+            sampleIdentifier("study_2", "sample_2")), sampleIdentifiers);
+
+        samples.andNot(RoaringBitmap.bitmapOf(0));
+        Assert.assertEquals(Arrays.asList("study_2"), sampleIndex.getStudyIds(samples));
+        Map<String, List<String>> sampleIdsByStudyId = sampleIndex.getSampleIdsByStudyId(sampleIndex.getAllSamples());
+        Assert.assertEquals(Arrays.asList("sample_1", "sample_2"), sampleIdsByStudyId.get("study_2"));
+    }
+
+    @Test
+    public void duplicateSamplesGetOnePosition() {
+        StudySampleIndex studySampleIndex = new StudySampleIndex("study_1",
+            Arrays.asList("sample_1", "sample_2", "sample_1"));
+
+        Assert.assertEquals(2, studySampleIndex.size());
+        Assert.assertEquals("sample_2", studySampleIndex.getSampleId(1));
+    }
+
+    private Sample sample(String studyId, String sampleId) {
+        Sample sample = new Sample();
+        sample.setCancerStudyIdentifier(studyId);
+        sample.setStableId(sampleId);
+        return sample;
+    }
+
+    private SampleIdentifier sampleIdentifier(String studyId, String sampleId) {
+        SampleIdentifier sampleIdentifier = new SampleIdentifier();
+        sampleIdentifier.setStudyId(studyId);
+        sampleIdentifier.setSampleId(sampleId);
+        return sampleIdentifier;
+    }
+}
@@ -0,0 +1,116 @@
+package org.cbioportal.web.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import org.cbioportal.model.CopyNumberSeg;
+import org.cbioportal.web.config.CustomObjectMapper;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+
+public class StreamingJsonResponseWriterTest {
+
+    private final StreamingJsonResponseWriter streamingJsonResponseWriter = new StreamingJsonResponseWriter();
+    private final ObjectMapper objectMapper = new CustomObjectMapper();
+
+    @Before
+    public void setUp() {
+        ReflectionTestUtils.setField(streamingJsonResponseWriter, "objectMapper", objectMapper);
+        ReflectionTestUtils.setField(streamingJsonResponseWriter, "enabled", true);
+    }
+
+    @Test
+    public void write() throws Exception {
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        streamingJsonResponseWriter.<CopyNumberSeg>write(response, consumer -> {
+            consumer.accept(segment("sample_1", 1.5));
+            consumer.accept(segment("sample_2", -0.5));
+        });
+
+        Assert.assertEquals(200, response.getStatus());
+        Assert.assertEquals(MediaType.APPLICATION_JSON_VALUE, response.getContentType());
+        CopyNumberSeg[] segments = objectMapper.readValue(response.getContentAsByteArray(), CopyNumberSeg[].class);
+        Assert.assertEquals(2, segments.length);
+        Assert.assertEquals("sample_1", segments[0].getSampleStableId());
+        Assert.assertEquals(-0.5, segments[1].getSegmentMean().doubleValue(), 0.0);
+    }
+
+    @Test
+    public void writeNothing() throws Exception {
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        streamingJsonResponseWriter.<CopyNumberSeg>write(response, consumer -> {});
+
+        Assert.assertEquals("[]", response.getContentAsString());
+    }
+
+    @Test(expected = IOException.class)
+    public void writeToClosedConnection() throws Exception {
+
+        MockHttpServletResponse response = new MockHttpServletResponse() {
+            @Override
+            public ServletOutputStream getOutputStream() {
+                return new ServletOutputStream() {
+                    @Override
+                    public boolean isReady() {
+                        return true;
+                    }
+
+                    @Override
+                    public void setWriteListener(WriteListener writeListener) {
+                    }
+
+                    @Override
+                    public void write(int b) throws IOException {
+                        throw new IOException("Broken pipe");
+                    }
+                };
+            }
+        };
+
+        // more than the generator buffers, so that the elements are written while they are produced
+        streamingJsonResponseWriter.<CopyNumberSeg>write(response, consumer -> {
+            for (int i = 0; i < 10000; i++) {
+                consumer.accept(segment("sample_" + i, i));
+            }
+        });
+    }
+
+    @Test
+    public void isStreamingRequest() {
+
+        Assert.assertTrue(streamingJsonResponseWriter.isStreamingRequest(request("/api/mutations/fetch")));
+        Assert.assertTrue(streamingJsonResponseWriter.isStreamingRequest(request("/clinical-data/fetch")));
+        Assert.assertFalse(streamingJsonResponseWriter.isStreamingRequest(request("/api/samples/fetch")));
+
+        ReflectionTestUtils.setField(streamingJsonResponseWriter, "enabled", false);
+        Assert.assertFalse(streamingJsonResponseWriter.isStreamingRequest(request("/api/mutations/fetch")));
+    }
+
+    private MockHttpServletRequest request(String path) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", path);
+        request.setServletPath(path);
+        return request;
+    }
+
+    private CopyNumberSeg segment(String sampleId, double segmentMean) {
+        CopyNumberSeg segment = new CopyNumberSeg();
+        segment.setSampleStableId(sampleId);
+        segment.setChr("1");
+        segment.setStart(1);
+        segment.setEnd(100);
+        segment.setSegmentMean(BigDecimal.valueOf(segmentMean));
+        return segment;
+    }
+}
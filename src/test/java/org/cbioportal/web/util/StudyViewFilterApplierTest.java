@@ -15,7 +15,9 @@ import org.cbioportal.model.MolecularProfileCaseIdentifier;
 import org.cbioportal.model.Mutation;
 import org.cbioportal.model.Patient;
 import org.cbioportal.model.Sample;
+import org.cbioportal.model.SampleList;
 import org.cbioportal.model.util.Select;
+import org.cbioportal.persistence.CacheEnabledConfig;
 import org.cbioportal.service.ClinicalAttributeService;
 import org.cbioportal.service.ClinicalDataService;
 import org.cbioportal.service.DiscreteCopyNumberService;
@@ -165,6 +167,12 @@ public class StudyViewFilterApplierTest {
     @InjectMocks
     private CustomDataFilterApplier customDataFilterApplier;
 
+    @Mock
+    private CacheEnabledConfig cacheEnabledConfig;
+    @Spy
+    @InjectMocks
+    private SampleIndexCache sampleIndexCache;
+
     @Before
     public void setup() {
         MockitoAnnotations.initMocks(this);
@@ -856,6 +864,35 @@ public class StudyViewFilterApplierTest {
         Assert.assertEquals(4, result.size());
     }
     
+    @Test
+    public void applyCaseListFilterWithSampleIndexCache() throws Exception {
+        when(cacheEnabledConfig.isEnabled()).thenReturn(true);
+        when(sampleService.getAllSamplesInStudies(Arrays.asList(STUDY_ID), "ID", null, null, null, null))
+            .thenReturn(Arrays.asList(createSample(SAMPLE_ID1), createSample(SAMPLE_ID2), createSample(SAMPLE_ID3),
+                createSample(SAMPLE_ID4)));
+
+        SampleList sampleList1 = new SampleList();
+        sampleList1.setStableId(STUDY_ID + "_cnaseq");
+        sampleList1.setCancerStudyIdentifier(STUDY_ID);
+        sampleList1.setSampleIds(Arrays.asList(SAMPLE_ID1, SAMPLE_ID2, SAMPLE_ID5));
+        SampleList sampleList2 = new SampleList();
+        sampleList2.setStableId(STUDY_ID + "_sequenced");
+        sampleList2.setCancerStudyIdentifier(STUDY_ID);
+        sampleList2.setSampleIds(Arrays.asList(SAMPLE_ID3));
+        when(sampleListService.getAllSampleListsInStudies(Arrays.asList(STUDY_ID), "DETAILED"))
+            .thenReturn(Arrays.asList(sampleList1, sampleList2));
+
+        StudyViewFilter studyViewFilter = new StudyViewFilter();
+        studyViewFilter.setSampleIdentifiers(Arrays.asList(createSampleIdentifier(SAMPLE_ID2),
+            createSampleIdentifier(SAMPLE_ID3), createSampleIdentifier(SAMPLE_ID4)));
+        studyViewFilter.setCaseLists(Arrays.asList(Arrays.asList("cnaseq", "sequenced")));
+
+        List<SampleIdentifier> result = studyViewFilterApplier.apply(studyViewFilter);
+
+        Assert.assertEquals(Arrays.asList(createSampleIdentifier(SAMPLE_ID2), createSampleIdentifier(SAMPLE_ID3)),
+            result);
+    }
+
     @Test
     public void applyNumericalCustomDataFilter() throws Exception {
         // Create samples: